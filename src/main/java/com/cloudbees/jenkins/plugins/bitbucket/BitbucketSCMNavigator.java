@@ -32,6 +32,7 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketTeam;
 import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpointProvider;
 import com.cloudbees.jenkins.plugins.bitbucket.client.repository.UserRoleInRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.avatars.BitbucketTeamAvatarMetadataAction;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.RateLimiter;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.BitbucketCloudEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.BitbucketApiUtils;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.MirrorListSupplier;
@@ -54,13 +55,18 @@ import hudson.model.Action;
 import hudson.model.Item;
 import hudson.model.TaskListener;
 import hudson.plugins.git.GitSCM;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import hudson.security.AccessControlled;
+import hudson.util.DaemonThreadFactory;
 import hudson.util.FormFillFailure;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
+import hudson.util.NamingThreadFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
@@ -68,6 +74,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import jenkins.authentication.tokens.api.AuthenticationTokens;
 import jenkins.model.Jenkins;
 import jenkins.plugins.git.traits.GitBrowserSCMSourceTrait;
@@ -91,6 +103,8 @@ import jenkins.scm.impl.UncategorizedSCMSourceCategory;
 import jenkins.scm.impl.form.NamedArrayList;
 import jenkins.scm.impl.trait.Discovery;
 import jenkins.scm.impl.trait.Selection;
+import jenkins.scm.impl.trait.WildcardSCMSourceFilterTrait;
+import jenkins.util.SystemProperties;
 import org.apache.commons.lang3.StringUtils;
 import org.jenkins.ui.icon.Icon;
 import org.jenkins.ui.icon.IconSet;
@@ -100,10 +114,13 @@ import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.interceptor.RequirePOST;
+import org.springframework.security.core.Authentication;
 
 import static com.cloudbees.jenkins.plugins.bitbucket.impl.util.BitbucketApiUtils.getFromBitbucket;
 
 public class BitbucketSCMNavigator extends SCMNavigator {
+    // number of repositories processed at the same time during an organisation scan, 1 processes them one by one
+    private static int parallelism = SystemProperties.getInteger("bitbucket.navigator.parallelism", 1);
 
     @NonNull
     private String serverUrl;
@@ -268,27 +285,141 @@ public class BitbucketSCMNavigator extends SCMNavigator {
 
             BitbucketAuthenticator authenticator = AuthenticationTokens.convert(BitbucketAuthenticator.authenticationContext(serverUrl), credentials);
 
+            // the name filter is applied by the request anyway, Bitbucket may use it to list fewer repositories
+            List<String> nameTerms = includedNameTerms(traits);
             try (BitbucketApi bitbucket = BitbucketApiFactory.newInstance(serverUrl, authenticator, repoOwner, projectKey, null)) {
                 BitbucketTeam team = bitbucket.getTeam();
                 if (team != null) {
                     // Navigate repositories of the team
                     listener.getLogger().format("Looking up repositories of team %s%n", repoOwner);
-                    request.withRepositories(bitbucket.getRepositories());
+                    request.withRepositories(bitbucket.getRepositories(null, nameTerms));
                 } else {
                     // Navigate the repositories of the repoOwner as a user
                     listener.getLogger().format("Looking up repositories of user %s%n", repoOwner);
-                    request.withRepositories(bitbucket.getRepositories(UserRoleInRepository.ADMIN));
+                    request.withRepositories(bitbucket.getRepositories(UserRoleInRepository.ADMIN, nameTerms));
                 }
             }
-            for (BitbucketRepository repo : request.repositories()) {
-                if (request.process(repo.getRepositoryName(), sourceFactory, null, witness)) {
-                    listener.getLogger().format(
-                            "%d repositories were processed (query completed)%n", witness.getCount()
-                    );
+            Collection<BitbucketRepository> repositories = request.repositories();
+            int width = parallelism;
+            boolean completed;
+            if (width > 1 && repositories.size() > 1) {
+                listener.getLogger().format("Processing %d repositories, %d at a time%n", repositories.size(), width);
+                completed = processConcurrently(request, repositories, width, sourceFactory, witness);
+            } else {
+                completed = false;
+                for (BitbucketRepository repo : repositories) {
+                    if (request.process(repo.getRepositoryName(), sourceFactory, null, witness)) {
+                        completed = true;
+                        break;
+                    }
+                }
+            }
+            if (completed) {
+                listener.getLogger().format("%d repositories were processed (query completed)%n", witness.getCount());
+            } else {
+                listener.getLogger().format("%d repositories were processed%n", witness.getCount());
+            }
+        }
+    }
+
+    /**
+     * Returns a part of the name of each repository included by the wildcard
+     * filter of the given traits.
+     *
+     * @return the longest literal part of each include pattern, an empty
+     *         list if any repository name may be included
+     */
+    @NonNull
+    /* package */ static List<String> includedNameTerms(@NonNull List<? extends SCMTrait<?>> traits) {
+        WildcardSCMSourceFilterTrait filter = SCMTrait.find(traits, WildcardSCMSourceFilterTrait.class);
+        if (filter == null) {
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String pattern : StringUtils.split(Util.fixNull(filter.getIncludes()))) {
+            String term = "";
+            for (String part : StringUtils.split(pattern, '*')) {
+                if (part.length() > term.length()) {
+                    term = part;
                 }
             }
-            listener.getLogger().format("%d repositories were processed%n", witness.getCount());
+            if (term.isEmpty()) {
+                // a pattern like * matches any name
+                return Collections.emptyList();
+            }
+            terms.add(term);
+        }
+        return terms;
+    }
+
+    /* for test purpose */ static void setParallelism(int parallelism) {
+        BitbucketSCMNavigator.parallelism = parallelism;
+    }
+
+    /**
+     * Processes the given repositories in parallel, while Bitbucket throttles
+     * the scan requests only one repository is processed at a time. The first
+     * failure stops the scan once the repositories in progress are done.
+     * <p>
+     * The request is shared by the threads: it only reads the repositories
+     * listed before and the witness counts the proposed repositories
+     * atomically. The observer gets a separate project observer for each
+     * repository, the observer of an organisation folder accepts projects
+     * completed by several threads as its child observer waits for a project
+     * that another thread is creating.
+     *
+     * @return {@code true} if the request has been completed before all
+     *         repositories were processed
+     */
+    private boolean processConcurrently(BitbucketSCMNavigatorRequest request,
+                                        Collection<BitbucketRepository> repositories,
+                                        int width,
+                                        SourceFactory sourceFactory,
+                                        WitnessImpl witness) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(width,
+                new NamingThreadFactory(new DaemonThreadFactory(), "BitbucketSCMNavigator.visitSources [" + serverUrl + " " + repoOwner + "]"));
+        Semaphore slots = new Semaphore(width);
+        AtomicBoolean completed = new AtomicBoolean();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Authentication authentication = Jenkins.getAuthentication2();
+        RateLimiter.Priority priority = RateLimiter.currentPriority();
+        try {
+            for (BitbucketRepository repo : repositories) {
+                // when the scan is throttled wait for all repositories in progress and go on with one at a time
+                int permits = RateLimiter.isThrottled(serverUrl, credentialsId, priority) ? width : 1;
+                slots.acquire(permits);
+                slots.release(permits - 1);
+                if (completed.get() || failure.get() != null) {
+                    slots.release();
+                    break;
+                }
+                executor.execute(() -> {
+                    try (ACLContext ctx = ACL.as2(authentication);
+                            RateLimiter.Scope scope = RateLimiter.prioritize(priority)) {
+                        if (request.process(repo.getRepositoryName(), sourceFactory, null, witness)) {
+                            completed.set(true);
+                        }
+                    } catch (IOException | InterruptedException | RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+            // wait for the repositories in progress
+            slots.acquire(width);
+        } finally {
+            executor.shutdownNow();
+        }
+        Exception e = failure.get();
+        if (e instanceof IOException ioe) {
+            throw ioe;
+        } else if (e instanceof InterruptedException ie) {
+            throw ie;
+        } else if (e instanceof RuntimeException re) {
+            throw re;
         }
+        return completed.get();
     }
 
     @NonNull
@@ -561,7 +692,7 @@ public class BitbucketSCMNavigator extends SCMNavigator {
     }
 
     private static class WitnessImpl implements SCMNavigatorRequest.Witness {
-        private int count;
+        private final AtomicInteger count = new AtomicInteger();
 
         private final BitbucketSCMNavigatorRequest request;
         private final TaskListener listener;
@@ -575,16 +706,17 @@ public class BitbucketSCMNavigator extends SCMNavigator {
         public void record(@NonNull String name, boolean isMatch) {
             BitbucketRepository repository = this.request.getBitbucketRepository(name);
 
+            // a whole line for each repository, they may be recorded concurrently
             if (isMatch) {
                 listener.getLogger().format("Proposing %s%n", repository.getFullName());
-                count++;
+                count.incrementAndGet();
             } else {
                 listener.getLogger().format("Ignoring %s%n", repository.getFullName());
             }
         }
 
         public int getCount() {
-            return count;
+            return count.get();
         }
     }
 
@@ -43,6 +43,8 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpointPro
 import com.cloudbees.jenkins.plugins.bitbucket.client.repository.UserRoleInRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketEndpointConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.avatars.BitbucketRepoAvatarMetadataAction;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.RateLimiter;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketAuthenticatorCache;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.BitbucketCloudEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.extension.BitbucketEnvVarExtension;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.extension.GitClientAuthenticatorExtension;
@@ -51,7 +53,9 @@ import com.cloudbees.jenkins.plugins.bitbucket.impl.util.BitbucketApiUtils.Bitbu
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.DateUtils;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.MirrorListSupplier;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.HeadsSnapshot;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.BitbucketServerAPIClient;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.branch.BitbucketServerBranch;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketServerRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.trait.BranchDiscoveryTrait;
 import com.cloudbees.jenkins.plugins.bitbucket.trait.ForkPullRequestDiscoveryTrait;
@@ -79,11 +83,14 @@ import hudson.util.FormFillFailure;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -94,9 +101,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import jenkins.authentication.tokens.api.AuthenticationTokens;
 import jenkins.model.Jenkins;
 import jenkins.plugins.git.GitTagSCMHead;
 import jenkins.plugins.git.traits.GitBrowserSCMSourceTrait;
@@ -126,6 +133,7 @@ import jenkins.scm.impl.UncategorizedSCMHeadCategory;
 import jenkins.scm.impl.form.NamedArrayList;
 import jenkins.scm.impl.trait.Discovery;
 import jenkins.scm.impl.trait.Selection;
+import jenkins.util.SystemProperties;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
 import org.eclipse.jgit.lib.Constants;
@@ -151,6 +159,8 @@ public class BitbucketSCMSource extends SCMSource {
     private static final Logger LOGGER = Logger.getLogger(BitbucketSCMSource.class.getName());
     private static final String CLOUD_REPO_TEMPLATE = "{/owner,repo}";
     private static final String SERVER_REPO_TEMPLATE = "/projects{/owner}/repos{/repo}";
+    // number of branches or tags whose head commits are resolved in advance while they are processed
+    private static final int COMMIT_PREFETCH_WINDOW = SystemProperties.getInteger("bitbucket.commit.prefetch.window", 50);
 
     /** How long to delay events received from Bitbucket in order to allow the API caches to sync. */
     private static /*mostly final*/ int eventDelaySeconds =
@@ -217,6 +227,11 @@ public class BitbucketSCMSource extends SCMSource {
      */
     @CheckForNull
     private transient List<BitbucketHref> mirrorCloneLinks = null;
+    /**
+     * The repository metadata of the running indexing.
+     */
+    @CheckForNull
+    private transient ScanMetadataContext scanMetadata;
 
     /**
      * Constructor.
@@ -318,10 +333,27 @@ public class BitbucketSCMSource extends SCMSource {
         return BitbucketApiFactory.newInstance(getServerUrl(), authenticator(), repoOwner, null, repository);
     }
 
+    /**
+     * Opens the repository metadata shared by the operations of the running
+     * indexing, or of a new one if none is running.
+     *
+     * @param refresh {@code true} to not reuse the metadata of an indexing
+     *        that has already completed
+     * @return the scope to close once the operation has completed
+     */
+    private synchronized ScanMetadataContext.Scope openScanMetadata(boolean refresh) {
+        ScanMetadataContext.Scope scope = refresh || scanMetadata == null ? null : scanMetadata.open();
+        if (scope == null) {
+            scanMetadata = new ScanMetadataContext(this::buildBitbucketClient);
+            scope = scanMetadata.open();
+        }
+        return scope;
+    }
+
     @Override
     public void afterSave() {
-        try (BitbucketApi client = buildBitbucketClient()) {
-            gatherPrimaryCloneLinks(client);
+        try (ScanMetadataContext.Scope metadata = openScanMetadata(true)) {
+            gatherPrimaryCloneLinks(metadata.getRepository());
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE,
                     "Could not determine clone links of " + getRepoOwner() + "/" + getRepository() +
@@ -329,8 +361,7 @@ public class BitbucketSCMSource extends SCMSource {
         }
     }
 
-    private void gatherPrimaryCloneLinks(@NonNull BitbucketApi apiClient) throws IOException {
-        BitbucketRepository r = apiClient.getRepository();
+    private void gatherPrimaryCloneLinks(@NonNull BitbucketRepository r) {
         Map<String, List<BitbucketHref>> links = r.getLinks();
         if (links != null && links.containsKey("clone")) {
             setPrimaryCloneLinks(links.get("clone"));
@@ -341,7 +372,10 @@ public class BitbucketSCMSource extends SCMSource {
     protected void retrieve(@CheckForNull SCMSourceCriteria criteria, @NonNull SCMHeadObserver observer,
                             @CheckForNull SCMHeadEvent<?> event, @NonNull TaskListener listener)
             throws IOException, InterruptedException {
-        try (BitbucketSCMSourceRequest request = new BitbucketSCMSourceContext(criteria, observer)
+        // requests triggered by a webhook are served before those of an indexing
+        try (RateLimiter.Scope scope = RateLimiter.prioritize(event != null ? RateLimiter.Priority.EVENT : RateLimiter.currentPriority());
+                ScanMetadataContext.Scope metadata = openScanMetadata(false);
+                BitbucketSCMSourceRequest request = new BitbucketSCMSourceContext(criteria, observer)
                 .withTraits(traits)
                 .newRequest(this, listener)) {
             StandardCredentials scanCredentials = credentials();
@@ -352,12 +386,33 @@ public class BitbucketSCMSource extends SCMSource {
                 listener.getLogger().format("Connecting to %s using %s%n", getServerUrl(),
                         CredentialsNameProvider.name(scanCredentials));
             }
-            gatherPrimaryCloneLinks(buildBitbucketClient());
+            gatherPrimaryCloneLinks(metadata.getRepository());
 
             // populate the request with its data sources
             if (request.isFetchPRs() && event instanceof HasPullRequests hasPrEvent) {
                 request.setPullRequests(getBitbucketPullRequestsFromEvent(hasPrEvent, listener));
             }
+            HeadsSnapshot snapshot = HeadsSnapshot.of(this);
+            boolean incremental = event == null && snapshot != null && snapshot.isUpToDate();
+            if (incremental) {
+                // webhooks have kept branches and tags up to date since the last full listing
+                List<BitbucketBranch> branches = snapshot.getBranches(request::resolveCommit);
+                if (request.isFetchBranches() && branches != null) {
+                    request.setBranches(branches);
+                }
+                List<BitbucketBranch> tags = snapshot.getTags(request::resolveCommit);
+                if (request.isFetchTags() && tags != null) {
+                    request.setTags(tags);
+                }
+                listener.getLogger().format("Using branches and tags received by webhooks since the full listing of %s%n",
+                        snapshot.getLastFullListing());
+            }
+            if (snapshot != null && event == null && !incremental) {
+                // the listing is read again to update the snapshot
+                request.retainHeads();
+            }
+            int snapshotVersion = snapshot != null ? snapshot.getVersion() : 0;
+            long startedAt = System.currentTimeMillis();
             // now server the request
             if (request.isFetchPRs() && !request.isComplete()) {
                 // Search pull requests
@@ -371,6 +426,17 @@ public class BitbucketSCMSource extends SCMSource {
                 // Search tags
                 retrieveTags(request);
             }
+
+            if (snapshot != null) {
+                if (event != null) {
+                    snapshot.apply(event.heads(this));
+                } else if (!incremental && !request.isComplete()) {
+                    // all branches and tags have been listed, iterate them again does not request them to Bitbucket
+                    snapshot.update(snapshotVersion, startedAt,
+                            request.isFetchBranches() ? request.getBranches() : null,
+                            request.isFetchTags() ? request.getTags() : null);
+                }
+            }
         }
     }
 
@@ -396,14 +462,25 @@ public class BitbucketSCMSource extends SCMSource {
         class Skip extends IOException {
         }
 
-        try (final BitbucketApi originClient = buildBitbucketClient()) {
-            if (request.isSkipPublicPRs() && !originClient.isPrivate()) {
+        try (ScanMetadataContext.Scope metadata = openScanMetadata(false)) {
+            if (request.isSkipPublicPRs() && !metadata.getRepository().isPrivate()) {
                 request.listener().getLogger().printf("Skipping pull requests for %s (public repository)%n", fullName);
                 return;
             }
         }
 
         request.listener().getLogger().printf("Looking up %s for pull requests%n", fullName);
+        // the details of source and target commits are resolved later by the commit closure of each branch
+        List<String> hashes = new ArrayList<>();
+        for (BitbucketPullRequest pull : request.getPullRequests()) {
+            for (BitbucketBranch branch : new BitbucketBranch[] { pull.getSource().getBranch(), pull.getDestination().getBranch() }) {
+                if (branch != null) {
+                    hashes.add(branch.getRawNode());
+                }
+            }
+        }
+        request.prefetchCommits(hashes);
+
         final Set<String> livePRs = new HashSet<>();
         int count = 0;
         Map<Boolean, Set<ChangeRequestCheckoutStrategy>> strategies = request.getPRStrategies();
@@ -511,14 +588,22 @@ public class BitbucketSCMSource extends SCMSource {
         request.listener().getLogger().println("Looking up " + fullName + " for branches");
 
         int count = 0;
-        for (final BitbucketBranch branch : request.getBranches()) {
-            request.listener().getLogger().println("Checking branch " + branch.getName() + " from " + fullName);
-            count++;
-            BranchSCMHead head = new BranchSCMHead(branch.getName());
-            if (request.process(head, (IntermediateLambda<BitbucketCommit>) () -> new BranchHeadCommit(branch))) {
-                request.listener().getLogger().format("%n  %d branches were processed (query completed)%n", count);
-                return;
+        try {
+            // Data Center returns the details of the head commit in the branch listing only when supported
+            CommitPrefetchWindow branches = new CommitPrefetchWindow(request, request.iterateBranches(),
+                    branch -> new BranchSCMHead(branch.getName()), !BitbucketApiUtils.isCloud(getServerUrl()));
+            while (branches.hasNext()) {
+                final BitbucketBranch branch = branches.next();
+                request.listener().getLogger().println("Checking branch " + branch.getName() + " from " + fullName);
+                count++;
+                BranchSCMHead head = new BranchSCMHead(branch.getName());
+                if (request.process(head, (IntermediateLambda<BitbucketCommit>) () -> new BranchHeadCommit(branch))) {
+                    request.listener().getLogger().format("%n  %d branches were processed (query completed)%n", count);
+                    return;
+                }
             }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
         request.listener().getLogger().format("%n  %d branches were processed%n", count);
     }
@@ -529,18 +614,83 @@ public class BitbucketSCMSource extends SCMSource {
         request.listener().getLogger().println("Looking up " + fullName + " for tags");
 
         int count = 0;
-        for (final BitbucketBranch tag : request.getTags()) {
-            request.listener().getLogger().println("Checking tag " + tag.getName() + " from " + fullName);
-            count++;
-            BitbucketTagSCMHead head = new BitbucketTagSCMHead(tag.getName(), tag.getDateMillis());
-            if (request.process(head, tag::getRawNode)) {
-                request.listener().getLogger().format("%n  %d tags were processed (query completed)%n", count);
-                return;
+        try {
+            // head filters match the tag name, the date is not needed here
+            CommitPrefetchWindow tags = new CommitPrefetchWindow(request, request.iterateTags(),
+                    tag -> new BitbucketTagSCMHead(tag.getName(), 0L), true);
+            while (tags.hasNext()) {
+                final BitbucketBranch tag = tags.next();
+                request.listener().getLogger().println("Checking tag " + tag.getName() + " from " + fullName);
+                count++;
+                BitbucketTagSCMHead head = new BitbucketTagSCMHead(tag.getName(), tag.getDateMillis());
+                // the head commit is requested only when the listing has not provided its details
+                boolean completed = hasHeadCommitInfo(tag)
+                        ? request.process(head, (IntermediateLambda<BitbucketCommit>) () -> new BranchHeadCommit(tag))
+                        : request.process(head, tag::getRawNode);
+                if (completed) {
+                    request.listener().getLogger().format("%n  %d tags were processed (query completed)%n", count);
+                    return;
+                }
             }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
         request.listener().getLogger().format("%n  %d tags were processed%n", count);
     }
 
+    private static boolean hasHeadCommitInfo(BitbucketBranch branch) {
+        return branch instanceof BitbucketServerBranch serverBranch && serverBranch.hasHeadCommitInfo()
+                || branch instanceof HeadsSnapshot.SnapshotBranch snapshotBranch && snapshotBranch.hasHeadCommitInfo();
+    }
+
+    /**
+     * Resolves in advance the head commits of the next branches or tags while
+     * they are processed, a window at a time. The listing is read only through
+     * this window and ahead of the processed heads at most by the window size,
+     * so a request that completes early does not fetch the remaining pages.
+     */
+    private static final class CommitPrefetchWindow {
+        private final BitbucketSCMSourceRequest request;
+        private final Iterator<BitbucketBranch> refs;
+        private final Function<BitbucketBranch, SCMHead> toHead;
+        private final boolean prefetch;
+        // branches or tags read from the listing and not yet processed
+        private final Deque<BitbucketBranch> window = new ArrayDeque<>();
+
+        CommitPrefetchWindow(BitbucketSCMSourceRequest request, Iterable<BitbucketBranch> refs,
+                             Function<BitbucketBranch, SCMHead> toHead, boolean prefetch) {
+            this.request = request;
+            this.refs = refs.iterator();
+            this.toHead = toHead;
+            this.prefetch = prefetch;
+        }
+
+        boolean hasNext() {
+            return !window.isEmpty() || refs.hasNext();
+        }
+
+        /**
+         * Returns the next branch or tag to process.
+         */
+        BitbucketBranch next() throws IOException, InterruptedException {
+            if (!prefetch) {
+                return refs.next();
+            }
+            if (window.isEmpty()) {
+                List<String> hashes = new ArrayList<>();
+                while (window.size() < Math.max(1, COMMIT_PREFETCH_WINDOW) && refs.hasNext()) {
+                    BitbucketBranch ref = refs.next();
+                    window.add(ref);
+                    if (!hasHeadCommitInfo(ref) && !request.isExcluded(toHead.apply(ref))) {
+                        hashes.add(ref.getRawNode());
+                    }
+                }
+                request.prefetchCommits(hashes);
+            }
+            return window.remove();
+        }
+    }
+
     @Override
     protected SCMRevision retrieve(SCMHead head, TaskListener listener) throws IOException, InterruptedException {
         try (BitbucketApi client = buildBitbucketClient()) {
@@ -715,32 +865,34 @@ public class BitbucketSCMSource extends SCMSource {
 
     @Override
     public SCM build(@NonNull SCMHead head, @CheckForNull SCMRevision revision) {
-        initCloneLinks();
-
-        SSHCheckoutTrait sshTrait = SCMTrait.find(traits, SSHCheckoutTrait.class);
-        String checkoutCredentialsId = sshTrait != null ? sshTrait.getCredentialsId() : credentialsId;
-
-        BitbucketGitSCMBuilder scmBuilder = new BitbucketGitSCMBuilder(this, head, revision, checkoutCredentialsId)
-                .withExtension(new BitbucketEnvVarExtension(getRepoOwner(), getRepository(), getProjectKey(), getServerUrl()))
-                .withCloneLinks(primaryCloneLinks, mirrorCloneLinks)
-                .withTraits(traits);
-
-        // checkoutURL must be calculated after set withCloneLinks and credentials
-        String checkoutURL = scmBuilder.remote();
-        String scmOwner = Optional.ofNullable(getOwner())
-                .map(SCMSourceOwner::getFullName)
-                .orElse(null);
-        return scmBuilder
-                .withExtension(new GitClientAuthenticatorExtension(checkoutURL, serverUrl, scmOwner, sshTrait != null ? null : checkoutCredentialsId))
-                .build();
+        try (ScanMetadataContext.Scope metadata = openScanMetadata(false)) {
+            initCloneLinks(metadata);
+
+            SSHCheckoutTrait sshTrait = SCMTrait.find(traits, SSHCheckoutTrait.class);
+            String checkoutCredentialsId = sshTrait != null ? sshTrait.getCredentialsId() : credentialsId;
+
+            BitbucketGitSCMBuilder scmBuilder = new BitbucketGitSCMBuilder(this, head, revision, checkoutCredentialsId)
+                    .withExtension(new BitbucketEnvVarExtension(getRepoOwner(), getRepository(), getProjectKey(), getServerUrl()))
+                    .withCloneLinks(primaryCloneLinks, mirrorCloneLinks)
+                    .withTraits(traits);
+
+            // checkoutURL must be calculated after set withCloneLinks and credentials
+            String checkoutURL = scmBuilder.remote();
+            String scmOwner = Optional.ofNullable(getOwner())
+                    .map(SCMSourceOwner::getFullName)
+                    .orElse(null);
+            return scmBuilder
+                    .withExtension(new GitClientAuthenticatorExtension(checkoutURL, serverUrl, scmOwner, sshTrait != null ? null : checkoutCredentialsId))
+                    .build();
+        }
     }
 
     @CheckForNull
     @Restricted(ProtectedExternally.class)
     protected String getProjectKey() {
         String projectKey = null;
-        try {
-            BitbucketProject project = buildBitbucketClient().getRepository().getProject();
+        try (ScanMetadataContext.Scope metadata = openScanMetadata(false)) {
+            BitbucketProject project = metadata.getRepository().getProject();
             if (project != null) {
                 projectKey = project.getKey();
             }
@@ -801,7 +953,7 @@ public class BitbucketSCMSource extends SCMSource {
 
     @CheckForNull
     /* package */ BitbucketAuthenticator authenticator() {
-        return AuthenticationTokens.convert(BitbucketAuthenticator.authenticationContext(getServerUrl()), credentials());
+        return BitbucketAuthenticatorCache.get(getOwner(), getServerUrl(), getCredentialsId());
     }
 
     @NonNull
@@ -811,11 +963,12 @@ public class BitbucketSCMSource extends SCMSource {
             throws IOException, InterruptedException {
         // TODO when we have support for trusted events, use the details from event if event was from trusted source
         List<Action> result = new ArrayList<>();
-        try (BitbucketApi client = buildBitbucketClient()) {
-            gatherPrimaryCloneLinks(client);
-            BitbucketRepository repo = client.getRepository();
+        // an event may have changed the repository, like its default branch
+        try (ScanMetadataContext.Scope metadata = openScanMetadata(event != null)) {
+            BitbucketRepository repo = metadata.getRepository();
+            gatherPrimaryCloneLinks(repo);
             result.add(new BitbucketRepoAvatarMetadataAction(showAvatar() ? repo : null));
-            String defaultBranch = client.getDefaultBranch();
+            String defaultBranch = metadata.getDefaultBranch();
             if (StringUtils.isNotBlank(defaultBranch)) {
                 result.add(new BitbucketDefaultBranch(repoOwner, repository, defaultBranch));
             }
@@ -954,24 +1107,20 @@ public class BitbucketSCMSource extends SCMSource {
         BitbucketSCMSource.eventDelaySeconds = Math.min(300, Math.max(0, eventDelaySeconds));
     }
 
-    private void initCloneLinks() {
+    private void initCloneLinks(ScanMetadataContext.Scope metadata) {
         if (primaryCloneLinks == null) {
-            BitbucketApi bitbucket = buildBitbucketClient();
-            initPrimaryCloneLinks(bitbucket);
-            if (mirrorId != null && mirrorCloneLinks == null) {
-                initMirrorCloneLinks((BitbucketServerAPIClient) bitbucket, mirrorId);
-            }
+            initPrimaryCloneLinks(metadata);
         }
         if (mirrorId != null && mirrorCloneLinks == null) {
-            BitbucketApi bitbucket = buildBitbucketClient();
-            initMirrorCloneLinks((BitbucketServerAPIClient) bitbucket, mirrorId);
+            initMirrorCloneLinks(metadata, mirrorId);
         }
     }
 
-    private void initMirrorCloneLinks(BitbucketServerAPIClient bitbucket, String mirrorIdLocal) {
+    private void initMirrorCloneLinks(ScanMetadataContext.Scope metadata, String mirrorIdLocal) {
         try {
             // Mirrors are supported only by Bitbucket Server
-            BitbucketServerRepository r = (BitbucketServerRepository) bitbucket.getRepository();
+            BitbucketServerAPIClient bitbucket = (BitbucketServerAPIClient) metadata.getClient();
+            BitbucketServerRepository r = (BitbucketServerRepository) metadata.getRepository();
             List<BitbucketMirroredRepositoryDescriptor> mirrors = bitbucket.getMirrors(r.getId());
             BitbucketMirroredRepositoryDescriptor mirroredRepositoryDescriptor = mirrors.stream()
                 .filter(it -> mirrorIdLocal.equals(it.getMirrorServer().getId()))
@@ -1012,9 +1161,9 @@ public class BitbucketSCMSource extends SCMSource {
         }
     }
 
-    private void initPrimaryCloneLinks(BitbucketApi bitbucket) {
+    private void initPrimaryCloneLinks(ScanMetadataContext.Scope metadata) {
         try {
-            BitbucketRepository r = bitbucket.getRepository();
+            BitbucketRepository r = metadata.getRepository();
             List<BitbucketHref> cloneLinks = r.getCloneLinks();
             if (cloneLinks.isEmpty()) {
                 throw new IllegalStateException("There is no clone links");
@@ -28,6 +28,10 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBranch;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCommit;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPullRequest;
 import com.cloudbees.jenkins.plugins.bitbucket.filesystem.BitbucketSCMFile;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.AbstractBitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.BitbucketPagedApi;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.PagedIterable;
+import com.cloudbees.jenkins.plugins.bitbucket.trait.DiscardOldBranchTrait.ExcludeOldSCMHeadBranch;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -35,6 +39,8 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Util;
 import hudson.model.TaskListener;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
@@ -53,6 +59,8 @@ import jenkins.scm.api.SCMRevision;
 import jenkins.scm.api.SCMSourceCriteria.Probe;
 import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
 import jenkins.scm.api.trait.SCMSourceRequest;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 /**
  * The {@link SCMSourceRequest} for bitbucket.
@@ -276,6 +284,11 @@ public class BitbucketSCMSourceRequest extends SCMSourceRequest {
      */
     @CheckForNull
     private Iterable<BitbucketBranch> tags;
+    /**
+     * Whether the branches and tags listed are read more than once, in this
+     * case the values fetched are kept in memory for the whole request.
+     */
+    private boolean retainHeads;
 
     /**
      * Constructor.
@@ -289,6 +302,8 @@ public class BitbucketSCMSourceRequest extends SCMSourceRequest {
                                         @CheckForNull TaskListener listener) {
         super(source, context, listener);
         this.source = source;
+        // this filter looks up the branch details for each head
+        retainHeads = context.filters().stream().anyMatch(ExcludeOldSCMHeadBranch.class::isInstance);
         fetchBranches = context.wantBranches();
         fetchTags = context.wantTags();
         fetchOriginPRs = context.wantOriginPRs();
@@ -525,6 +540,31 @@ public class BitbucketSCMSourceRequest extends SCMSourceRequest {
         return pullRequestData.get(id);
     }
 
+    // a lazy listing is collected in a list, so that iterate the result again does not request it to Bitbucket
+    private static <T> Iterable<T> fetchAll(Iterable<T> values) throws IOException {
+        if (values instanceof PagedIterable<T> pagedValues) {
+            return pagedValues.toList();
+        }
+        try {
+            values.forEach(value -> {
+                // fetch all pages
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return values;
+    }
+
+    /**
+     * Notifies that the branches and tags will be read again after they have
+     * been processed, so the values fetched from Bitbucket are kept instead of
+     * requesting the listing again.
+     */
+    @Restricted(NoExternalUse.class)
+    public final void retainHeads() {
+        retainHeads = true;
+    }
+
     private final BitbucketApi getBitbucketApiClient() {
         if (api == null) {
             api = source.buildBitbucketClient();
@@ -533,6 +573,34 @@ public class BitbucketSCMSourceRequest extends SCMSourceRequest {
         return api;
     }
 
+    /**
+     * Resolves concurrently the given commits, so that the heads processed
+     * later by this request do not wait for Bitbucket one by one to get the
+     * details of their commit.
+     *
+     * @param hashes of the commits that will be processed
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    final void prefetchCommits(@NonNull Collection<String> hashes) throws InterruptedException {
+        if (getBitbucketApiClient() instanceof AbstractBitbucketApi client) {
+            client.prefetchCommits(hashes);
+        }
+    }
+
+    /**
+     * Resolves the details of a commit with the client of this request, so
+     * that commits already resolved or prefetched are not requested again.
+     *
+     * @param hash of the commit
+     * @return the commit details
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    @CheckForNull
+    final BitbucketCommit resolveCommit(@NonNull String hash) throws IOException, InterruptedException {
+        return getBitbucketApiClient().resolveCommit(hash);
+    }
+
     /**
      * Provides the requests with the branch details.
      *
@@ -550,11 +618,34 @@ public class BitbucketSCMSourceRequest extends SCMSourceRequest {
      * @throws IOException if there was a network communications error.
      * @throws InterruptedException if interrupted while waiting on remote communications.
      */
-    @SuppressWarnings("unchecked")
     @NonNull
     public final Iterable<BitbucketBranch> getBranches() throws IOException, InterruptedException {
+        branches = fetchAll(iterateBranches());
+        return branches;
+    }
+
+    /**
+     * Lazy variant of {@link #getBranches()}, the details could be fetched
+     * while iterating, in this case communication errors are thrown as
+     * {@link UncheckedIOException}.
+     *
+     * @return the branch details (may be empty)
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    @SuppressWarnings("unchecked")
+    @Restricted(NoExternalUse.class)
+    @NonNull
+    public final Iterable<BitbucketBranch> iterateBranches() throws IOException, InterruptedException {
         if (branches == null) {
-            branches = (Iterable<BitbucketBranch>) getBitbucketApiClient().getBranches();
+            BitbucketApi client = getBitbucketApiClient();
+            if (client instanceof BitbucketPagedApi pagedClient) {
+                // pages are requested only while branches are consumed
+                PagedIterable<BitbucketBranch> pages = (PagedIterable<BitbucketBranch>) pagedClient.iterateBranches();
+                branches = retainHeads ? pages.cached() : pages;
+            } else {
+                branches = (Iterable<BitbucketBranch>) client.getBranches();
+            }
         }
         return Util.fixNull(branches);
     }
@@ -576,11 +667,34 @@ public class BitbucketSCMSourceRequest extends SCMSourceRequest {
      * @throws IOException if there was a network communications error.
      * @throws InterruptedException if interrupted while waiting on remote communications.
      */
-    @SuppressWarnings("unchecked")
     @NonNull
     public final Iterable<BitbucketBranch> getTags() throws IOException, InterruptedException {
+        tags = fetchAll(iterateTags());
+        return tags;
+    }
+
+    /**
+     * Lazy variant of {@link #getTags()}, the details could be fetched while
+     * iterating, in this case communication errors are thrown as
+     * {@link UncheckedIOException}.
+     *
+     * @return the tag details (may be empty)
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    @SuppressWarnings("unchecked")
+    @Restricted(NoExternalUse.class)
+    @NonNull
+    public final Iterable<BitbucketBranch> iterateTags() throws IOException, InterruptedException {
         if (tags == null) {
-            tags = (Iterable<BitbucketBranch>) getBitbucketApiClient().getTags();
+            BitbucketApi client = getBitbucketApiClient();
+            if (client instanceof BitbucketPagedApi pagedClient) {
+                // pages are requested only while tags are consumed
+                PagedIterable<BitbucketBranch> pages = (PagedIterable<BitbucketBranch>) pagedClient.iterateTags();
+                tags = retainHeads ? pages.cached() : pages;
+            } else {
+                tags = (Iterable<BitbucketBranch>) client.getTags();
+            }
         }
         return Util.fixNull(tags);
     }
@@ -0,0 +1,174 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepository;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+
+/**
+ * The repository metadata shared by the operations of a
+ * {@link BitbucketSCMSource} that take part in the same indexing:
+ * the source actions, the retrieval of the heads and the build of their SCM.
+ * The repository and its default branch are requested at most once, through
+ * a single client.
+ * <p>
+ * The context is open while at least one operation uses it, when the last one
+ * completes the client is closed. The metadata already fetched is reused by
+ * the operations that start shortly after, like the branch indexing that
+ * follows the retrieval of the source actions.
+ * <p>
+ * Whatever the number of operations that use it, the context expires once its
+ * maximum age is reached so that a source that is always busy still gets fresh
+ * metadata.
+ */
+final class ScanMetadataContext {
+    private static final Logger LOGGER = Logger.getLogger(ScanMetadataContext.class.getName());
+    // how long the metadata is reused once all operations of the indexing have completed
+    private static final long REUSE_TIMEOUT = TimeUnit.SECONDS.toMillis(SystemProperties.getLong("bitbucket.scan.metadata.reuseTimeout", 60L));
+    // how long the metadata is used since the context was created, before any of it was fetched
+    private static final long MAX_AGE = TimeUnit.SECONDS.toMillis(SystemProperties.getLong("bitbucket.scan.metadata.maxAge", 300L));
+
+    private final Supplier<BitbucketApi> clientFactory;
+    private final LongSupplier clock;
+    private final long createdAt;
+    private BitbucketApi client;
+    private BitbucketRepository repository;
+    private String defaultBranch;
+    private boolean defaultBranchFetched;
+    private int users;
+    private long releasedAt;
+
+    ScanMetadataContext(@NonNull Supplier<BitbucketApi> clientFactory) {
+        this(clientFactory, System::currentTimeMillis);
+    }
+
+    /* for test purpose */ ScanMetadataContext(@NonNull Supplier<BitbucketApi> clientFactory, @NonNull LongSupplier clock) {
+        this.clientFactory = clientFactory;
+        this.clock = clock;
+        this.createdAt = clock.getAsLong();
+        this.releasedAt = createdAt;
+    }
+
+    /**
+     * Starts to use this context.
+     *
+     * @return the scope to close once the operation has completed or
+     *         {@code null} if this context has expired, the operations that
+     *         already use it are not affected
+     */
+    @CheckForNull
+    synchronized Scope open() {
+        long now = clock.getAsLong();
+        if (now - createdAt > MAX_AGE || users == 0 && now - releasedAt > REUSE_TIMEOUT) {
+            return null;
+        }
+        users++;
+        return new Scope();
+    }
+
+    private synchronized void release() {
+        if (--users > 0) {
+            return;
+        }
+        releasedAt = clock.getAsLong();
+        if (client != null) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Failed to close the client", e);
+            }
+            client = null;
+        }
+    }
+
+    private synchronized BitbucketApi client() {
+        if (client == null) {
+            client = clientFactory.get();
+        }
+        return client;
+    }
+
+    private synchronized BitbucketRepository repository() throws IOException {
+        if (repository == null) {
+            repository = client().getRepository();
+        }
+        return repository;
+    }
+
+    private synchronized String defaultBranch() throws IOException {
+        if (!defaultBranchFetched) {
+            defaultBranch = client().getDefaultBranch();
+            defaultBranchFetched = true;
+        }
+        return defaultBranch;
+    }
+
+    /**
+     * The use of the context by an operation.
+     */
+    final class Scope implements AutoCloseable {
+        private boolean closed;
+
+        private Scope() {
+        }
+
+        /**
+         * Returns the client shared by the operations of the indexing, it
+         * must not be closed by the caller.
+         *
+         * @return the client
+         */
+        @NonNull
+        BitbucketApi getClient() {
+            return client();
+        }
+
+        @NonNull
+        BitbucketRepository getRepository() throws IOException {
+            return repository();
+        }
+
+        @CheckForNull
+        String getDefaultBranch() throws IOException {
+            return defaultBranch();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release();
+            }
+        }
+    }
+}
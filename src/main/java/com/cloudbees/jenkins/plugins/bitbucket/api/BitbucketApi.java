@@ -32,6 +32,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import jenkins.scm.api.SCMFile;
@@ -294,6 +295,32 @@ public interface BitbucketApi extends AutoCloseable {
     @NonNull
     List<? extends BitbucketRepository> getRepositories() throws IOException, InterruptedException;
 
+    /**
+     * Returns the repositories where the user has the given role, asking
+     * Bitbucket to return only those whose name contains one of the given
+     * terms.
+     * <p>
+     * The terms are a hint, Bitbucket may return repositories that do not
+     * match any of them so callers must still filter the result by name. The
+     * returned repositories may have only the attributes needed to discover
+     * them.
+     *
+     * @param role Filter repositories by the owner having this role in.
+     *             Use role = null if the repoOwner is a team ID.
+     * @param nameTerms the repository name must contain one of these terms,
+     *             an empty collection does not filter by name
+     * @return the repositories list (it can be empty)
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote communications.
+     */
+    @Restricted(NoExternalUse.class)
+    @NonNull
+    default List<? extends BitbucketRepository> getRepositories(@CheckForNull UserRoleInRepository role,
+                                                                @NonNull Collection<String> nameTerms)
+            throws IOException, InterruptedException {
+        return getRepositories(role);
+    }
+
     /**
      * Set the build status for the given commit hash.
      *
@@ -26,6 +26,7 @@ package com.cloudbees.jenkins.plugins.bitbucket.api;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.BitbucketCloudEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.BitbucketApiUtils;
 import com.cloudbees.plugins.credentials.common.StandardUsernameCredentials;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.plugins.git.GitSCM;
 import jenkins.authentication.tokens.api.AuthenticationTokenContext;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
@@ -68,6 +69,21 @@ public interface BitbucketAuthenticator {
      */
     String getId();
 
+    /**
+     * Returns a value that identifies who is authenticated, the credentials
+     * identifier is not enough because it is unique only within a credentials
+     * store. Two authenticators return the same value only when they send the
+     * same user and secret.
+     *
+     * @return the fingerprint of the credentials used or {@code null} if not
+     *         known, in which case what is fetched with this authenticator is
+     *         not shared with other clients
+     */
+    @CheckForNull
+    default String getFingerprint() {
+        return null;
+    }
+
     /**
      * Configures an {@link HttpClientBuilder}. Override if you need to adjust connection setup.
      * @param builder The client builder.
@@ -104,6 +104,29 @@ public interface BitbucketWebhookConfiguration extends Describable<BitbucketWebh
      */
     Class<? extends BitbucketWebhookManager> getManager();
 
+    /**
+     * Returns a new instance of the implementation that is in charge to apply
+     * this configuration to the Bitbucket.
+     * <p>
+     * A manager keeps the state of the operation in progress, each operation
+     * needs its own instance. The default implementation requires the
+     * {@link #getManager() manager class} to have a public no-argument
+     * constructor.
+     *
+     * @return a new manager, not yet set up with this configuration.
+     * @throws IllegalStateException if the manager can not be created
+     */
+    @NonNull
+    default BitbucketWebhookManager newManager() {
+        Class<? extends BitbucketWebhookManager> managerClass = getManager();
+        try {
+            return managerClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can not create a new instance of " + managerClass.getName()
+                    + ", it must have a public no-argument constructor or " + getClass().getName() + " must override newManager()", e);
+        }
+    }
+
     /**
      * @see Describable#getDescriptor()
      */
@@ -46,16 +46,20 @@ import com.cloudbees.jenkins.plugins.bitbucket.client.repository.UserRoleInRepos
 import com.cloudbees.jenkins.plugins.bitbucket.filesystem.BitbucketSCMFile;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.buildstatus.CloudBuildStatusNotifier;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.client.AbstractBitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.BitbucketPagedApi;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ConditionalRequestCache;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ConnectionPools;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ICheckedCallable;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.PagedIterable;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketAccessTokenAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketOAuthAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketUserAPITokenAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketUsernamePasswordAuthenticator;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.BitbucketCloudEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.BitbucketApiUtils;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.JsonParser;
 import com.damnhandy.uri.template.UriTemplate;
 import com.damnhandy.uri.template.impl.Operator;
-import com.fasterxml.jackson.core.JacksonException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -69,12 +73,15 @@ import java.io.UnsupportedEncodingException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import javax.imageio.ImageIO;
 import jenkins.scm.api.SCMFile;
@@ -89,7 +96,7 @@ import org.apache.hc.core5.http.message.BasicNameValuePair;
 import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 
-public class BitbucketCloudApiClient extends AbstractBitbucketApi implements BitbucketApi {
+public class BitbucketCloudApiClient extends AbstractBitbucketApi implements BitbucketApi, BitbucketPagedApi {
 
     private static final HttpHost API_HOST = BitbucketApiUtils.toHttpHost("https://api.bitbucket.org");
     private static final String V2_API_BASE_URL = "https://api.bitbucket.org/2.0/repositories";
@@ -98,12 +105,8 @@ public class BitbucketCloudApiClient extends AbstractBitbucketApi implements Bit
     // Limit images to 16k
     private static final int MAX_AVATAR_LENGTH = 16384;
     private static final int MAX_PAGE_LENGTH = 100;
-
-    private static final HttpClientConnectionManager connectionManager = connectionManagerBuilder()
-            .setMaxConnPerRoute(20)
-            // for bitbucket cloud there is only one server (route)
-            .setMaxConnTotal(20)
-            .build();
+    // the attributes of the repositories used to discover them during an organisation scan
+    private static final String REPOSITORY_DISCOVERY_FIELDS = "next,values.full_name,values.is_private,values.scm,values.project.key";
 
     private final CloseableHttpClient client;
     private final String owner;
@@ -121,6 +124,7 @@ public class BitbucketCloudApiClient extends AbstractBitbucketApi implements Bit
         stats.add("Team: " + cachedTeam.stats().toString());
         stats.add("Repositories : " + cachedRepositories.stats().toString());
         stats.add("Commits: " + cachedCommits.stats().toString());
+        stats.add(ConditionalRequestCache.stats(BitbucketCloudEndpoint.SERVER_URL));
         return stats;
     }
 
@@ -128,6 +132,7 @@ public class BitbucketCloudApiClient extends AbstractBitbucketApi implements Bit
         cachedTeam.evictAll();
         cachedRepositories.evictAll();
         cachedCommits.evictAll();
+        ConditionalRequestCache.clear(BitbucketCloudEndpoint.SERVER_URL);
     }
 
     public BitbucketCloudApiClient(boolean enableCache, int teamCacheDuration, int repositoriesCacheDuration,
@@ -391,14 +396,35 @@ public class BitbucketCloudApiClient extends AbstractBitbucketApi implements Bit
     }
 
     public List<BitbucketCloudBranch> getBranchesByRef(String nodePath) throws IOException {
+        return iterateBranchesByRef(nodePath).toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public PagedIterable<BitbucketCloudBranch> iterateBranches() {
+        return iterateBranchesByRef("/refs/branches");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public PagedIterable<BitbucketCloudBranch> iterateTags() {
+        return iterateBranchesByRef("/refs/tags");
+    }
+
+    private PagedIterable<BitbucketCloudBranch> iterateBranchesByRef(String nodePath) {
         String url = UriTemplate.fromTemplate(REPO_URL_TEMPLATE + nodePath + "{?pagelen}")
                 .set("owner", owner)
                 .set("repo", repositoryName)
                 .set("pagelen", MAX_PAGE_LENGTH)
                 .expand();
-        return getPagedRequest(url, BitbucketCloudBranch.class).stream()
-                .filter(BitbucketCloudBranch::isActive) // Filter the inactive branches out
-                .toList();
+        // Filter the inactive branches out
+        return iteratePages(url, BitbucketCloudBranch.class, BitbucketCloudBranch::isActive);
     }
 
     /**
@@ -422,18 +448,20 @@ public class BitbucketCloudApiClient extends AbstractBitbucketApi implements Bit
         };
 
         if (enableCache) {
-            try {
-                return cachedCommits.get(hash, request);
-            } catch (ExecutionException e) {
-                BitbucketRequestException bre = BitbucketApiUtils.unwrap(e);
-                if (bre != null) {
-                    throw bre;
-                } else {
-                    throw new IOException(e);
+            return resolveCommit(hash, () -> {
+                try {
+                    return cachedCommits.get(hash, request);
+                } catch (ExecutionException e) {
+                    BitbucketRequestException bre = BitbucketApiUtils.unwrap(e);
+                    if (bre != null) {
+                        throw bre;
+                    } else {
+                        throw new IOException(e);
+                    }
                 }
-            }
+            });
         } else {
-            return request.call();
+            return resolveCommit(hash, request);
         }
     }
 
@@ -658,6 +686,76 @@ public class BitbucketCloudApiClient extends AbstractBitbucketApi implements Bit
         return getRepositories(null);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The name terms are sent to Bitbucket as a query on the full name and
+     * only the attributes needed to discover the repositories are requested.
+     */
+    @NonNull
+    @Override
+    public List<BitbucketCloudRepository> getRepositories(@CheckForNull UserRoleInRepository role,
+                                                          @NonNull Collection<String> nameTerms) throws IOException {
+        if (nameTerms.isEmpty()) {
+            return getRepositories(role);
+        }
+        StringBuilder cacheKey = new StringBuilder();
+        cacheKey.append(owner);
+
+        if (getAuthenticator() != null) {
+            cacheKey.append("::").append(getAuthenticator().getId());
+        } else {
+            cacheKey.append("::<anonymous>");
+        }
+
+        List<String> clauses = new ArrayList<>();
+        for (String term : nameTerms) {
+            clauses.add("full_name ~ " + quote(term));
+        }
+        String query = "(" + String.join(" OR ", clauses) + ")"; // q=(full_name ~ "<term>" OR ...)
+        if (StringUtils.isNotBlank(projectKey)) {
+            query = "project.key=" + quote(projectKey) + " AND " + query;
+        }
+        cacheKey.append("::").append(query);
+
+        final UriTemplate template = UriTemplate.fromTemplate(V2_API_BASE_URL + "{/owner}{?role,page,pagelen,q,fields}")
+                .set("owner", owner)
+                .set("pagelen", MAX_PAGE_LENGTH)
+                .set("q", query)
+                .set("fields", REPOSITORY_DISCOVERY_FIELDS);
+        if (role != null &&  getAuthenticator() != null) {
+            template.set("role", role.getId());
+            cacheKey.append("::").append(role.getId());
+        } else {
+            cacheKey.append("::<undefined>");
+        }
+        String url = template.expand();
+
+        ICheckedCallable<List<BitbucketCloudRepository>, IOException> request = () -> {
+            List<BitbucketCloudRepository> repositories = getPagedRequest(url, BitbucketCloudRepository.class);
+            repositories.sort(Comparator.comparing(BitbucketCloudRepository::getRepositoryName));
+            return repositories;
+        };
+        if (enableCache) {
+            try {
+                return cachedRepositories.get(cacheKey.toString(), request);
+            } catch (ExecutionException e) {
+                BitbucketRequestException bre = BitbucketApiUtils.unwrap(e);
+                if (bre != null) {
+                    throw bre;
+                } else {
+                    throw new IOException(e);
+                }
+            }
+        } else {
+            return request.call();
+        }
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
     private BufferedImage getImageRequest(String path) throws IOException {
         try (InputStream inputStream = getRequestAsInputStream(path)) {
             int length = MAX_AVATAR_LENGTH;
@@ -668,7 +766,7 @@ public class BitbucketCloudApiClient extends AbstractBitbucketApi implements Bit
 
     @Override
     protected HttpClientConnectionManager getConnectionManager() {
-        return connectionManager;
+        return ConnectionPools.get(getServerURL(), UnaryOperator.identity());
     }
 
     @NonNull
@@ -683,12 +781,23 @@ public class BitbucketCloudApiClient extends AbstractBitbucketApi implements Bit
         return "https://api.bitbucket.org";
     }
 
+    @NonNull
+    @Override
+    protected String getServerURL() {
+        return BitbucketCloudEndpoint.SERVER_URL;
+    }
+
     @NonNull
     @Override
     protected CloseableHttpClient getClient() {
         return client;
     }
 
+    @Override
+    protected boolean isCacheEnabled() {
+        return enableCache;
+    }
+
     @Override
     public Iterable<SCMFile> getDirectoryContent(final BitbucketSCMFile parent) throws IOException {
         String url = UriTemplate.fromTemplate(REPO_URL_TEMPLATE + "/src{/branchOrHash,path}")
@@ -733,13 +842,22 @@ public class BitbucketCloudApiClient extends AbstractBitbucketApi implements Bit
     @NonNull
     @Override
     public List<BitbucketCloudCommit> getCommits(@CheckForNull String fromCommit, @NonNull String toCommit) throws IOException {
+        return iterateCommits(fromCommit, toCommit).toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public PagedIterable<BitbucketCloudCommit> iterateCommits(@CheckForNull String fromCommit, @NonNull String toCommit) {
         String url = UriTemplate.fromTemplate(REPO_URL_TEMPLATE + "/commits{?include,exclude}")
                 .set("owner", owner)
                 .set("repo", repositoryName)
                 .set("include", toCommit)
                 .set("exclude", fromCommit)
                 .expand();
-        return getPagedRequest(url, BitbucketCloudCommit.class);
+        return iteratePages(url, BitbucketCloudCommit.class, commit -> true);
     }
 
 /*
@@ -769,9 +887,10 @@ public class BitbucketCloudApiClient extends AbstractBitbucketApi implements Bit
     }
 */
     private <V> List<V> getPagedRequest(String url, Class<V> resultType) throws IOException {
-        List<V> resources = new ArrayList<>();
-        String response = getRequest(url);
+        return iteratePages(url, resultType, value -> true).toList();
+    }
 
+    private <V> PagedIterable<V> iteratePages(String url, Class<V> resultType, Predicate<V> filter) {
         ParameterizedType parameterizedType = new ParameterizedType() {
 
             @Override
@@ -789,34 +908,17 @@ public class BitbucketCloudApiClient extends AbstractBitbucketApi implements Bit
                 return new Type[] { resultType };
             }
         };
-
-        try {
-            TypeReference<BitbucketCloudPage<V>> type = new TypeReference<BitbucketCloudPage<V>>(){
-                @Override
-                public Type getType() {
-                    return parameterizedType;
-                }
-            };
-
-            BitbucketCloudPage<V> page = JsonParser.toJava(response, type);
-            resources.addAll(page.getValues());
-            while (!page.isLastPage()){
-                response = getRequest(page.getNext());
-                page = JsonParser.toJava(response, type);
-                resources.addAll(page.getValues());
+        TypeReference<BitbucketCloudPage<V>> type = new TypeReference<BitbucketCloudPage<V>>(){
+            @Override
+            public Type getType() {
+                return parameterizedType;
             }
-        } catch (JacksonException e) {
-            throw new IOException("I/O error when parsing response from URL: " + url, e);
-        }
-        return resources;
-    }
+        };
 
-    private <V> V getRequestAs(String url, Class<V> resultType) throws IOException {
-        String response = getRequest(url);
-        try {
-            return JsonParser.toJava(response, resultType);
-        } catch (JacksonException e) {
-            throw new IOException("I/O error when parsing response from URL: " + url, e);
-        }
+        return new PagedIterable<>(url, pageURL -> {
+            BitbucketCloudPage<V> page = getRequestAs(pageURL, type);
+            List<V> values = page.getValues().stream().filter(filter).toList();
+            return new PagedIterable.Page<>(values, page.isLastPage() ? null : page.getNext());
+        });
     }
 }
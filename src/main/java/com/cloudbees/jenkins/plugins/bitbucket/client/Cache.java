@@ -26,21 +26,43 @@ package com.cloudbees.jenkins.plugins.bitbucket.client;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ICheckedCallable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+/**
+ * A simple time based cache where each key is loaded independently.
+ * <p>
+ * Values are loaded by the calling thread without holding any cache wide
+ * lock, so a slow load for one key does not prevent other keys to be read or
+ * loaded. Concurrent requests for the same key wait for the single load in
+ * progress instead of running the request again. A load that requests its
+ * own key again fails instead of waiting for itself. When the cache is full
+ * the entry loaded first is evicted.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ */
 public class Cache<K, V> {
 
     private static final int MAX_ENTRIES_DEFAULT = 100;
 
     private final Map<K, Entry<V>> entries;
 
-    private long expireAfterNanos;
+    // loaded entries in the order they were loaded, the lock guards only this order
+    private final LinkedHashMap<K, Entry<V>> loadOrder = new LinkedHashMap<>();
+
+    private final int maxEntries;
+
+    private volatile long expireAfterNanos;
 
     public Cache(final int duration, final TimeUnit unit) {
         this(duration, unit, MAX_ENTRIES_DEFAULT);
@@ -48,30 +70,95 @@ public class Cache<K, V> {
 
     public Cache(final int duration, final TimeUnit unit, final int maxEntries) {
         this.expireAfterNanos = unit.toNanos(duration);
-        this.entries = new LimitedMap<>(maxEntries);
+        this.maxEntries = maxEntries;
+        this.entries = new ConcurrentHashMap<>();
     }
 
-    public synchronized <E extends Exception> V get(final K key, final ICheckedCallable<V, E> request) throws ExecutionException {
-        if (isExpired(key)) {
-            doRemove(key);
-        }
+    public <E extends Exception> V get(final K key, final ICheckedCallable<V, E> request) throws ExecutionException {
+        while (true) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.isExpired(expireAfterNanos)) {
+                if (entries.remove(key, entry)) {
+                    forget(key, entry);
+                }
+                continue;
+            }
+            if (entry != null) {
+                if (entry.loader == Thread.currentThread()) {
+                    throw new IllegalStateException("Recursive load of key: " + key);
+                }
+                return await(key, entry);
+            }
 
-        if (entries.containsKey(key)) {
-            return entries.get(key).value;
+            Entry<V> loading = new Entry<>();
+            if (entries.putIfAbsent(key, loading) != null) {
+                // another thread has started to load the same key
+                continue;
+            }
+            return load(key, loading, request);
         }
+    }
 
+    private <E extends Exception> V load(final K key, final Entry<V> entry, final ICheckedCallable<V, E> request) throws ExecutionException {
         V result;
         try {
             result = request.call();
         } catch (final Exception e) {
+            // failures are not cached, next request will try again
+            entries.remove(key, entry);
+            entry.future.completeExceptionally(e);
             throw new ExecutionException("Cannot load value for key: " + key, e);
+        } catch (final Error e) {
+            entries.remove(key, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
         }
+        entry.complete(result);
+        synchronized (loadOrder) {
+            // a key loaded again moves to the end
+            loadOrder.remove(key);
+            loadOrder.put(key, entry);
+            evictEldest();
+        }
+        return result;
+    }
+
+    private V await(final K key, final Entry<V> entry) throws ExecutionException {
+        try {
+            return entry.future.join();
+        } catch (final CompletionException e) {
+            throw new ExecutionException("Cannot load value for key: " + key, e.getCause());
+        }
+    }
 
-        return doPut(key, result);
+    private void evictEldest() {
+        // entries still loading are not in the load order and are never evicted
+        Iterator<Map.Entry<K, Entry<V>>> it = loadOrder.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            Map.Entry<K, Entry<V>> eldest = it.next();
+            it.remove();
+            entries.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private void forget(final K key, final Entry<V> entry) {
+        synchronized (loadOrder) {
+            loadOrder.remove(key, entry);
+        }
+    }
+
+    public void evict(final K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry != null) {
+            forget(key, entry);
+        }
     }
 
     public void evictAll() {
-        entries.clear();
+        synchronized (loadOrder) {
+            entries.clear();
+            loadOrder.clear();
+        }
     }
 
     public int size() {
@@ -79,60 +166,52 @@ public class Cache<K, V> {
     }
 
     public void setExpireDuration(final int duration, final TimeUnit unit) {
-        this.expireAfterNanos = unit.toNanos(duration);
+        final long nanos = unit.toNanos(duration);
+        if (expireAfterNanos != nanos) {
+            this.expireAfterNanos = nanos;
+        }
     }
 
     public Stat stats() {
         final List<Long> durations = new ArrayList<>();
-        if (entries.size() > 0) {
-            for (final Entry<V> e : entries.values()) {
-                durations.add(System.nanoTime() - e.nanos);
+        final long now = System.nanoTime();
+        for (final Entry<V> e : entries.values()) {
+            if (e.isLoaded()) {
+                durations.add(now - e.nanos);
             }
+        }
+        final int count = durations.size();
+        if (count > 0) {
             Collections.sort(durations);
         } else {
             durations.add(0L);
-            durations.add(0L);
         }
-        return new Stat(entries.size(), durations.get(0), durations.get(durations.size() - 1));
-    }
-
-    private boolean isExpired(final K key) {
-        final Entry<V> entry = entries.get(key);
-        return entry != null && System.nanoTime() - entry.nanos > expireAfterNanos;
+        return new Stat(count, durations.get(0), durations.get(durations.size() - 1));
     }
 
-    private void doRemove(final K key) {
-        entries.remove(key);
-    }
+    private static class Entry<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
 
-    private V doPut(final K key, final V value) {
-        entries.put(key, new Entry<>(value));
-        return value;
-    }
+        private volatile long nanos;
 
-    private static class LimitedMap<K, V> extends LinkedHashMap<K, V> { // NOSONAR
-        private static final long serialVersionUID = 12492123640782072L;
+        private volatile boolean loaded;
 
-        private final int maxEntries;
+        // the thread that loads the value, null once loaded
+        private volatile Thread loader = Thread.currentThread();
 
-        public LimitedMap(final int maxEntries) {
-            this.maxEntries = maxEntries;
+        private void complete(final V value) {
+            nanos = System.nanoTime();
+            loaded = true;
+            loader = null;
+            future.complete(value);
         }
 
-        @Override
-        protected boolean removeEldestEntry(final java.util.Map.Entry<K, V> eldest) {
-            return super.size() > maxEntries;
+        private boolean isLoaded() {
+            return loaded;
         }
-    }
-
-    private static class Entry<V> {
-        private final V value;
 
-        private final long nanos;
-
-        public Entry(final V value) {
-            this.value = value;
-            nanos = System.nanoTime();
+        private boolean isExpired(final long expireAfterNanos) {
+            return loaded && System.nanoTime() - nanos > expireAfterNanos;
         }
     }
 
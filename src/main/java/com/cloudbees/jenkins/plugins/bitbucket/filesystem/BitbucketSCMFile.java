@@ -25,6 +25,7 @@
 package com.cloudbees.jenkins.plugins.bitbucket.filesystem;
 
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.BitbucketFileCache;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.IOException;
@@ -80,7 +81,7 @@ public class BitbucketSCMFile extends SCMFile {
     @NonNull
     public Iterable<SCMFile> children() throws IOException, InterruptedException {
         if (this.isDirectory()) {
-            return api.getDirectoryContent(this);
+            return BitbucketFileCache.get().getChildren(api, this, () -> api.getDirectoryContent(this));
         } else {
             // respect the interface javadoc
             return Collections.emptyList();
@@ -91,7 +92,7 @@ public class BitbucketSCMFile extends SCMFile {
     @NonNull
     public InputStream content() throws IOException, InterruptedException {
         if (this.isFile()) {
-            return api.getFileContent(this);
+            return BitbucketFileCache.get().getContent(api, this, () -> api.getFileContent(this));
         } else {
             throw new IOException("Cannot get raw content from a directory");
         }
@@ -121,8 +122,7 @@ public class BitbucketSCMFile extends SCMFile {
     protected Type type() throws IOException, InterruptedException {
         if (!resolved) {
             try {
-                SCMFile metadata = api.getFile(this);
-                type(metadata.getType());
+                type(BitbucketFileCache.get().getType(api, this, () -> api.getFile(this).getType()));
             } catch(IOException e) {
                 type(Type.NONEXISTENT);
             }
@@ -31,28 +31,23 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApiFactory;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCommit;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.BitbucketPagedApi;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketAuthenticatorCache;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.BitbucketApiUtils;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.DateUtils;
-import com.cloudbees.plugins.credentials.CredentialsMatchers;
-import com.cloudbees.plugins.credentials.CredentialsProvider;
-import com.cloudbees.plugins.credentials.common.StandardCredentials;
-import com.cloudbees.plugins.credentials.domains.URIRequirementBuilder;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
-import hudson.Util;
 import hudson.model.Item;
-import hudson.model.Queue;
 import hudson.plugins.git.GitSCM;
 import hudson.scm.SCM;
 import hudson.scm.SCMDescriptor;
-import hudson.security.ACL;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.lang.annotation.Inherited;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
-import jenkins.authentication.tokens.api.AuthenticationTokens;
 import jenkins.plugins.git.AbstractGitSCMSource;
 import jenkins.scm.api.SCMFile;
 import jenkins.scm.api.SCMFileSystem;
@@ -121,79 +116,87 @@ public class BitbucketSCMFileSystem extends SCMFileSystem {
          * commit %H%ntree %T%nparent %P%nauthor %aN <%aE> %ai%ncommitter %cN <%cE> %ci%n%n%w(0,4,4)%B
          * @see org.jenkinsci.plugins.gitclient.new ChangelogCommand() {...}.RAW
          */
-        for (BitbucketCommit commit : api.getCommits(startHash, ref)) {
-            log.setLength(0);
-            log.append("commit ").append(commit.getHash()).append('\n');
-//            log.append("tree ").append(commit.getTree().getSha()).append('\n');
-            log.append("parent ").append(StringUtils.join(commit.getParents(), " ")).append('\n');
-            log.append("author ").append(commit.getAuthor()).append(' ').append(defaultString(DateUtils.formatToISO(commit.getAuthorDate()))).append('\n');
-            log.append("committer ").append(commit.getAuthor()).append(' ').append(defaultString(DateUtils.formatToISO(commit.getCommitterDate()))).append('\n');
-            log.append('\n');
-            String msg = commit.getMessage();
-            if (msg.endsWith("\r\n")) {
-                msg = msg.substring(0, msg.length() - 2);
-            } else if (msg.endsWith("\n")) {
-                msg = msg.substring(0, msg.length() - 1);
-            }
-            msg = msg.replace("\r\n", "\n").replace("\r", "\n").replace("\n", "\n    ");
-            log.append("    ").append(msg).append('\n');
+        // commits are requested page by page, no more pages are fetched once the changelog limit is reached
+        Iterable<? extends BitbucketCommit> commits = api instanceof BitbucketPagedApi pagedApi
+                ? pagedApi.iterateCommits(startHash, ref)
+                : api.getCommits(startHash, ref);
+        try {
+            for (BitbucketCommit commit : commits) {
+                log.setLength(0);
+                log.append("commit ").append(commit.getHash()).append('\n');
+//                log.append("tree ").append(commit.getTree().getSha()).append('\n');
+                log.append("parent ").append(StringUtils.join(commit.getParents(), " ")).append('\n');
+                log.append("author ").append(commit.getAuthor()).append(' ').append(defaultString(DateUtils.formatToISO(commit.getAuthorDate()))).append('\n');
+                log.append("committer ").append(commit.getAuthor()).append(' ').append(defaultString(DateUtils.formatToISO(commit.getCommitterDate()))).append('\n');
+                log.append('\n');
+                String msg = commit.getMessage();
+                if (msg.endsWith("\r\n")) {
+                    msg = msg.substring(0, msg.length() - 2);
+                } else if (msg.endsWith("\n")) {
+                    msg = msg.substring(0, msg.length() - 1);
+                }
+                msg = msg.replace("\r\n", "\n").replace("\r", "\n").replace("\n", "\n    ");
+                log.append("    ").append(msg).append('\n');
 /*
-            String NULL_HASH = "0000000000000000000000000000000000000000";
+                String NULL_HASH = "0000000000000000000000000000000000000000";
 
-            if (count == 0) {
-                String fromHash = commit.getHash();
-                String toHash = NULL_HASH;
-                if (currentRevision instanceof SCMRevisionImpl gitRev) {
-                    toHash = gitRev.getHash();
-                } else if (currentRevision instanceof ChangeRequestSCMRevision<?> prRev
-                        && prRev.getTarget() instanceof SCMRevisionImpl targetRev) {
-                    toHash = targetRev.getHash();
-                }
-                toHash = StringUtils.rightPad(toHash, 40, '0');
+                if (count == 0) {
+                    String fromHash = commit.getHash();
+                    String toHash = NULL_HASH;
+                    if (currentRevision instanceof SCMRevisionImpl gitRev) {
+                        toHash = gitRev.getHash();
+                    } else if (currentRevision instanceof ChangeRequestSCMRevision<?> prRev
+                            && prRev.getTarget() instanceof SCMRevisionImpl targetRev) {
+                        toHash = targetRev.getHash();
+                    }
+                    toHash = StringUtils.rightPad(toHash, 40, '0');
 
-                // in BB diff changes are not related to a specific commit so we put all of them into the most recent commit
-                for (BitbucketCloudCommitDiffStat change : api.getCommitsChanges(startHash, ref)) {
-                    log.append('\n').append(':');
-                    switch (change.getStatus()) {
-                    case added:
-                        log.append("000000").append(' ').append("100644")
-                            .append(' ')
-                            .append(NULL_HASH).append(' ').append(toHash)
-                            .append(' ')
-                            .append('A').append("\t").append(change.getNewPath());
-                        break;
-                    case modified:
-                        log.append("100644").append(' ').append("100644")
-                            .append(' ')
-                            .append(fromHash).append(' ').append(toHash)
-                            .append(' ')
-                            .append('M').append("\t").append(change.getNewPath());
-                        break;
-                    case removed:
-                        log.append("100644").append(' ').append("000000")
-                            .append(' ')
-                            .append(fromHash).append(' ').append(NULL_HASH)
-                            .append(' ')
-                            .append('D').append("\t").append(change.getOldPath());
-                        break;
-                    case renamed:
-                        log.append("100644").append(' ').append("100644")
-                            .append(' ')
-                            .append(fromHash).append(' ').append(toHash)
-                            .append(' ')
-                            .append('R').append("\t").append(change.getOldPath()).append(' ').append(change.getNewPath());
-                        break;
+                    // in BB diff changes are not related to a specific commit so we put all of them into the most recent commit
+                    for (BitbucketCloudCommitDiffStat change : api.getCommitsChanges(startHash, ref)) {
+                        log.append('\n').append(':');
+                        switch (change.getStatus()) {
+                        case added:
+                            log.append("000000").append(' ').append("100644")
+                                .append(' ')
+                                .append(NULL_HASH).append(' ').append(toHash)
+                                .append(' ')
+                                .append('A').append("\t").append(change.getNewPath());
+                            break;
+                        case modified:
+                            log.append("100644").append(' ').append("100644")
+                                .append(' ')
+                                .append(fromHash).append(' ').append(toHash)
+                                .append(' ')
+                                .append('M').append("\t").append(change.getNewPath());
+                            break;
+                        case removed:
+                            log.append("100644").append(' ').append("000000")
+                                .append(' ')
+                                .append(fromHash).append(' ').append(NULL_HASH)
+                                .append(' ')
+                                .append('D').append("\t").append(change.getOldPath());
+                            break;
+                        case renamed:
+                            log.append("100644").append(' ').append("100644")
+                                .append(' ')
+                                .append(fromHash).append(' ').append(toHash)
+                                .append(' ')
+                                .append('R').append("\t").append(change.getOldPath()).append(' ').append(change.getNewPath());
+                            break;
+                        }
                     }
+                    log.append('\n');
                 }
-                log.append('\n');
-            }
 */
-            changeLogStream.write(log.toString().getBytes(StandardCharsets.UTF_8));
-            changeLogStream.flush();
-            count++;
-            if (count >= GitSCM.MAX_CHANGELOG) {
-                break;
+                changeLogStream.write(log.toString().getBytes(StandardCharsets.UTF_8));
+                changeLogStream.flush();
+                count++;
+                if (count >= GitSCM.MAX_CHANGELOG) {
+                    break;
+                }
             }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
 
         return count > 0;
@@ -227,30 +230,6 @@ public class BitbucketSCMFileSystem extends SCMFileSystem {
             return null;
         }
 
-        private static StandardCredentials lookupScanCredentials(@CheckForNull Item context,
-                                                                 @CheckForNull String scanCredentialsId,
-                                                                 String serverURL) {
-            scanCredentialsId = Util.fixEmpty(scanCredentialsId);
-            if (scanCredentialsId == null) {
-                return null;
-            } else {
-                return CredentialsMatchers.firstOrNull(
-                        CredentialsProvider.lookupCredentialsInItem(
-                                StandardCredentials.class,
-                                context,
-                                context instanceof Queue.Task task
-                                        ? task.getDefaultAuthentication2()
-                                        : ACL.SYSTEM2,
-                                URIRequirementBuilder.fromUri(serverURL).build()
-                        ),
-                        CredentialsMatchers.allOf(
-                                CredentialsMatchers.withId(scanCredentialsId),
-                                AuthenticationTokens.matcher(BitbucketAuthenticator.authenticationContext(serverURL))
-                        )
-                );
-            }
-        }
-
         @Override
         public SCMFileSystem build(@NonNull SCMSource source, @NonNull SCMHead head, @CheckForNull SCMRevision rev)
                 throws IOException, InterruptedException {
@@ -260,9 +239,7 @@ public class BitbucketSCMFileSystem extends SCMFileSystem {
             String owner = src.getRepoOwner();
             String repository = src.getRepository();
             String serverURL = src.getServerUrl();
-            StandardCredentials credentials = lookupScanCredentials(src.getOwner(), credentialsId, serverURL);
-
-            BitbucketAuthenticator authenticator = AuthenticationTokens.convert(BitbucketAuthenticator.authenticationContext(serverURL), credentials);
+            BitbucketAuthenticator authenticator = BitbucketAuthenticatorCache.get(src.getOwner(), serverURL, credentialsId);
 
             String ref = null;
 
@@ -27,6 +27,9 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpointProvider;
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookProcessor;
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookProcessorException;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.JsonParser;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.WebhookEventCoalescer;
+import com.fasterxml.jackson.databind.JsonNode;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.ExtensionList;
@@ -56,6 +59,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.kohsuke.stapler.HttpResponse;
 import org.kohsuke.stapler.HttpResponses;
 import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
 
 /**
  * Process Bitbucket push and pull requests creations/updates hooks.
@@ -84,6 +88,10 @@ public class BitbucketSCMSourcePushHookReceiver extends CrumbExclusion implement
 
     /**
      * Receives Bitbucket push notifications.
+     * <p>
+     * The payload is verified in the request thread, then it is queued to be
+     * processed in background so that Bitbucket gets an answer as soon as
+     * possible.
      *
      * @param req Stapler request. It contains the payload in the body content
      *          and a header param "X-Event-Key" pointing to the event type.
@@ -93,6 +101,13 @@ public class BitbucketSCMSourcePushHookReceiver extends CrumbExclusion implement
     public HttpResponse doNotify(StaplerRequest2 req) throws IOException {
         WebhookProcessorListenersHandler listenersHandler = new WebhookProcessorListenersHandler();
 
+        boolean async = WebhookProcessingQueue.isEnabled();
+        if (async && !WebhookProcessingQueue.tryAcquire()) {
+            logger.warning(() -> "Too many Bitbucket webhooks are being received, ask to deliver again in " + WebhookProcessingQueue.getRetryAfter() + " seconds.");
+            return serviceUnavailable("Too many webhooks are being received.");
+        }
+        String serverURL = null;
+        String requestId = null;
         try {
             Map<String, String> reqHeaders = getHeaders(req);
             MultiValuedMap<String, String> reqParameters = getParameters(req);
@@ -104,7 +119,7 @@ public class BitbucketSCMSourcePushHookReceiver extends CrumbExclusion implement
                 throw new BitbucketWebhookProcessorException(HttpServletResponse.SC_BAD_REQUEST, "Payload is empty.");
             }
 
-            String serverURL = hookProcessor.getServerURL(Collections.unmodifiableMap(reqHeaders), MultiMapUtils.unmodifiableMultiValuedMap(reqParameters));
+            serverURL = hookProcessor.getServerURL(Collections.unmodifiableMap(reqHeaders), MultiMapUtils.unmodifiableMultiValuedMap(reqParameters));
             BitbucketEndpoint endpoint = BitbucketEndpointProvider
                     .lookupEndpoint(serverURL)
                     .orElse(null);
@@ -116,18 +131,80 @@ public class BitbucketSCMSourcePushHookReceiver extends CrumbExclusion implement
             logger.log(Level.FINE, "Payload endpoint host {0}, request endpoint host {1}", new Object[] { endpoint, req.getRemoteAddr() });
             hookProcessor.verifyPayload(reqHeaders, body, endpoint);
 
+            // Bitbucket delivers again the same request when it does not get an answer in time
+            String deliveryId = StringUtils.firstNonBlank(reqHeaders.get("X-Request-UUID"), reqHeaders.get("X-Request-Id"));
+            if (!WebhookEventCoalescer.register(serverURL, deliveryId)) {
+                logger.log(Level.FINE, "Webhook request {0} has already been delivered, skipping.", deliveryId);
+                return HttpResponses.ok();
+            }
+            requestId = deliveryId;
+
             Map<String, Object> context = hookProcessor.buildHookContext(req);
             String eventType = hookProcessor.getEventType(Collections.unmodifiableMap(reqHeaders), MultiMapUtils.unmodifiableMultiValuedMap(reqParameters));
 
-            hookProcessor.process(eventType, body, context, endpoint);
-            listenersHandler.onProcess(eventType, body, endpoint);
+            if (async) {
+                Runnable task = () -> {
+                    try {
+                        hookProcessor.process(eventType, body, context, endpoint);
+                        listenersHandler.onProcess(eventType, body, endpoint);
+                    } catch (BitbucketWebhookProcessorException e) {
+                        listenersHandler.onFailure(e);
+                        throw e;
+                    }
+                };
+                if (!WebhookProcessingQueue.offer(endpoint.getServerURL(), getRepositoryKey(body), task)) {
+                    logger.warning(() -> "The queue of Bitbucket webhooks for " + endpoint.getServerURL() + " is full, ask to deliver again in " + WebhookProcessingQueue.getRetryAfter() + " seconds.");
+                    WebhookEventCoalescer.unregister(serverURL, requestId);
+                    listenersHandler.onFailure(new BitbucketWebhookProcessorException(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Webhook queue is full."));
+                    return serviceUnavailable("Webhook queue is full.");
+                }
+            } else {
+                hookProcessor.process(eventType, body, context, endpoint);
+                listenersHandler.onProcess(eventType, body, endpoint);
+            }
         } catch(BitbucketWebhookProcessorException e) {
+            if (requestId != null) {
+                // let Bitbucket deliver it again
+                WebhookEventCoalescer.unregister(serverURL, requestId);
+            }
             listenersHandler.onFailure(e);
             return HttpResponses.error(e.getHttpCode(), e.getMessage());
+        } finally {
+            if (async) {
+                WebhookProcessingQueue.release();
+            }
         }
         return HttpResponses.ok();
     }
 
+    /*
+     * Identifies the repository of the payload without binding it to the model
+     * of the event, just to keep the order of webhooks for the same repository.
+     */
+    @NonNull
+    private String getRepositoryKey(@NonNull String body) {
+        try {
+            JsonNode repository = JsonParser.toJson(body).findValue("repository");
+            if (repository != null) {
+                // Bitbucket Cloud and Data Center
+                return repository.path("full_name").asText("") + '/' + repository.path("project").path("key").asText("") + '/' + repository.path("slug").asText("");
+            }
+        } catch (IOException e) {
+            // the processor will report the malformed payload
+        }
+        return "";
+    }
+
+    private HttpResponse serviceUnavailable(String message) {
+        return new HttpResponse() {
+            @Override
+            public void generateResponse(StaplerRequest2 req, StaplerResponse2 rsp, Object node) throws IOException, ServletException {
+                rsp.setHeader("Retry-After", String.valueOf(WebhookProcessingQueue.getRetryAfter()));
+                rsp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, message);
+            }
+        };
+    }
+
     @NonNull
     private BitbucketWebhookProcessor getHookProcessor(Map<String, String> reqHeaders, MultiValuedMap<String, String> reqParameters) {
         BitbucketWebhookProcessor hookProcessor;
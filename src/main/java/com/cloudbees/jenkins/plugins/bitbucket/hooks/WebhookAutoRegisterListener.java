@@ -36,23 +36,19 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpointPro
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookManager;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.BitbucketSCMSourceIndex;
 import com.cloudbees.jenkins.plugins.bitbucket.util.BitbucketCredentialsUtils;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
-import hudson.ExtensionList;
 import hudson.Util;
 import hudson.model.Item;
 import hudson.model.listeners.ItemListener;
 import hudson.triggers.SafeTimerTask;
-import hudson.util.DaemonThreadFactory;
-import hudson.util.NamingThreadFactory;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.authentication.tokens.api.AuthenticationTokens;
@@ -60,10 +56,12 @@ import jenkins.model.Jenkins;
 import jenkins.scm.api.SCMHeadObserver;
 import jenkins.scm.api.SCMSource;
 import jenkins.scm.api.SCMSourceOwner;
-import jenkins.scm.api.SCMSourceOwners;
+import jenkins.util.SystemProperties;
 import org.apache.commons.lang3.ObjectUtils;
-import org.apache.commons.lang3.Strings;
+import org.apache.commons.lang3.StringUtils;
 import org.jenkinsci.plugins.displayurlapi.DisplayURLProvider;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 /**
  * {@link SCMSourceOwner} item listener that traverse the list of {@link SCMSource} and register
@@ -73,7 +71,8 @@ import org.jenkinsci.plugins.displayurlapi.DisplayURLProvider;
 public class WebhookAutoRegisterListener extends ItemListener {
 
     private static final Logger logger = Logger.getLogger(WebhookAutoRegisterListener.class.getName());
-    private static ExecutorService executorService;
+    private static final int WORKERS = SystemProperties.getInteger("bitbucket.webhook.registration.workers", 4);
+    private static WebhookRegistrationExecutor executor;
 
     @Override
     public void onCreated(Item item) {
@@ -112,34 +111,41 @@ public class WebhookAutoRegisterListener extends ItemListener {
     }
 
     private void registerHooksAsync(final SCMSourceOwner owner) {
-        getExecutorService().submit(new SafeTimerTask() {
-            @Override
-            public void doRun() {
-                try {
-                    registerHooks(owner);
-                } catch (IOException e) {
-                    logger.log(Level.WARNING, e, () -> "Could not register hooks for " + owner.getFullName());
+        for (BitbucketSCMSource source : getBitbucketSCMSources(owner)) {
+            String repositoryKey = getRepositoryKey(source);
+            // sources are read again when the registration runs, so a registration still waiting for the same item already takes any change
+            getExecutor().submit(repositoryKey, owner, new SafeTimerTask() {
+                @Override
+                public void doRun() {
+                    try {
+                        registerHooks(owner, repositoryKey);
+                    } catch (IOException e) {
+                        logger.log(Level.WARNING, e, () -> "Could not register hooks for " + owner.getFullName());
+                    }
                 }
-            }
-        });
+            });
+        }
     }
 
     private void removeHooksAsync(final SCMSourceOwner owner) {
-        getExecutorService().submit(new SafeTimerTask() {
-            @Override
-            public void doRun() {
-                try {
-                    removeHooks(owner);
-                } catch (IOException e) {
-                    logger.log(Level.WARNING, e, () -> "Could not deregister hooks for " + owner.getFullName());
+        for (BitbucketSCMSource source : getBitbucketSCMSources(owner)) {
+            getExecutor().submit(getRepositoryKey(source), null, new SafeTimerTask() {
+                @Override
+                public void doRun() {
+                    try {
+                        removeHooks(owner, source);
+                    } catch (IOException e) {
+                        logger.log(Level.WARNING, e, () -> "Could not deregister hooks for " + owner.getFullName());
+                    }
                 }
-            }
-        });
+            });
+        }
     }
 
-    // synchronized just to avoid duplicated webhooks in case SCMSourceOwner is updated repeatedly and quickly
-    private synchronized void registerHooks(SCMSourceOwner owner) throws IOException {
-        List<BitbucketSCMSource> sources = getBitbucketSCMSources(owner);
+    private void registerHooks(SCMSourceOwner owner, String repositoryKey) throws IOException {
+        List<BitbucketSCMSource> sources = getBitbucketSCMSources(owner).stream()
+                .filter(source -> repositoryKey.equals(getRepositoryKey(source)))
+                .toList();
         if (sources.isEmpty()) {
             // don't spam logs if we are irrelevant
             return;
@@ -184,7 +190,8 @@ public class WebhookAutoRegisterListener extends ItemListener {
     private BitbucketWebhookManager buildWebhookManager(BitbucketSCMSource source, BitbucketEndpoint endpoint) {
         BitbucketWebhookConfiguration webhookConfig = endpoint.getWebhook();
 
-        BitbucketWebhookManager manager = ExtensionList.lookupFirst(webhookConfig.getManager());
+        // managers keep the state of the operation in progress and operations run concurrently, each one needs its own instance
+        BitbucketWebhookManager manager = webhookConfig.newManager();
         // setup manager with base required information
         manager.apply(webhookConfig);
 
@@ -206,36 +213,33 @@ public class WebhookAutoRegisterListener extends ItemListener {
         return callbackRootURL;
     }
 
-    private void removeHooks(SCMSourceOwner owner) throws IOException {
-        List<BitbucketSCMSource> sources = getBitbucketSCMSources(owner);
-        for (BitbucketSCMSource source : sources) {
-            BitbucketEndpoint endpoint = BitbucketEndpointProvider.lookupEndpoint(source.getServerUrl())
-                    .orElse(null);
-            if (endpoint == null) {
-                continue;
-            }
-            BitbucketApi client = getClientBySource(source, endpoint);
-            if (client != null) {
-                try (BitbucketAuthenticatedClient webhookClient = client.adapt(BitbucketAuthenticatedClient.class)) {
-                    if (webhookClient == null) {
-                        continue;
-                    }
+    private void removeHooks(SCMSourceOwner owner, BitbucketSCMSource source) throws IOException {
+        BitbucketEndpoint endpoint = BitbucketEndpointProvider.lookupEndpoint(source.getServerUrl())
+                .orElse(null);
+        if (endpoint == null) {
+            return;
+        }
+        BitbucketApi client = getClientBySource(source, endpoint);
+        if (client != null) {
+            try (BitbucketAuthenticatedClient webhookClient = client.adapt(BitbucketAuthenticatedClient.class)) {
+                if (webhookClient == null) {
+                    return;
+                }
 
-                    BitbucketWebhookManager manager = buildWebhookManager(source, endpoint);
-                    Collection<BitbucketWebHook> webhooks = manager.read(webhookClient)
-                            .stream()
-                            .filter(hook -> hook.getUrl().startsWith(getCallbackRootURL(endpoint.getWebhook())))
-                            .toList();
+                BitbucketWebhookManager manager = buildWebhookManager(source, endpoint);
+                Collection<BitbucketWebHook> webhooks = manager.read(webhookClient)
+                        .stream()
+                        .filter(hook -> hook.getUrl().startsWith(getCallbackRootURL(endpoint.getWebhook())))
+                        .toList();
 
-                    for (BitbucketWebHook hook : webhooks) {
-                        if (hook != null && !isUsedSomewhereElse(owner, source.getRepoOwner(), source.getRepository())) {
-                            logger.log(Level.INFO, "Removing hook for {0}/{1}",
-                                    new Object[] { source.getRepoOwner(), source.getRepository() });
-                            manager.remove(hook.getUuid(), webhookClient);
-                        } else {
-                            logger.log(Level.FINE, "NOT removing hook for {0}/{1} because does not exists or its used in other project",
-                                    new Object[] { source.getRepoOwner(), source.getRepository() });
-                        }
+                for (BitbucketWebHook hook : webhooks) {
+                    if (hook != null && !isUsedSomewhereElse(owner, source)) {
+                        logger.log(Level.INFO, "Removing hook for {0}/{1}",
+                                new Object[] { source.getRepoOwner(), source.getRepository() });
+                        manager.remove(hook.getUuid(), webhookClient);
+                    } else {
+                        logger.log(Level.FINE, "NOT removing hook for {0}/{1} because does not exists or its used in other project",
+                                new Object[] { source.getRepoOwner(), source.getRepository() });
                     }
                 }
             }
@@ -280,20 +284,11 @@ public class WebhookAutoRegisterListener extends ItemListener {
                 .webhookRegistration();
     }
 
-    private boolean isUsedSomewhereElse(SCMSourceOwner owner, String repoOwner, String repoName) {
-        Iterable<SCMSourceOwner> all = SCMSourceOwners.all();
-        for (SCMSourceOwner other : all) {
-            if (owner != other) {
-                for(SCMSource otherSource : other.getSCMSources()) {
-                    if (otherSource instanceof BitbucketSCMSource bbSCMSource
-                            && Strings.CI.equals(bbSCMSource.getRepoOwner(), repoOwner)
-                            && bbSCMSource.getRepository().equals(repoName)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+    private boolean isUsedSomewhereElse(SCMSourceOwner owner, BitbucketSCMSource source) {
+        return BitbucketSCMSourceIndex.get()
+                .lookup(source.getServerUrl(), source.getRepoOwner(), source.getRepository(), null)
+                .stream()
+                .anyMatch(entry -> entry.owner() != owner);
     }
 
     private List<BitbucketSCMSource> getBitbucketSCMSources(SCMSourceOwner owner) {
@@ -303,15 +298,27 @@ public class WebhookAutoRegisterListener extends ItemListener {
             .toList();
     }
 
+    // operations on the same repository must be done in the same order as they were called by the item listener
+    private static String getRepositoryKey(BitbucketSCMSource source) {
+        return URLUtils.normalizeURL(source.getServerUrl()) + "::" + StringUtils.upperCase(source.getRepoOwner()) + "::" + source.getRepository();
+    }
+
     /**
-     * We need a single thread executor to run webhooks operations in background but in order.
-     * Registrations and removals need to be done in the same order as they were called by the item listener.
+     * Returns the statistics of the webhook registrations in background.
+     *
+     * @return a list of human readable statistics
      */
-    private static synchronized ExecutorService getExecutorService() {
-        if (executorService == null) {
-            executorService = Executors.newSingleThreadExecutor(new NamingThreadFactory(new DaemonThreadFactory(), WebhookAutoRegisterListener.class.getName()));
+    @NonNull
+    @Restricted(NoExternalUse.class)
+    public static List<String> stats() {
+        return getExecutor().stats();
+    }
+
+    private static synchronized WebhookRegistrationExecutor getExecutor() {
+        if (executor == null) {
+            executor = new WebhookRegistrationExecutor(WebhookAutoRegisterListener.class.getName(), WORKERS);
         }
-        return executorService;
+        return executor;
     }
 
 }
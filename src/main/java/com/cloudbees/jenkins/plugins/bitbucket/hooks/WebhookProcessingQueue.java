@@ -0,0 +1,240 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.WebhookEventCoalescer;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Processes incoming webhooks in background, out of the HTTP request thread,
+ * so that Bitbucket gets an answer as soon as the payload has been verified.
+ * <p>
+ * Each endpoint has its own bounded queue drained by a fixed number of
+ * workers. Webhooks of the same repository are always processed by the same
+ * worker so that they are processed in the order they have been received.
+ * <p>
+ * When the queue of an endpoint is full, or too many webhooks are being
+ * received at the same time, the webhook is not accepted and Bitbucket is
+ * asked to deliver it again later.
+ */
+@Restricted(NoExternalUse.class)
+public final class WebhookProcessingQueue {
+    private static final Logger logger = Logger.getLogger(WebhookProcessingQueue.class.getName());
+
+    private static final boolean ENABLED = SystemProperties.getBoolean("bitbucket.webhook.async", true);
+    private static final int CAPACITY = SystemProperties.getInteger("bitbucket.webhook.queue.capacity", 500);
+    private static final int WORKERS = SystemProperties.getInteger("bitbucket.webhook.workers", 4);
+    private static final int MAX_CONCURRENT_REQUESTS = SystemProperties.getInteger("bitbucket.webhook.requests.limit", 50);
+    private static final int RETRY_AFTER = SystemProperties.getInteger("bitbucket.webhook.retryAfter", 30);
+
+    private static final Map<String, EndpointQueue> queues = new ConcurrentHashMap<>();
+    private static final Semaphore requests = new Semaphore(Math.max(1, MAX_CONCURRENT_REQUESTS));
+    private static final AtomicLong rejectedRequests = new AtomicLong();
+
+    private WebhookProcessingQueue() {
+    }
+
+    static boolean isEnabled() {
+        return ENABLED && CAPACITY > 0 && WORKERS > 0;
+    }
+
+    /* for test purpose */ static int getCapacity() {
+        return CAPACITY;
+    }
+
+    /**
+     * Returns how many seconds Bitbucket should wait before to deliver again
+     * a webhook that has not been accepted.
+     *
+     * @return the delay in seconds
+     */
+    static int getRetryAfter() {
+        return RETRY_AFTER;
+    }
+
+    /**
+     * Reserves a slot to receive a webhook, the slot must be released calling
+     * {@link #release()} once the webhook has been verified and queued.
+     *
+     * @return {@code true} if the webhook can be received, {@code false} if
+     *         too many webhooks are being received at the moment
+     */
+    static boolean tryAcquire() {
+        if (requests.tryAcquire()) {
+            return true;
+        }
+        rejectedRequests.incrementAndGet();
+        return false;
+    }
+
+    static void release() {
+        requests.release();
+    }
+
+    /**
+     * Queues the processing of a webhook.
+     *
+     * @param serverURL of the endpoint that sent the webhook
+     * @param repository identifies the repository of the webhook, webhooks
+     *        with the same identifier are processed in order
+     * @param task that processes the webhook
+     * @return {@code true} if the webhook has been queued, {@code false} if
+     *         the queue is full
+     */
+    static boolean offer(@NonNull String serverURL, @NonNull String repository, @NonNull Runnable task) {
+        EndpointQueue queue = queues.computeIfAbsent(URLUtils.normalizeURL(serverURL), EndpointQueue::new);
+        return queue.offer(repository, task);
+    }
+
+    /**
+     * Returns the statistics of the webhook queue of the given endpoint.
+     *
+     * @param serverURL of the endpoint
+     * @return a list of human readable statistics
+     */
+    @NonNull
+    public static List<String> stats(@CheckForNull String serverURL) {
+        String normalizedServerURL = URLUtils.normalizeURL(serverURL);
+        EndpointQueue queue = normalizedServerURL == null ? null : queues.get(normalizedServerURL);
+        List<String> stats = new ArrayList<>();
+        if (queue == null) {
+            stats.add("No webhook received yet.");
+        } else {
+            stats.addAll(queue.stats());
+        }
+        stats.add("Webhooks refused because too many were being received: " + rejectedRequests.get());
+        stats.addAll(WebhookEventCoalescer.stats());
+        return stats;
+    }
+
+    @Terminator
+    public static void shutdown() throws InterruptedException {
+        for (EndpointQueue queue : queues.values()) {
+            for (ThreadPoolExecutor worker : queue.workers) {
+                worker.shutdown();
+            }
+        }
+        for (EndpointQueue queue : queues.values()) {
+            for (ThreadPoolExecutor worker : queue.workers) {
+                if (!worker.awaitTermination(10, TimeUnit.SECONDS)) {
+                    logger.log(Level.WARNING, "Webhooks from {0} has not been processed before shutdown", queue.serverURL);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static final class EndpointQueue {
+        private final String serverURL;
+        private final ThreadPoolExecutor[] workers;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong totalWait = new AtomicLong();
+        private final AtomicLong maxWait = new AtomicLong();
+        private final AtomicLong totalProcessing = new AtomicLong();
+        private final AtomicLong maxProcessing = new AtomicLong();
+
+        EndpointQueue(String serverURL) {
+            this.serverURL = serverURL;
+            this.workers = new ThreadPoolExecutor[WORKERS];
+            for (int i = 0; i < WORKERS; i++) {
+                // a single thread for each worker keeps the order of the webhooks assigned to it
+                workers[i] = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                        new NamingThreadFactory(new DaemonThreadFactory(), WebhookProcessingQueue.class.getName() + " [" + serverURL + "] #" + i));
+                workers[i].allowCoreThreadTimeOut(true);
+            }
+        }
+
+        boolean offer(String repository, Runnable task) {
+            if (queued.incrementAndGet() > CAPACITY) {
+                queued.decrementAndGet();
+                rejected.incrementAndGet();
+                return false;
+            }
+            long queuedAt = System.nanoTime();
+            try {
+                workers[Math.floorMod(repository.hashCode(), workers.length)].execute(() -> process(task, queuedAt));
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                queued.decrementAndGet();
+                rejected.incrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        private void process(Runnable task, long queuedAt) {
+            long start = System.nanoTime();
+            try {
+                task.run();
+                processed.incrementAndGet();
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                logger.log(Level.WARNING, e, () -> "Failed to process webhook from " + serverURL);
+            } finally {
+                queued.decrementAndGet();
+                long end = System.nanoTime();
+                long wait = TimeUnit.NANOSECONDS.toMillis(start - queuedAt);
+                long processing = TimeUnit.NANOSECONDS.toMillis(end - start);
+                totalWait.addAndGet(wait);
+                maxWait.accumulateAndGet(wait, Math::max);
+                totalProcessing.addAndGet(processing);
+                maxProcessing.accumulateAndGet(processing, Math::max);
+            }
+        }
+
+        List<String> stats() {
+            long count = processed.get() + failed.get();
+            List<String> stats = new ArrayList<>();
+            stats.add("Queued: " + queued.get() + " (capacity " + CAPACITY + ", workers " + workers.length + ")");
+            stats.add("Processed: " + processed.get() + ", failed: " + failed.get() + ", refused because the queue was full: " + rejected.get());
+            stats.add("Time in queue: " + (count == 0 ? 0 : totalWait.get() / count) + "ms (average), " + maxWait.get() + "ms (max)");
+            stats.add("Processing time: " + (count == 0 ? 0 : totalProcessing.get() / count) + "ms (average), " + maxProcessing.get() + "ms (max)");
+            return stats;
+        }
+    }
+}
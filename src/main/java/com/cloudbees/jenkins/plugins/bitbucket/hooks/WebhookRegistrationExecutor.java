@@ -0,0 +1,190 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Runs webhook registrations and removals in background.
+ * <p>
+ * Operations submitted with the same key are run one at a time in the order
+ * they have been submitted, operations with different keys run concurrently
+ * up to the configured number of workers.
+ * <p>
+ * An operation submitted with a merge key is discarded when the last
+ * operation still waiting for the same key has the same merge key, because
+ * running it again would produce the same result.
+ */
+@Restricted(NoExternalUse.class)
+final class WebhookRegistrationExecutor {
+    private static final Logger logger = Logger.getLogger(WebhookRegistrationExecutor.class.getName());
+    private static final long ONE_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final int workers;
+    private final ThreadPoolExecutor executor;
+    // guarded by this, a key is present while its operations are waiting or running
+    private final Map<String, Deque<Task>> queues = new HashMap<>();
+    // guarded by this
+    private final Deque<Long> completions = new ArrayDeque<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong totalDuration = new AtomicLong();
+    private final AtomicLong maxDuration = new AtomicLong();
+
+    WebhookRegistrationExecutor(@NonNull String name, int workers) {
+        this.workers = Math.max(1, workers);
+        this.executor = new ThreadPoolExecutor(this.workers, this.workers, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), name));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Submits an operation.
+     *
+     * @param key operations with the same key are run in order
+     * @param mergeKey identifies operations that give the same result when
+     *        run again, {@code null} if the operation must always run
+     * @param task the operation
+     * @return {@code true} if the operation has been queued, {@code false} if
+     *         it has been merged with an operation already waiting
+     */
+    boolean submit(@NonNull String key, @CheckForNull Object mergeKey, @NonNull Runnable task) {
+        synchronized (this) {
+            Deque<Task> queue = queues.get(key);
+            if (queue != null) {
+                Task last = queue.peekLast();
+                if (mergeKey != null && last != null && mergeKey.equals(last.mergeKey)) {
+                    merged.incrementAndGet();
+                    return false;
+                }
+                // the worker of this key will run it
+                queue.addLast(new Task(mergeKey, task));
+                queued.incrementAndGet();
+                return true;
+            }
+            queue = new ArrayDeque<>();
+            queue.addLast(new Task(mergeKey, task));
+            queues.put(key, queue);
+            queued.incrementAndGet();
+        }
+        try {
+            executor.execute(() -> drain(key));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                queued.addAndGet(-queues.remove(key).size());
+            }
+            logger.log(Level.WARNING, "Webhook operation for {0} has been discarded", key);
+            return false;
+        }
+        return true;
+    }
+
+    private void drain(String key) {
+        while (true) {
+            Task task;
+            synchronized (this) {
+                task = queues.get(key).pollFirst();
+                if (task == null) {
+                    queues.remove(key);
+                    return;
+                }
+                queued.decrementAndGet();
+                running.incrementAndGet();
+            }
+            run(key, task);
+        }
+    }
+
+    private void run(String key, Task task) {
+        long start = System.nanoTime();
+        try {
+            task.runnable.run();
+            completed.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            logger.log(Level.WARNING, e, () -> "Webhook operation for " + key + " failed");
+        } finally {
+            running.decrementAndGet();
+            long end = System.nanoTime();
+            long duration = TimeUnit.NANOSECONDS.toMillis(end - start);
+            totalDuration.addAndGet(duration);
+            maxDuration.accumulateAndGet(duration, Math::max);
+            synchronized (this) {
+                completions.addLast(end);
+                trimCompletions(end);
+            }
+        }
+    }
+
+    private void trimCompletions(long now) {
+        while (!completions.isEmpty() && now - completions.peekFirst() > ONE_MINUTE) {
+            completions.removeFirst();
+        }
+    }
+
+    int getBacklog() {
+        return queued.get() + running.get();
+    }
+
+    @NonNull
+    List<String> stats() {
+        int lastMinute;
+        synchronized (this) {
+            trimCompletions(System.nanoTime());
+            lastMinute = completions.size();
+        }
+        long count = completed.get() + failed.get();
+        List<String> stats = new ArrayList<>();
+        stats.add("Webhook registrations waiting: " + queued.get() + ", running: " + running.get() + " (workers " + workers + ")");
+        stats.add("Webhook registrations completed: " + completed.get() + ", failed: " + failed.get() + ", merged with a waiting one: " + merged.get());
+        stats.add("Webhook registrations in the last minute: " + lastMinute
+                + ", duration: " + (count == 0 ? 0 : totalDuration.get() / count) + "ms (average), " + maxDuration.get() + "ms (max)");
+        return stats;
+    }
+
+    private record Task(@CheckForNull Object mergeKey, @NonNull Runnable runnable) {
+    }
+}
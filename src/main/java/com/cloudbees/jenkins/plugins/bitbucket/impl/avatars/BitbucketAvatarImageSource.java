@@ -26,15 +26,13 @@ package com.cloudbees.jenkins.plugins.bitbucket.impl.avatars;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApiFactory;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
-import com.cloudbees.jenkins.plugins.bitbucket.util.BitbucketCredentialsUtils;
-import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketAuthenticatorCache;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import hudson.security.ACL;
 import hudson.security.ACLContext;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import jenkins.authentication.tokens.api.AuthenticationTokens;
 import jenkins.model.Jenkins;
 import jenkins.scm.api.SCMNavigatorOwner;
 import jenkins.scm.impl.avatars.AvatarImage;
@@ -68,8 +66,7 @@ public class BitbucketAvatarImageSource implements AvatarImageSource {
                     owner = Jenkins.get().getItemByFullName(scmOwner, SCMNavigatorOwner.class);
                 }
                 if (owner != null) {
-                    StandardCredentials credentials = BitbucketCredentialsUtils.lookupCredentials(owner, serverURL, credentialsId, StandardCredentials.class);
-                    BitbucketAuthenticator authenticator = AuthenticationTokens.convert(BitbucketAuthenticator.authenticationContext(serverURL), credentials);
+                    BitbucketAuthenticator authenticator = BitbucketAuthenticatorCache.get(owner, serverURL, credentialsId);
                     // projectKey and repository are not used to fetch the project avatar
                     // owner can not be null but is not used from the client to retrieve avatar image, we just need authentication
                     try (BitbucketApi client = BitbucketApiFactory.newInstance(serverURL, authenticator, "tmp", null, null)) {
@@ -74,11 +74,37 @@ public class BitbucketServerEndpointConfigurator extends DataBoundConfigurator<B
             serverVersion = stringConfigurator.configure(mapping.get("serverVersion"), context);
             mapping.remove("serverVersion");
         }
+        final Configurator<Boolean> boolConfigurator = context.lookupOrFail(Boolean.class);
+        final Configurator<Integer> intConfigurator = context.lookupOrFail(Integer.class);
+        Boolean enableCache = null;
+        if (mapping.containsKey("enableCache")) {
+            enableCache = boolConfigurator.configure(mapping.get("enableCache"), context);
+            mapping.remove("enableCache");
+        }
+        Integer teamCacheDuration = null;
+        if (mapping.containsKey("teamCacheDuration")) {
+            teamCacheDuration = intConfigurator.configure(mapping.get("teamCacheDuration"), context);
+            mapping.remove("teamCacheDuration");
+        }
+        Integer repositoriesCacheDuration = null;
+        if (mapping.containsKey("repositoriesCacheDuration")) {
+            repositoriesCacheDuration = intConfigurator.configure(mapping.get("repositoriesCacheDuration"), context);
+            mapping.remove("repositoriesCacheDuration");
+        }
         BitbucketWebhookConfiguration webhook = getWebhook(mapping, context);
         BitbucketServerEndpoint endpoint = new BitbucketServerEndpoint(displayName, serverURL, webhook );
         if (serverVersion != null) {
             endpoint.setServerVersion(serverVersion);
         }
+        if (enableCache != null) {
+            endpoint.setEnableCache(enableCache);
+        }
+        if (teamCacheDuration != null) {
+            endpoint.setTeamCacheDuration(teamCacheDuration);
+        }
+        if (repositoriesCacheDuration != null) {
+            endpoint.setRepositoriesCacheDuration(repositoriesCacheDuration);
+        }
         // remove unmapped attributes
         if (mapping.containsKey("callCanMerge")) {
             logger.warning("callCanMerge is deprecated and ignored for BitbucketServerEndpoint definition, remove from your CasC definition.");
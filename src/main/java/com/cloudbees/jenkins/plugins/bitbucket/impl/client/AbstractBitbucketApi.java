@@ -26,6 +26,7 @@ package com.cloudbees.jenkins.plugins.bitbucket.impl.client;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticatedClient;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCommit;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketException;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRequestException;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketWebHook;
@@ -34,23 +35,44 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpointPro
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookManager;
 import com.cloudbees.jenkins.plugins.bitbucket.client.ClosingConnectionInputStream;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.JsonParser;
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.ExtensionList;
 import hudson.ProxyConfiguration;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import hudson.util.Secret;
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hc.client5.http.auth.AuthCache;
@@ -64,15 +86,12 @@ import org.apache.hc.client5.http.classic.methods.HttpHead;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.classic.methods.HttpPut;
 import org.apache.hc.client5.http.classic.methods.HttpUriRequest;
-import org.apache.hc.client5.http.config.ConnectionConfig;
-import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.entity.UrlEncodedFormEntity;
 import org.apache.hc.client5.http.impl.auth.BasicAuthCache;
 import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
 import org.apache.hc.client5.http.impl.auth.BasicScheme;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.client5.http.io.HttpClientConnectionManager;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.ClassicHttpResponse;
@@ -84,15 +103,25 @@ import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.NameValuePair;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
-import org.apache.hc.core5.util.TimeValue;
 import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.kohsuke.accmod.restrictions.ProtectedExternally;
 
 @Restricted(ProtectedExternally.class)
 public abstract class AbstractBitbucketApi implements BitbucketApi, AutoCloseable {
+    // max number of concurrent requests sent to an endpoint to resolve the commits needed by a scan
+    private static final int COMMIT_PREFETCH_PARALLELISM = SystemProperties.getInteger("bitbucket.commit.prefetch.parallelism", 5);
+    // max number of commits waiting to be resolved for an endpoint, once reached the scan waits for the requests in progress
+    private static final int COMMIT_PREFETCH_QUEUE_SIZE = SystemProperties.getInteger("bitbucket.commit.prefetch.queueSize", 100);
+    private static final Map<String, ExecutorService> prefetchExecutors = new ConcurrentHashMap<>();
+    // SHA-1 or SHA-256 commit hash
+    private static final Pattern FULL_HASH = Pattern.compile("[0-9a-f]{40}|[0-9a-f]{64}");
+
     protected final Logger logger = Logger.getLogger(this.getClass().getName());
     private final BitbucketAuthenticator authenticator;
     private HttpClientContext context;
+    // commits resolved by this client, a commit never changes so they are valid as long as the client is
+    private final Map<String, BitbucketCommit> resolvedCommits = new ConcurrentHashMap<>();
 
     protected AbstractBitbucketApi(BitbucketAuthenticator authenticator) {
         if (!isSupportedAuthenticator(authenticator)) {
@@ -148,33 +177,13 @@ public abstract class AbstractBitbucketApi implements BitbucketApi, AutoCloseabl
         return len;
     }
 
-    protected static PoolingHttpClientConnectionManagerBuilder connectionManagerBuilder() {
-        int connectTimeout = Integer.getInteger("http.connect.timeout", 10);
-        int socketTimeout = Integer.getInteger("http.socket.timeout", 60);
-        ConnectionConfig connectionConfig = ConnectionConfig.custom()
-                .setConnectTimeout(connectTimeout, TimeUnit.SECONDS)
-                .setSocketTimeout(socketTimeout, TimeUnit.SECONDS)
-                .build();
-
-        return PoolingHttpClientConnectionManagerBuilder.create()
-                .setDefaultConnectionConfig(connectionConfig);
-    }
-
     protected HttpClientBuilder setupClientBuilder() {
-        int connectionRequestTimeout = Integer.getInteger("http.connect.request.timeout", 60);
-
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectionRequestTimeout(connectionRequestTimeout, TimeUnit.SECONDS)
-                .build();
-
+        // timeouts and limits of the connections are those of the endpoint pool
         HttpClientBuilder httpClientBuilder = HttpClientBuilder.create()
                 .useSystemProperties()
                 .setConnectionManager(getConnectionManager())
                 .setConnectionManagerShared(true)
                 .setRetryStrategy(new ExponentialBackoffRetryStrategy(2, TimeUnit.SECONDS.toMillis(5), TimeUnit.HOURS.toMillis(1)))
-                .setDefaultRequestConfig(requestConfig)
-                .evictExpiredConnections()
-                .evictIdleConnections(TimeValue.ofSeconds(2))
                 .disableCookieManagement();
 
         if (authenticator != null) {
@@ -235,6 +244,10 @@ public abstract class AbstractBitbucketApi implements BitbucketApi, AutoCloseabl
      */
     protected abstract boolean isSupportedAuthenticator(@CheckForNull BitbucketAuthenticator authenticator);
 
+    /**
+     * Returns the connection manager shared by all clients of the same
+     * endpoint, see {@link ConnectionPools}.
+     */
     @CheckForNull
     protected abstract HttpClientConnectionManager getConnectionManager();
 
@@ -244,9 +257,31 @@ public abstract class AbstractBitbucketApi implements BitbucketApi, AutoCloseabl
     @NonNull
     protected abstract String getBaseURL();
 
+    /**
+     * Returns the URL of the endpoint this client sends requests to, used to
+     * share the resources of the same endpoint between clients.
+     *
+     * @return the URL of the endpoint
+     */
+    @NonNull
+    protected String getServerURL() {
+        return getBaseURL();
+    }
+
     @NonNull
     protected abstract CloseableHttpClient getClient();
 
+    /**
+     * Returns whether the endpoint of this client has the cache enabled, only
+     * then responses are kept to send conditional requests, see
+     * {@link ConditionalRequestCache}.
+     *
+     * @return {@code true} if responses can be cached
+     */
+    protected boolean isCacheEnabled() {
+        return false;
+    }
+
     protected ClassicHttpResponse executeMethod(HttpUriRequest request) throws IOException {
         HttpHost targetHost = getHost();
         HttpHost requestHost;
@@ -261,33 +296,166 @@ public abstract class AbstractBitbucketApi implements BitbucketApi, AutoCloseabl
         if (authenticator != null && targetHost.equals(requestHost)) {
             authenticator.configureRequest(request);
         }
-        return getClient().executeOpen(requestHost, request, context);
+        // the API quota applies only to requests sent to the endpoint
+        RateLimiter.Bucket rateLimit = targetHost.equals(requestHost)
+                ? RateLimiter.get(getServerURL(), authenticator == null ? null : authenticator.getId())
+                : null;
+        if (rateLimit != null) {
+            rateLimit.acquire(RateLimiter.currentPriority());
+        }
+        HttpClientContext requestContext = createRequestContext();
+        try {
+            ClassicHttpResponse response = getClient().executeOpen(requestHost, request, requestContext);
+            if (rateLimit != null) {
+                rateLimit.update(response);
+            }
+            return response;
+        } finally {
+            if (requestContext != null && requestContext.getUserToken() != null) {
+                // keep the connection state so that next requests could reuse pooled connections
+                context.setUserToken(requestContext.getUserToken());
+            }
+        }
+    }
+
+    /*
+     * HttpClientContext is not thread safe, the same client could be used by
+     * more threads so each request gets its own context that shares the
+     * authentication state configured for this client.
+     */
+    @CheckForNull
+    private HttpClientContext createRequestContext() {
+        if (context == null) {
+            return null;
+        }
+        HttpClientContext requestContext = HttpClientContext.create();
+        requestContext.setCredentialsProvider(context.getCredentialsProvider());
+        requestContext.setAuthCache(context.getAuthCache());
+        requestContext.setUserToken(context.getUserToken());
+        Object socketFactoryRegistry = context.getAttribute(BitbucketTlsSocketStrategy.SOCKET_FACTORY_REGISTRY);
+        if (socketFactoryRegistry != null) {
+            requestContext.setAttribute(BitbucketTlsSocketStrategy.SOCKET_FACTORY_REGISTRY, socketFactoryRegistry);
+        }
+        return requestContext;
+    }
+
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(ClassicHttpResponse response) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ContentParser<T> {
+        T parse(InputStream content) throws IOException;
     }
 
     private String doRequest(HttpUriRequest request) throws IOException {
+        return doRequest(request, response -> {
+            if (response.getCode() == HttpStatus.SC_NO_CONTENT) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                // 204, no content
+                return "";
+            }
+            return getResponseContent(response);
+        });
+    }
+
+    private <T> T doRequest(HttpUriRequest request, ResponseReader<T> reader) throws IOException {
         try (ClassicHttpResponse response =  executeMethod(request)) {
             int statusCode = response.getCode();
             if (statusCode == HttpStatus.SC_NOT_FOUND) {
                 String errorMessage = getResponseContent(response);
                 throw new FileNotFoundException("Resource " + request.getRequestUri() + " not found: " + errorMessage);
             }
-            if (statusCode == HttpStatus.SC_NO_CONTENT) {
-                EntityUtils.consumeQuietly(response.getEntity());
-                // 204, no content
-                return "";
-            }
-            String content = getResponseContent(response);
-            if (statusCode != HttpStatus.SC_OK && statusCode != HttpStatus.SC_CREATED) {
+            boolean notModified = statusCode == HttpStatus.SC_NOT_MODIFIED && ConditionalRequestCache.isConditional(request);
+            if (statusCode != HttpStatus.SC_OK && statusCode != HttpStatus.SC_CREATED && statusCode != HttpStatus.SC_NO_CONTENT && !notModified) {
+                String content = getResponseContent(response);
                 throw buildResponseException(response, content);
             }
-            return content;
-        } catch (FileNotFoundException | BitbucketRequestException e) {
+            return reader.read(response);
+        } catch (FileNotFoundException | BitbucketRequestException | JacksonException e) {
             throw e;
         } catch (IOException e) {
             throw new IOException("Communication error, requested URL: " + request, e);
         }
     }
 
+    /**
+     * Sends a GET request and parses the JSON response while it is read from
+     * the connection, without keeping the whole response in memory.
+     *
+     * @param <V> the type of returned object
+     * @param path the URL of the resource
+     * @param type the type of returned object
+     * @return the parsed response
+     * @throws IOException if there was a network communications error or the
+     *         response could not be parsed.
+     */
+    protected <V> V getRequestAs(String path, TypeReference<V> type) throws IOException {
+        return getRequestAs(path, in -> JsonParser.toJava(in, type));
+    }
+
+    /**
+     * Sends a GET request and parses the JSON response while it is read from
+     * the connection, without keeping the whole response in memory.
+     *
+     * @param <V> the type of returned object
+     * @param path the URL of the resource
+     * @param type the type of returned object
+     * @return the parsed response
+     * @throws IOException if there was a network communications error or the
+     *         response could not be parsed.
+     */
+    protected <V> V getRequestAs(String path, Class<V> type) throws IOException {
+        return getRequestAs(path, in -> JsonParser.toJava(in, type));
+    }
+
+    private <V> V getRequestAs(String path, ContentParser<V> parser) throws IOException {
+        HttpGet request = new HttpGet(path);
+        request.setAbsoluteRequestUri(true);
+        // responses depend on the permissions of the user
+        String serverURL = getServerURL();
+        String cacheKey = isCacheEnabled() && ConditionalRequestCache.isEnabled()
+                ? (authenticator == null ? "" : authenticator.getId()) + '@' + path
+                : null;
+        ConditionalRequestCache.Entry cached = cacheKey == null ? null : ConditionalRequestCache.get(serverURL, cacheKey);
+        if (cached != null) {
+            cached.configure(request);
+        }
+        try {
+            return doRequest(request, response -> {
+                HttpEntity entity = response.getEntity();
+                try (InputStream is = entity == null ? InputStream.nullInputStream() : entity.getContent()) {
+                    if (cached != null && response.getCode() == HttpStatus.SC_NOT_MODIFIED) {
+                        ConditionalRequestCache.hit(serverURL);
+                        return parser.parse(new ByteArrayInputStream(cached.body()));
+                    }
+                    ConditionalRequestCache.Entry validators = cacheKey == null ? null : ConditionalRequestCache.Entry.validatorsOf(response);
+                    if (validators == null) {
+                        if (cached != null) {
+                            ConditionalRequestCache.remove(serverURL, cacheKey);
+                        }
+                        return parser.parse(is);
+                    }
+                    ConditionalRequestCache.miss(serverURL);
+                    byte[] body = is.readNBytes(ConditionalRequestCache.getMaxEntrySize() + 1);
+                    if (body.length > ConditionalRequestCache.getMaxEntrySize()) {
+                        // too big to be kept, parse while the remaining content is read
+                        ConditionalRequestCache.remove(serverURL, cacheKey);
+                        return parser.parse(new SequenceInputStream(new ByteArrayInputStream(body), is));
+                    }
+                    V value = parser.parse(new ByteArrayInputStream(body));
+                    ConditionalRequestCache.put(serverURL, cacheKey, validators.withBody(body));
+                    return value;
+                } finally {
+                    EntityUtils.consumeQuietly(entity);
+                }
+            });
+        } catch (JacksonException e) {
+            throw new IOException("I/O error when parsing response from URL: " + path, e);
+        }
+    }
+
     /*
      * Caller's responsible to close the InputStream.
      */
@@ -295,15 +463,16 @@ public abstract class AbstractBitbucketApi implements BitbucketApi, AutoCloseabl
         HttpGet httpget = new HttpGet(path);
         ClassicHttpResponse response =  executeMethod(httpget);
         int statusCode = response.getCode();
-        if (statusCode == HttpStatus.SC_NOT_FOUND) {
-            String errorMessage = getResponseContent(response);
-            throw new FileNotFoundException("Resource " + path + " not found: " + errorMessage);
+        if (statusCode == HttpStatus.SC_OK) {
+            return new ClosingConnectionInputStream(response);
         }
-        if (statusCode != HttpStatus.SC_OK) {
+        try (response) {
             String content = getResponseContent(response);
+            if (statusCode == HttpStatus.SC_NOT_FOUND) {
+                throw new FileNotFoundException("Resource " + path + " not found: " + content);
+            }
             throw buildResponseException(response, content);
         }
-        return new ClosingConnectionInputStream(response);
     }
 
     protected int headRequestStatus(String path) throws IOException {
@@ -357,6 +526,100 @@ public abstract class AbstractBitbucketApi implements BitbucketApi, AutoCloseabl
         return authenticator;
     }
 
+    /**
+     * Returns the commit already resolved by this client for the given hash or
+     * loads it with the given request.
+     *
+     * @param hash of the commit
+     * @param request that loads the commit from Bitbucket
+     * @return the commit or {@code null} if the request does not find it
+     * @throws IOException if there was a network communications error.
+     */
+    @CheckForNull
+    protected BitbucketCommit resolveCommit(@NonNull String hash, @NonNull ICheckedCallable<? extends BitbucketCommit, IOException> request) throws IOException {
+        BitbucketCommit commit = resolvedCommits.get(hash);
+        if (commit == null) {
+            commit = request.call();
+            // a reference name or a short hash could point to another commit later
+            if (commit != null && FULL_HASH.matcher(hash).matches()) {
+                resolvedCommits.put(hash, commit);
+            }
+        }
+        return commit;
+    }
+
+    /**
+     * Resolves concurrently the given commits so that later calls to
+     * {@link #resolveCommit(String)} made by this client, like those to get the
+     * details of a branch head, do not wait for Bitbucket.
+     * <p>
+     * Commits that can not be resolved are ignored, the error will be raised
+     * when they are resolved again.
+     *
+     * @param hashes of the commits to resolve
+     * @throws InterruptedException if interrupted while waiting on remote
+     *         communications.
+     */
+    @Restricted(NoExternalUse.class)
+    public void prefetchCommits(@NonNull Collection<String> hashes) throws InterruptedException {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String hash : hashes) {
+            if (hash != null && FULL_HASH.matcher(hash).matches() && !resolvedCommits.containsKey(hash)) {
+                missing.add(hash);
+            }
+        }
+        if (COMMIT_PREFETCH_PARALLELISM <= 1 || missing.size() <= 1) {
+            // resolved lazily one by one
+            return;
+        }
+
+        ExecutorService executor = getPrefetchExecutor(getBaseURL());
+        RateLimiter.Priority priority = RateLimiter.currentPriority();
+        List<Future<BitbucketCommit>> tasks = new ArrayList<>(missing.size());
+        try {
+            for (String hash : missing) {
+                tasks.add(executor.submit(() -> {
+                    try (RateLimiter.Scope scope = RateLimiter.prioritize(priority)) {
+                        return resolveCommit(hash);
+                    }
+                }));
+            }
+            for (Future<BitbucketCommit> task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    logger.log(Level.FINE, "Could not prefetch commit", e.getCause());
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            // the scan has been interrupted while waiting for the queue
+            throw (InterruptedException) new InterruptedException("Interrupted while prefetching commits").initCause(e);
+        } finally {
+            for (Future<BitbucketCommit> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    private static ExecutorService getPrefetchExecutor(@NonNull String serverURL) {
+        return prefetchExecutors.computeIfAbsent(serverURL, url -> {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(COMMIT_PREFETCH_PARALLELISM, COMMIT_PREFETCH_PARALLELISM,
+                    60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(Math.max(1, COMMIT_PREFETCH_QUEUE_SIZE)),
+                    new NamingThreadFactory(new DaemonThreadFactory(), "AbstractBitbucketApi.prefetchCommits [" + url + "]"),
+                    (task, pool) -> {
+                        // resolving the commit in the scan thread would exceed the limit of concurrent requests, wait for room instead
+                        try {
+                            pool.getQueue().put(task);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException("Interrupted while waiting to prefetch a commit", e);
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        });
+    }
+
     @Override
     public List<? extends BitbucketWebHook> getWebHooks() throws IOException {
         logger.warning("getWebHooks is deprecated, do not use this API method anymore, webhook are now handled by the BitbucketWebhookManager.");
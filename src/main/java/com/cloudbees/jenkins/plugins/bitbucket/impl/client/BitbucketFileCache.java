@@ -0,0 +1,472 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import com.cloudbees.jenkins.plugins.bitbucket.filesystem.BitbucketSCMFile;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import jenkins.model.Jenkins;
+import jenkins.scm.api.SCMFile;
+import jenkins.util.SystemProperties;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Caches the content and the metadata of files read at an immutable commit.
+ * <p>
+ * Files are identified by server URL, repository, commit hash and path so the
+ * cached values never change and are only evicted when the size limits are
+ * reached. Content is kept in a small in-memory tier backed by a bigger on-disk
+ * tier in the Jenkins root directory, both evicting the least recently used
+ * entries first. Files read at a branch name or at a merge revision of a pull
+ * request are never cached.
+ */
+@Restricted(NoExternalUse.class)
+public final class BitbucketFileCache {
+    private static final Logger logger = Logger.getLogger(BitbucketFileCache.class.getName());
+
+    private static final long MEMORY_SIZE = SystemProperties.getLong("bitbucket.filecache.memory.size", 8L * 1024 * 1024);
+    private static final long DISK_SIZE = SystemProperties.getLong("bitbucket.filecache.disk.size", 128L * 1024 * 1024);
+    private static final int MAX_FILE_SIZE = SystemProperties.getInteger("bitbucket.filecache.file.size", 1024 * 1024);
+    private static final int MAX_METADATA_ENTRIES = SystemProperties.getInteger("bitbucket.filecache.metadata.entries", 10000);
+    // SHA-1 or SHA-256 commit hash
+    private static final Pattern FULL_HASH = Pattern.compile("[0-9a-f]{40}|[0-9a-f]{64}");
+
+    private static BitbucketFileCache instance;
+
+    /**
+     * Loads a value from Bitbucket when it is not cached.
+     *
+     * @param <V> the type of loaded value
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws IOException, InterruptedException;
+    }
+
+    /**
+     * Cache counters.
+     *
+     * @param memoryHits number of content requests served from memory
+     * @param diskHits number of content requests served from disk
+     * @param misses number of content requests sent to Bitbucket
+     * @param metadataHits number of type and directory requests served from
+     *        memory
+     * @param metadataMisses number of type and directory requests sent to
+     *        Bitbucket
+     * @param memorySize bytes of content kept in memory
+     * @param diskSize bytes of content kept on disk
+     */
+    public record Statistics(long memoryHits, long diskHits, long misses,
+                             long metadataHits, long metadataMisses,
+                             long memorySize, long diskSize) {
+    }
+
+    // content read with some credentials must not be served to a client using other credentials, even with the same identifier
+    private record Key(String serverURL, String credentials, String owner, String repository, String hash, String path) {
+        private Key withPath(String path) {
+            return new Key(serverURL, credentials, owner, repository, hash, path);
+        }
+
+        private String fileName() {
+            return DigestUtils.sha256Hex(String.join("\n", serverURL, credentials, owner, repository, hash, path));
+        }
+    }
+
+    private record Child(String name, SCMFile.Type type, String hash) {
+    }
+
+    private final long memoryLimit;
+    private final long diskLimit;
+    private final int maxFileSize;
+    @CheckForNull
+    private final Path directory;
+
+    // guarded by this
+    private final LinkedHashMap<Key, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memorySize;
+    // file name to size, guarded by this
+    private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskSize;
+    // guarded by this
+    private final LinkedHashMap<Key, Object> metadata;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong metadataHits = new AtomicLong();
+    private final AtomicLong metadataMisses = new AtomicLong();
+
+    BitbucketFileCache(@CheckForNull Path directory, long memoryLimit, long diskLimit, int maxFileSize, int maxMetadataEntries) {
+        this.memoryLimit = memoryLimit;
+        this.diskLimit = diskLimit;
+        this.maxFileSize = maxFileSize;
+        this.directory = diskLimit > 0 ? directory : null;
+        this.metadata = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > maxMetadataEntries;
+            }
+        };
+        loadDiskIndex();
+    }
+
+    /**
+     * Returns the cache shared by all file systems.
+     *
+     * @return the file cache
+     */
+    @NonNull
+    public static synchronized BitbucketFileCache get() {
+        if (instance == null) {
+            Jenkins jenkins = Jenkins.getInstanceOrNull();
+            Path directory = jenkins == null ? null : new File(jenkins.getRootDir(), "caches/bitbucket-branch-source/files").toPath();
+            instance = new BitbucketFileCache(directory, MEMORY_SIZE, DISK_SIZE, MAX_FILE_SIZE, MAX_METADATA_ENTRIES);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the content of the given file, requesting it to Bitbucket only
+     * if it is not cached.
+     *
+     * @param api the client used to load the file
+     * @param file the file to read
+     * @param loader requests the content to Bitbucket
+     * @return the file content
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote
+     *         communications.
+     */
+    @NonNull
+    public InputStream getContent(@NonNull BitbucketApi api, @NonNull BitbucketSCMFile file, @NonNull Loader<InputStream> loader) throws IOException, InterruptedException {
+        Key key = keyOf(api, file);
+        if (key == null || maxFileSize <= 0 || (memoryLimit <= 0 && directory == null)) {
+            return loader.load();
+        }
+
+        byte[] content = fromMemory(key);
+        if (content != null) {
+            memoryHits.incrementAndGet();
+            return new ByteArrayInputStream(content);
+        }
+        content = fromDisk(key);
+        if (content != null) {
+            diskHits.incrementAndGet();
+            toMemory(key, content);
+            return new ByteArrayInputStream(content);
+        }
+
+        misses.incrementAndGet();
+        InputStream is = loader.load();
+        try {
+            content = is.readNBytes(maxFileSize + 1);
+            if (content.length > maxFileSize) {
+                // too big to be cached, the caller reads the remaining content from the connection
+                InputStream remaining = is;
+                is = null;
+                return new SequenceInputStream(new ByteArrayInputStream(content), remaining);
+            }
+        } finally {
+            if (is != null) {
+                is.close();
+            }
+        }
+        toMemory(key, content);
+        toDisk(key, content);
+        return new ByteArrayInputStream(content);
+    }
+
+    /**
+     * Returns the type of the given file, requesting it to Bitbucket only if it
+     * is not cached.
+     *
+     * @param api the client used to load the file
+     * @param file the file to resolve
+     * @param loader requests the type to Bitbucket
+     * @return the file type
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote
+     *         communications.
+     */
+    @NonNull
+    public SCMFile.Type getType(@NonNull BitbucketApi api, @NonNull BitbucketSCMFile file, @NonNull Loader<SCMFile.Type> loader) throws IOException, InterruptedException {
+        Key key = keyOf(api, file);
+        if (key == null) {
+            return loader.load();
+        }
+        Key typeKey = key.withPath("type:" + key.path());
+        Object type = fromMetadata(typeKey);
+        if (type instanceof SCMFile.Type value) {
+            metadataHits.incrementAndGet();
+            return value;
+        }
+        metadataMisses.incrementAndGet();
+        SCMFile.Type value = loader.load();
+        toMetadata(typeKey, value);
+        return value;
+    }
+
+    /**
+     * Returns the children of the given directory, requesting them to
+     * Bitbucket only if they are not cached.
+     *
+     * @param api the client used to load the directory
+     * @param directory the directory to list
+     * @param loader requests the directory content to Bitbucket
+     * @return the directory content
+     * @throws IOException if there was a network communications error.
+     * @throws InterruptedException if interrupted while waiting on remote
+     *         communications.
+     */
+    @NonNull
+    public Iterable<SCMFile> getChildren(@NonNull BitbucketApi api, @NonNull BitbucketSCMFile directory, @NonNull Loader<Iterable<SCMFile>> loader) throws IOException, InterruptedException {
+        Key key = keyOf(api, directory);
+        if (key == null) {
+            return loader.load();
+        }
+        Key childrenKey = key.withPath("children:" + key.path());
+        Object cached = fromMetadata(childrenKey);
+        if (cached instanceof List<?> children) {
+            metadataHits.incrementAndGet();
+            List<SCMFile> files = new ArrayList<>(children.size());
+            for (Object child : children) {
+                Child c = (Child) child;
+                // children are bound to the given directory, that could use a different client than the cached one
+                files.add(new BitbucketSCMFile(directory, c.name(), c.type(), c.hash()));
+            }
+            return files;
+        }
+
+        metadataMisses.incrementAndGet();
+        Iterable<SCMFile> files = loader.load();
+        List<Child> children = new ArrayList<>();
+        for (SCMFile file : files) {
+            if (!(file instanceof BitbucketSCMFile scmFile)) {
+                return files;
+            }
+            children.add(new Child(scmFile.getName(), scmFile.getType(), scmFile.getHash()));
+        }
+        toMetadata(childrenKey, List.copyOf(children));
+        return files;
+    }
+
+    /**
+     * Returns the counters of this cache.
+     *
+     * @return the cache statistics
+     */
+    @NonNull
+    public synchronized Statistics getStatistics() {
+        return new Statistics(memoryHits.get(), diskHits.get(), misses.get(),
+                metadataHits.get(), metadataMisses.get(),
+                memorySize, diskSize);
+    }
+
+    /**
+     * Removes all cached entries.
+     */
+    public synchronized void clear() {
+        memory.clear();
+        memorySize = 0;
+        metadata.clear();
+        for (String fileName : disk.keySet()) {
+            deleteQuietly(fileName);
+        }
+        disk.clear();
+        diskSize = 0;
+    }
+
+    @CheckForNull
+    private static Key keyOf(@NonNull BitbucketApi api, @NonNull BitbucketSCMFile file) {
+        String hash = file.getHash();
+        if (hash == null || !FULL_HASH.matcher(hash).matches() || !(api instanceof AbstractBitbucketApi client)) {
+            return null;
+        }
+        BitbucketAuthenticator authenticator = client.getAuthenticator();
+        String credentials = authenticator == null ? "<anonymous>" : authenticator.getFingerprint();
+        if (credentials == null) {
+            // who has read the file is not known
+            return null;
+        }
+        return new Key(client.getBaseURL(), credentials, api.getOwner(), api.getRepositoryName(), hash, file.getPath());
+    }
+
+    private synchronized byte[] fromMemory(Key key) {
+        return memory.get(key);
+    }
+
+    private synchronized void toMemory(Key key, byte[] content) {
+        if (content.length > memoryLimit) {
+            return;
+        }
+        byte[] previous = memory.put(key, content);
+        if (previous != null) {
+            memorySize -= previous.length;
+        }
+        memorySize += content.length;
+        Iterator<byte[]> it = memory.values().iterator();
+        while (memorySize > memoryLimit && it.hasNext()) {
+            memorySize -= it.next().length;
+            it.remove();
+        }
+    }
+
+    private synchronized Object fromMetadata(Key key) {
+        return metadata.get(key);
+    }
+
+    private synchronized void toMetadata(Key key, Object value) {
+        metadata.put(key, value);
+    }
+
+    @CheckForNull
+    private byte[] fromDisk(Key key) {
+        if (directory == null) {
+            return null;
+        }
+        String fileName = key.fileName();
+        synchronized (this) {
+            if (disk.get(fileName) == null) {
+                return null;
+            }
+        }
+        try {
+            return Files.readAllBytes(directory.resolve(fileName));
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Could not read cached file " + fileName, e);
+            synchronized (this) {
+                Long size = disk.remove(fileName);
+                if (size != null) {
+                    diskSize -= size;
+                }
+            }
+            return null;
+        }
+    }
+
+    private void toDisk(Key key, byte[] content) {
+        if (directory == null || content.length > diskLimit) {
+            return;
+        }
+        String fileName = key.fileName();
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, fileName, ".tmp");
+            try {
+                Files.write(tmp, content);
+                Files.move(tmp, directory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Could not write cached file " + fileName, e);
+            return;
+        }
+        synchronized (this) {
+            Long previous = disk.put(fileName, (long) content.length);
+            if (previous != null) {
+                diskSize -= previous;
+            }
+            diskSize += content.length;
+            evictFromDisk();
+        }
+    }
+
+    // guarded by this
+    private void evictFromDisk() {
+        Iterator<Map.Entry<String, Long>> it = disk.entrySet().iterator();
+        while (diskSize > diskLimit && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            diskSize -= eldest.getValue();
+            deleteQuietly(eldest.getKey());
+        }
+    }
+
+    private void deleteQuietly(String fileName) {
+        if (directory != null) {
+            try {
+                Files.deleteIfExists(directory.resolve(fileName));
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Could not delete cached file " + fileName, e);
+            }
+        }
+    }
+
+    private synchronized void loadDiskIndex() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        // files cached by a previous run, least recently written first
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> cached = files.filter(Files::isRegularFile).sorted(Comparator.comparing(BitbucketFileCache::lastModified)).toList();
+            for (Path file : cached) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                long size = Files.size(file);
+                disk.put(fileName, size);
+                diskSize += size;
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not load the file cache from " + directory, e);
+        }
+        evictFromDisk();
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
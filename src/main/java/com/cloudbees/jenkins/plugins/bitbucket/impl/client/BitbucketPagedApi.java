@@ -0,0 +1,69 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBranch;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCommit;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Lazy variants of the {@link BitbucketApi} listing methods. Pages are
+ * requested while the returned values are iterated, so a consumer that stops
+ * iterating early does not download the remaining pages.
+ */
+@Restricted(NoExternalUse.class)
+public interface BitbucketPagedApi {
+
+    /**
+     * Lazy variant of {@link BitbucketApi#getBranches()}.
+     *
+     * @return the branches in the repository.
+     */
+    @NonNull
+    PagedIterable<? extends BitbucketBranch> iterateBranches();
+
+    /**
+     * Lazy variant of {@link BitbucketApi#getTags()}.
+     *
+     * @return the tags in the repository.
+     */
+    @NonNull
+    PagedIterable<? extends BitbucketBranch> iterateTags();
+
+    /**
+     * Lazy variant of {@link BitbucketApi#getCommits(String, String)}.
+     *
+     * @param from the commit or reference containing the changes we wish to
+     *        preview or {@code null} to get changes since the beginning.
+     * @param to the commit or reference representing the state to which we
+     *        want to compare the first commit
+     * @return the commits between first commit and second source commit.
+     */
+    @NonNull
+    PagedIterable<? extends BitbucketCommit> iterateCommits(@CheckForNull String from, @NonNull String to);
+}
@@ -0,0 +1,239 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Util;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jenkins.util.SystemProperties;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps the validators ({@code ETag} and {@code Last-Modified}) and the body
+ * of the last response received for a GET URL, so that the same request can
+ * be sent again as a conditional request and the body reused when Bitbucket
+ * answers {@code 304 Not Modified}.
+ * <p>
+ * The raw body is stored instead of the parsed value because the objects
+ * returned by the clients are modified later (for example with the commit
+ * closures of branches), each response is parsed again to get new instances.
+ * Entries are evicted least recently used first when the size limit, shared
+ * by all servers, is reached. Statistics and clearing are per server.
+ */
+@Restricted(NoExternalUse.class)
+public final class ConditionalRequestCache {
+    private static final long MAX_SIZE = SystemProperties.getLong("bitbucket.conditionalcache.size", 32L * 1024 * 1024);
+    private static final int MAX_ENTRY_SIZE = SystemProperties.getInteger("bitbucket.conditionalcache.entry.size", 2 * 1024 * 1024);
+
+    // entries of all servers share the size limit, keyed by normalized server URL and request
+    private static final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private static long size;
+    // by normalized server URL
+    private static final Map<String, Counters> counters = new HashMap<>();
+
+    private record Key(String serverURL, String request) {
+    }
+
+    private static final class Counters {
+        private int entries;
+        private long size;
+        private long hits;
+        private long misses;
+    }
+
+    /**
+     * Validators and body of a response.
+     *
+     * @param etag value of the ETag header
+     * @param lastModified value of the Last-Modified header
+     * @param body raw response body
+     */
+    record Entry(@CheckForNull String etag, @CheckForNull String lastModified, @NonNull byte[] body) {
+
+        /**
+         * Returns the validators of the given response, if any.
+         *
+         * @param response received from Bitbucket
+         * @return an entry without body or {@code null} if the response has no
+         *         validators
+         */
+        @CheckForNull
+        static Entry validatorsOf(@NonNull ClassicHttpResponse response) {
+            String etag = valueOf(response.getFirstHeader(HttpHeaders.ETAG));
+            String lastModified = valueOf(response.getFirstHeader(HttpHeaders.LAST_MODIFIED));
+            if (etag == null && lastModified == null) {
+                return null;
+            }
+            return new Entry(etag, lastModified, new byte[0]);
+        }
+
+        private static String valueOf(Header header) {
+            return header == null ? null : header.getValue();
+        }
+
+        Entry withBody(@NonNull byte[] body) {
+            return new Entry(etag, lastModified, body);
+        }
+
+        /**
+         * Makes the given request conditional on these validators.
+         *
+         * @param request to send
+         */
+        void configure(@NonNull HttpRequest request) {
+            if (etag != null) {
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            if (lastModified != null) {
+                request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+    }
+
+    private ConditionalRequestCache() {
+    }
+
+    static boolean isEnabled() {
+        return MAX_SIZE > 0 && MAX_ENTRY_SIZE > 0;
+    }
+
+    static int getMaxEntrySize() {
+        return MAX_ENTRY_SIZE;
+    }
+
+    /**
+     * Returns {@code true} if the given request has been made conditional by
+     * {@link Entry#configure(HttpRequest)}.
+     *
+     * @param request sent to Bitbucket
+     * @return {@code true} if a 304 response is expected
+     */
+    static boolean isConditional(@NonNull HttpRequest request) {
+        return request.containsHeader(HttpHeaders.IF_NONE_MATCH) || request.containsHeader(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    @CheckForNull
+    static synchronized Entry get(@NonNull String serverURL, @NonNull String request) {
+        return entries.get(new Key(normalize(serverURL), request));
+    }
+
+    static synchronized void put(@NonNull String serverURL, @NonNull String request, @NonNull Entry entry) {
+        Key key = new Key(normalize(serverURL), request);
+        if (entry.body().length > MAX_ENTRY_SIZE) {
+            remove(key);
+            return;
+        }
+        remove(key);
+        entries.put(key, entry);
+        Counters server = countersOf(key.serverURL());
+        server.entries++;
+        server.size += entry.body().length;
+        size += entry.body().length;
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (size > MAX_SIZE && it.hasNext()) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            it.remove();
+            discount(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    static synchronized void remove(@NonNull String serverURL, @NonNull String request) {
+        remove(new Key(normalize(serverURL), request));
+    }
+
+    private static void remove(Key key) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            discount(key, previous);
+        }
+    }
+
+    private static void discount(Key key, Entry entry) {
+        Counters server = countersOf(key.serverURL());
+        server.entries--;
+        server.size -= entry.body().length;
+        size -= entry.body().length;
+    }
+
+    static synchronized void hit(@NonNull String serverURL) {
+        countersOf(normalize(serverURL)).hits++;
+    }
+
+    static synchronized void miss(@NonNull String serverURL) {
+        countersOf(normalize(serverURL)).misses++;
+    }
+
+    private static Counters countersOf(String serverURL) {
+        return counters.computeIfAbsent(serverURL, k -> new Counters());
+    }
+
+    private static String normalize(String serverURL) {
+        return Util.fixNull(URLUtils.normalizeURL(serverURL));
+    }
+
+    /**
+     * Returns human readable statistics of the entries of the given server.
+     *
+     * @param serverURL of the endpoint
+     * @return the cache statistics
+     */
+    @NonNull
+    public static synchronized String stats(@CheckForNull String serverURL) {
+        Counters server = counters.getOrDefault(normalize(serverURL), new Counters());
+        return "Conditional requests: " + server.entries + " entries, " + server.size + " bytes, "
+                + server.hits + " not modified, " + server.misses + " modified";
+    }
+
+    /**
+     * Removes the entries of the given server.
+     *
+     * @param serverURL of the endpoint
+     */
+    public static synchronized void clear(@CheckForNull String serverURL) {
+        String normalized = normalize(serverURL);
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> entry = it.next();
+            if (entry.getKey().serverURL().equals(normalized)) {
+                it.remove();
+                size -= entry.getValue().body().length;
+            }
+        }
+        Counters server = counters.get(normalized);
+        if (server != null) {
+            server.entries = 0;
+            server.size = 0;
+        }
+    }
+}
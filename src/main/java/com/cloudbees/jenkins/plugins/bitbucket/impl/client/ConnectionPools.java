@@ -0,0 +1,309 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpointProvider;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.AbstractBitbucketEndpoint;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Util;
+import hudson.init.Terminator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps a pool of HTTP connections for each endpoint, shared by all the
+ * clients that send requests to the same endpoint.
+ * <p>
+ * The limits and timeouts of a pool are those configured in the endpoint, or
+ * the defaults when not configured, and are applied to the existing pool when
+ * the endpoint configuration changes.
+ */
+@Restricted(NoExternalUse.class)
+public final class ConnectionPools {
+    private static final int DEFAULT_MAX_CONNECTIONS = SystemProperties.getInteger("bitbucket.http.maxConnections", 40);
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = SystemProperties.getInteger("bitbucket.http.maxConnectionsPerRoute", 20);
+    private static final int DEFAULT_KEEP_ALIVE_TIMEOUT = SystemProperties.getInteger("bitbucket.http.keepAliveTimeout", 30);
+    // how often idle and expired connections are closed, in seconds
+    private static final int EVICTION_PERIOD = 5;
+
+    private static final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private static ScheduledFuture<?> evictor;
+
+    private ConnectionPools() {
+    }
+
+    /**
+     * Limits and timeouts of a connection pool, timeouts are in seconds.
+     */
+    record Settings(int maxConnections, int maxConnectionsPerRoute, int connectTimeout, int socketTimeout,
+            int connectionRequestTimeout, int keepAliveTimeout) {
+
+        @NonNull
+        static Settings of(@CheckForNull AbstractBitbucketEndpoint endpoint) {
+            if (endpoint == null) {
+                return new Settings(DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_ROUTE,
+                        defaultConnectTimeout(), defaultSocketTimeout(), defaultConnectionRequestTimeout(), DEFAULT_KEEP_ALIVE_TIMEOUT);
+            }
+            return new Settings(valueOrDefault(endpoint.getMaxConnections(), DEFAULT_MAX_CONNECTIONS),
+                    valueOrDefault(endpoint.getMaxConnectionsPerRoute(), DEFAULT_MAX_CONNECTIONS_PER_ROUTE),
+                    valueOrDefault(endpoint.getConnectTimeout(), defaultConnectTimeout()),
+                    valueOrDefault(endpoint.getSocketTimeout(), defaultSocketTimeout()),
+                    valueOrDefault(endpoint.getConnectionRequestTimeout(), defaultConnectionRequestTimeout()),
+                    valueOrDefault(endpoint.getKeepAliveTimeout(), DEFAULT_KEEP_ALIVE_TIMEOUT));
+        }
+
+        private static int valueOrDefault(@CheckForNull Integer value, int defaultValue) {
+            return value == null || value <= 0 ? defaultValue : value;
+        }
+
+        // system properties are read each time so that they could be changed at runtime by the script console
+        private static int defaultConnectTimeout() {
+            return Integer.getInteger("http.connect.timeout", 10);
+        }
+
+        private static int defaultSocketTimeout() {
+            return Integer.getInteger("http.socket.timeout", 60);
+        }
+
+        private static int defaultConnectionRequestTimeout() {
+            return Integer.getInteger("http.connect.request.timeout", 60);
+        }
+
+        ConnectionConfig toConnectionConfig() {
+            return ConnectionConfig.custom()
+                    .setConnectTimeout(connectTimeout, TimeUnit.SECONDS)
+                    .setSocketTimeout(socketTimeout, TimeUnit.SECONDS)
+                    .build();
+        }
+    }
+
+    /**
+     * Returns the connection pool of the given endpoint, the pool is created
+     * the first time it is requested.
+     * <p>
+     * The returned pool is shared and must never be closed by the caller.
+     *
+     * @param serverURL of the endpoint
+     * @param customizer that configures the pool when it is created, for
+     *        example to setup the TLS strategy
+     * @return the connection pool of the endpoint
+     */
+    @NonNull
+    public static HttpClientConnectionManager get(@NonNull String serverURL, @NonNull UnaryOperator<PoolingHttpClientConnectionManagerBuilder> customizer) {
+        String key = Util.fixNull(URLUtils.normalizeURL(serverURL));
+        Settings settings = Settings.of(lookupEndpoint(serverURL));
+        Pool pool = pools.compute(key, (url, current) -> {
+            if (current == null) {
+                PoolingHttpClientConnectionManagerBuilder builder = PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(settings.maxConnections())
+                        .setMaxConnPerRoute(settings.maxConnectionsPerRoute())
+                        .setDefaultConnectionConfig(settings.toConnectionConfig());
+                return new Pool(customizer.apply(builder).build(), settings);
+            }
+            current.configure(settings);
+            return current;
+        });
+        scheduleEviction();
+        return pool;
+    }
+
+    @CheckForNull
+    private static AbstractBitbucketEndpoint lookupEndpoint(String serverURL) {
+        if (Jenkins.getInstanceOrNull() == null) {
+            // unit tests
+            return null;
+        }
+        return BitbucketEndpointProvider.lookupEndpoint(serverURL, AbstractBitbucketEndpoint.class).orElse(null);
+    }
+
+    private static synchronized void scheduleEviction() {
+        if (evictor == null) {
+            // HttpClient does not evict connections of a shared connection manager
+            evictor = Timer.get().scheduleWithFixedDelay(() -> pools.values().forEach(Pool::evict),
+                    EVICTION_PERIOD, EVICTION_PERIOD, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Returns the statistics of the connection pool of the given endpoint.
+     *
+     * @param serverURL of the endpoint
+     * @return a list of human readable statistics
+     */
+    @NonNull
+    public static List<String> stats(@CheckForNull String serverURL) {
+        String key = URLUtils.normalizeURL(serverURL);
+        Pool pool = key == null ? null : pools.get(key);
+        List<String> stats = new ArrayList<>();
+        if (pool == null) {
+            stats.add("No connection opened yet.");
+        } else {
+            stats.addAll(pool.stats());
+        }
+        return stats;
+    }
+
+    @Terminator
+    public static synchronized void shutdown() {
+        if (evictor != null) {
+            evictor.cancel(false);
+            evictor = null;
+        }
+        pools.values().forEach(pool -> pool.manager.close(CloseMode.GRACEFUL));
+        pools.clear();
+    }
+
+    /*
+     * Wraps the pooling connection manager to apply the connection request
+     * timeout of the endpoint and to measure how long the requests wait for a
+     * connection.
+     */
+    private static final class Pool implements HttpClientConnectionManager {
+        private final PoolingHttpClientConnectionManager manager;
+        private volatile Settings settings;
+        private final AtomicLong leases = new AtomicLong();
+        private final AtomicLong leaseTimeouts = new AtomicLong();
+        private final AtomicLong totalLeaseWait = new AtomicLong();
+        private final AtomicLong maxLeaseWait = new AtomicLong();
+
+        Pool(PoolingHttpClientConnectionManager manager, Settings settings) {
+            this.manager = manager;
+            this.settings = settings;
+        }
+
+        void configure(Settings settings) {
+            if (!settings.equals(this.settings)) {
+                manager.setMaxTotal(settings.maxConnections());
+                manager.setDefaultMaxPerRoute(settings.maxConnectionsPerRoute());
+                // applies to connections opened from now on
+                manager.setDefaultConnectionConfig(settings.toConnectionConfig());
+                this.settings = settings;
+            }
+        }
+
+        void evict() {
+            manager.closeExpired();
+            manager.closeIdle(TimeValue.ofSeconds(settings.keepAliveTimeout()));
+        }
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            // the timeout configured in the endpoint replaces the one of the client
+            Timeout leaseTimeout = Timeout.ofSeconds(settings.connectionRequestTimeout());
+            LeaseRequest request = manager.lease(id, route, leaseTimeout, state);
+            return new LeaseRequest() {
+                @Override
+                public ConnectionEndpoint get(Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return request.get(leaseTimeout);
+                    } catch (TimeoutException e) {
+                        leaseTimeouts.incrementAndGet();
+                        throw e;
+                    } finally {
+                        long wait = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        leases.incrementAndGet();
+                        totalLeaseWait.addAndGet(wait);
+                        maxLeaseWait.accumulateAndGet(wait, Math::max);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+
+        @Override
+        public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+            manager.release(endpoint, newState, validDuration);
+        }
+
+        @Override
+        public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context) throws IOException {
+            manager.connect(endpoint, connectTimeout, context);
+        }
+
+        @Override
+        public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+            manager.upgrade(endpoint, context);
+        }
+
+        @Override
+        public void close(CloseMode closeMode) {
+            // shared by all clients, closed only on shutdown
+        }
+
+        @Override
+        public void close() {
+            // shared by all clients, closed only on shutdown
+        }
+
+        List<String> stats() {
+            PoolStats total = manager.getTotalStats();
+            long count = leases.get();
+            List<String> stats = new ArrayList<>();
+            stats.add("Connections leased: " + total.getLeased() + ", available: " + total.getAvailable()
+                    + ", requests waiting for a connection: " + total.getPending()
+                    + " (max " + total.getMax() + ", max per route " + manager.getDefaultMaxPerRoute() + ")");
+            stats.add("Wait for a connection: " + (count == 0 ? 0 : totalLeaseWait.get() / count) + "ms (average), "
+                    + maxLeaseWait.get() + "ms (max), timed out: " + leaseTimeouts.get());
+            for (HttpRoute route : manager.getRoutes()) {
+                PoolStats routeStats = manager.getStats(route);
+                stats.add(route.getTargetHost() + " leased: " + routeStats.getLeased() + ", available: " + routeStats.getAvailable()
+                        + ", pending: " + routeStats.getPending());
+            }
+            return stats;
+        }
+    }
+}
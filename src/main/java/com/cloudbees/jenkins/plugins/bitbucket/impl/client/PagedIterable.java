@@ -0,0 +1,260 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.client;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Iterates over the values of a paginated resource fetching the next page
+ * only when all values of the current page have been consumed.
+ * <p>
+ * Communication errors raised while iterating are thrown as
+ * {@link UncheckedIOException} that wraps the original {@link IOException}.
+ *
+ * @param <V> the type of values in the pages
+ */
+@Restricted(NoExternalUse.class)
+public final class PagedIterable<V> implements Iterable<V> {
+    // when enabled the next page is requested in background while the values of current page are consumed
+    private static final boolean PREFETCH = SystemProperties.getBoolean("bitbucket.paging.prefetch", false);
+    private static ExecutorService executorService;
+
+    private static synchronized ExecutorService getExecutorService() {
+        if (executorService == null) {
+            executorService = Executors.newCachedThreadPool(new NamingThreadFactory(new DaemonThreadFactory(), PagedIterable.class.getName()));
+        }
+        return executorService;
+    }
+
+    /**
+     * A page of values.
+     *
+     * @param <V> the type of values in the page
+     * @param values the values in this page
+     * @param nextURL the URL of the next page or {@code null} if this is the
+     *        last page
+     */
+    public record Page<V>(@NonNull List<V> values, @CheckForNull String nextURL) {
+    }
+
+    /**
+     * Requests the page at the given URL.
+     *
+     * @param <V> the type of values in the page
+     */
+    @FunctionalInterface
+    public interface PageRequest<V> {
+        @NonNull
+        Page<V> fetch(@NonNull String url) throws IOException;
+    }
+
+    private final String url;
+    private final PageRequest<V> request;
+    private final boolean prefetch;
+
+    public PagedIterable(@NonNull String url, @NonNull PageRequest<V> request) {
+        this(url, request, PREFETCH);
+    }
+
+    public PagedIterable(@NonNull String url, @NonNull PageRequest<V> request, boolean prefetch) {
+        this.url = url;
+        this.request = request;
+        this.prefetch = prefetch;
+    }
+
+    @NonNull
+    @Override
+    public Iterator<V> iterator() {
+        return new PageIterator();
+    }
+
+    /**
+     * Returns a sequential stream over the values of all pages.
+     *
+     * @return a lazy stream of values
+     */
+    @NonNull
+    public Stream<V> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Fetches all pages and collects their values.
+     *
+     * @return the list of all values
+     * @throws IOException if there was a network communications error.
+     */
+    @NonNull
+    public List<V> toList() throws IOException {
+        List<V> values = new ArrayList<>();
+        try {
+            forEach(values::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return values;
+    }
+
+    /**
+     * Returns a view of this iterable that keeps the values already fetched,
+     * iterating it more times does not request the same pages again.
+     * <p>
+     * The view keeps in memory every value fetched for as long as it is
+     * referenced, use it only when the values must be read more than once.
+     *
+     * @return an iterable that fetches each page at most once
+     */
+    @NonNull
+    public Iterable<V> cached() {
+        return new CachedIterable();
+    }
+
+    private class CachedIterable implements Iterable<V> {
+        private final List<V> values = new ArrayList<>();
+        private Iterator<V> source;
+
+        @NonNull
+        @Override
+        public Iterator<V> iterator() {
+            return new Iterator<V>() {
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    synchronized (CachedIterable.this) {
+                        if (index < values.size()) {
+                            return true;
+                        }
+                        if (source == null) {
+                            source = PagedIterable.this.iterator();
+                        }
+                        if (source.hasNext()) {
+                            values.add(source.next());
+                            return true;
+                        }
+                        return false;
+                    }
+                }
+
+                @Override
+                public V next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    synchronized (CachedIterable.this) {
+                        return values.get(index++);
+                    }
+                }
+            };
+        }
+    }
+
+    private class PageIterator implements Iterator<V> {
+        private Iterator<V> current = Collections.emptyIterator();
+        private String nextURL = url;
+        private CompletableFuture<Page<V>> nextPage;
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                Page<V> page;
+                if (nextPage != null) {
+                    page = await(nextPage);
+                    nextPage = null;
+                } else if (nextURL != null) {
+                    page = fetch(nextURL);
+                } else {
+                    return false;
+                }
+                current = page.values().iterator();
+                nextURL = page.nextURL();
+                if (prefetch && nextURL != null) {
+                    String prefetchURL = nextURL;
+                    nextURL = null;
+                    RateLimiter.Priority priority = RateLimiter.currentPriority();
+                    nextPage = CompletableFuture.supplyAsync(() -> {
+                        try (RateLimiter.Scope scope = RateLimiter.prioritize(priority)) {
+                            return fetch(prefetchURL);
+                        }
+                    }, getExecutorService());
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public V next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private Page<V> fetch(String pageURL) {
+            try {
+                return request.fetch(pageURL);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Page<V> await(CompletableFuture<Page<V>> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException((IOException) new InterruptedIOException("Interrupted while fetching the next page").initCause(e));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException uioe) {
+                    throw uioe;
+                } else if (cause instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw new UncheckedIOException(new IOException(cause));
+            }
+        }
+    }
+}
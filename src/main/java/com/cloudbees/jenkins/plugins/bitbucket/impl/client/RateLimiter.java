@@ -0,0 +1,380 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Limits the rate of requests sent to an endpoint with the same credentials
+ * so that the API quota of Bitbucket is not exhausted.
+ * <p>
+ * Each endpoint and credentials pair has a token bucket whose size and refill
+ * rate are learnt from the {@code X-RateLimit-*} headers returned by
+ * Bitbucket, until these headers are received requests are never throttled.
+ * <p>
+ * Part of the budget is reserved to requests with higher priority, a branch
+ * indexing stops sending requests earlier than webhook events, and both
+ * earlier than the build status notifications.
+ */
+@Restricted(NoExternalUse.class)
+public final class RateLimiter {
+    private static final Logger logger = Logger.getLogger(RateLimiter.class.getName());
+
+    private static final boolean ENABLED = SystemProperties.getBoolean("bitbucket.ratelimit.enabled", true);
+    // a request never waits longer than this, in seconds, then it is sent anyway and Bitbucket decides
+    private static final long MAX_WAIT = SystemProperties.getLong("bitbucket.ratelimit.maxWait", 300L);
+    // Bitbucket Cloud sets this header when less than 20% of the hourly quota remains
+    private static final double NEAR_LIMIT_RATIO = 0.2;
+
+    private static final Map<String, Map<String, Bucket>> buckets = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Priority> currentPriority = ThreadLocal.withInitial(() -> Priority.SCAN);
+
+    /**
+     * The priority of the requests sent by the current thread.
+     */
+    public enum Priority {
+        /**
+         * Build status notifications, they can use all the budget.
+         */
+        BUILD_STATUS("Build status", 0.0),
+        /**
+         * Requests sent while processing a webhook event.
+         */
+        EVENT("Events", 0.1),
+        /**
+         * Branch indexing, organisation scans and any other request.
+         */
+        SCAN("Scans", 0.2);
+
+        private final String displayName;
+        // fraction of the budget left to the requests with higher priority
+        private final double reserved;
+
+        Priority(String displayName, double reserved) {
+            this.displayName = displayName;
+            this.reserved = reserved;
+        }
+    }
+
+    /**
+     * Restores the priority of the current thread when closed.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Priority previous;
+
+        private Scope(Priority previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            currentPriority.set(previous);
+        }
+    }
+
+    private RateLimiter() {
+    }
+
+    /**
+     * Sets the priority of the requests sent by the current thread until the
+     * returned scope is closed.
+     *
+     * @param priority of the requests
+     * @return the scope to close to restore the previous priority
+     */
+    @NonNull
+    public static Scope prioritize(@NonNull Priority priority) {
+        Scope scope = new Scope(currentPriority.get());
+        currentPriority.set(priority);
+        return scope;
+    }
+
+    /**
+     * Returns the priority of the requests sent by the current thread, to be
+     * propagated to the tasks that send requests on its behalf.
+     *
+     * @return the priority of the current thread
+     */
+    @NonNull
+    public static Priority currentPriority() {
+        return currentPriority.get();
+    }
+
+    /**
+     * Returns the bucket of requests sent to the given endpoint with the
+     * given credentials.
+     *
+     * @param serverURL of the endpoint
+     * @param credentialsId of the credentials, {@code null} for anonymous
+     *        requests
+     * @return the bucket to acquire before to send a request
+     */
+    @NonNull
+    static Bucket get(@NonNull String serverURL, @CheckForNull String credentialsId) {
+        return buckets.computeIfAbsent(URLUtils.normalizeURL(serverURL), url -> new ConcurrentHashMap<>())
+                .computeIfAbsent(credentialsId == null ? "" : credentialsId, id -> new Bucket());
+    }
+
+    /**
+     * Returns if a request with the given priority sent now to the given
+     * endpoint with the given credentials would have to wait, so that callers
+     * can reduce the number of requests they send in parallel.
+     *
+     * @param serverURL of the endpoint
+     * @param credentialsId of the credentials, {@code null} for anonymous
+     *        requests
+     * @param priority of the requests
+     * @return {@code true} if the budget for the given priority is exhausted
+     */
+    public static boolean isThrottled(@NonNull String serverURL, @CheckForNull String credentialsId, @NonNull Priority priority) {
+        if (!ENABLED) {
+            return false;
+        }
+        Map<String, Bucket> endpointBuckets = buckets.get(URLUtils.normalizeURL(serverURL));
+        Bucket bucket = endpointBuckets == null ? null : endpointBuckets.get(credentialsId == null ? "" : credentialsId);
+        return bucket != null && bucket.isThrottled(priority);
+    }
+
+    /**
+     * Returns the throttling statistics of the given endpoint.
+     *
+     * @param serverURL of the endpoint
+     * @return a list of human readable statistics
+     */
+    @NonNull
+    public static List<String> stats(@CheckForNull String serverURL) {
+        String normalizedServerURL = URLUtils.normalizeURL(serverURL);
+        Map<String, Bucket> endpointBuckets = normalizedServerURL == null ? null : buckets.get(normalizedServerURL);
+        List<String> stats = new ArrayList<>();
+        if (endpointBuckets == null || endpointBuckets.isEmpty()) {
+            stats.add("No request sent yet.");
+            return stats;
+        }
+        endpointBuckets.forEach((credentialsId, bucket) -> {
+            stats.add((credentialsId.isEmpty() ? "Anonymous" : "Credentials " + credentialsId) + ": " + bucket.describe());
+            for (Priority priority : Priority.values()) {
+                stats.add("- " + bucket.describe(priority));
+            }
+        });
+        return stats;
+    }
+
+    /* for test purpose */ static void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * A token bucket, the size and refill rate are unknown until Bitbucket
+     * returns them.
+     */
+    static final class Bucket {
+        private double capacity = Double.NaN;
+        private double tokens;
+        // tokens per nanosecond
+        private double fillRate;
+        private long lastRefill = System.nanoTime();
+        // set when Bitbucket answers 429 with a Retry-After header
+        private boolean blocked;
+        private long blockedUntil;
+        private long rateLimited;
+        private final long[] throttled = new long[Priority.values().length];
+        private final long[] waited = new long[Priority.values().length];
+        private final long[] maxWait = new long[Priority.values().length];
+
+        /**
+         * Takes a token for a request with the given priority, waiting until
+         * enough tokens are available.
+         *
+         * @param priority of the request
+         * @throws InterruptedIOException if interrupted while waiting
+         */
+        synchronized void acquire(@NonNull Priority priority) throws InterruptedIOException {
+            if (!ENABLED) {
+                return;
+            }
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.SECONDS.toNanos(MAX_WAIT);
+            boolean throttledRequest = false;
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    refill(now);
+                    blocked = blocked && now - blockedUntil < 0;
+                    long wait;
+                    if (blocked) {
+                        wait = blockedUntil - now;
+                    } else if (Double.isNaN(capacity)) {
+                        return;
+                    } else if (tokens - 1 >= capacity * priority.reserved) {
+                        tokens -= 1;
+                        return;
+                    } else if (fillRate <= 0) {
+                        // no way to know when the budget will be available again
+                        return;
+                    } else {
+                        wait = (long) Math.ceil((capacity * priority.reserved + 1 - tokens) / fillRate);
+                    }
+                    wait = Math.min(wait, deadline - now);
+                    if (wait <= 0) {
+                        logger.log(Level.FINE, "Request sent after waiting {0}s for the rate limit budget", MAX_WAIT);
+                        return;
+                    }
+                    if (!throttledRequest) {
+                        throttledRequest = true;
+                        logger.log(Level.FINE, "{0} request throttled, {1} tokens available of {2}", new Object[] { priority, tokens, capacity });
+                    }
+                    // woken up earlier when Bitbucket reports a new budget
+                    TimeUnit.NANOSECONDS.timedWait(this, wait);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw (InterruptedIOException) new InterruptedIOException("Interrupted while waiting for the rate limit budget").initCause(e);
+            } finally {
+                if (throttledRequest) {
+                    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    throttled[priority.ordinal()]++;
+                    waited[priority.ordinal()] += elapsed;
+                    maxWait[priority.ordinal()] = Math.max(maxWait[priority.ordinal()], elapsed);
+                }
+            }
+        }
+
+        /**
+         * Returns if a request with the given priority would wait for the
+         * budget if sent now.
+         *
+         * @param priority of the request
+         * @return {@code true} if there are not enough tokens available
+         */
+        synchronized boolean isThrottled(@NonNull Priority priority) {
+            long now = System.nanoTime();
+            refill(now);
+            if (blocked && now - blockedUntil < 0) {
+                return true;
+            }
+            return !Double.isNaN(capacity) && fillRate > 0 && tokens - 1 < capacity * priority.reserved;
+        }
+
+        /**
+         * Updates the budget from the headers of a response.
+         *
+         * @param response returned by Bitbucket
+         */
+        synchronized void update(@NonNull HttpResponse response) {
+            long now = System.nanoTime();
+            refill(now);
+            Double limit = doubleHeader(response, "X-RateLimit-Limit");
+            if (limit != null && limit > 0) {
+                if (Double.isNaN(capacity)) {
+                    tokens = limit;
+                }
+                capacity = limit;
+                Double fill = doubleHeader(response, "X-RateLimit-FillRate");
+                Double interval = doubleHeader(response, "X-RateLimit-Interval-Seconds");
+                if (fill != null && interval != null && interval > 0) {
+                    // Bitbucket Data Center
+                    fillRate = fill / TimeUnit.SECONDS.toNanos(1) / interval;
+                } else {
+                    // Bitbucket Cloud, the limit is per hour
+                    fillRate = limit / TimeUnit.HOURS.toNanos(1);
+                }
+            }
+            Double remaining = doubleHeader(response, "X-RateLimit-Remaining");
+            if (remaining != null) {
+                tokens = Double.isNaN(capacity) ? remaining : Math.min(remaining, capacity);
+            } else if (!Double.isNaN(capacity) && Boolean.parseBoolean(stringHeader(response, "X-RateLimit-NearLimit"))) {
+                tokens = Math.min(tokens, capacity * NEAR_LIMIT_RATIO);
+            }
+            if (response.getCode() == HttpStatus.SC_TOO_MANY_REQUESTS) {
+                rateLimited++;
+                tokens = 0;
+                Double retryAfter = doubleHeader(response, HttpHeaders.RETRY_AFTER);
+                if (retryAfter != null && retryAfter > 0) {
+                    blocked = true;
+                    blockedUntil = now + (long) (retryAfter * TimeUnit.SECONDS.toNanos(1));
+                }
+            }
+            notifyAll();
+        }
+
+        private void refill(long now) {
+            if (!Double.isNaN(capacity) && fillRate > 0) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * fillRate);
+            }
+            lastRefill = now;
+        }
+
+        @CheckForNull
+        private static String stringHeader(HttpResponse response, String name) {
+            Header header = response.getFirstHeader(name);
+            return header == null ? null : header.getValue();
+        }
+
+        @CheckForNull
+        private static Double doubleHeader(HttpResponse response, String name) {
+            String value = stringHeader(response, name);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Double.valueOf(value.trim());
+            } catch (NumberFormatException e) {
+                // Retry-After could be a date, handled by the retry strategy
+                return null;
+            }
+        }
+
+        synchronized String describe() {
+            refill(System.nanoTime());
+            if (Double.isNaN(capacity)) {
+                return "no rate limit reported by Bitbucket, rate limited responses: " + rateLimited;
+            }
+            return String.format("%.0f requests available of %.0f, %.2f requests per second, rate limited responses: %d",
+                    Math.floor(tokens), capacity, fillRate * TimeUnit.SECONDS.toNanos(1), rateLimited);
+        }
+
+        synchronized String describe(Priority priority) {
+            int i = priority.ordinal();
+            return priority.displayName + " throttled: " + throttled[i] + ", wait "
+                    + (throttled[i] == 0 ? 0 : waited[i] / throttled[i]) + "ms (average), " + maxWait[i] + "ms (max)";
+        }
+    }
+}
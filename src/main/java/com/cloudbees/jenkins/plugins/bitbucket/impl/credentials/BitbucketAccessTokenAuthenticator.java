@@ -84,4 +84,9 @@ public class BitbucketAccessTokenAuthenticator implements BitbucketAuthenticator
     public String getId() {
         return credentialsId;
     }
+
+    @Override
+    public String getFingerprint() {
+        return BitbucketAuthenticatorUtils.fingerprintOf(getClass().getName(), Secret.toString(token));
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.credentials;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import com.cloudbees.jenkins.plugins.bitbucket.client.Cache;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
+import com.cloudbees.plugins.credentials.CredentialsMatchers;
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import com.cloudbees.plugins.credentials.domains.URIRequirementBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.Extension;
+import hudson.Util;
+import hudson.XmlFile;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Queue;
+import hudson.model.Saveable;
+import hudson.model.User;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import jenkins.authentication.tokens.api.AuthenticationTokenContext;
+import jenkins.authentication.tokens.api.AuthenticationTokens;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps for a short time the authenticator resolved from the credentials of
+ * an item, so that building many clients for the same item, for example
+ * while processing a burst of webhooks, does not look up the credentials
+ * in all stores each time.
+ * <p>
+ * The cache is cleared when a credentials store could have changed, that is
+ * when the system credentials, a folder or a user are saved. Credentials
+ * that change without being saved in Jenkins, like those provided by an
+ * external secret manager, are picked up once the entry expires.
+ */
+@Restricted(NoExternalUse.class)
+public final class BitbucketAuthenticatorCache {
+    // seconds an authenticator is kept, 0 disables the cache
+    private static final int DURATION = SystemProperties.getInteger("bitbucket.authenticator.cache.duration", 60);
+    private static final int MAX_ENTRIES = SystemProperties.getInteger("bitbucket.authenticator.cache.size", 500);
+
+    private static final Cache<String, BitbucketAuthenticator> cache = new Cache<>(Math.max(0, DURATION), TimeUnit.SECONDS, MAX_ENTRIES);
+
+    private BitbucketAuthenticatorCache() {
+    }
+
+    /**
+     * Returns the authenticator for the given credentials as seen by the
+     * given item.
+     *
+     * @param item the context of the credentials lookup, {@code null} for
+     *        the Jenkins root
+     * @param serverURL of the endpoint to authenticate against
+     * @param credentialsId of the credentials to use
+     * @return the authenticator or {@code null} if there are no credentials
+     *         with the given identifier that can authenticate against the
+     *         endpoint
+     */
+    @CheckForNull
+    public static BitbucketAuthenticator get(@CheckForNull Item item,
+                                             @CheckForNull String serverURL,
+                                             @CheckForNull String credentialsId) {
+        String id = Util.fixEmptyAndTrim(credentialsId);
+        if (id == null) {
+            return null;
+        }
+        if (DURATION <= 0) {
+            return lookup(item, serverURL, id);
+        }
+        String key = (item == null ? "" : item.getFullName()) + "::" + URLUtils.normalizeURL(serverURL) + "::" + id;
+        try {
+            return cache.get(key, () -> lookup(item, serverURL, id));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static BitbucketAuthenticator lookup(Item item, String serverURL, String credentialsId) {
+        AuthenticationTokenContext<BitbucketAuthenticator> context = BitbucketAuthenticator.authenticationContext(serverURL);
+        StandardCredentials credentials = CredentialsMatchers.firstOrNull(
+                CredentialsProvider.lookupCredentialsInItem(
+                        StandardCredentials.class,
+                        item,
+                        item instanceof Queue.Task task
+                                ? task.getDefaultAuthentication2()
+                                : ACL.SYSTEM2,
+                        URIRequirementBuilder.fromUri(serverURL).build()
+                ),
+                CredentialsMatchers.allOf(
+                        CredentialsMatchers.withId(credentialsId),
+                        AuthenticationTokens.matcher(context)
+                )
+        );
+        return credentials == null ? null : AuthenticationTokens.convert(context, credentials);
+    }
+
+    /**
+     * Forgets all the authenticators.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void invalidateAll() {
+        cache.evictAll();
+    }
+
+    @Extension
+    public static class CredentialsStoreListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            // folders, including the Jenkins root, and users may hold a credentials store
+            if (o instanceof SystemCredentialsProvider || o instanceof ItemGroup || o instanceof User) {
+                invalidateAll();
+            }
+        }
+    }
+}
@@ -30,6 +30,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.util.Secret;
 import java.time.Duration;
 import java.util.concurrent.Executors;
+import org.apache.commons.codec.digest.DigestUtils;
 
 final class BitbucketAuthenticatorUtils {
 
@@ -50,6 +51,16 @@ final class BitbucketAuthenticatorUtils {
         }
     }
 
+    /**
+     * Returns a digest of the given values that does not disclose them.
+     *
+     * @param values identifying the credentials, secrets included
+     * @return the fingerprint of the credentials
+     */
+    public static String fingerprintOf(String... values) {
+        return DigestUtils.sha256Hex(String.join("\n", values));
+    }
+
     @SuppressWarnings("unchecked")
     public static <T extends Exception> T unwrap(@NonNull Exception e, Class<T> exClass) {
         Throwable cause = e;
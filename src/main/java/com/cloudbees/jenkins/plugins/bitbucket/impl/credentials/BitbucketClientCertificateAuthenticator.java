@@ -34,8 +34,14 @@ import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import javax.net.ssl.SSLContext;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.utils.Base64;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.ssl.SSLContextBuilder;
 import org.apache.hc.core5.ssl.SSLContexts;
@@ -78,4 +84,23 @@ public class BitbucketClientCertificateAuthenticator implements BitbucketAuthent
     public String getId() {
         return credentialsId;
     }
+
+    @Override
+    public String getFingerprint() {
+        List<String> values = new ArrayList<>();
+        values.add(getClass().getName());
+        values.add(Secret.toString(password));
+        try {
+            for (String alias : Collections.list(keyStore.aliases())) {
+                Certificate certificate = keyStore.getCertificate(alias);
+                if (certificate != null) {
+                    values.add(Base64.encodeBase64String(certificate.getEncoded()));
+                }
+            }
+        } catch (KeyStoreException | CertificateEncodingException e) {
+            // the certificate can not be told apart from others
+            return null;
+        }
+        return BitbucketAuthenticatorUtils.fingerprintOf(values.toArray(String[]::new));
+    }
 }
@@ -26,7 +26,6 @@ package com.cloudbees.jenkins.plugins.bitbucket.impl.credentials;
 
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketException;
-import com.cloudbees.jenkins.plugins.bitbucket.client.Cache;
 import com.cloudbees.plugins.credentials.CredentialsScope;
 import com.cloudbees.plugins.credentials.common.StandardUsernameCredentials;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
@@ -40,20 +39,16 @@ import com.github.scribejava.core.oauth.OAuth20Service;
 import hudson.model.Descriptor.FormException;
 import hudson.util.Secret;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
 import jenkins.util.SetContextClassLoader;
-import jenkins.util.SystemProperties;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hc.core5.http.HttpRequest;
 
 public class BitbucketOAuthAuthenticator implements BitbucketAuthenticator {
-    private static final String OAUTH2_CACHE_TIMEOUT_PROPERTY_NAME = "bitbucket.oauth2.cache.timeout";
-    private static final Cache<String, OAuth2AccessToken> cacheToken = new Cache<>(SystemProperties.getInteger(OAUTH2_CACHE_TIMEOUT_PROPERTY_NAME, 300), TimeUnit.SECONDS);
 
     private final String credentialsId;
-    private final String username;
-    private final Secret password;
+    private final BitbucketOAuthTokenManager tokenManager;
+    private final String fingerprint;
 
     /**
      * Constructor.
@@ -62,23 +57,24 @@ public class BitbucketOAuthAuthenticator implements BitbucketAuthenticator {
      */
     public BitbucketOAuthAuthenticator(StandardUsernamePasswordCredentials credentials) {
         this.credentialsId = credentials.getId();
-        this.username = credentials.getUsername();
-        this.password = credentials.getPassword();
+        String username = credentials.getUsername();
+        Secret password = credentials.getPassword();
+        this.fingerprint = BitbucketAuthenticatorUtils.fingerprintOf(getClass().getName(), username, Secret.toString(password));
+        String tokenKey = DigestUtils.md2Hex(StringUtils.join(new String[] { credentialsId, username, Secret.toString(password) }, '/'));
+        this.tokenManager = BitbucketOAuthTokenManager.forKey(tokenKey, () -> {
+            try (SetContextClassLoader cl = new SetContextClassLoader(BitbucketOAuthAuthenticator.class);
+                OAuth20Service service = new ServiceBuilder(username)
+                    .apiSecret(Secret.toString(password))
+                    .httpClientConfig(JDKHttpClientConfig.defaultConfig())
+                    .build(BitbucketOAuth.instance())) {
+                return service.getAccessTokenClientCredentialsGrant();
+            }
+        });
     }
 
     private OAuth2AccessToken getToken() {
         try {
-            String plainSecret = Secret.toString(password);
-            String cacheKey = DigestUtils.md2Hex(StringUtils.join(new String[] { credentialsId, username, plainSecret }, '/'));
-            return cacheToken.get(cacheKey, () -> {
-                try (SetContextClassLoader cl = new SetContextClassLoader(this.getClass());
-                    OAuth20Service service = new ServiceBuilder(username)
-                        .apiSecret(plainSecret)
-                        .httpClientConfig(JDKHttpClientConfig.defaultConfig())
-                        .build(BitbucketOAuth.instance())) {
-                    return service.getAccessTokenClientCredentialsGrant();
-                }
-            });
+            return tokenManager.getToken();
         } catch (ExecutionException e) {
             OAuth2AccessTokenErrorResponse oauthEx = BitbucketAuthenticatorUtils.unwrap(e, OAuth2AccessTokenErrorResponse.class);
             if (oauthEx != null) {
@@ -110,4 +106,9 @@ public class BitbucketOAuthAuthenticator implements BitbucketAuthenticator {
     public String getId() {
         return credentialsId;
     }
+
+    @Override
+    public String getFingerprint() {
+        return fingerprint;
+    }
 }
@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.credentials;
+
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ICheckedCallable;
+import com.github.scribejava.core.model.OAuth2AccessToken;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+
+/**
+ * Holds the OAuth2 access token obtained for a client credentials and renews
+ * it in background before it expires.
+ * <p>
+ * Callers get the current token without any lock, only when there is no
+ * valid token at all (first request or the renew has failed until expiration)
+ * the caller waits for a new token to be obtained.
+ */
+final class BitbucketOAuthTokenManager {
+    private static final Logger logger = Logger.getLogger(BitbucketOAuthTokenManager.class.getName());
+    private static final String OAUTH2_CACHE_TIMEOUT_PROPERTY_NAME = "bitbucket.oauth2.cache.timeout";
+    // upper bound of the token lifetime, also used when the server does not provide the expires_in value
+    private static final long MAX_TOKEN_LIFETIME = TimeUnit.SECONDS.toNanos(SystemProperties.getInteger(OAUTH2_CACHE_TIMEOUT_PROPERTY_NAME, 300));
+    // percentage of the token lifetime after which a renew is started
+    private static final int REFRESH_THRESHOLD = 75;
+    // delay before a failed renew is tried again, doubled at each consecutive failure up to the max
+    private static final long RETRY_DELAY = TimeUnit.SECONDS.toNanos(5);
+    private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toNanos(1);
+    private static final Map<String, BitbucketOAuthTokenManager> managers = new ConcurrentHashMap<>();
+    private static ExecutorService executorService;
+
+    private static synchronized ExecutorService getExecutorService() {
+        if (executorService == null) {
+            executorService = Executors.newCachedThreadPool(new NamingThreadFactory(new DaemonThreadFactory(), BitbucketOAuthTokenManager.class.getName()));
+        }
+        return executorService;
+    }
+
+    /**
+     * Returns the token manager shared by all authenticators with the given
+     * key.
+     *
+     * @param key identifies the client credentials
+     * @param tokenProvider obtains a new token from the authorization server
+     * @return the token manager for the given key
+     */
+    @NonNull
+    static BitbucketOAuthTokenManager forKey(@NonNull String key, @NonNull ICheckedCallable<OAuth2AccessToken, Exception> tokenProvider) {
+        BitbucketOAuthTokenManager manager = managers.get(key);
+        if (manager == null) {
+            // credentials rotated or removed leave unused managers, drop them when their token is gone
+            managers.values().removeIf(BitbucketOAuthTokenManager::isUnused);
+            manager = managers.computeIfAbsent(key, k -> new BitbucketOAuthTokenManager(tokenProvider, command -> getExecutorService().execute(command), System::nanoTime));
+        }
+        return manager;
+    }
+
+    private final ICheckedCallable<OAuth2AccessToken, Exception> tokenProvider;
+    private final Executor executor;
+    private final LongSupplier clock;
+    private final long createdAt;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Token current;
+    // consecutive failed renews, no renew is started before retryAt while there are failures
+    private volatile int failures;
+    private volatile long retryAt;
+
+    BitbucketOAuthTokenManager(@NonNull ICheckedCallable<OAuth2AccessToken, Exception> tokenProvider,
+                               @NonNull Executor executor,
+                               @NonNull LongSupplier clock) {
+        this.tokenProvider = tokenProvider;
+        this.executor = executor;
+        this.clock = clock;
+        this.createdAt = clock.getAsLong();
+    }
+
+    /**
+     * Returns a valid access token, starting a renew in background when the
+     * current one is close to expire.
+     *
+     * @return a valid access token
+     * @throws ExecutionException if there is no valid token and a new one
+     *         could not be obtained
+     */
+    @NonNull
+    OAuth2AccessToken getToken() throws ExecutionException {
+        Token token = current;
+        if (token != null && !token.isExpired(clock.getAsLong())) {
+            long now = clock.getAsLong();
+            if (token.shouldRefresh(now) && (failures == 0 || now - retryAt >= 0)) {
+                scheduleRefresh();
+            }
+            return token.value;
+        }
+
+        synchronized (this) {
+            token = current;
+            if (token == null || token.isExpired(clock.getAsLong())) {
+                try {
+                    token = current = requestToken();
+                    failures = 0;
+                } catch (Exception e) {
+                    throw new ExecutionException("Cannot obtain an OAuth2 access token", e);
+                }
+            }
+            return token.value;
+        }
+    }
+
+    /**
+     * Returns whether this manager can be dropped. That is when its token has
+     * expired, or when it never obtained a token (for example because the
+     * credentials are wrong) within the maximum token lifetime.
+     *
+     * @return {@code true} if there is no token that can still be served
+     */
+    /* for test purpose */ boolean isUnused() {
+        if (refreshing.get()) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        Token token = current;
+        if (token == null) {
+            return now - createdAt >= MAX_TOKEN_LIFETIME;
+        }
+        return token.isExpired(now);
+    }
+
+    private void scheduleRefresh() {
+        if (refreshing.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        current = requestToken();
+                        failures = 0;
+                    } catch (Exception e) {
+                        // the current token is still valid, a later call will try again after a delay
+                        long delay = Math.min(MAX_RETRY_DELAY, RETRY_DELAY << Math.min(failures, 10));
+                        retryAt = clock.getAsLong() + delay;
+                        failures++;
+                        logger.log(Level.WARNING, "Failed to renew the OAuth2 access token", e);
+                    } finally {
+                        refreshing.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                refreshing.set(false);
+                logger.log(Level.FINE, "Failed to schedule the renew of the OAuth2 access token", e);
+            }
+        }
+    }
+
+    private Token requestToken() throws Exception {
+        long requestedAt = clock.getAsLong();
+        OAuth2AccessToken token = tokenProvider.call();
+        long lifetime = MAX_TOKEN_LIFETIME;
+        Integer expiresIn = token.getExpiresIn();
+        if (expiresIn != null && expiresIn > 0) {
+            lifetime = Math.min(lifetime, TimeUnit.SECONDS.toNanos(expiresIn));
+        }
+        // the lifetime starts when the request was sent, not when the response has been received
+        return new Token(token, requestedAt + lifetime, requestedAt + lifetime / 100 * REFRESH_THRESHOLD);
+    }
+
+    private static final class Token {
+        private final OAuth2AccessToken value;
+        private final long expireAt;
+        private final long refreshAt;
+
+        Token(OAuth2AccessToken value, long expireAt, long refreshAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+            this.refreshAt = refreshAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expireAt >= 0;
+        }
+
+        boolean shouldRefresh(long now) {
+            return now - refreshAt >= 0;
+        }
+    }
+}
@@ -77,4 +77,9 @@ public class BitbucketUserAPITokenAuthenticator implements BitbucketAuthenticato
         return credentialsId;
     }
 
+    @Override
+    public String getFingerprint() {
+        return BitbucketAuthenticatorUtils.fingerprintOf(getClass().getName(), encodedAuth);
+    }
+
 }
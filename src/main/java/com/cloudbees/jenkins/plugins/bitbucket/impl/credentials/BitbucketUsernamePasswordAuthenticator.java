@@ -63,4 +63,9 @@ public class BitbucketUsernamePasswordAuthenticator implements BitbucketAuthenti
         return credentialsId;
     }
 
+    @Override
+    public String getFingerprint() {
+        return BitbucketAuthenticatorUtils.fingerprintOf(getClass().getName(), encodedAuth);
+    }
+
 }
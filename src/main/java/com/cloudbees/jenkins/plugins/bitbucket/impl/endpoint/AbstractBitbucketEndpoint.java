@@ -33,6 +33,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.Objects;
 import java.util.logging.Logger;
+import org.kohsuke.stapler.DataBoundSetter;
 
 /**
  * Represents a {@link BitbucketCloudEndpoint} or a {@link BitbucketServerEndpoint}.
@@ -59,6 +60,48 @@ public abstract class AbstractBitbucketEndpoint implements BitbucketEndpoint {
     @NonNull
     private BitbucketWebhookConfiguration webhook;
 
+    /**
+     * Max number of connections opened to this endpoint, {@code null} to use
+     * the default.
+     */
+    @CheckForNull
+    private Integer maxConnections;
+
+    /**
+     * Max number of connections opened to the same host of this endpoint,
+     * {@code null} to use the default.
+     */
+    @CheckForNull
+    private Integer maxConnectionsPerRoute;
+
+    /**
+     * How long, in seconds, to wait for a connection to be established,
+     * {@code null} to use the default.
+     */
+    @CheckForNull
+    private Integer connectTimeout;
+
+    /**
+     * How long, in seconds, to wait for data from the endpoint, {@code null}
+     * to use the default.
+     */
+    @CheckForNull
+    private Integer socketTimeout;
+
+    /**
+     * How long, in seconds, to wait for a free connection from the pool,
+     * {@code null} to use the default.
+     */
+    @CheckForNull
+    private Integer connectionRequestTimeout;
+
+    /**
+     * How long, in seconds, an idle connection is kept open in the pool,
+     * {@code null} to use the default.
+     */
+    @CheckForNull
+    private Integer keepAliveTimeout;
+
     AbstractBitbucketEndpoint(@NonNull BitbucketWebhookConfiguration webhook) {
         this.webhook = Objects.requireNonNull(webhook);
     }
@@ -74,6 +117,66 @@ public abstract class AbstractBitbucketEndpoint implements BitbucketEndpoint {
         this.webhook = webhook;
     }
 
+    @CheckForNull
+    public Integer getMaxConnections() {
+        return maxConnections;
+    }
+
+    @DataBoundSetter
+    public void setMaxConnections(@CheckForNull Integer maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    @CheckForNull
+    public Integer getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    @DataBoundSetter
+    public void setMaxConnectionsPerRoute(@CheckForNull Integer maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    @CheckForNull
+    public Integer getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    @DataBoundSetter
+    public void setConnectTimeout(@CheckForNull Integer connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    @CheckForNull
+    public Integer getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    @DataBoundSetter
+    public void setSocketTimeout(@CheckForNull Integer socketTimeout) {
+        this.socketTimeout = socketTimeout;
+    }
+
+    @CheckForNull
+    public Integer getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    @DataBoundSetter
+    public void setConnectionRequestTimeout(@CheckForNull Integer connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    @CheckForNull
+    public Integer getKeepAliveTimeout() {
+        return keepAliveTimeout;
+    }
+
+    @DataBoundSetter
+    public void setKeepAliveTimeout(@CheckForNull Integer keepAliveTimeout) {
+        this.keepAliveTimeout = keepAliveTimeout;
+    }
+
     @Deprecated(since = "937.0.0", forRemoval = true)
     @Override
     public void setManageHooks(boolean manageHooks, String credentialsId) {
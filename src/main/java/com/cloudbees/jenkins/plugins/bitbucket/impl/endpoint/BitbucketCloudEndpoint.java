@@ -28,11 +28,16 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.EndpointType;
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookDescriptor;
 import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketCloudApiClient;
+import com.cloudbees.jenkins.plugins.bitbucket.hooks.WebhookProcessingQueue;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ConnectionPools;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.RateLimiter;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.notifier.BuildStatusDeliveryQueue;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.cloud.CloudWebhookConfiguration;
 import com.damnhandy.uri.template.UriTemplate;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.ExtensionList;
+import hudson.Util;
 import hudson.model.Descriptor;
 import hudson.util.FormValidation;
 import java.util.Collection;
@@ -41,6 +46,7 @@ import jenkins.model.Jenkins;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.interceptor.RequirePOST;
 import org.kohsuke.stapler.verb.POST;
 
@@ -183,6 +189,54 @@ public class BitbucketCloudEndpoint extends AbstractBitbucketEndpoint {
             return FormValidation.ok("Caches cleared");
         }
 
+        @Restricted(NoExternalUse.class)
+        @RequirePOST
+        public FormValidation doShowBuildStatusStats(@QueryParameter String serverURL) {
+            Jenkins.get().checkPermission(Jenkins.MANAGE);
+
+            StringBuilder builder = new StringBuilder();
+            for (String stat : BuildStatusDeliveryQueue.stats(serverURL)) {
+                builder.append(Util.escape(stat)).append("<br>");
+            }
+            return FormValidation.okWithMarkup(builder.toString());
+        }
+
+        @Restricted(NoExternalUse.class)
+        @RequirePOST
+        public FormValidation doShowWebhookStats(@QueryParameter String serverURL) {
+            Jenkins.get().checkPermission(Jenkins.MANAGE);
+
+            StringBuilder builder = new StringBuilder();
+            for (String stat : WebhookProcessingQueue.stats(serverURL)) {
+                builder.append(Util.escape(stat)).append("<br>");
+            }
+            return FormValidation.okWithMarkup(builder.toString());
+        }
+
+        @Restricted(NoExternalUse.class)
+        @RequirePOST
+        public FormValidation doShowConnectionStats(@QueryParameter String serverURL) {
+            Jenkins.get().checkPermission(Jenkins.MANAGE);
+
+            StringBuilder builder = new StringBuilder();
+            for (String stat : ConnectionPools.stats(serverURL)) {
+                builder.append(Util.escape(stat)).append("<br>");
+            }
+            return FormValidation.okWithMarkup(builder.toString());
+        }
+
+        @Restricted(NoExternalUse.class)
+        @RequirePOST
+        public FormValidation doShowRateLimitStats(@QueryParameter String serverURL) {
+            Jenkins.get().checkPermission(Jenkins.MANAGE);
+
+            StringBuilder builder = new StringBuilder();
+            for (String stat : RateLimiter.stats(serverURL)) {
+                builder.append(Util.escape(stat)).append("<br>");
+            }
+            return FormValidation.okWithMarkup(builder.toString());
+        }
+
         @RequirePOST
         public Collection<? extends Descriptor<?>> getWebhookDescriptors() {
             Jenkins.get().checkPermission(Jenkins.MANAGE);
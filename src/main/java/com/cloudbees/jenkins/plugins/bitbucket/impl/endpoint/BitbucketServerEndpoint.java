@@ -28,9 +28,14 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpointPro
 import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.EndpointType;
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookDescriptor;
+import com.cloudbees.jenkins.plugins.bitbucket.hooks.WebhookProcessingQueue;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ConnectionPools;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.RateLimiter;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.notifier.BuildStatusDeliveryQueue;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.server.ServerWebhookConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.server.BitbucketServerVersion;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.BitbucketServerAPIClient;
 import com.damnhandy.uri.template.UriTemplate;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -99,6 +104,21 @@ public class BitbucketServerEndpoint extends AbstractBitbucketEndpoint {
      */
     private BitbucketServerVersion serverVersion = BitbucketServerVersion.getMinSupportedVersion();
 
+    /**
+     * {@code true} if caching should be used to reduce requests to Bitbucket.
+     */
+    private boolean enableCache;
+
+    /**
+     * How long, in minutes, to cache the project response.
+     */
+    private int teamCacheDuration = 360;
+
+    /**
+     * How long, in minutes, to cache the repositories response.
+     */
+    private int repositoriesCacheDuration = 180;
+
     /**
      * Default constructor.
      * @param serverURL
@@ -149,6 +169,33 @@ public class BitbucketServerEndpoint extends AbstractBitbucketEndpoint {
         }
     }
 
+    public boolean isEnableCache() {
+        return enableCache;
+    }
+
+    @DataBoundSetter
+    public void setEnableCache(boolean enableCache) {
+        this.enableCache = enableCache;
+    }
+
+    public int getTeamCacheDuration() {
+        return teamCacheDuration;
+    }
+
+    @DataBoundSetter
+    public void setTeamCacheDuration(int teamCacheDuration) {
+        this.teamCacheDuration = teamCacheDuration;
+    }
+
+    public int getRepositoriesCacheDuration() {
+        return repositoriesCacheDuration;
+    }
+
+    @DataBoundSetter
+    public void setRepositoriesCacheDuration(int repositoriesCacheDuration) {
+        this.repositoriesCacheDuration = repositoriesCacheDuration;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -230,6 +277,75 @@ public class BitbucketServerEndpoint extends AbstractBitbucketEndpoint {
             return FormValidation.ok();
         }
 
+        @Restricted(NoExternalUse.class)
+        @RequirePOST
+        public FormValidation doShowStats(@QueryParameter String serverURL) {
+            Jenkins.get().checkPermission(Jenkins.MANAGE);
+
+            StringBuilder builder = new StringBuilder();
+            for (String stat : BitbucketServerAPIClient.stats(serverURL)) {
+                builder.append(Util.escape(stat)).append("<br>");
+            }
+            return FormValidation.okWithMarkup(builder.toString());
+        }
+
+        @Restricted(NoExternalUse.class)
+        @RequirePOST
+        public FormValidation doClear(@QueryParameter String serverURL) {
+            Jenkins.get().checkPermission(Jenkins.MANAGE);
+
+            BitbucketServerAPIClient.clearCaches(serverURL);
+            return FormValidation.ok("Caches cleared");
+        }
+
+        @Restricted(NoExternalUse.class)
+        @RequirePOST
+        public FormValidation doShowBuildStatusStats(@QueryParameter String serverURL) {
+            Jenkins.get().checkPermission(Jenkins.MANAGE);
+
+            StringBuilder builder = new StringBuilder();
+            for (String stat : BuildStatusDeliveryQueue.stats(serverURL)) {
+                builder.append(Util.escape(stat)).append("<br>");
+            }
+            return FormValidation.okWithMarkup(builder.toString());
+        }
+
+        @Restricted(NoExternalUse.class)
+        @RequirePOST
+        public FormValidation doShowWebhookStats(@QueryParameter String serverURL) {
+            Jenkins.get().checkPermission(Jenkins.MANAGE);
+
+            StringBuilder builder = new StringBuilder();
+            for (String stat : WebhookProcessingQueue.stats(serverURL)) {
+                builder.append(Util.escape(stat)).append("<br>");
+            }
+            return FormValidation.okWithMarkup(builder.toString());
+        }
+
+        @Restricted(NoExternalUse.class)
+        @RequirePOST
+        public FormValidation doShowConnectionStats(@QueryParameter String serverURL) {
+            Jenkins.get().checkPermission(Jenkins.MANAGE);
+
+            StringBuilder builder = new StringBuilder();
+            for (String stat : ConnectionPools.stats(serverURL)) {
+                builder.append(Util.escape(stat)).append("<br>");
+            }
+            return FormValidation.okWithMarkup(builder.toString());
+        }
+
+        @Restricted(NoExternalUse.class)
+        @RequirePOST
+        public FormValidation doShowRateLimitStats(@QueryParameter String serverURL) {
+            Jenkins.get().checkPermission(Jenkins.MANAGE);
+
+            StringBuilder builder = new StringBuilder();
+            for (String stat : RateLimiter.stats(serverURL)) {
+                builder.append(Util.escape(stat)).append("<br>");
+            }
+            return FormValidation.okWithMarkup(builder.toString());
+        }
+
         @RequirePOST
         public Collection<? extends Descriptor<?>> getWebhookDescriptors() {
             Jenkins.get().checkPermission(Jenkins.MANAGE);
@@ -24,8 +24,7 @@
 package com.cloudbees.jenkins.plugins.bitbucket.impl.extension;
 
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
-import com.cloudbees.jenkins.plugins.bitbucket.util.BitbucketCredentialsUtils;
-import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketAuthenticatorCache;
 import com.cloudbees.plugins.credentials.common.StandardUsernameCredentials;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -39,7 +38,6 @@ import hudson.plugins.git.extensions.GitSCMExtensionDescriptor;
 import hudson.security.ACL;
 import hudson.security.ACLContext;
 import java.util.Objects;
-import jenkins.authentication.tokens.api.AuthenticationTokens;
 import jenkins.model.Jenkins;
 import org.jenkinsci.plugins.gitclient.GitClient;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -95,9 +93,8 @@ public class GitClientAuthenticatorExtension extends GitSCMExtension {
         if (serverURL == null) {
             throw new IllegalStateException("Some required data are missing, perform a 'Scan project Now' action to refresh old data");
         }
-        StandardCredentials credentials;
+        Item owner = null;
         if (scmOwner != null) {
-            Item owner = null;
             // to access item when security (not matrix) is enabled or
             // logged user does not have READ(DISCOVER) access on the item
             try (ACLContext as = ACL.as2(ACL.SYSTEM2)) {
@@ -106,11 +103,8 @@ public class GitClientAuthenticatorExtension extends GitSCMExtension {
             if (owner == null) {
                 throw new IllegalStateException("Item " + scmOwner + " seems to be relocated, perform a 'Scan project Now' action to refresh old data");
             }
-            credentials = BitbucketCredentialsUtils.lookupCredentials(owner, serverURL, credentialsId, StandardCredentials.class);
-        } else {
-            credentials = BitbucketCredentialsUtils.lookupCredentials(Jenkins.get(), serverURL, credentialsId, StandardCredentials.class);
         }
-        return AuthenticationTokens.convert(BitbucketAuthenticator.authenticationContext(serverURL), credentials);
+        return BitbucketAuthenticatorCache.get(owner, serverURL, credentialsId);
     }
 
     @Deprecated(since = "936.0.0", forRemoval = true)
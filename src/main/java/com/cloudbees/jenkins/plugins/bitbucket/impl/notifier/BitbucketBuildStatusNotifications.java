@@ -31,11 +31,9 @@ import com.cloudbees.jenkins.plugins.bitbucket.FirstCheckoutCompletedInvisibleAc
 import com.cloudbees.jenkins.plugins.bitbucket.PullRequestSCMHead;
 import com.cloudbees.jenkins.plugins.bitbucket.PullRequestSCMRevision;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
-import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticatedClient;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBuildStatus;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketException;
 import com.cloudbees.jenkins.plugins.bitbucket.api.buildstatus.BitbucketBuildStatusCustomizer;
-import com.cloudbees.jenkins.plugins.bitbucket.api.buildstatus.BitbucketBuildStatusNotifier;
 import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpointProvider;
 import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.EndpointType;
@@ -118,7 +116,13 @@ public final class BitbucketBuildStatusNotifications {
         }
     }
 
-    private static void createStatus(@NonNull Run<?, ?> build,
+    /**
+     * Creates the build status and sends it to Bitbucket.
+     *
+     * @return {@code true} if the status has been queued for a background
+     *         delivery, in this case the client is owned by the queue
+     */
+    private static boolean createStatus(@NonNull Run<?, ?> build,
                                      @NonNull TaskListener listener,
                                      @NonNull BitbucketApi client,
                                      @NonNull String key,
@@ -127,7 +131,7 @@ public final class BitbucketBuildStatusNotifications {
 
         final BitbucketSCMSource source = findBitbucketSCMSource(build);
         if (source == null) {
-            return;
+            return false;
         }
 
         String url;
@@ -140,7 +144,7 @@ public final class BitbucketBuildStatusNotifications {
                     "Commit status notifications are disabled until a root URL is " +
                     "configured in Jenkins global configuration. \n" +
                     "IllegalStateException: " + e.getMessage());
-            return;
+            return false;
         }
         boolean isCloud = BitbucketApiUtils.isCloud(client);
 
@@ -198,16 +202,18 @@ public final class BitbucketBuildStatusNotifications {
             buildStatus.setBuildNumber(build.getNumber());
             buildStatus.setParent(notificationParentKey);
 
-            sendNotification(source, build, buildStatus, client);
+            boolean queued = sendNotification(source, build, buildStatus, client);
             if (result != null) {
-                listener.getLogger().println("[Bitbucket] Build result notified");
+                listener.getLogger().println(queued ? "[Bitbucket] Build result notification queued" : "[Bitbucket] Build result notified");
             }
+            return queued;
         } else {
             listener.getLogger().println("[Bitbucket] Skip result notification");
+            return false;
         }
     }
 
-    private static void sendNotification(@NonNull BitbucketSCMSource source,
+    private static boolean sendNotification(@NonNull BitbucketSCMSource source,
                                          @NonNull Run<?, ?> build,
                                          @NonNull BitbucketBuildStatus buildStatus,
                                          @NonNull BitbucketApi client) throws IOException {
@@ -235,12 +241,12 @@ public final class BitbucketBuildStatusNotifications {
         newBuildStatus.setParent(buildStatus.getParent());
         newBuildStatus.setUrl(buildStatus.getUrl());
 
-        BitbucketBuildStatusNotifier notifier = ExtensionList.lookup(BitbucketBuildStatusNotifier.class)
-                .stream()
-                .filter(n -> n.isApplicable(endpointType))
-                .findFirst()
-                .orElseThrow(() -> new BitbucketException("No notifier found that supports endpoint of type " + endpointType));
-        notifier.sendBuildStatus(newBuildStatus, client.adapt(BitbucketAuthenticatedClient.class));
+        if (BuildStatusDeliveryQueue.offer(source.getServerUrl(), endpointType, newBuildStatus, client)) {
+            return true;
+        }
+        // background delivery disabled or too many statuses waiting, send it now
+        BuildStatusDeliveryQueue.send(endpointType, newBuildStatus, client);
+        return false;
     }
 
     private static @CheckForNull BitbucketSCMSource findBitbucketSCMSource(Run<?, ?> build) {
@@ -314,8 +320,13 @@ public final class BitbucketBuildStatusNotifications {
                 }
             }
         }
-        try (client) {
-            createStatus(build, listener, client, key, hash, refName);
+        boolean queued = false;
+        try {
+            queued = createStatus(build, listener, client, key, hash, refName);
+        } finally {
+            if (!queued) {
+                client.close();
+            }
         }
     }
 
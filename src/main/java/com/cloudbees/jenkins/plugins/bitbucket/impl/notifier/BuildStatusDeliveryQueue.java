@@ -0,0 +1,384 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.notifier;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticatedClient;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBuildStatus;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketException;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRequestException;
+import com.cloudbees.jenkins.plugins.bitbucket.api.buildstatus.BitbucketBuildStatusNotifier;
+import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.EndpointType;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.RateLimiter;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.ExtensionList;
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.apache.hc.core5.http.HttpStatus;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Delivers build statuses to Bitbucket in background, out of the build
+ * thread.
+ * <p>
+ * Each endpoint has its own bounded queue drained by a pool of workers. A
+ * status that is still waiting in the queue is replaced by a newer status for
+ * the same commit and key (for example INPROGRESS superseded by SUCCESSFUL), and
+ * statuses for the same commit and key are never sent concurrently so the last
+ * one submitted is the last one Bitbucket receives. Failed deliveries are
+ * retried with an exponential backoff.
+ * <p>
+ * When the queue of an endpoint is full the status is not accepted and the
+ * caller is expected to send it synchronously.
+ */
+@Restricted(NoExternalUse.class)
+public final class BuildStatusDeliveryQueue {
+    private static final Logger logger = Logger.getLogger(BuildStatusDeliveryQueue.class.getName());
+
+    private static final boolean ENABLED = SystemProperties.getBoolean("bitbucket.buildstatus.async", true);
+    private static final int CAPACITY = SystemProperties.getInteger("bitbucket.buildstatus.queue.capacity", 1000);
+    private static final int WORKERS = SystemProperties.getInteger("bitbucket.buildstatus.workers", 4);
+    private static final int MAX_ATTEMPTS = SystemProperties.getInteger("bitbucket.buildstatus.retries", 3) + 1;
+    private static final long RETRY_DELAY = SystemProperties.getLong("bitbucket.buildstatus.retry.delay", 2000L);
+
+    private static final Map<String, EndpointQueue> queues = new ConcurrentHashMap<>();
+
+    private BuildStatusDeliveryQueue() {
+    }
+
+    /**
+     * Queues the given build status for a background delivery.
+     *
+     * @param serverURL of the endpoint where the status will be sent
+     * @param endpointType of the endpoint
+     * @param status to send, must not be changed after this call
+     * @param client used to send the status, if the status is queued the
+     *        client will be closed once the delivery is completed
+     * @return {@code true} if the status has been queued, {@code false} if the
+     *         background delivery is disabled or the queue is full
+     */
+    public static boolean offer(@NonNull String serverURL,
+                                @NonNull EndpointType endpointType,
+                                @NonNull BitbucketBuildStatus status,
+                                @NonNull BitbucketApi client) {
+        if (!ENABLED) {
+            return false;
+        }
+        EndpointQueue queue = queues.computeIfAbsent(URLUtils.normalizeURL(serverURL), EndpointQueue::new);
+        return queue.offer(new Delivery(status, endpointType, client));
+    }
+
+    /**
+     * Sends the build status using the first notifier applicable for the
+     * given endpoint type.
+     *
+     * @param endpointType of the endpoint
+     * @param status to send
+     * @param client used to send the status
+     * @throws IOException in case of communication error with Bitbucket
+     */
+    static void send(@NonNull EndpointType endpointType,
+                     @NonNull BitbucketBuildStatus status,
+                     @NonNull BitbucketApi client) throws IOException {
+        BitbucketBuildStatusNotifier notifier = ExtensionList.lookup(BitbucketBuildStatusNotifier.class)
+                .stream()
+                .filter(n -> n.isApplicable(endpointType))
+                .findFirst()
+                .orElseThrow(() -> new BitbucketException("No notifier found that supports endpoint of type " + endpointType));
+        try (RateLimiter.Scope scope = RateLimiter.prioritize(RateLimiter.Priority.BUILD_STATUS)) {
+            notifier.sendBuildStatus(status, client.adapt(BitbucketAuthenticatedClient.class));
+        }
+    }
+
+    /**
+     * Returns the statistics of the delivery queue of the given endpoint.
+     *
+     * @param serverURL of the endpoint
+     * @return a list of human readable statistics
+     */
+    @NonNull
+    public static List<String> stats(@CheckForNull String serverURL) {
+        String normalizedServerURL = URLUtils.normalizeURL(serverURL);
+        EndpointQueue queue = normalizedServerURL == null ? null : queues.get(normalizedServerURL);
+        if (queue == null) {
+            return List.of("No build status sent yet.");
+        }
+        return queue.stats();
+    }
+
+    @Terminator
+    public static void shutdown() throws InterruptedException {
+        for (EndpointQueue queue : queues.values()) {
+            queue.executor.shutdown();
+        }
+        for (EndpointQueue queue : queues.values()) {
+            if (!queue.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.log(Level.WARNING, "Build statuses for {0} has not been sent before shutdown", queue.serverURL);
+            }
+        }
+    }
+
+    /* for test purpose */ static class Delivery {
+        private final String key;
+        private final BitbucketBuildStatus status;
+        private final EndpointType endpointType;
+        private final BitbucketApi client;
+        private final long queuedAt;
+        private int attempt;
+
+        Delivery(BitbucketBuildStatus status, EndpointType endpointType, BitbucketApi client) {
+            this.key = status.getHash() + '/' + status.getKey();
+            this.status = status;
+            this.endpointType = endpointType;
+            this.client = client;
+            this.queuedAt = System.nanoTime();
+            this.attempt = 1;
+        }
+
+        void deliver() throws IOException {
+            send(endpointType, status, client);
+        }
+
+        void dispose() {
+            try {
+                client.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Failed to close the client", e);
+            }
+        }
+    }
+
+    /* for test purpose */ static final class EndpointQueue {
+        private final String serverURL;
+        private final int capacity;
+        private final long retryDelay;
+        private final ExecutorService executor;
+        // queued deliveries by key, in order of arrival
+        private final Map<String, Delivery> pending = new LinkedHashMap<>();
+        // keys of the deliveries being sent right now
+        private final Set<String> inflight = new HashSet<>();
+        // failed deliveries waiting for the next attempt
+        private final Map<String, Delivery> retrying = new HashMap<>();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+        private final AtomicLong retried = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong totalLatency = new AtomicLong();
+        private final AtomicLong maxLatency = new AtomicLong();
+
+        EndpointQueue(String serverURL) {
+            this(serverURL, CAPACITY, WORKERS, RETRY_DELAY);
+        }
+
+        EndpointQueue(String serverURL, int capacity, int workers, long retryDelay) {
+            this.serverURL = serverURL;
+            this.capacity = capacity;
+            this.retryDelay = retryDelay;
+            this.executor = Executors.newFixedThreadPool(workers, new NamingThreadFactory(new DaemonThreadFactory(), BuildStatusDeliveryQueue.class.getName() + " [" + serverURL + "]"));
+        }
+
+        boolean offer(Delivery delivery) {
+            Delivery superseded;
+            synchronized (this) {
+                // a newer status makes useless to retry an older one
+                superseded = retrying.remove(delivery.key);
+                Delivery previous = pending.get(delivery.key);
+                if (previous != null) {
+                    // replace the status not yet sent keeping its position in the queue
+                    pending.put(delivery.key, delivery);
+                    coalesced.incrementAndGet();
+                    previous.dispose();
+                    return true;
+                }
+                if (pending.size() >= capacity) {
+                    rejected.incrementAndGet();
+                    return false;
+                }
+                pending.put(delivery.key, delivery);
+            }
+            if (superseded != null) {
+                coalesced.incrementAndGet();
+                superseded.dispose();
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    pending.remove(delivery.key, delivery);
+                }
+                rejected.incrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        private void drain() {
+            Delivery delivery;
+            while ((delivery = next()) != null) {
+                try {
+                    delivery.deliver();
+                    completed(delivery);
+                    delivery.dispose();
+                } catch (IOException | RuntimeException e) {
+                    failed(delivery, e);
+                } finally {
+                    synchronized (this) {
+                        inflight.remove(delivery.key);
+                    }
+                }
+            }
+        }
+
+        @CheckForNull
+        private synchronized Delivery next() {
+            Iterator<Delivery> it = pending.values().iterator();
+            while (it.hasNext()) {
+                Delivery delivery = it.next();
+                if (inflight.add(delivery.key)) {
+                    it.remove();
+                    return delivery;
+                }
+            }
+            return null;
+        }
+
+        private void completed(Delivery delivery) {
+            delivered.incrementAndGet();
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - delivery.queuedAt);
+            totalLatency.addAndGet(latency);
+            maxLatency.accumulateAndGet(latency, Math::max);
+            logger.log(Level.FINE, "Build status {0} for commit {1} sent to {2} in {3}ms",
+                    new Object[] { delivery.status.getState(), delivery.status.getHash(), serverURL, latency });
+        }
+
+        private void failed(Delivery delivery, Exception e) {
+            if (delivery.attempt < MAX_ATTEMPTS && isRetryable(e)) {
+                synchronized (this) {
+                    if (pending.containsKey(delivery.key)) {
+                        // a newer status has been queued while this one was being sent
+                        superseded(delivery);
+                        return;
+                    }
+                    retrying.put(delivery.key, delivery);
+                }
+                long delay = retryDelay << (delivery.attempt - 1);
+                delivery.attempt++;
+                retried.incrementAndGet();
+                logger.log(Level.FINE, e, () -> "Failed to send build status for commit " + delivery.status.getHash() + " to " + serverURL + ", retry in " + delay + "ms");
+                try {
+                    Timer.get().schedule(() -> retry(delivery), delay, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (RejectedExecutionException ex) {
+                    // shutting down
+                    synchronized (this) {
+                        retrying.remove(delivery.key, delivery);
+                    }
+                }
+            }
+            failed.incrementAndGet();
+            delivery.dispose();
+            logger.log(Level.WARNING, e, () -> "Could not send build status " + delivery.status.getState() + " for commit " + delivery.status.getHash() + " to " + serverURL);
+        }
+
+        private void retry(Delivery delivery) {
+            synchronized (this) {
+                if (!retrying.remove(delivery.key, delivery)) {
+                    // a newer status has been queued in the meanwhile
+                    return;
+                }
+                if (pending.containsKey(delivery.key)) {
+                    superseded(delivery);
+                    return;
+                }
+                pending.put(delivery.key, delivery);
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    pending.remove(delivery.key, delivery);
+                }
+                failed.incrementAndGet();
+                delivery.dispose();
+            }
+        }
+
+        // an older status is never sent again once a newer one is queued, otherwise it would overwrite the newer one
+        private void superseded(Delivery delivery) {
+            coalesced.incrementAndGet();
+            delivery.dispose();
+        }
+
+        private boolean isRetryable(Exception e) {
+            if (e instanceof BitbucketRequestException bre) {
+                int code = bre.getHttpCode();
+                // client errors will fail again except for rate limit
+                return code == HttpStatus.SC_TOO_MANY_REQUESTS || code >= HttpStatus.SC_SERVER_ERROR;
+            }
+            return e instanceof IOException;
+        }
+
+        List<String> stats() {
+            int queued;
+            int sending;
+            int retries;
+            synchronized (this) {
+                queued = pending.size();
+                sending = inflight.size();
+                retries = retrying.size();
+            }
+            long count = delivered.get();
+            List<String> stats = new ArrayList<>();
+            stats.add("Queued: " + queued + ", sending: " + sending + ", waiting for retry: " + retries);
+            stats.add("Delivered: " + count + ", superseded: " + coalesced.get() + ", retried: " + retried.get()
+                + ", failed: " + failed.get() + ", sent synchronously: " + rejected.get());
+            stats.add("Latency: " + (count == 0 ? 0 : totalLatency.get() / count) + "ms (average), " + maxLatency.get() + "ms (max)");
+            return stats;
+        }
+    }
+}
@@ -31,10 +31,8 @@ import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.util.StdDateFormat;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
-import java.nio.charset.StandardCharsets;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
@@ -51,7 +49,11 @@ public final class JsonParser {
     }
 
     public static <T> T toJava(InputStream data, Class<T> type) throws IOException {
-        return toJava(new InputStreamReader(data, StandardCharsets.UTF_8), type);
+        return mapper.readValue(data, type);
+    }
+
+    public static <T> T toJava(InputStream data, TypeReference<T> type) throws IOException {
+        return mapper.readValue(data, type);
     }
 
     public static <T> T toJava(Reader data, Class<T> type) throws IOException{
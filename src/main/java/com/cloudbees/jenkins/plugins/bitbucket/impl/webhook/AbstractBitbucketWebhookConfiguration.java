@@ -25,6 +25,7 @@ package com.cloudbees.jenkins.plugins.bitbucket.impl.webhook;
 
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookDescriptor;
+import com.cloudbees.jenkins.plugins.bitbucket.hooks.WebhookAutoRegisterListener;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
 import com.cloudbees.plugins.credentials.CredentialsMatchers;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
@@ -186,6 +187,18 @@ public abstract class AbstractBitbucketWebhookConfiguration implements Bitbucket
             return FormValidation.okWithMarkup(builder.toString());
         }
 
+        @Restricted(NoExternalUse.class)
+        @RequirePOST
+        public FormValidation doShowRegistrationStats() {
+            Jenkins.get().checkPermission(Jenkins.MANAGE);
+
+            StringBuilder builder = new StringBuilder();
+            for (String stat : WebhookAutoRegisterListener.stats()) {
+                builder.append(Util.escape(stat)).append("<br>");
+            }
+            return FormValidation.okWithMarkup(builder.toString());
+        }
+
         @RequirePOST
         public FormValidation doClear() {
             Jenkins.get().checkPermission(Jenkins.MANAGE);
@@ -23,7 +23,6 @@
  */
 package com.cloudbees.jenkins.plugins.bitbucket.impl.webhook;
 
-import com.cloudbees.jenkins.plugins.bitbucket.BitbucketSCMSource;
 import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookProcessor;
@@ -45,9 +44,8 @@ import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.model.Jenkins;
-import jenkins.scm.api.SCMSource;
+import jenkins.scm.api.SCMHeadEvent;
 import jenkins.scm.api.SCMSourceOwner;
-import jenkins.scm.api.SCMSourceOwners;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.HmacAlgorithms;
@@ -55,7 +53,6 @@ import org.apache.commons.codec.digest.HmacUtils;
 import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.Strings;
 import org.jenkinsci.plugins.plaincredentials.StringCredentials;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
@@ -82,35 +79,38 @@ public abstract class AbstractWebhookProcessor implements BitbucketWebhookProces
     /**
      * To be called by implementations once the owner and the repository have been extracted from the payload.
      *
+     * @param serverURL the URL of the Bitbucket server that sent the event
      * @param owner the repository owner as configured in the SCMSource
      * @param repository the repository name as configured in the SCMSource
      * @param mirrorId the mirror id if applicable, may be null
      */
-    protected void scmSourceReIndex(final String owner, final String repository, final String mirrorId) {
+    protected void scmSourceReIndex(final String serverURL, final String owner, final String repository, final String mirrorId) {
         try (ACLContext context = ACL.as2(ACL.SYSTEM2)) {
-            boolean reindexed = false;
-            for (SCMSourceOwner scmOwner : SCMSourceOwners.all()) {
-                List<SCMSource> sources = scmOwner.getSCMSources();
-                for (SCMSource source : sources) {
-                    // Search for the correct SCM source
-                    if (source instanceof BitbucketSCMSource scmSource
-                            && Strings.CI.equals(scmSource.getRepoOwner(), owner)
-                            && scmSource.getRepository().equals(repository)
-                            && (mirrorId == null || Strings.CI.equals(mirrorId, scmSource.getMirrorId()))) {
-                        logger.log(Level.INFO, "Multibranch project found, reindexing {0}", scmOwner.getName());
-                        // TODO: SCMSourceOwner.onSCMSourceUpdated is deprecated. We may explore options with an
-                        //  SCMEventListener extension and firing SCMSourceEvents.
-                        scmOwner.onSCMSourceUpdated(source);
-                        reindexed = true;
-                    }
-                }
+            List<BitbucketSCMSourceIndex.Entry> entries = BitbucketSCMSourceIndex.get().lookup(serverURL, owner, repository, mirrorId);
+            for (BitbucketSCMSourceIndex.Entry entry : entries) {
+                SCMSourceOwner scmOwner = entry.owner();
+                logger.log(Level.INFO, "Multibranch project found, reindexing {0}", scmOwner.getName());
+                // TODO: SCMSourceOwner.onSCMSourceUpdated is deprecated. We may explore options with an
+                //  SCMEventListener extension and firing SCMSourceEvents.
+                scmOwner.onSCMSourceUpdated(entry.source());
             }
-            if (!reindexed) {
+            if (entries.isEmpty()) {
                 logger.log(Level.INFO, "No multibranch project matching for reindex on {0}/{1}", new Object[] {owner, repository});
             }
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Events for the same repository and reference received while a previous
+     * one is waiting to be fired are merged, see {@link WebhookEventCoalescer}.
+     */
+    @Override
+    public void notifyEvent(SCMHeadEvent<?> event, int delaySeconds) {
+        WebhookEventCoalescer.notifyEvent(event, delaySeconds);
+    }
+
     @NonNull
     @Override
     public String getServerURL(@NonNull Map<String, String> headers, @NonNull MultiValuedMap<String, String> parameters) {
@@ -0,0 +1,254 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.webhook;
+
+import com.cloudbees.jenkins.plugins.bitbucket.BitbucketSCMSource;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.scm.api.SCMSource;
+import jenkins.scm.api.SCMSourceOwner;
+import jenkins.scm.api.SCMSourceOwners;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Strings;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps an index of the {@link BitbucketSCMSource}s configured in Jenkins by
+ * server URL, repository owner and repository name so that webhook events can
+ * be routed to the interested projects without traversing all items.
+ * <p>
+ * The index is built on first use and then maintained by the item listener
+ * events. Keys are case insensitive.
+ */
+@Restricted(NoExternalUse.class)
+@Extension
+public final class BitbucketSCMSourceIndex extends ItemListener {
+    private static final Logger logger = Logger.getLogger(BitbucketSCMSourceIndex.class.getName());
+
+    /**
+     * A {@link BitbucketSCMSource} and the owner where it is configured.
+     *
+     * @param owner the project that contains the source
+     * @param source the indexed source
+     */
+    public record Entry(@NonNull SCMSourceOwner owner, @NonNull BitbucketSCMSource source) {
+    }
+
+    private record Key(String serverURL, String repoOwner, String repository) {
+        static Key of(String serverURL, String repoOwner, String repository) {
+            return new Key(StringUtils.lowerCase(URLUtils.normalizeURL(serverURL), Locale.ENGLISH),
+                    StringUtils.lowerCase(repoOwner, Locale.ENGLISH),
+                    StringUtils.lowerCase(repository, Locale.ENGLISH));
+        }
+    }
+
+    public static BitbucketSCMSourceIndex get() {
+        return ExtensionList.lookupSingleton(BitbucketSCMSourceIndex.class);
+    }
+
+    private record Registration(Key key, Entry entry) {
+    }
+
+    // replaced as a whole when the index is rebuilt, lookups never see a partial index
+    private volatile Map<Key, Set<Entry>> entries = new ConcurrentHashMap<>();
+    // entries registered by each owner full name, sorted to find the items inside a folder
+    private NavigableMap<String, List<Registration>> registrations = new TreeMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * Returns the sources that refer to the given repository.
+     *
+     * @param serverURL the Bitbucket server URL
+     * @param repoOwner the repository owner
+     * @param repository the repository name
+     * @param mirrorId the mirror id to match or {@code null} to match any
+     *        source regardless of the mirror
+     * @return the matching sources, never {@code null}
+     */
+    @NonNull
+    public List<Entry> lookup(@NonNull String serverURL, @NonNull String repoOwner, @NonNull String repository, @CheckForNull String mirrorId) {
+        ensureLoaded();
+        Set<Entry> matches = entries.get(Key.of(serverURL, repoOwner, repository));
+        if (matches == null) {
+            return List.of();
+        }
+        return matches.stream()
+                .filter(entry -> mirrorId == null || Strings.CI.equals(mirrorId, entry.source().getMirrorId()))
+                .toList();
+    }
+
+    @Override
+    public void onCreated(Item item) {
+        if (item instanceof SCMSourceOwner owner) {
+            update(owner);
+        }
+    }
+
+    @Override
+    public void onUpdated(Item item) {
+        if (item instanceof SCMSourceOwner owner) {
+            update(owner);
+        }
+    }
+
+    @Override
+    public void onDeleted(Item item) {
+        remove(item.getFullName());
+    }
+
+    @Override
+    public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+        // listeners are notified also for each item contained in a renamed folder
+        remove(oldFullName);
+        if (item instanceof SCMSourceOwner owner) {
+            update(owner);
+        }
+    }
+
+    @Override
+    public void onLoaded() {
+        // items have been (re)loaded from disk, drop the references to the old instances
+        invalidate();
+    }
+
+    /* for test purpose */ synchronized void rebuild(@NonNull Iterable<SCMSourceOwner> owners) {
+        Map<Key, Set<Entry>> newEntries = new ConcurrentHashMap<>();
+        NavigableMap<String, List<Registration>> newRegistrations = new TreeMap<>();
+        for (SCMSourceOwner owner : owners) {
+            add(owner, newEntries, newRegistrations);
+        }
+        registrations = newRegistrations;
+        entries = newEntries;
+        loaded = true;
+    }
+
+    /* for test purpose */ synchronized void invalidate() {
+        loaded = false;
+        entries = new ConcurrentHashMap<>();
+        registrations = new TreeMap<>();
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    try (ACLContext context = ACL.as2(ACL.SYSTEM2)) {
+                        rebuild(SCMSourceOwners.all());
+                    }
+                    logger.log(Level.FINE, "Indexed {0} Bitbucket sources", entries.size());
+                }
+            }
+        }
+    }
+
+    private synchronized void update(@NonNull SCMSourceOwner owner) {
+        if (!loaded) {
+            // the whole index will be built on first use
+            return;
+        }
+        String fullName = owner.getFullName();
+        if (fullName != null) {
+            removeOwner(fullName);
+        }
+        add(owner, entries, registrations);
+    }
+
+    private synchronized void remove(@CheckForNull String fullName) {
+        if (!loaded || fullName == null) {
+            return;
+        }
+        removeOwner(fullName);
+        // a folder has been removed or moved, also its items go with it
+        // '0' is the character that follows '/'
+        for (String child : new ArrayList<>(registrations.subMap(fullName + '/', fullName + '0').keySet())) {
+            removeOwner(child);
+        }
+    }
+
+    private static void add(@NonNull SCMSourceOwner owner, Map<Key, Set<Entry>> entries, NavigableMap<String, List<Registration>> registrations) {
+        String fullName = owner.getFullName();
+        if (fullName == null) {
+            return;
+        }
+        List<Registration> owned = new ArrayList<>();
+        for (SCMSource source : owner.getSCMSources()) {
+            if (source instanceof BitbucketSCMSource bbSource) {
+                Registration registration = new Registration(Key.of(bbSource.getServerUrl(), bbSource.getRepoOwner(), bbSource.getRepository()), new Entry(owner, bbSource));
+                entries.computeIfAbsent(registration.key(), k -> ConcurrentHashMap.newKeySet()).add(registration.entry());
+                owned.add(registration);
+            }
+        }
+        if (!owned.isEmpty()) {
+            registrations.put(fullName, owned);
+        }
+    }
+
+    private void removeOwner(@NonNull String fullName) {
+        List<Registration> owned = registrations.remove(fullName);
+        if (owned == null) {
+            return;
+        }
+        for (Registration registration : owned) {
+            entries.computeIfPresent(registration.key(), (k, sources) -> {
+                sources.remove(registration.entry());
+                return sources.isEmpty() ? null : sources;
+            });
+        }
+    }
+
+    /**
+     * Some projects, like those created by an organisation folder, update
+     * their sources and save without notifying the item listeners.
+     */
+    @Extension
+    public static class SaveListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof SCMSourceOwner owner) {
+                get().update(owner);
+            }
+        }
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.webhook;
+
+import com.cloudbees.jenkins.plugins.bitbucket.BitbucketSCMSource;
+import com.cloudbees.jenkins.plugins.bitbucket.BitbucketTagSCMHead;
+import com.cloudbees.jenkins.plugins.bitbucket.BranchSCMHead;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBranch;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCommit;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.branch.BitbucketServerBranch;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.Util;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.listeners.ItemListener;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMSourceOwner;
+import jenkins.util.SystemProperties;
+import org.apache.commons.lang3.StringUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * The branches and tags of a {@link BitbucketSCMSource} as seen by the last
+ * full listing and then kept up to date by the push webhooks.
+ * <p>
+ * When incremental indexing is enabled, a scheduled branch indexing takes
+ * branches and tags from the snapshot instead of listing them again, until
+ * the snapshot is older than the configured full listing interval. The
+ * snapshot is saved next to the configuration of the project.
+ * <p>
+ * Any indexing that is not triggered by an event uses the snapshot, this
+ * includes a scan started by hand; saving the configuration of the project
+ * makes the next indexing list the branches and tags again.
+ */
+@Restricted(NoExternalUse.class)
+public final class HeadsSnapshot {
+    private static final Logger logger = Logger.getLogger(HeadsSnapshot.class.getName());
+    private static final boolean ENABLED = SystemProperties.getBoolean("bitbucket.index.incremental", false);
+    // how often branches and tags are listed anyway to catch webhooks that were lost
+    private static final long FULL_LISTING_INTERVAL = TimeUnit.MINUTES.toMillis(SystemProperties.getLong("bitbucket.index.fullListingInterval", 1440L));
+
+    // by full name of the owner and id of the source
+    private static final Map<String, HeadsSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the snapshot of the given source.
+     *
+     * @param source the source of the snapshot
+     * @return the snapshot or {@code null} if incremental indexing is disabled
+     *         or the source is not saved in a project yet
+     */
+    @CheckForNull
+    public static HeadsSnapshot of(@NonNull BitbucketSCMSource source) {
+        SCMSourceOwner owner = source.getOwner();
+        if (!ENABLED || owner == null || StringUtils.isBlank(source.getId())) {
+            return null;
+        }
+        File file = new File(owner.getRootDir(), "bitbucket-heads" + File.separator + Util.rawEncode(source.getId()) + ".xml");
+        HeadsSnapshot snapshot = snapshots.computeIfAbsent(owner.getFullName() + "::" + source.getId(), key -> load(new XmlFile(file)));
+        snapshot.bind(getRepositoryKey(source));
+        return snapshot;
+    }
+
+    private static HeadsSnapshot load(XmlFile file) {
+        HeadsSnapshot snapshot = null;
+        if (file.exists()) {
+            try {
+                snapshot = (HeadsSnapshot) file.read();
+            } catch (IOException | ClassCastException e) {
+                logger.log(Level.WARNING, e, () -> "Could not read " + file + ", branches and tags will be listed again");
+            }
+        }
+        if (snapshot == null) {
+            snapshot = new HeadsSnapshot();
+        }
+        snapshot.file = file;
+        return snapshot;
+    }
+
+    private static boolean isOwnedBy(String key, String fullName) {
+        // also the projects contained in a folder
+        return key.startsWith(fullName + "::") || key.startsWith(fullName + "/");
+    }
+
+    private static String getRepositoryKey(BitbucketSCMSource source) {
+        return URLUtils.normalizeURL(source.getServerUrl()) + "::" + StringUtils.upperCase(source.getRepoOwner()) + "::" + source.getRepository();
+    }
+
+    private static final class Ref {
+        private final String hash;
+        // 0 when not known, the head commit is resolved when needed
+        private final long date;
+        // the details of the head commit as provided by the listing, the head commit is resolved when not known
+        private final boolean details;
+        private final String message;
+        private final String author;
+
+        static Ref of(BitbucketBranch branch) {
+            // details are read only when the listing has provided them, it would require to request the commit otherwise
+            if (branch instanceof BitbucketServerBranch serverBranch && !serverBranch.hasHeadCommitInfo()
+                    || branch instanceof SnapshotBranch snapshotBranch && !snapshotBranch.hasHeadCommitInfo()) {
+                return new Ref(branch.getRawNode(), 0L);
+            }
+            return new Ref(branch.getRawNode(), branch.getDateMillis(), branch.getMessage(), branch.getAuthor());
+        }
+
+        Ref(String hash, long date) {
+            this.hash = hash;
+            this.date = date;
+            this.details = false;
+            this.message = null;
+            this.author = null;
+        }
+
+        Ref(String hash, long date, String message, String author) {
+            this.hash = hash;
+            this.date = date;
+            this.details = true;
+            this.message = message;
+            this.author = author;
+        }
+    }
+
+    private String repository;
+    // time when the last full listing has started, 0 if the snapshot can not be used
+    private long lastFullListing;
+    // null when the last full listing did not fetch this kind of heads
+    private Map<String, Ref> branches;
+    private Map<String, Ref> tags;
+    private transient XmlFile file;
+    // incremented each time a webhook changes the snapshot
+    private transient int version;
+
+    private synchronized void bind(String repository) {
+        if (!repository.equals(this.repository)) {
+            // the source now points to another repository
+            this.repository = repository;
+            this.lastFullListing = 0;
+            this.branches = null;
+            this.tags = null;
+        }
+    }
+
+    /**
+     * Returns if branches and tags could be taken from this snapshot instead
+     * of listing them.
+     *
+     * @return {@code true} if the last full listing is recent enough
+     */
+    public synchronized boolean isUpToDate() {
+        return lastFullListing > 0 && System.currentTimeMillis() - lastFullListing < FULL_LISTING_INTERVAL;
+    }
+
+    @NonNull
+    public synchronized Date getLastFullListing() {
+        return new Date(lastFullListing);
+    }
+
+    /**
+     * Returns a token to pass to {@link #update(int, long, Iterable, Iterable)}
+     * when the full listing that is starting completes.
+     *
+     * @return the current version of this snapshot
+     */
+    public synchronized int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the branches in this snapshot.
+     *
+     * @param resolver resolves the head commit of a branch when its details
+     *        are needed
+     * @return the branches or {@code null} if the last full listing did not
+     *         fetch branches
+     */
+    @CheckForNull
+    public synchronized List<BitbucketBranch> getBranches(@NonNull CommitResolver resolver) {
+        return toBranches(branches, resolver);
+    }
+
+    /**
+     * Returns the tags in this snapshot.
+     *
+     * @param resolver resolves the head commit of a tag when its details are
+     *        needed
+     * @return the tags or {@code null} if the last full listing did not fetch
+     *         tags
+     */
+    @CheckForNull
+    public synchronized List<BitbucketBranch> getTags(@NonNull CommitResolver resolver) {
+        return toBranches(tags, resolver);
+    }
+
+    private static List<BitbucketBranch> toBranches(Map<String, Ref> refs, CommitResolver resolver) {
+        if (refs == null) {
+            return null;
+        }
+        List<BitbucketBranch> result = new ArrayList<>(refs.size());
+        refs.forEach((name, ref) -> result.add(new SnapshotBranch(name, ref, resolver)));
+        return result;
+    }
+
+    /**
+     * Replaces the content of this snapshot with the result of a full
+     * listing.
+     * <p>
+     * If a webhook has changed the snapshot while the listing was running,
+     * the listing could miss that change and the snapshot is not used until
+     * the next full listing.
+     *
+     * @param version returned by {@link #getVersion()} when the listing has
+     *        started
+     * @param startedAt time when the listing has started
+     * @param branches the listed branches or {@code null} if branches have not
+     *        been fetched
+     * @param tags the listed tags or {@code null} if tags have not been
+     *        fetched
+     */
+    public synchronized void update(int version, long startedAt,
+                                    @CheckForNull Iterable<BitbucketBranch> branches,
+                                    @CheckForNull Iterable<BitbucketBranch> tags) {
+        this.branches = toRefs(branches);
+        this.tags = toRefs(tags);
+        this.lastFullListing = version == this.version ? startedAt : 0;
+        save();
+    }
+
+    private static Map<String, Ref> toRefs(Iterable<BitbucketBranch> branches) {
+        if (branches == null) {
+            return null;
+        }
+        Map<String, Ref> refs = new TreeMap<>();
+        for (BitbucketBranch branch : branches) {
+            refs.put(branch.getName(), Ref.of(branch));
+        }
+        return refs;
+    }
+
+    /**
+     * Makes the next indexing list the branches and tags again.
+     */
+    public synchronized void invalidate() {
+        if (lastFullListing != 0) {
+            lastFullListing = 0;
+            save();
+        }
+    }
+
+    /**
+     * Applies the heads changed by a webhook.
+     *
+     * @param heads the changed heads, a {@code null} revision means the head
+     *        has been removed
+     */
+    public synchronized void apply(@NonNull Map<SCMHead, SCMRevision> heads) {
+        version++;
+        if (lastFullListing == 0) {
+            // nothing to update until a full listing has been done
+            return;
+        }
+        boolean changed = false;
+        for (Map.Entry<SCMHead, SCMRevision> entry : heads.entrySet()) {
+            SCMHead head = entry.getKey();
+            SCMRevision revision = entry.getValue();
+            String hash = revision instanceof AbstractGitSCMSource.SCMRevisionImpl gitRevision ? gitRevision.getHash() : null;
+            if (head instanceof BitbucketTagSCMHead tagHead && tags != null) {
+                if (revision == null) {
+                    tags.remove(tagHead.getName());
+                } else if (hash != null) {
+                    tags.put(tagHead.getName(), new Ref(hash, tagHead.getTimestamp()));
+                }
+                changed = true;
+            } else if (head instanceof BranchSCMHead && branches != null) {
+                if (revision == null) {
+                    branches.remove(head.getName());
+                    if (tags != null) {
+                        // Bitbucket Cloud reports removed tags as branches
+                        tags.remove(head.getName());
+                    }
+                } else if (hash != null) {
+                    branches.put(head.getName(), new Ref(hash, 0L));
+                }
+                changed = true;
+            }
+        }
+        if (changed) {
+            save();
+        }
+    }
+
+    private void save() {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.write(this);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, e, () -> "Could not save " + file);
+        }
+    }
+
+    /**
+     * Resolves the details of a commit.
+     */
+    @FunctionalInterface
+    public interface CommitResolver {
+        @CheckForNull
+        BitbucketCommit resolve(@NonNull String hash) throws IOException, InterruptedException;
+    }
+
+    /**
+     * A branch or tag of the snapshot. The details of the head commit are
+     * those provided by the last full listing, the head commit is resolved
+     * only for the heads changed by a webhook since then.
+     */
+    public static final class SnapshotBranch implements BitbucketBranch {
+        private final String name;
+        private final Ref ref;
+        private final CommitResolver resolver;
+        private BitbucketCommit commit;
+        private boolean resolved;
+
+        SnapshotBranch(String name, Ref ref, CommitResolver resolver) {
+            this.name = name;
+            this.ref = ref;
+            this.resolver = resolver;
+        }
+
+        /**
+         * Returns if the details of the head commit are known without
+         * resolving it.
+         *
+         * @return {@code true} if message, author and date are known
+         */
+        public boolean hasHeadCommitInfo() {
+            return ref.details;
+        }
+
+        @Override
+        public String getRawNode() {
+            return ref.hash;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getDateMillis() {
+            if (ref.date != 0) {
+                return ref.date;
+            }
+            BitbucketCommit headCommit = commit();
+            return headCommit == null ? 0L : headCommit.getDateMillis();
+        }
+
+        @Override
+        public String getMessage() {
+            if (ref.details) {
+                return ref.message;
+            }
+            BitbucketCommit headCommit = commit();
+            return headCommit == null ? null : headCommit.getMessage();
+        }
+
+        @Override
+        public String getAuthor() {
+            if (ref.details) {
+                return ref.author;
+            }
+            BitbucketCommit headCommit = commit();
+            return headCommit == null ? null : headCommit.getAuthor();
+        }
+
+        private synchronized BitbucketCommit commit() {
+            if (!resolved) {
+                resolved = true;
+                try {
+                    commit = resolver.resolve(ref.hash);
+                } catch (IOException e) {
+                    logger.log(Level.FINER, "Could not determine head commit details", e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return commit;
+        }
+    }
+
+    /**
+     * Forgets the snapshots of the projects that are deleted or moved, and
+     * lists again the heads of the projects that are reconfigured.
+     */
+    @Extension
+    public static class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onUpdated(Item item) {
+            snapshots.forEach((key, snapshot) -> {
+                if (key.startsWith(item.getFullName() + "::")) {
+                    snapshot.invalidate();
+                }
+            });
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            snapshots.keySet().removeIf(key -> isOwnedBy(key, item.getFullName()));
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // the snapshot is read again from the new location when needed
+            snapshots.keySet().removeIf(key -> isOwnedBy(key, oldFullName));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.webhook;
+
+import com.cloudbees.jenkins.plugins.bitbucket.BitbucketSCMSource;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.scm.api.SCMHeadEvent;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.apache.commons.lang3.StringUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Reduces the number of events fired to the SCM API for the same changes.
+ * <ul>
+ * <li>webhooks delivered more than once by Bitbucket (same request
+ * identifier) are discarded;</li>
+ * <li>events waiting to be fired are replaced by a newer event of the same
+ * repository and reference, so that only the latest hash is fired.</li>
+ * </ul>
+ * Each fired event makes branch-api query every matching source and the
+ * sources request Bitbucket to compute the heads, so every merged event saves
+ * a scan of the involved projects.
+ */
+@Restricted(NoExternalUse.class)
+public final class WebhookEventCoalescer {
+    private static final Logger logger = Logger.getLogger(WebhookEventCoalescer.class.getName());
+
+    private static final boolean ENABLED = SystemProperties.getBoolean("bitbucket.webhook.coalesce", true);
+    private static final int REQUEST_HISTORY_SIZE = SystemProperties.getInteger("bitbucket.webhook.dedup.size", 10000);
+    private static final long REQUEST_HISTORY_TTL = TimeUnit.HOURS.toNanos(1);
+
+    /**
+     * An event that can be merged with other events waiting to be fired.
+     */
+    public interface Coalescable {
+
+        /**
+         * Returns the key of this event, only events with the same key are
+         * compared to be merged. Usually it contains the server, the
+         * repository, the type of event and the references involved.
+         *
+         * @return the key or {@code null} if this event can not be merged
+         */
+        @CheckForNull
+        String getCoalescingKey();
+
+        /**
+         * Returns if this event, fired in place of the given one, brings all
+         * the heads and revisions that the given event would bring.
+         *
+         * @param other an event with the same key received before or after
+         *        this one
+         * @param newer if this event has been received after the other one
+         * @return {@code true} if the other event can be discarded in favour
+         *         of this one
+         */
+        boolean supersedes(@NonNull SCMHeadEvent<?> other, boolean newer);
+    }
+
+    private static final class Pending {
+        private SCMHeadEvent<?> event;
+
+        Pending(SCMHeadEvent<?> event) {
+            this.event = event;
+        }
+    }
+
+    private static final Map<String, Long> requests = new LinkedHashMap<>(16, 0.75f, false) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > REQUEST_HISTORY_SIZE || System.nanoTime() - eldest.getValue() > REQUEST_HISTORY_TTL;
+        }
+    };
+    private static final Map<String, Pending> pending = new HashMap<>();
+    private static final AtomicLong duplicates = new AtomicLong();
+    private static final AtomicLong merged = new AtomicLong();
+
+    private WebhookEventCoalescer() {
+    }
+
+    /**
+     * Registers the delivery of a webhook.
+     *
+     * @param serverURL of the endpoint that sent the webhook
+     * @param requestId the identifier of the webhook request
+     * @return {@code false} if a webhook with the same identifier has already
+     *         been delivered, {@code true} otherwise
+     */
+    public static boolean register(@NonNull String serverURL, @CheckForNull String requestId) {
+        if (!ENABLED || REQUEST_HISTORY_SIZE <= 0 || StringUtils.isBlank(requestId)) {
+            return true;
+        }
+        String key = URLUtils.normalizeURL(serverURL) + '#' + requestId;
+        long now = System.nanoTime();
+        synchronized (requests) {
+            Long deliveredAt = requests.get(key);
+            if (deliveredAt != null && now - deliveredAt <= REQUEST_HISTORY_TTL) {
+                duplicates.incrementAndGet();
+                return false;
+            }
+            requests.put(key, now);
+            return true;
+        }
+    }
+
+    /**
+     * Forgets the delivery of a webhook that has not been accepted, so that
+     * the same request delivered again by Bitbucket will be processed.
+     *
+     * @param serverURL of the endpoint that sent the webhook
+     * @param requestId the identifier of the webhook request
+     */
+    public static void unregister(@NonNull String serverURL, @CheckForNull String requestId) {
+        if (StringUtils.isBlank(requestId)) {
+            return;
+        }
+        synchronized (requests) {
+            requests.remove(URLUtils.normalizeURL(serverURL) + '#' + requestId);
+        }
+    }
+
+    /**
+     * Fires the given event after the given delay. If an event with the same
+     * key is already waiting to be fired, the two events are merged and only
+     * one of them is fired when the first delay expires.
+     *
+     * @param event to fire
+     * @param delaySeconds a delay in seconds to wait before propagate the
+     *        event. If the given value is less than 0 than default will be
+     *        used.
+     */
+    public static void notifyEvent(@NonNull SCMHeadEvent<?> event, int delaySeconds) {
+        if (delaySeconds == 0) {
+            SCMHeadEvent.fireNow(event);
+            return;
+        }
+        int delay = delaySeconds > 0 ? delaySeconds : BitbucketSCMSource.getEventDelaySeconds();
+        String key = ENABLED && event instanceof Coalescable coalescable ? coalescable.getCoalescingKey() : null;
+        if (key == null) {
+            SCMHeadEvent.fireLater(event, delay, TimeUnit.SECONDS);
+            return;
+        }
+
+        Pending entry;
+        synchronized (pending) {
+            entry = pending.get(key);
+            if (entry != null) {
+                if (((Coalescable) event).supersedes(entry.event, true)) {
+                    logger.log(Level.FINE, "Event {0} replaces the pending event {1}", new Object[] { event, entry.event });
+                    entry.event = event;
+                    merged.incrementAndGet();
+                    return;
+                } else if (entry.event instanceof Coalescable waiting && waiting.supersedes(event, false)) {
+                    logger.log(Level.FINE, "Event {0} is covered by the pending event {1}", new Object[] { event, entry.event });
+                    merged.incrementAndGet();
+                    return;
+                }
+            }
+            // the previous pending event, if any, is fired on its own schedule
+            entry = new Pending(event);
+            pending.put(key, entry);
+        }
+        final Pending scheduled = entry;
+        Timer.get().schedule(() -> {
+            SCMHeadEvent<?> latest;
+            synchronized (pending) {
+                pending.remove(key, scheduled);
+                latest = scheduled.event;
+            }
+            SCMHeadEvent.fireNow(latest);
+        }, delay, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the statistics of discarded and merged webhooks.
+     *
+     * @return a list of human readable statistics
+     */
+    @NonNull
+    public static List<String> stats() {
+        return List.of("Duplicated webhooks discarded: " + duplicates.get(),
+                "Events merged with a pending event: " + merged.get());
+    }
+}
@@ -31,6 +31,7 @@ import com.cloudbees.jenkins.plugins.bitbucket.client.events.BitbucketCloudPushE
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.BitbucketApiUtils;
 import com.cloudbees.jenkins.plugins.bitbucket.server.events.BitbucketServerPullRequestEvent;
 import com.cloudbees.jenkins.plugins.bitbucket.server.events.BitbucketServerPushEvent;
+import com.google.common.base.Ascii;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.scm.SCM;
 import java.net.URI;
@@ -113,4 +114,18 @@ public abstract class AbstractSCMHeadEvent<P> extends SCMHeadEvent<P> {
     public boolean isMatch(@NonNull SCM scm) {
         return false;
     }
+
+    /**
+     * Builds the key used to merge events of the same repository and
+     * references while they are waiting to be fired.
+     *
+     * @param refs the references involved in the event
+     * @return the coalescing key
+     */
+    protected String coalescingKey(@NonNull String refs) {
+        BitbucketRepository repository = getRepository();
+        return String.join("|", getPayload().getClass().getName(),
+                Ascii.toLowerCase(repository.getOwnerName()), Ascii.toLowerCase(repository.getRepositoryName()),
+                getType().name(), refs);
+    }
 }
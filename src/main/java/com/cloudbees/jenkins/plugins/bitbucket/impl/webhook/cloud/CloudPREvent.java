@@ -32,6 +32,8 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPullRequestEvent;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.api.HasPullRequests;
 import com.cloudbees.jenkins.plugins.bitbucket.hooks.HookEventType;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.WebhookEventCoalescer;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.Collections;
@@ -41,6 +43,7 @@ import java.util.Map;
 import java.util.Set;
 import jenkins.plugins.git.AbstractGitSCMSource;
 import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMHeadEvent;
 import jenkins.scm.api.SCMHeadObserver;
 import jenkins.scm.api.SCMHeadOrigin;
 import jenkins.scm.api.SCMRevision;
@@ -50,7 +53,7 @@ import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
 import static com.cloudbees.jenkins.plugins.bitbucket.hooks.HookEventType.PULL_REQUEST_DECLINED;
 import static com.cloudbees.jenkins.plugins.bitbucket.hooks.HookEventType.PULL_REQUEST_MERGED;
 
-final class CloudPREvent extends AbstractSCMHeadEvent<BitbucketPullRequestEvent> implements HasPullRequests {
+final class CloudPREvent extends AbstractSCMHeadEvent<BitbucketPullRequestEvent> implements HasPullRequests, WebhookEventCoalescer.Coalescable {
     private final HookEventType hookEvent;
 
     CloudPREvent(Type type, BitbucketPullRequestEvent payload,
@@ -137,6 +140,20 @@ final class CloudPREvent extends AbstractSCMHeadEvent<BitbucketPullRequestEvent>
         return result;
     }
 
+    @CheckForNull
+    @Override
+    public String getCoalescingKey() {
+        return coalescingKey("PR-" + getPayload().getPullRequest().getId());
+    }
+
+    @Override
+    public boolean supersedes(@NonNull SCMHeadEvent<?> other, boolean newer) {
+        // merged and declined pull requests are removed in the same way
+        return newer
+                && other instanceof CloudPREvent event
+                && getPayload().getPullRequest().getId().equals(event.getPayload().getPullRequest().getId());
+    }
+
     @Override
     public Iterable<BitbucketPullRequest> getPullRequests(BitbucketSCMSource src) throws InterruptedException {
         if (hookEvent == PULL_REQUEST_DECLINED || hookEvent == PULL_REQUEST_MERGED) {
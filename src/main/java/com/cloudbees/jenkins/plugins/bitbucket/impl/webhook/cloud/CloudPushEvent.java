@@ -30,18 +30,23 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPushEvent;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPushEvent.Reference;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPushEvent.Target;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepository;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.WebhookEventCoalescer;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import jenkins.plugins.git.AbstractGitSCMSource;
 import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMHeadEvent;
 import jenkins.scm.api.SCMRevision;
 import jenkins.scm.api.SCMSource;
 import org.apache.commons.lang3.Strings;
 
-final class CloudPushEvent extends AbstractSCMHeadEvent<BitbucketPushEvent> {
+final class CloudPushEvent extends AbstractSCMHeadEvent<BitbucketPushEvent> implements WebhookEventCoalescer.Coalescable {
 
     CloudPushEvent(Type type, BitbucketPushEvent payload, String origin) {
         super(type, payload, origin);
@@ -102,4 +107,24 @@ final class CloudPushEvent extends AbstractSCMHeadEvent<BitbucketPushEvent> {
     protected BitbucketRepository getRepository() {
         return getPayload().getRepository();
     }
+
+    @CheckForNull
+    @Override
+    public String getCoalescingKey() {
+        Set<String> refs = new TreeSet<>();
+        for (BitbucketPushEvent.Change change : getPayload().getChanges()) {
+            Reference ref = change.getNew() != null ? change.getNew() : change.getOld();
+            if (ref == null) {
+                return null;
+            }
+            refs.add(ref.getType() + ':' + ref.getName());
+        }
+        return coalescingKey(String.join(",", refs));
+    }
+
+    @Override
+    public boolean supersedes(@NonNull SCMHeadEvent<?> other, boolean newer) {
+        // same references, the newer event has the latest hashes
+        return newer && other instanceof CloudPushEvent;
+    }
 }
@@ -69,7 +69,7 @@ public class CloudPushWebhookProcessor extends AbstractWebhookProcessor {
             if (push.getChanges().isEmpty()) {
                 final String owner = push.getRepository().getOwnerName();
                 final String repository = push.getRepository().getRepositoryName();
-                scmSourceReIndex(owner, repository, null);
+                scmSourceReIndex(endpoint.getServerURL(), owner, repository, null);
             } else {
                 SCMEvent.Type type = null;
                 for (BitbucketPushEvent.Change change : push.getChanges()) {
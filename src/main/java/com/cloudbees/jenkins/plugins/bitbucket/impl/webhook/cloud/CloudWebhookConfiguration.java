@@ -66,6 +66,12 @@ public class CloudWebhookConfiguration extends AbstractBitbucketWebhookConfigura
         return CloudWebhookManager.class;
     }
 
+    @NonNull
+    @Override
+    public BitbucketWebhookManager newManager() {
+        return new CloudWebhookManager();
+    }
+
     @Symbol("cloudWebhook")
     @Extension
     public static class DescriptorImpl extends AbstractBitbucketWebhookDescriptorImpl {
@@ -147,8 +147,7 @@ public class CloudWebhookManager implements BitbucketWebhookManager {
         };
         if (configuration.isEnableCache()) {
             try {
-                String cacheKey = upperCase(client.getRepositoryOwner()) + "::" + ObjectUtils.firstNonNull(client.getRepositoryName(), "<anonymous>");
-                return cachedRepositoryWebhooks.get(cacheKey, request);
+                return cachedRepositoryWebhooks.get(getCacheKey(client), request);
             } catch (ExecutionException e) {
                 BitbucketRequestException bre = BitbucketApiUtils.unwrap(e);
                 if (bre != null) {
@@ -162,6 +161,10 @@ public class CloudWebhookManager implements BitbucketWebhookManager {
         }
     }
 
+    private String getCacheKey(@NonNull BitbucketAuthenticatedClient client) {
+        return upperCase(client.getRepositoryOwner()) + "::" + ObjectUtils.firstNonNull(client.getRepositoryName(), "<anonymous>");
+    }
+
     @NonNull
     private BitbucketCloudWebhook buildPayload() {
         BitbucketCloudWebhook hook = new BitbucketCloudWebhook();
@@ -186,7 +189,11 @@ public class CloudWebhookManager implements BitbucketWebhookManager {
                 .set("owner", client.getRepositoryOwner())
                 .set("repo", client.getRepositoryName())
                 .expand();
-        client.post(url, JsonParser.toString(payload));
+        try {
+            client.post(url, JsonParser.toString(payload));
+        } finally {
+            cachedRepositoryWebhooks.evict(getCacheKey(client));
+        }
     }
 
     private boolean shouldUpdate(@NonNull BitbucketCloudWebhook current, @NonNull BitbucketCloudWebhook expected) {
@@ -227,7 +234,11 @@ public class CloudWebhookManager implements BitbucketWebhookManager {
                 .set("repo", client.getRepositoryName())
                 .set("hook", payload.getUuid())
                 .expand();
-        client.put(url, JsonParser.toString(payload));
+        try {
+            client.put(url, JsonParser.toString(payload));
+        } finally {
+            cachedRepositoryWebhooks.evict(getCacheKey(client));
+        }
     }
 
     @Override
@@ -237,23 +248,40 @@ public class CloudWebhookManager implements BitbucketWebhookManager {
                 .set("repo", client.getRepositoryName())
                 .set("hook", webhookId)
                 .expand();
-        client.delete(url);
+        try {
+            client.delete(url);
+        } finally {
+            cachedRepositoryWebhooks.evict(getCacheKey(client));
+        }
     }
 
     @Override
     public void register(@NonNull BitbucketAuthenticatedClient client) throws IOException {
-        BitbucketCloudWebhook existingHook = (BitbucketCloudWebhook) read(client)
-                .stream()
+        List<BitbucketCloudWebhook> hooks = read(client).stream()
+                .map(BitbucketCloudWebhook.class::cast)
+                .toList();
+        // prefer the hook that already calls this endpoint, otherwise reuse one of this Jenkins
+        BitbucketCloudWebhook existingHook = hooks.stream()
+                .filter(hook -> Strings.CI.equals(hook.getUrl(), callbackURL))
                 .findFirst()
-                .orElse(null);
+                .orElse(hooks.isEmpty() ? null : hooks.get(0));
 
+        BitbucketCloudWebhook expectedHook = buildPayload();
         if (existingHook == null) {
             logger.log(Level.INFO, "Registering cloud hook for {0}/{1}", new Object[] { client.getRepositoryOwner(), client.getRepositoryName() });
-            register(buildPayload(), client);
-        } else if (shouldUpdate(existingHook, buildPayload())) {
+            register(expectedHook, client);
+        } else if (shouldUpdate(existingHook, expectedHook)) {
             logger.log(Level.INFO, "Updating cloud hook for {0}/{1}", new Object[] { client.getRepositoryOwner(), client.getRepositoryName() });
             update(existingHook, client);
         }
+
+        // previous registrations could have created the same hook more than once
+        for (BitbucketCloudWebhook hook : hooks) {
+            if (hook != existingHook && Strings.CI.equals(hook.getUrl(), callbackURL)) {
+                logger.log(Level.INFO, "Removing duplicated cloud hook {0} for {1}/{2}", new Object[] { hook.getUuid(), client.getRepositoryOwner(), client.getRepositoryName() });
+                remove(hook.getUuid(), client);
+            }
+        }
     }
 
 }
@@ -71,7 +71,7 @@ public class PluginPushWebhookProcessor extends AbstractWebhookProcessor {
                 if (!reindexOnEmptyChanges()) {
                     logger.log(Level.INFO, "Received push hook with empty changes from Bitbucket. Processing indexing on {0}/{1}. " +
                             "You may skip this scan by adding the system property -D{2}=false on startup.", new Object[]{owner, repository, SCAN_ON_EMPTY_CHANGES_PROPERTY_NAME});
-                    scmSourceReIndex(owner, repository, null);
+                    scmSourceReIndex(endpoint.getServerURL(), owner, repository, null);
                 } else {
                     logger.log(Level.INFO, "Received push hook with empty changes from Bitbucket for {0}/{1}. Skipping.",
                         new Object[]{owner, repository});
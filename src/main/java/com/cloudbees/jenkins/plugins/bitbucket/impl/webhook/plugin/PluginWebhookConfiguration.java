@@ -136,6 +136,12 @@ public class PluginWebhookConfiguration implements BitbucketWebhookConfiguration
         return PluginWebhookManager.class;
     }
 
+    @NonNull
+    @Override
+    public BitbucketWebhookManager newManager() {
+        return new PluginWebhookManager();
+    }
+
     @Symbol("pluginWebhook")
     @Extension
     public static class DescriptorImpl extends BitbucketWebhookDescriptor {
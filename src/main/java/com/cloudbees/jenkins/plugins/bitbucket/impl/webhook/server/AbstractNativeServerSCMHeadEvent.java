@@ -29,6 +29,8 @@ import com.cloudbees.jenkins.plugins.bitbucket.BitbucketSCMSourceContext;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.BitbucketApiUtils;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketServerRepository;
+import com.google.common.base.Ascii;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.scm.SCM;
 import java.util.Collections;
@@ -98,6 +100,21 @@ abstract class AbstractNativeServerSCMHeadEvent<P> extends SCMHeadEvent<P> {
             && repo.getRepositoryName().equalsIgnoreCase(source.getRepository());
     }
 
+    /**
+     * Builds the key used to merge events of the same repository and
+     * references while they are waiting to be fired.
+     *
+     * @param mirrorId the mirror that sent the event, if any
+     * @param refs the references involved in the event
+     * @return the coalescing key
+     */
+    protected String coalescingKey(@CheckForNull String mirrorId, @NonNull String refs) {
+        final BitbucketServerRepository repo = getRepository();
+        return String.join("|", serverURL, String.valueOf(mirrorId),
+                Ascii.toLowerCase(repo.getOwnerName()), Ascii.toLowerCase(repo.getRepositoryName()),
+                getType().name(), refs);
+    }
+
     protected BitbucketSCMSourceContext contextOf(BitbucketSCMSource source) {
         return new BitbucketSCMSourceContext(null, SCMHeadObserver.none()).withTraits(source.getTraits());
     }
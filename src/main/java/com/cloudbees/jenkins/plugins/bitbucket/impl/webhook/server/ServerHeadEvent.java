@@ -30,9 +30,12 @@ import com.cloudbees.jenkins.plugins.bitbucket.PullRequestSCMRevision;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPullRequest;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.api.HasPullRequests;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.WebhookEventCoalescer;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.pullrequest.BitbucketServerPullRequest;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketServerRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.server.events.NativeServerPullRequestEvent;
 import com.google.common.base.Ascii;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Collections;
 import java.util.HashMap;
@@ -40,11 +43,12 @@ import java.util.Map;
 import java.util.Set;
 import jenkins.plugins.git.AbstractGitSCMSource;
 import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMHeadEvent;
 import jenkins.scm.api.SCMHeadOrigin;
 import jenkins.scm.api.SCMRevision;
 import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
 
-final class ServerHeadEvent extends AbstractNativeServerSCMHeadEvent<NativeServerPullRequestEvent> implements HasPullRequests {
+final class ServerHeadEvent extends AbstractNativeServerSCMHeadEvent<NativeServerPullRequestEvent> implements HasPullRequests, WebhookEventCoalescer.Coalescable {
     ServerHeadEvent(String serverUrl, Type type, NativeServerPullRequestEvent payload, String origin) {
         super(serverUrl, type, payload, origin);
     }
@@ -111,6 +115,28 @@ final class ServerHeadEvent extends AbstractNativeServerSCMHeadEvent<NativeServe
         return result;
     }
 
+    @CheckForNull
+    @Override
+    public String getCoalescingKey() {
+        final BitbucketServerPullRequest pullRequest = getPayload().getPullRequest();
+        final BitbucketServerRepository sourceRepo = pullRequest.getSource().getRepository();
+        final BitbucketServerRepository targetRepo = getRepository();
+        if (getType() == Type.UPDATED && pullRequest.getSource().getRefId() != null
+                && sourceRepo.getOwnerName().equalsIgnoreCase(targetRepo.getOwnerName())
+                && sourceRepo.getRepositoryName().equalsIgnoreCase(targetRepo.getRepositoryName())) {
+            // same key of a push on the source branch, that could cover this event
+            return coalescingKey(null, pullRequest.getSource().getRefId());
+        }
+        return coalescingKey(null, "PR-" + pullRequest.getId());
+    }
+
+    @Override
+    public boolean supersedes(@NonNull SCMHeadEvent<?> other, boolean newer) {
+        return newer
+                && other instanceof ServerHeadEvent event
+                && getPayload().getPullRequest().getId().equals(event.getPayload().getPullRequest().getId());
+    }
+
     @Override
     public Iterable<BitbucketPullRequest> getPullRequests(BitbucketSCMSource src) throws InterruptedException {
         if (Type.REMOVED.equals(getType())) {
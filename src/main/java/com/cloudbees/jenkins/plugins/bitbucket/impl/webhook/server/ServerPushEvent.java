@@ -35,13 +35,14 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCommit;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPullRequest;
 import com.cloudbees.jenkins.plugins.bitbucket.api.HasPullRequests;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.RateLimiter;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketAuthenticatorCache;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.WebhookEventCoalescer;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.BitbucketServerAPIClient;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.branch.BitbucketServerCommit;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.pullrequest.BitbucketServerPullRequest;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketServerRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.server.events.NativeServerChange;
-import com.cloudbees.jenkins.plugins.bitbucket.util.BitbucketCredentialsUtils;
-import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.google.common.base.Ascii;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -49,19 +50,21 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import jenkins.authentication.tokens.api.AuthenticationTokens;
 import jenkins.plugins.git.AbstractGitSCMSource;
 import jenkins.scm.api.SCMEvent;
 import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMHeadEvent;
 import jenkins.scm.api.SCMHeadOrigin;
 import jenkins.scm.api.SCMRevision;
 import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
@@ -69,35 +72,39 @@ import org.apache.commons.lang3.Strings;
 
 import static java.util.Objects.requireNonNull;
 
-final class ServerPushEvent extends AbstractNativeServerSCMHeadEvent<Collection<NativeServerChange>> implements HasPullRequests {
-
-    private static final class CacheKey {
-        @NonNull
-        private final String refId;
-        @CheckForNull
-        private final String credentialsId;
-
-        CacheKey(BitbucketSCMSource src, NativeServerChange change) {
-            this.refId = requireNonNull(change.getRefId());
-            this.credentialsId = src.getCredentialsId();
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(credentialsId, refId);
+final class ServerPushEvent extends AbstractNativeServerSCMHeadEvent<Collection<NativeServerChange>> implements HasPullRequests, WebhookEventCoalescer.Coalescable {
+
+    /*
+     * The open pull requests of the repository indexed by the source and the
+     * target reference, so that a single listing answers for all changes.
+     */
+    private static final class PullRequestIndex {
+        private final Map<String, List<BitbucketServerPullRequest>> bySource = new HashMap<>();
+        private final Map<String, List<BitbucketServerPullRequest>> byTarget = new HashMap<>();
+
+        PullRequestIndex(BitbucketServerRepository repository, List<BitbucketServerPullRequest> pullRequests) {
+            for (final BitbucketServerPullRequest pullRequest : pullRequests) {
+                final BitbucketServerRepository sourceRepo = pullRequest.getSource().getRepository();
+                if (pullRequest.getSource().getRefId() != null
+                        && Strings.CI.equals(sourceRepo.getOwnerName(), repository.getOwnerName())
+                        && Strings.CI.equals(sourceRepo.getRepositoryName(), repository.getRepositoryName())) {
+                    bySource.computeIfAbsent(pullRequest.getSource().getRefId(), k -> new ArrayList<>()).add(pullRequest);
+                }
+                if (pullRequest.getDestination().getRefId() != null) {
+                    byTarget.computeIfAbsent(pullRequest.getDestination().getRefId(), k -> new ArrayList<>()).add(pullRequest);
+                }
+            }
         }
 
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == this) {
-                return true;
+        Map<String, BitbucketServerPullRequest> get(String refId) {
+            final Map<String, BitbucketServerPullRequest> result = new LinkedHashMap<>();
+            for (final BitbucketServerPullRequest pullRequest : bySource.getOrDefault(refId, Collections.emptyList())) {
+                result.put(pullRequest.getId(), pullRequest);
             }
-
-            if (obj instanceof CacheKey cacheKey) {
-                return Objects.equals(credentialsId, cacheKey.credentialsId) && Objects.equals(refId, cacheKey.refId);
+            for (final BitbucketServerPullRequest pullRequest : byTarget.getOrDefault(refId, Collections.emptyList())) {
+                result.put(pullRequest.getId(), pullRequest);
             }
-
-            return false;
+            return result;
         }
     }
 
@@ -106,7 +113,8 @@ final class ServerPushEvent extends AbstractNativeServerSCMHeadEvent<Collection<
 
     private final BitbucketServerRepository repository;
     private final BitbucketServerCommit refCommit;
-    private final Map<CacheKey, Map<String, BitbucketServerPullRequest>> cachedPullRequests = new HashMap<>();
+    // pull requests index by credentials id
+    private final Map<String, PullRequestIndex> cachedPullRequests = new HashMap<>();
     private final String mirrorId;
 
     ServerPushEvent(String serverURL,
@@ -198,13 +206,7 @@ final class ServerPushEvent extends AbstractNativeServerSCMHeadEvent<Collection<
     protected BitbucketApi getClient(BitbucketSCMSource src) {
         String serverURL = src.getServerUrl();
 
-        StandardCredentials credentials = BitbucketCredentialsUtils.lookupCredentials(
-            src.getOwner(),
-            serverURL,
-            src.getCredentialsId(),
-            StandardCredentials.class
-        );
-        BitbucketAuthenticator authenticator = AuthenticationTokens.convert(BitbucketAuthenticator.authenticationContext(serverURL), credentials);
+        BitbucketAuthenticator authenticator = BitbucketAuthenticatorCache.get(src.getOwner(), serverURL, src.getCredentialsId());
         return BitbucketApiFactory.newInstance(serverURL, authenticator, src.getRepoOwner(), null, src.getRepository());
     }
 
@@ -275,62 +277,46 @@ final class ServerPushEvent extends AbstractNativeServerSCMHeadEvent<Collection<
     }
 
     private Map<String, BitbucketServerPullRequest> getPullRequests(BitbucketSCMSource src, NativeServerChange change) {
-
-        Map<String, BitbucketServerPullRequest> pullRequests;
-        final CacheKey cacheKey = new CacheKey(src, change);
+        final String refId = requireNonNull(change.getRefId());
+        PullRequestIndex pullRequests;
         synchronized (cachedPullRequests) {
-            pullRequests = cachedPullRequests.get(cacheKey);
+            pullRequests = cachedPullRequests.get(src.getCredentialsId());
             if (pullRequests == null) {
-                cachedPullRequests.put(cacheKey, pullRequests = loadPullRequests(src, change));
+                cachedPullRequests.put(src.getCredentialsId(), pullRequests = loadPullRequests(src));
             }
         }
 
-        return pullRequests;
+        return pullRequests.get(refId);
     }
 
-    private Map<String, BitbucketServerPullRequest> loadPullRequests(BitbucketSCMSource src, NativeServerChange change) {
+    private PullRequestIndex loadPullRequests(BitbucketSCMSource src) {
         final BitbucketServerRepository eventRepo = repository;
-        final Map<String, BitbucketServerPullRequest> pullRequests = new HashMap<>();
+        List<BitbucketServerPullRequest> pullRequests = Collections.emptyList();
 
-        try (BitbucketServerAPIClient api = (BitbucketServerAPIClient) src
+        try (RateLimiter.Scope scope = RateLimiter.prioritize(RateLimiter.Priority.EVENT);
+                BitbucketServerAPIClient api = (BitbucketServerAPIClient) src
                 .buildBitbucketClient(eventRepo.getOwnerName(), eventRepo.getRepositoryName())) {
-            try {
-                for (final BitbucketServerPullRequest pullRequest : api.getOutgoingOpenPullRequests(change.getRefId())) {
-                    pullRequests.put(pullRequest.getId(), pullRequest);
-                }
-            } catch (final FileNotFoundException e) {
-                throw e;
-            } catch (IOException | RuntimeException e) {
-                LOGGER.log(Level.WARNING, "Failed to retrieve outgoing Pull Requests from Bitbucket", e);
-            }
-
-            try {
-                for (final BitbucketServerPullRequest pullRequest : api.getIncomingOpenPullRequests(change.getRefId())) {
-                    pullRequests.put(pullRequest.getId(), pullRequest);
-                }
-            } catch (final FileNotFoundException e) {
-                throw e;
-            } catch (IOException | RuntimeException e) {
-                LOGGER.log(Level.WARNING, "Failed to retrieve incoming Pull Requests from Bitbucket", e);
-            }
+            // the heads of this event are computed only for sources of the event repository, so only
+            // pull requests targeting this repository are of interest, the merge status is not needed
+            pullRequests = api.getOpenPullRequestsWithoutSetup();
         } catch (FileNotFoundException e) {
             LOGGER.log(Level.INFO, "No such Repository on Bitbucket: {0}", e.getMessage());
-        } catch (IOException e1) {
-            LOGGER.log(Level.INFO, "Comunication fail with server", e1);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to retrieve open Pull Requests from Bitbucket", e);
         }
 
-        return pullRequests;
+        return new PullRequestIndex(eventRepo, pullRequests);
     }
 
     @Override
     public Collection<BitbucketPullRequest> getPullRequests(BitbucketSCMSource src) throws InterruptedException {
-        List<BitbucketPullRequest> prs = new ArrayList<>();
+        // a pull request from a changed branch to another changed branch is returned once
+        Map<String, BitbucketPullRequest> prs = new LinkedHashMap<>();
         for (final NativeServerChange change : getPayload()) {
-            Map<String, BitbucketServerPullRequest> prsForChange = getPullRequests(src, change);
-            prs.addAll(prsForChange.values());
+            prs.putAll(getPullRequests(src, change));
         }
 
-        return prs;
+        return prs.values();
     }
 
     @Override
@@ -338,4 +324,28 @@ final class ServerPushEvent extends AbstractNativeServerSCMHeadEvent<Collection<
         return Strings.CI.equals(source.getMirrorId(), this.mirrorId) && super.eventMatchesRepo(source);
     }
 
+    @CheckForNull
+    @Override
+    public String getCoalescingKey() {
+        final Set<String> refs = new TreeSet<>();
+        for (final NativeServerChange change : getPayload()) {
+            if (change.getRefId() == null) {
+                return null;
+            }
+            refs.add(change.getRefId());
+        }
+        return coalescingKey(mirrorId, String.join(",", refs));
+    }
+
+    @Override
+    public boolean supersedes(@NonNull SCMHeadEvent<?> other, boolean newer) {
+        if (other instanceof ServerPushEvent) {
+            // same references, the newer event has the latest hashes
+            return newer;
+        }
+        // the pull requests from the pushed branch are requested when this event is fired,
+        // so an update of a pull request of the same repository is already covered
+        return other instanceof ServerHeadEvent && getType() == SCMEvent.Type.UPDATED;
+    }
+
 }
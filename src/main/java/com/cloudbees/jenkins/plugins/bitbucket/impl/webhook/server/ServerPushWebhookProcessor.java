@@ -94,7 +94,7 @@ public class ServerPushWebhookProcessor extends AbstractWebhookProcessor {
                     logger.log(Level.INFO, "Received mirror synchronized event with refLimitExceeded from Bitbucket. Processing with indexing on {0}/{1}. " +
                             "You may skip this scan by adding the system property -D{2}=false on startup.",
                         new Object[]{owner, repositoryName, SCAN_ON_EMPTY_CHANGES_PROPERTY_NAME});
-                    scmSourceReIndex(owner, repositoryName, mirrorId);
+                    scmSourceReIndex(endpoint.getServerURL(), owner, repositoryName, mirrorId);
                     return;
                 }
             } else {
@@ -113,7 +113,7 @@ public class ServerPushWebhookProcessor extends AbstractWebhookProcessor {
                 logger.log(Level.INFO, "Received push hook with empty changes from Bitbucket. Processing indexing on {0}/{1}. " +
                         "You may skip this scan by adding the system property -D{2}=false on startup.",
                     new Object[]{owner, repositoryName, SCAN_ON_EMPTY_CHANGES_PROPERTY_NAME});
-                scmSourceReIndex(owner, repositoryName, mirrorId);
+                scmSourceReIndex(endpoint.getServerURL(), owner, repositoryName, mirrorId);
             } else {
                 logger.log(Level.INFO, "Received push hook with empty changes from Bitbucket for {0}/{1}. Skipping.",
                     new Object[]{owner, repositoryName});
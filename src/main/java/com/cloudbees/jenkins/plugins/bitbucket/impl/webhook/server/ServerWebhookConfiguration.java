@@ -69,6 +69,12 @@ public class ServerWebhookConfiguration extends AbstractBitbucketWebhookConfigur
         return ServerWebhookManager.class;
     }
 
+    @NonNull
+    @Override
+    public BitbucketWebhookManager newManager() {
+        return new ServerWebhookManager();
+    }
+
     @Symbol("serverWebhook")
     @Extension
     public static class DescriptorImpl extends AbstractBitbucketWebhookDescriptorImpl {
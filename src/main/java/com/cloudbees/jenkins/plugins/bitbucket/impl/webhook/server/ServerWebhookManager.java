@@ -34,6 +34,7 @@ import com.cloudbees.jenkins.plugins.bitbucket.hooks.HookEventType;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ICheckedCallable;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.BitbucketApiUtils;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.JsonParser;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.BitbucketServerPage;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketServerWebhook;
 import com.cloudbees.jenkins.plugins.bitbucket.util.BitbucketCredentialsUtils;
@@ -129,25 +130,30 @@ public class ServerWebhookManager implements BitbucketWebhookManager {
     public Collection<BitbucketWebHook> read(@NonNull BitbucketAuthenticatedClient client) throws IOException {
         String endpointJenkinsRootURL = ObjectUtils.firstNonNull(configuration.getEndpointJenkinsRootURL(), BitbucketWebhookConfiguration.getDefaultJenkinsRootURL());
 
-        String url = UriTemplate.fromTemplate(WEBHOOK_API)
-                .set("owner", client.getRepositoryOwner())
-                .set("repo", client.getRepositoryName())
-                .set("start", 0)
-                .set("limit", 200)
-                .expand();
-
         ICheckedCallable<List<BitbucketWebHook>, IOException> request = () -> {
+            List<BitbucketWebHook> resources = new ArrayList<>();
+
             TypeReference<BitbucketServerPage<BitbucketServerWebhook>> type = new TypeReference<BitbucketServerPage<BitbucketServerWebhook>>(){};
-            return JsonParser.toJava(client.get(url), type)
-                    .getValues().stream()
-                    .map(BitbucketWebHook.class::cast)
-                    .filter(hook -> hook.getUrl().startsWith(endpointJenkinsRootURL))
-                    .toList();
+            Integer start = 0;
+            BitbucketServerPage<BitbucketServerWebhook> page;
+            do {
+                String url = UriTemplate.fromTemplate(WEBHOOK_API)
+                        .set("owner", client.getRepositoryOwner())
+                        .set("repo", client.getRepositoryName())
+                        .set("start", start)
+                        .set("limit", 200)
+                        .expand();
+                page = JsonParser.toJava(client.get(url), type);
+                resources.addAll(page.getValues().stream()
+                        .filter(hook -> hook.getUrl().startsWith(endpointJenkinsRootURL))
+                        .toList());
+                start = page.getNextPageStart();
+            } while (!page.isLastPage() && start != null);
+            return resources;
         };
         if (configuration.isEnableCache()) {
             try {
-                String cacheKey = upperCase(client.getRepositoryOwner()) + "::" + ObjectUtils.firstNonNull(client.getRepositoryName(), "<anonymous>");
-                return cachedRepositoryWebhooks.get(cacheKey, request);
+                return cachedRepositoryWebhooks.get(getCacheKey(client), request);
             } catch (ExecutionException e) {
                 BitbucketRequestException bre = BitbucketApiUtils.unwrap(e);
                 if (bre != null) {
@@ -161,6 +167,11 @@ public class ServerWebhookManager implements BitbucketWebhookManager {
         }
     }
 
+    // the same project and repository could exist in more than one Data Center
+    private String getCacheKey(@NonNull BitbucketAuthenticatedClient client) {
+        return URLUtils.normalizeURL(serverURL) + "::" + upperCase(client.getRepositoryOwner()) + "::" + ObjectUtils.firstNonNull(client.getRepositoryName(), "<anonymous>");
+    }
+
     @NonNull
     private BitbucketServerWebhook buildPayload() {
         BitbucketServerWebhook hook = new BitbucketServerWebhook();
@@ -185,7 +196,11 @@ public class ServerWebhookManager implements BitbucketWebhookManager {
                 .set("owner", client.getRepositoryOwner())
                 .set("repo", client.getRepositoryName())
                 .expand();
-        client.post(url, JsonParser.toString(payload));
+        try {
+            client.post(url, JsonParser.toString(payload));
+        } finally {
+            cachedRepositoryWebhooks.evict(getCacheKey(client));
+        }
     }
 
     private boolean shouldUpdate(@NonNull BitbucketServerWebhook current, @NonNull BitbucketServerWebhook expected) {
@@ -227,7 +242,11 @@ public class ServerWebhookManager implements BitbucketWebhookManager {
                 .set("repo", client.getRepositoryName())
                 .set("id", payload.getUuid())
                 .expand();
-        client.put(url, JsonParser.toString(payload));
+        try {
+            client.put(url, JsonParser.toString(payload));
+        } finally {
+            cachedRepositoryWebhooks.evict(getCacheKey(client));
+        }
     }
 
     @Override
@@ -237,23 +256,40 @@ public class ServerWebhookManager implements BitbucketWebhookManager {
                 .set("repo", client.getRepositoryName())
                 .set("id", webhookId)
                 .expand();
-        client.delete(url);
+        try {
+            client.delete(url);
+        } finally {
+            cachedRepositoryWebhooks.evict(getCacheKey(client));
+        }
     }
 
     @Override
     public void register(@NonNull BitbucketAuthenticatedClient client) throws IOException {
-        BitbucketServerWebhook existingHook = (BitbucketServerWebhook) read(client)
-                .stream()
+        List<BitbucketServerWebhook> hooks = read(client).stream()
+                .map(BitbucketServerWebhook.class::cast)
+                .toList();
+        // prefer the hook that already calls this endpoint, otherwise reuse one of this Jenkins
+        BitbucketServerWebhook existingHook = hooks.stream()
+                .filter(hook -> Objects.equal(hook.getUrl(), callbackURL))
                 .findFirst()
-                .orElse(null);
+                .orElse(hooks.isEmpty() ? null : hooks.get(0));
 
+        BitbucketServerWebhook expectedHook = buildPayload();
         if (existingHook == null) {
             logger.log(Level.INFO, "Registering server hook for {0}/{1}", new Object[] { client.getRepositoryOwner(), client.getRepositoryName() });
-            register(buildPayload(), client);
-        } else if (shouldUpdate(existingHook, buildPayload())) {
+            register(expectedHook, client);
+        } else if (shouldUpdate(existingHook, expectedHook)) {
             logger.log(Level.INFO, "Updating server hook for {0}/{1}", new Object[] { client.getRepositoryOwner(), client.getRepositoryName() });
             update(existingHook, client);
         }
+
+        // previous registrations could have created the same hook more than once
+        for (BitbucketServerWebhook hook : hooks) {
+            if (hook != existingHook && Objects.equal(hook.getUrl(), callbackURL)) {
+                logger.log(Level.INFO, "Removing duplicated server hook {0} for {1}/{2}", new Object[] { hook.getUuid(), client.getRepositoryOwner(), client.getRepositoryName() });
+                remove(hook.getUuid(), client);
+            }
+        }
     }
 
 }
@@ -36,17 +36,26 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepository;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRequestException;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketTeam;
 import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpointProvider;
+import com.cloudbees.jenkins.plugins.bitbucket.client.Cache;
 import com.cloudbees.jenkins.plugins.bitbucket.client.repository.UserRoleInRepository;
+import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketEndpointConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.filesystem.BitbucketSCMFile;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.buildstatus.ServerBuildStatusNotifier;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.client.AbstractBitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.BitbucketPagedApi;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.client.BitbucketTlsSocketStrategy;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ConditionalRequestCache;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ConnectionPools;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ICheckedCallable;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.PagedIterable;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.RateLimiter;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketAccessTokenAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketClientCertificateAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketUsernamePasswordAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.BitbucketServerEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.BitbucketApiUtils;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.JsonParser;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.URLUtils;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.branch.BitbucketServerBranch;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.branch.BitbucketServerBranches;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.branch.BitbucketServerCommit;
@@ -56,33 +65,50 @@ import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.Bitbucke
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketServerRepository;
 import com.damnhandy.uri.template.UriTemplate;
 import com.damnhandy.uri.template.impl.Operator;
-import com.fasterxml.jackson.core.JacksonException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
 import hudson.Util;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.lang.reflect.ParameterizedType;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import javax.imageio.ImageIO;
 import jenkins.scm.api.SCMFile;
 import jenkins.scm.api.SCMFile.Type;
 import jenkins.scm.impl.avatars.AvatarImage;
+import jenkins.util.SystemProperties;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
@@ -91,11 +117,14 @@ import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.message.BasicNameValuePair;
 
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
 /**
  * Bitbucket API client.
  * Developed and test with Bitbucket 4.3.2
  */
-public class BitbucketServerAPIClient extends AbstractBitbucketApi implements BitbucketApi {
+public class BitbucketServerAPIClient extends AbstractBitbucketApi implements BitbucketApi, BitbucketPagedApi {
 
     // Max avatar image length in bytes
     private static final int MAX_AVATAR_LENGTH = 16384;
@@ -104,15 +133,16 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
     private static final String API_REPOSITORIES_PATH = API_BASE_PATH + "/projects/{owner}/repos{?start,limit}";
     private static final String API_REPOSITORY_PATH = API_BASE_PATH + "/projects/{owner}/repos/{repo}";
     private static final String API_DEFAULT_BRANCH_PATH = API_REPOSITORY_PATH + "/branches/default";
-    private static final String API_BRANCHES_PATH = API_REPOSITORY_PATH + "/branches{?start,limit}";
-    private static final String API_BRANCHES_FILTERED_PATH = API_REPOSITORY_PATH + "/branches{?filterText,start,limit}";
-    private static final String API_TAGS_PATH = API_REPOSITORY_PATH + "/tags{?start,limit}";
+    private static final String API_BRANCHES_PATH = API_REPOSITORY_PATH + "/branches{?details,start,limit}";
+    private static final String API_BRANCHES_FILTERED_PATH = API_REPOSITORY_PATH + "/branches{?filterText,details,start,limit}";
+    private static final String API_TAGS_PATH = API_REPOSITORY_PATH + "/tags{?details,start,limit}";
     private static final String API_TAG_PATH = API_REPOSITORY_PATH + "/tags/{tagName}";
     private static final String API_PULL_REQUESTS_PATH = API_REPOSITORY_PATH + "/pull-requests{?start,limit,at,direction,state}";
     private static final String API_PULL_REQUEST_PATH = API_REPOSITORY_PATH + "/pull-requests/{id}";
     private static final String API_PULL_REQUEST_MERGE_PATH = API_REPOSITORY_PATH + "/pull-requests/{id}/merge";
     private static final String API_PULL_REQUEST_CHANGES_PATH = API_REPOSITORY_PATH + "/pull-requests/{id}/changes{?start,limit}";
     private static final String API_BROWSE_PATH = API_REPOSITORY_PATH + "/browse{/path*}{?at}";
+    private static final String API_RAW_PATH = API_REPOSITORY_PATH + "/raw{/path*}{?at}";
     private static final String API_PROJECT_PATH = API_BASE_PATH + "/projects/{owner}";
     private static final String AVATAR_PATH = API_BASE_PATH + "/projects/{owner}/avatar.png";
     private static final String API_COMMITS_PATH = API_REPOSITORY_PATH + "/commits{?since,until,merges,start,limit}";
@@ -122,12 +152,19 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
     private static final String API_MIRRORS_FOR_REPO_PATH = "/rest/mirroring/1.0/repos/{id}/mirrors";
     private static final String API_MIRRORS_PATH = "/rest/mirroring/1.0/mirrorServers";
     private static final Integer DEFAULT_PAGE_LIMIT = 200;
-
-    private static final HttpClientConnectionManager connectionManager = connectionManagerBuilder()
-            .setMaxConnPerRoute(20)
-            .setMaxConnTotal(40 /* should be 20 * number of server instances */)
-            .setTlsSocketStrategy(new BitbucketTlsSocketStrategy())
-            .build();
+    // max number of concurrent requests sent to an endpoint to set up the pull requests
+    private static final int PULL_REQUEST_SETUP_PARALLELISM = SystemProperties.getInteger("bitbucket.pullrequest.setup.parallelism", 5);
+    // max number of pull requests waiting to be set up for an endpoint, once reached the scan waits for the setups in progress
+    private static final int PULL_REQUEST_SETUP_QUEUE_SIZE = SystemProperties.getInteger("bitbucket.pullrequest.setup.queueSize", 100);
+    // ask for the metadata of branches and tags, that includes their head commit, in the listing
+    private static final boolean REF_DETAILS = SystemProperties.getBoolean("bitbucket.branch.details", true);
+    private static final Map<String, ExecutorService> setupExecutors = new ConcurrentHashMap<>();
+    // how long a server that does not provide the raw endpoint is read through the browse API before the raw endpoint is tried again
+    private static final long RAW_UNSUPPORTED_TIMEOUT = TimeUnit.MINUTES.toMillis(SystemProperties.getLong("bitbucket.raw.unsupported.timeout", 60L));
+    // servers that do not provide the raw endpoint by the time they were found out, keyed by normalized server URL
+    private static final Map<String, Long> rawUnsupportedServers = new ConcurrentHashMap<>();
+    // keyed by normalized server URL
+    private static final Map<String, ServerCaches> serverCaches = new ConcurrentHashMap<>();
 
     /**
      * Repository owner.
@@ -142,10 +179,76 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
      */
     private final boolean userCentric;
     private final String baseURL;
+    /**
+     * The normalized server URL that keys the caches shared by the clients of
+     * the same server.
+     */
+    private final String serverKey;
     private final CloseableHttpClient client;
+    private final boolean enableCache;
+    private final ServerCaches caches;
+
+    /**
+     * Caches of a Bitbucket Data Center instance. Commits are cached by hash
+     * and so they never get stale, projects and repositories expire after the
+     * durations configured in the endpoint.
+     * <p>
+     * The cached objects are shared between all clients of the server and are
+     * returned as is to the callers, that must not modify them.
+     */
+    private static final class ServerCaches {
+        private final Cache<String, BitbucketTeam> projects = new Cache<>(6, HOURS);
+        private final Cache<String, List<BitbucketServerRepository>> repositories = new Cache<>(3, HOURS);
+        private final Cache<String, BitbucketServerRepository> repository = new Cache<>(3, HOURS, 1000);
+        private final Cache<String, String> defaultBranches = new Cache<>(3, HOURS, 1000);
+        private final Cache<String, BitbucketServerCommit> commits = new Cache<>(24, HOURS, 1000);
+
+        private void setExpireDurations(int teamCacheDuration, int repositoriesCacheDuration) {
+            projects.setExpireDuration(teamCacheDuration, MINUTES);
+            repositories.setExpireDuration(repositoriesCacheDuration, MINUTES);
+            repository.setExpireDuration(repositoriesCacheDuration, MINUTES);
+            defaultBranches.setExpireDuration(repositoriesCacheDuration, MINUTES);
+        }
+    }
+
+    public static List<String> stats(@CheckForNull String serverURL) {
+        List<String> stats = new ArrayList<>();
+        ServerCaches caches = serverURL == null ? null : serverCaches.get(URLUtils.normalizeURL(serverURL));
+        if (caches == null) {
+            caches = new ServerCaches();
+        }
+        stats.add("Projects: " + caches.projects.stats().toString());
+        stats.add("Repositories: " + caches.repositories.stats().toString());
+        stats.add("Repository details: " + caches.repository.stats().toString());
+        stats.add("Default branches: " + caches.defaultBranches.stats().toString());
+        stats.add("Commits: " + caches.commits.stats().toString());
+        stats.add(ConditionalRequestCache.stats(serverURL));
+        return stats;
+    }
+
+    public static void clearCaches(@CheckForNull String serverURL) {
+        ServerCaches caches = serverURL == null ? null : serverCaches.get(URLUtils.normalizeURL(serverURL));
+        if (serverURL != null) {
+            rawUnsupportedServers.remove(URLUtils.normalizeURL(serverURL));
+        }
+        if (caches != null) {
+            caches.projects.evictAll();
+            caches.repositories.evictAll();
+            caches.repository.evictAll();
+            caches.defaultBranches.evictAll();
+            caches.commits.evictAll();
+        }
+        ConditionalRequestCache.clear(serverURL);
+    }
 
     public BitbucketServerAPIClient(@NonNull String baseURL, @NonNull String owner, @CheckForNull String repositoryName,
                                     @CheckForNull BitbucketAuthenticator authenticator, boolean userCentric) {
+        this(baseURL, owner, repositoryName, authenticator, userCentric, false, 0, 0);
+    }
+
+    public BitbucketServerAPIClient(@NonNull String baseURL, @NonNull String owner, @CheckForNull String repositoryName,
+                                    @CheckForNull BitbucketAuthenticator authenticator, boolean userCentric,
+                                    boolean enableCache, int teamCacheDuration, int repositoriesCacheDuration) {
         super(authenticator);
         this.userCentric = userCentric;
         this.owner = Util.fixEmptyAndTrim(owner);
@@ -154,9 +257,28 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
         }
         this.repositoryName = repositoryName;
         this.baseURL = Util.removeTrailingSlash(baseURL);
+        this.serverKey = URLUtils.normalizeURL(baseURL);
+        this.enableCache = enableCache;
+        if (enableCache) {
+            this.caches = serverCaches.computeIfAbsent(this.serverKey, url -> new ServerCaches());
+            this.caches.setExpireDurations(teamCacheDuration, repositoriesCacheDuration);
+        } else {
+            this.caches = null;
+        }
         this.client = setupClientBuilder().build();
     }
 
+    @Extension
+    public static class EndpointConfigurationListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            // the endpoints may target a server that has been upgraded meanwhile
+            if (o instanceof BitbucketEndpointConfiguration) {
+                rawUnsupportedServers.clear();
+            }
+        }
+    }
+
     @Override
     protected boolean isSupportedAuthenticator(@CheckForNull BitbucketAuthenticator authenticator) {
         return authenticator == null
@@ -229,6 +351,32 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
         return getPullRequests(template);
     }
 
+    /**
+     * Returns the open pull requests that target this repository as listed
+     * by Bitbucket, without the merge status and the refresh of the merge
+     * reference made for each pull request by {@link #getPullRequests()}.
+     * <p>
+     * Meant to match pull requests with the references of an event, where one
+     * listing is enough to answer for all changed references.
+     *
+     * @return the open pull requests of this repository
+     * @throws IOException if there was a network communications error.
+     */
+    @NonNull
+    public List<BitbucketServerPullRequest> getOpenPullRequestsWithoutSetup() throws IOException {
+        UriTemplate template = UriTemplate
+                .fromTemplate(this.baseURL + API_PULL_REQUESTS_PATH)
+                .set("owner", getOwner())
+                .set("repo", repositoryName)
+                .set("state", "OPEN");
+        List<BitbucketServerPullRequest> pullRequests = getPagedRequest(template, BitbucketServerPullRequest.class);
+        pullRequests.removeIf(this::shouldIgnore);
+        for (BitbucketServerPullRequest pullRequest : pullRequests) {
+            setupClosureForPRBranch(pullRequest);
+        }
+        return pullRequests;
+    }
+
     private List<BitbucketServerPullRequest> getPullRequests(UriTemplate template) throws IOException {
         List<BitbucketServerPullRequest> pullRequests = getPagedRequest(template, BitbucketServerPullRequest.class);
 
@@ -238,17 +386,109 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
                 .lookupEndpoint(this.baseURL, BitbucketServerEndpoint.class)
                 .orElse(null);
 
+        if (endpoint == null) {
+            for (BitbucketServerPullRequest pullRequest : pullRequests) {
+                setupPullRequest(pullRequest, null);
+            }
+            return pullRequests;
+        }
+
+        setupPullRequests(pullRequests, endpoint);
+
+        // Get PRs again as revisions could be changed by other events during setupPullRequest
+        List<BitbucketServerPullRequest> updatedPullRequests = getPagedRequest(template, BitbucketServerPullRequest.class);
+        updatedPullRequests.removeIf(this::shouldIgnore);
+
+        // reuse the already initialised pull requests when their revisions are not changed
+        Map<String, BitbucketServerPullRequest> initialised = new HashMap<>();
         for (BitbucketServerPullRequest pullRequest : pullRequests) {
-            setupPullRequest(pullRequest, endpoint);
+            initialised.put(revisionKey(pullRequest), pullRequest);
+        }
+        List<BitbucketServerPullRequest> result = new ArrayList<>(updatedPullRequests.size());
+        for (BitbucketServerPullRequest pullRequest : updatedPullRequests) {
+            BitbucketServerPullRequest previous = initialised.get(revisionKey(pullRequest));
+            if (previous != null) {
+                result.add(previous);
+            } else {
+                setupClosureForPRBranch(pullRequest);
+                result.add(pullRequest);
+            }
         }
+        return result;
+    }
 
-        if (endpoint != null) {
-            // Get PRs again as revisions could be changed by other events during setupPullRequest
-            pullRequests = getPagedRequest(template, BitbucketServerPullRequest.class);
-            pullRequests.removeIf(this::shouldIgnore);
+    private String revisionKey(BitbucketServerPullRequest pullRequest) {
+        return pullRequest.getId()
+                + ':' + pullRequest.getSource().getBranch().getRawNode()
+                + ':' + pullRequest.getDestination().getBranch().getRawNode();
+    }
+
+    /*
+     * Each pull request setup costs two requests, they are independent of each
+     * other so they are sent in parallel with a limited number of concurrent
+     * requests for the endpoint.
+     */
+    private void setupPullRequests(@NonNull List<BitbucketServerPullRequest> pullRequests, @NonNull BitbucketServerEndpoint endpoint) throws IOException {
+        if (PULL_REQUEST_SETUP_PARALLELISM <= 1 || pullRequests.size() <= 1) {
+            for (BitbucketServerPullRequest pullRequest : pullRequests) {
+                setupPullRequest(pullRequest, endpoint);
+            }
+            return;
         }
 
-        return pullRequests;
+        ExecutorService executor = getSetupExecutor(this.baseURL);
+        RateLimiter.Priority priority = RateLimiter.currentPriority();
+        List<Future<Void>> tasks = new ArrayList<>(pullRequests.size());
+        try {
+            for (BitbucketServerPullRequest pullRequest : pullRequests) {
+                tasks.add(executor.submit(() -> {
+                    try (RateLimiter.Scope scope = RateLimiter.prioritize(priority)) {
+                        setupPullRequest(pullRequest, endpoint);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> task : tasks) {
+                task.get();
+            }
+        } catch (RejectedExecutionException e) {
+            // the scan has been interrupted while waiting for the queue
+            throw (IOException) new InterruptedIOException("Interrupted while setting up pull requests").initCause(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException("Interrupted while setting up pull requests").initCause(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            } else if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException(cause);
+        } finally {
+            for (Future<Void> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    private static ExecutorService getSetupExecutor(@NonNull String serverURL) {
+        return setupExecutors.computeIfAbsent(serverURL, url -> {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(PULL_REQUEST_SETUP_PARALLELISM, PULL_REQUEST_SETUP_PARALLELISM,
+                    60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(Math.max(1, PULL_REQUEST_SETUP_QUEUE_SIZE)),
+                    new NamingThreadFactory(new DaemonThreadFactory(), "BitbucketServerAPIClient.setupPullRequest [" + url + "]"),
+                    (task, pool) -> {
+                        // running the setup in the scan thread would exceed the limit of concurrent requests, wait for room instead
+                        try {
+                            pool.getQueue().put(task);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException("Interrupted while waiting to set up a pull request", e);
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        });
     }
 
     private void setupPullRequest(@NonNull BitbucketServerPullRequest pullRequest, @Nullable BitbucketServerEndpoint endpoint) throws IOException {
@@ -350,8 +590,7 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
                 .set("repo", repositoryName)
                 .set("id", id)
                 .expand();
-        String response = getRequest(url);
-        BitbucketServerPullRequest pr = JsonParser.toJava(response, BitbucketServerPullRequest.class);
+        BitbucketServerPullRequest pr = getRequestAs(url, BitbucketServerPullRequest.class);
         setupClosureForPRBranch(pr);
 
         BitbucketServerEndpoint endpoint = BitbucketEndpointProvider
@@ -376,8 +615,8 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
                 .set("owner", getOwner())
                 .set("repo", repositoryName)
                 .expand();
-        String response = getRequest(url);
-        return JsonParser.toJava(response, BitbucketServerRepository.class);
+        return cached(caches == null ? null : caches.repository, repositoryCacheKey(),
+                () -> getRequestAs(url, BitbucketServerRepository.class));
     }
 
     /**
@@ -479,13 +718,15 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
                 .set("owner", getOwner())
                 .set("repo", repositoryName)
                 .expand();
-        try {
-            return getRequestAs(url, BitbucketServerBranch.class).getName();
-        } catch (FileNotFoundException e) {
-            logger.log(Level.FINE, "Could not find default branch for {0}/{1}",
-                    new Object[]{this.owner, this.repositoryName});
-            return null;
-        }
+        return cached(caches == null ? null : caches.defaultBranches, repositoryCacheKey(), () -> {
+            try {
+                return getRequestAs(url, BitbucketServerBranch.class).getName();
+            } catch (FileNotFoundException e) {
+                logger.log(Level.FINE, "Could not find default branch for {0}/{1}",
+                        new Object[]{this.owner, this.repositoryName});
+                return null;
+            }
+        });
     }
 
     /**
@@ -533,20 +774,42 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
         return getServerBranches(API_BRANCHES_PATH);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public PagedIterable<BitbucketServerBranch> iterateBranches() {
+        return iterateServerBranches(API_BRANCHES_PATH);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public PagedIterable<BitbucketServerBranch> iterateTags() {
+        return iterateServerBranches(API_TAGS_PATH);
+    }
+
     private List<BitbucketServerBranch> getServerBranches(String apiPath) throws IOException {
+        return iterateServerBranches(apiPath).toList();
+    }
+
+    private PagedIterable<BitbucketServerBranch> iterateServerBranches(String apiPath) {
         UriTemplate template = UriTemplate
                 .fromTemplate(this.baseURL + apiPath)
                 .set("owner", getOwner())
                 .set("repo", repositoryName);
+        if (REF_DETAILS) {
+            template.set("details", true);
+        }
 
-        List<BitbucketServerBranch> branches = getPagedRequest(template, BitbucketServerBranch.class);
-        for (final BitbucketServerBranch branch : branches) {
+        return iteratePages(template, BitbucketServerBranch.class, branch -> {
             if (branch != null) {
                 branch.setCommitClosure(new CommitClosure(branch.getRawNode()));
             }
-        }
-
-        return branches;
+        });
     }
 
     private BitbucketServerBranch getSingleBranch(String branchName) throws IOException {
@@ -555,6 +818,9 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
             .set("owner", getOwner())
             .set("repo", repositoryName)
             .set("filterText", branchName);
+        if (REF_DETAILS) {
+            template.set("details", true);
+        }
 
         BitbucketServerBranch br = getResource(template, BitbucketServerBranches.class,
             branch -> branchName.equals(branch.getName()));
@@ -576,7 +842,9 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
                 .set("repo", repositoryName)
                 .set("hash", hash)
                 .expand();
-        return getRequestAs(url, BitbucketServerCommit.class);
+        String cacheKey = getOwner() + "/" + repositoryName + "::" + hash;
+        return resolveCommit(hash, () -> cached(caches == null ? null : caches.commits, cacheKey,
+                () -> getRequestAs(url, BitbucketServerCommit.class)));
     }
 
     /** {@inheritDoc} */
@@ -603,11 +871,13 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
             String url = UriTemplate.fromTemplate(this.baseURL + API_PROJECT_PATH)
                     .set("owner", getOwner())
                     .expand();
-            try {
-                return getRequestAs(url, BitbucketServerProject.class);
-            } catch (FileNotFoundException e) {
-                return null;
-            }
+            return cached(caches == null ? null : caches.projects, ownerCacheKey(), () -> {
+                try {
+                    return getRequestAs(url, BitbucketServerProject.class);
+                } catch (FileNotFoundException e) {
+                    return null;
+                }
+            });
         }
     }
 
@@ -651,15 +921,18 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
                 .fromTemplate(this.baseURL + API_REPOSITORIES_PATH)
                 .set("owner", getOwner());
 
-        List<BitbucketServerRepository> repositories = new ArrayList<>();
-        try {
-            repositories = getPagedRequest(template, BitbucketServerRepository.class);
-            repositories.removeIf(BitbucketServerRepository::isArchived);
-            repositories.sort(Comparator.comparing(BitbucketServerRepository::getRepositoryName));
-        } catch (FileNotFoundException e) {
-            // do nothing
-        }
-        return repositories;
+        List<BitbucketServerRepository> repositories = cached(caches == null ? null : caches.repositories, ownerCacheKey(), () -> {
+            try {
+                List<BitbucketServerRepository> values = getPagedRequest(template, BitbucketServerRepository.class);
+                values.removeIf(BitbucketServerRepository::isArchived);
+                values.sort(Comparator.comparing(BitbucketServerRepository::getRepositoryName));
+                return values;
+            } catch (FileNotFoundException e) {
+                return Collections.emptyList();
+            }
+        });
+        // callers may modify the returned list but not the repositories, that are shared through the cache
+        return new ArrayList<>(repositories);
     }
 
     /** {@inheritDoc} */
@@ -669,21 +942,44 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
         return getRepositories(null);
     }
 
-    @Override
-    public boolean isPrivate() throws IOException {
-        return getRepository().isPrivate();
+    private String ownerCacheKey() {
+        BitbucketAuthenticator authenticator = getAuthenticator();
+        return getOwner() + "::" + (authenticator == null ? "<anonymous>" : authenticator.getId());
     }
 
-    private <V> V getRequestAs(String url, Class<V> resultType) throws IOException {
-        String response = getRequest(url);
+    private String repositoryCacheKey() {
+        BitbucketAuthenticator authenticator = getAuthenticator();
+        return getOwner() + "/" + repositoryName + "::" + (authenticator == null ? "<anonymous>" : authenticator.getId());
+    }
+
+    private <V> V cached(@CheckForNull Cache<String, V> cache, @NonNull String key, @NonNull ICheckedCallable<V, IOException> request) throws IOException {
+        if (!enableCache || cache == null) {
+            return request.call();
+        }
         try {
-            return JsonParser.toJava(response, resultType);
-        } catch (JacksonException e) {
-            throw new IOException("I/O error when parsing response from URL: " + url, e);
+            return cache.get(key, request);
+        } catch (ExecutionException e) {
+            BitbucketRequestException bre = BitbucketApiUtils.unwrap(e);
+            if (bre != null) {
+                throw bre;
+            } else if (e.getCause() instanceof IOException ioe) {
+                throw ioe;
+            } else {
+                throw new IOException(e);
+            }
         }
     }
 
+    @Override
+    public boolean isPrivate() throws IOException {
+        return getRepository().isPrivate();
+    }
+
     private <V> List<V> getPagedRequest(UriTemplate template, Class<V> resultType) throws IOException {
+        return iteratePages(template, resultType, value -> {}).toList();
+    }
+
+    private <V> PagedIterable<V> iteratePages(UriTemplate template, Class<V> resultType, Consumer<V> setup) {
         ParameterizedType parameterizedType = new ParameterizedType() {
 
             @Override
@@ -701,69 +997,55 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
                 return new java.lang.reflect.Type[] { resultType };
             }
         };
+        TypeReference<BitbucketServerPage<V>> type = new TypeReference<BitbucketServerPage<V>>(){
+            @Override
+            public java.lang.reflect.Type getType() {
+                return parameterizedType;
+            }
+        };
 
-        String url = null;
-        try {
-            TypeReference<BitbucketServerPage<V>> type = new TypeReference<BitbucketServerPage<V>>(){
-                @Override
-                public java.lang.reflect.Type getType() {
-                    return parameterizedType;
-                }
-            };
-
-            List<V> resources = new ArrayList<>();
-
-            BitbucketServerPage<V> page;
-            Integer pageNumber = 0;
-            Integer limit = DEFAULT_PAGE_LIMIT;
-            do {
-                url = template //
-                        .set("start", pageNumber) //
-                        .set("limit", limit) //
+        String url = template //
+                .set("start", 0) //
+                .set("limit", DEFAULT_PAGE_LIMIT) //
+                .expand();
+        return new PagedIterable<>(url, pageURL -> {
+            BitbucketServerPage<V> page = getRequestAs(pageURL, type);
+            List<V> values = page.getValues();
+            values.forEach(setup);
+
+            String nextURL = null;
+            if (!page.isLastPage()) {
+                nextURL = template //
+                        .set("start", page.getNextPageStart()) //
+                        .set("limit", page.getLimit()) //
                         .expand();
-                String response = getRequest(url);
-                page = JsonParser.toJava(response, type);
-                resources.addAll(page.getValues());
-
-                limit = page.getLimit();
-                pageNumber = page.getNextPageStart();
-            } while (!page.isLastPage());
-
-            return resources;
-        } catch (JacksonException e) {
-            throw new IOException("I/O error when parsing response from URL: " + url, e);
-        }
-
+            }
+            return new PagedIterable.Page<>(values, nextURL);
+        });
     }
 
     private <V> V getResource(UriTemplate template, Class<? extends BitbucketServerPage<V>> clazz, Predicate<V> filter) throws IOException {
-        String url = null;
-        try {
-            BitbucketServerPage<V> page;
-            Integer pageNumber = 0;
-            Integer limit = DEFAULT_PAGE_LIMIT;
-            do {
-                url = template //
-                    .set("start", pageNumber) //
-                    .set("limit", limit) //
-                    .expand();
-                String response = getRequest(url);
-                page = JsonParser.toJava(response, clazz);
+        BitbucketServerPage<V> page;
+        Integer pageNumber = 0;
+        Integer limit = DEFAULT_PAGE_LIMIT;
+        do {
+            String url = template //
+                .set("start", pageNumber) //
+                .set("limit", limit) //
+                .expand();
+            page = getRequestAs(url, clazz);
 
-                for (V item : page.getValues()) {
-                    if (filter.test(item)) {
-                        return item;
-                    }
+            for (V item : page.getValues()) {
+                if (filter.test(item)) {
+                    return item;
                 }
+            }
 
-                limit = page.getLimit();
-                pageNumber = page.getNextPageStart();
-            } while (!page.isLastPage());
+            limit = page.getLimit();
+            pageNumber = page.getNextPageStart();
+        } while (!page.isLastPage());
 
-            return null;
-        } catch (JacksonException e) {
-            throw new IOException("I/O error when parsing response from URL: " + url, e);
-        }
+        return null;
     }
 
     private BufferedImage getImageRequest(String path) throws IOException {
@@ -776,7 +1058,7 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
 
     @Override
     protected HttpClientConnectionManager getConnectionManager() {
-        return connectionManager;
+        return ConnectionPools.get(baseURL, builder -> builder.setTlsSocketStrategy(new BitbucketTlsSocketStrategy()));
     }
 
     @NonNull
@@ -785,6 +1067,11 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
         return client;
     }
 
+    @Override
+    protected boolean isCacheEnabled() {
+        return enableCache;
+    }
+
     @NonNull
     @Override
     protected HttpHost getHost() {
@@ -850,6 +1137,59 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
 
     @Override
     public InputStream getFileContent(BitbucketSCMFile file) throws IOException {
+        if (isRawUnsupported()) {
+            return browseFileContent(file);
+        }
+
+        String branchOrHash = file.getHash().contains("+") ? file.getRef() : file.getHash();
+        String url = UriTemplate
+                .fromTemplate(this.baseURL + API_RAW_PATH)
+                .set("owner", getOwner())
+                .set("repo", repositoryName)
+                .set("path", file.getPath().split(Operator.PATH.getSeparator()))
+                .set("at", branchOrHash)
+                .expand();
+        try {
+            return getRequestAsInputStream(url);
+        } catch (FileNotFoundException e) {
+            // the file does not exist or the server does not provide the raw endpoint
+            InputStream content = browseFileContent(file);
+            if (isUnknownResource(e)) {
+                logger.log(Level.FINE, "Server {0} does not support raw file content, fallback to the browse API", baseURL);
+                rawUnsupportedServers.put(serverKey, System.currentTimeMillis());
+            }
+            return content;
+        }
+    }
+
+    private boolean isRawUnsupported() {
+        Long since = rawUnsupportedServers.get(serverKey);
+        if (since == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - since > RAW_UNSUPPORTED_TIMEOUT) {
+            // the server may have been upgraded meanwhile
+            rawUnsupportedServers.remove(serverKey, since);
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * Bitbucket reports a missing file, commit or repository, as well as a
+     * resource the user is not allowed to see, with a JSON error that names
+     * the exception, a server that does not provide the endpoint at all does
+     * not.
+     */
+    private static boolean isUnknownResource(FileNotFoundException e) {
+        return !StringUtils.contains(e.getMessage(), "\"exceptionName\"");
+    }
+
+    /*
+     * Rebuilds the file content from the lines returned by the browse API,
+     * binary files and the trailing newline are not preserved.
+     */
+    private InputStream browseFileContent(BitbucketSCMFile file) throws IOException {
         List<String> lines = new ArrayList<>();
         int start=0;
         String branchOrHash = file.getHash().contains("+") ? file.getRef() : file.getHash();
@@ -926,12 +1266,21 @@ public class BitbucketServerAPIClient extends AbstractBitbucketApi implements Bi
     @NonNull
     @Override
     public List<BitbucketServerCommit> getCommits(String fromCommit, String toCommit) throws IOException {
+        return iterateCommits(fromCommit, toCommit).toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public PagedIterable<BitbucketServerCommit> iterateCommits(@CheckForNull String fromCommit, @NonNull String toCommit) {
         UriTemplate uriTemplate = UriTemplate.fromTemplate(this.baseURL + API_COMMITS_PATH)
                 .set("owner", getOwner())
                 .set("repo", repositoryName)
                 .set("since", fromCommit)
                 .set("until", toCommit);
-        return getPagedRequest(uriTemplate, BitbucketServerCommit.class);
+        return iteratePages(uriTemplate, BitbucketServerCommit.class, commit -> {});
     }
 
 }
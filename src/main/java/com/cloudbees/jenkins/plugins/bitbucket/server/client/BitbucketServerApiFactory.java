@@ -26,7 +26,9 @@ package com.cloudbees.jenkins.plugins.bitbucket.server.client;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApiFactory;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpointProvider;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.BitbucketCloudEndpoint;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.BitbucketServerEndpoint;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -50,6 +52,13 @@ public class BitbucketServerApiFactory extends BitbucketApiFactory {
         if (StringUtils.isBlank(serverURL)) {
             throw new IllegalArgumentException("serverUrl is required");
         }
+        BitbucketServerEndpoint endpoint = BitbucketEndpointProvider
+                .lookupEndpoint(serverURL, BitbucketServerEndpoint.class)
+                .orElse(null);
+        if (endpoint != null && endpoint.isEnableCache()) {
+            return new BitbucketServerAPIClient(serverURL, owner, repository, authenticator, false,
+                    true, endpoint.getTeamCacheDuration(), endpoint.getRepositoriesCacheDuration());
+        }
         return new BitbucketServerAPIClient(serverURL, owner, repository, authenticator, false);
     }
 }
@@ -26,6 +26,8 @@ package com.cloudbees.jenkins.plugins.bitbucket.server.client.branch;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBranch;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCommit;
 import com.cloudbees.jenkins.plugins.bitbucket.api.PullRequestBranchType;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Date;
 import java.util.concurrent.Callable;
 import java.util.logging.Level;
@@ -35,12 +37,20 @@ import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 public class BitbucketServerBranch implements BitbucketBranch {
     private static final Logger LOGGER = Logger.getLogger(BitbucketServerBranch.class.getName());
+    private static final String LATEST_COMMIT_METADATA = "com.atlassian.bitbucket.server.bitbucket-branch:latest-commit-metadata";
+
+    // metadata returned by Data Center when the listing is requested with details
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class Metadata {
+        @JsonProperty(LATEST_COMMIT_METADATA)
+        private BitbucketServerCommit latestCommit;
+    }
 
     private String displayId;
 
     private String latestCommit;
 
-    // initialised by callable
+    // initialised by metadata or callable
     private String message;
     private String author;
     private Long timestamp;
@@ -135,17 +145,32 @@ public class BitbucketServerBranch implements BitbucketBranch {
         this.author = author;
     }
 
+    @JsonProperty("metadata")
+    private synchronized void setMetadata(Metadata metadata) {
+        if (metadata != null && metadata.latestCommit != null) {
+            setHeadCommitInfo(metadata.latestCommit);
+            callableInitialised = true;
+        }
+    }
+
+    /**
+     * Returns if the details of the head commit are already known, because
+     * they were part of the listing or have already been requested.
+     *
+     * @return {@code true} if no request is needed to get the date, message
+     *         and author of the head commit
+     */
+    @Restricted(NoExternalUse.class)
+    public synchronized boolean hasHeadCommitInfo() {
+        return callableInitialised;
+    }
+
     private synchronized void initHeadCommitInfo() {
         if (callableInitialised || commitClosure == null) {
             return;
         }
         try {
-            BitbucketCommit commit = commitClosure.call();
-
-            Date committerDate = commit.getCommitterDate();
-            this.timestamp = committerDate != null ? committerDate.getTime() : 0L;
-            this.message = commit.getMessage();
-            this.author = commit.getAuthor();
+            setHeadCommitInfo(commitClosure.call());
         } catch (Exception e) {
             LOGGER.log(Level.FINER, "Could not determine head commit details", e);
             // fallback on default values
@@ -156,6 +181,13 @@ public class BitbucketServerBranch implements BitbucketBranch {
         callableInitialised = true;
     }
 
+    private void setHeadCommitInfo(BitbucketCommit commit) {
+        Date committerDate = commit.getCommitterDate();
+        this.timestamp = committerDate != null ? committerDate.getTime() : 0L;
+        this.message = commit.getMessage();
+        this.author = commit.getAuthor();
+    }
+
     public PullRequestBranchType getType() {
         return type;
     }
@@ -33,6 +33,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class BitbucketServerPullRequestDestination implements BitbucketPullRequestDestination {
 
+    @JsonProperty("id")
+    private String refId;
     @JsonProperty("displayId")
     private String branchName;
     @JsonProperty
@@ -43,6 +45,14 @@ public class BitbucketServerPullRequestDestination implements BitbucketPullReque
     @JsonProperty
     private BitbucketServerCommit commit;
 
+    public String getRefId() {
+        return refId;
+    }
+
+    public void setRefId(String refId) {
+        this.refId = refId;
+    }
+
     @Override
     public BitbucketServerRepository getRepository() {
         return repository;
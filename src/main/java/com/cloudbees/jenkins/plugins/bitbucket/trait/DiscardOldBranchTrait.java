@@ -32,6 +32,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.util.FormValidation;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import jenkins.scm.api.SCMHead;
 import jenkins.scm.api.trait.SCMHeadFilter;
@@ -84,12 +85,16 @@ public class DiscardOldBranchTrait extends SCMSourceTrait {
                     branchName = prHead.getBranchName();
                 }
 
-                for (BitbucketBranch branch : bbRequest.getBranches()) {
-                    if (branchName.equals(branch.getName())) {
-                        LocalDate commitDate = asLocalDate(branch.getDateMillis());
-                        LocalDate expiryDate = LocalDate.now().minusDays(keepForDays);
-                        return commitDate.isBefore(expiryDate);
+                try {
+                    for (BitbucketBranch branch : bbRequest.iterateBranches()) {
+                        if (branchName.equals(branch.getName())) {
+                            LocalDate commitDate = asLocalDate(branch.getDateMillis());
+                            LocalDate expiryDate = LocalDate.now().minusDays(keepForDays);
+                            return commitDate.isBefore(expiryDate);
+                        }
                     }
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
                 }
             }
             return false;
@@ -29,6 +29,7 @@ import com.cloudbees.jenkins.plugins.bitbucket.trait.WebhookRegistrationTrait;
 import java.util.Arrays;
 import java.util.Collections;
 import jenkins.model.Jenkins;
+import jenkins.scm.impl.trait.WildcardSCMSourceFilterTrait;
 import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -135,4 +136,23 @@ class BitbucketSCMNavigatorTest {
         assertThat(instance.getCredentialsId()).isEqualTo("test");
     }
 
+    @Test
+    void given__wildcard_filter__when__includedNameTerms__then__longest_literal_of_each_pattern() {
+        BitbucketSCMNavigator instance = new BitbucketSCMNavigator("test");
+        instance.setTraits(Arrays.asList(new BranchDiscoveryTrait(true, false),
+                new WildcardSCMSourceFilterTrait("core-* *-api-service foo*bar-baz", "core-legacy")));
+        assertThat(BitbucketSCMNavigator.includedNameTerms(instance.getTraits()))
+            .containsExactly("core-", "-api-service", "bar-baz");
+    }
+
+    @Test
+    void given__wildcard_filter_including_all__when__includedNameTerms__then__empty() {
+        BitbucketSCMNavigator instance = new BitbucketSCMNavigator("test");
+        instance.setTraits(Collections.singletonList(new WildcardSCMSourceFilterTrait("core-* *", "")));
+        assertThat(BitbucketSCMNavigator.includedNameTerms(instance.getTraits())).isEmpty();
+
+        instance.setTraits(Collections.singletonList(new BranchDiscoveryTrait(true, false)));
+        assertThat(BitbucketSCMNavigator.includedNameTerms(instance.getTraits())).isEmpty();
+    }
+
 }
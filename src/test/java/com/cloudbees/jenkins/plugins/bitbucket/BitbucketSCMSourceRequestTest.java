@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBranch;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.BitbucketPagedApi;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.PagedIterable;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.PagedIterable.Page;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import jenkins.scm.api.SCMHeadObserver;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class BitbucketSCMSourceRequestTest {
+
+    private BitbucketSCMSourceRequest prepareRequest(PagedIterable<BitbucketBranch> branches, PagedIterable<BitbucketBranch> tags) {
+        BitbucketApi client = mock(BitbucketApi.class, withSettings().extraInterfaces(BitbucketPagedApi.class));
+        doReturn(branches).when((BitbucketPagedApi) client).iterateBranches();
+        doReturn(tags).when((BitbucketPagedApi) client).iterateTags();
+        BitbucketSCMSource source = mock(BitbucketSCMSource.class);
+        when(source.buildBitbucketClient()).thenReturn(client);
+        return new BitbucketSCMSourceContext(null, SCMHeadObserver.none()).newRequest(source, null);
+    }
+
+    // the second page can not be fetched
+    private PagedIterable<BitbucketBranch> failingOnSecondPage(String name) {
+        BitbucketBranch branch = mock(BitbucketBranch.class);
+        when(branch.getName()).thenReturn(name);
+        return new PagedIterable<>("page=0", url -> {
+            if ("page=0".equals(url)) {
+                return new Page<>(List.of(branch), "page=1");
+            }
+            throw new IOException("connection reset");
+        }, false);
+    }
+
+    private PagedIterable<BitbucketBranch> twoPages(String name) {
+        BitbucketBranch first = mock(BitbucketBranch.class);
+        when(first.getName()).thenReturn(name + "-1");
+        BitbucketBranch second = mock(BitbucketBranch.class);
+        when(second.getName()).thenReturn(name + "-2");
+        return new PagedIterable<>("page=0", url -> "page=0".equals(url)
+                ? new Page<>(List.of(first), "page=1")
+                : new Page<>(List.of(second), null), false);
+    }
+
+    @Test
+    void getBranches_throws_IOException_when_a_later_page_fails() throws Exception {
+        BitbucketSCMSourceRequest request = prepareRequest(failingOnSecondPage("main"), twoPages("v"));
+
+        assertThatIOException().isThrownBy(request::getBranches).withMessage("connection reset");
+        // the lazy view throws the same error only while iterating
+        Iterable<BitbucketBranch> branches = request.iterateBranches();
+        assertThat(branches.iterator().next().getName()).isEqualTo("main");
+        assertThatThrownBy(() -> branches.forEach(branch -> {}))
+            .isInstanceOf(UncheckedIOException.class)
+            .hasRootCauseMessage("connection reset");
+    }
+
+    @Test
+    void getTags_throws_IOException_when_a_later_page_fails() throws Exception {
+        BitbucketSCMSourceRequest request = prepareRequest(twoPages("feature"), failingOnSecondPage("v1"));
+
+        assertThatIOException().isThrownBy(request::getTags).withMessage("connection reset");
+    }
+
+    @Test
+    void getBranches_returns_all_pages() throws Exception {
+        BitbucketSCMSourceRequest request = prepareRequest(twoPages("feature"), twoPages("v"));
+
+        assertThat(request.getBranches()).extracting(BitbucketBranch::getName).containsExactly("feature-1", "feature-2");
+        assertThat(request.getTags()).extracting(BitbucketBranch::getName).containsExactly("v-1", "v-2");
+    }
+
+    private PagedIterable<BitbucketBranch> counting(AtomicInteger requests) {
+        return new PagedIterable<>("page=0", url -> {
+            requests.incrementAndGet();
+            return new Page<>(List.of(mock(BitbucketBranch.class)), null);
+        }, false);
+    }
+
+    @Test
+    void listing_is_requested_again_when_heads_are_not_retained() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        BitbucketSCMSourceRequest request = prepareRequest(counting(requests), twoPages("v"));
+
+        request.iterateBranches().forEach(branch -> {});
+        request.iterateBranches().forEach(branch -> {});
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void listing_is_requested_once_when_heads_are_retained() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        BitbucketSCMSourceRequest request = prepareRequest(counting(requests), twoPages("v"));
+        request.retainHeads();
+
+        request.iterateBranches().forEach(branch -> {});
+        assertThat(request.getBranches()).hasSize(1);
+        assertThat(requests).hasValue(1);
+    }
+}
@@ -24,18 +24,28 @@
 package com.cloudbees.jenkins.plugins.bitbucket;
 
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketMockApiFactory;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepository;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketTeam;
+import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketCloudApiClient;
 import com.cloudbees.jenkins.plugins.bitbucket.test.util.BitbucketClientMockUtils;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.model.TaskListener;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import jenkins.scm.api.SCMSource;
 import jenkins.scm.api.SCMSourceObserver;
 import jenkins.scm.api.SCMSourceObserver.ProjectObserver;
 import jenkins.scm.api.SCMSourceOwner;
 import jenkins.scm.impl.NullSCMSource;
 import jenkins.scm.impl.trait.RegexSCMSourceFilterTrait;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.JenkinsRule;
@@ -43,6 +53,11 @@ import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
 import org.mockito.Mockito;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 @WithJenkins
@@ -56,6 +71,12 @@ class SCMNavigatorTest {
         SCMNavigatorTest.rule = rule;
     }
 
+    @AfterEach
+    void resetParallelism() {
+        BitbucketSCMNavigator.setParallelism(1);
+        BitbucketMockApiFactory.remove(PARALLEL_SERVER_URL);
+    }
+
     @Test
     void teamRepositoriesDiscovering() throws Exception {
         BitbucketMockApiFactory.add("http://bitbucket.test",
@@ -122,6 +143,140 @@ class SCMNavigatorTest {
         }
     }
 
+    private static final String PARALLEL_SERVER_URL = "http://bitbucket.parallel";
+
+    @Test
+    void repositories_are_processed_concurrently() throws Exception {
+        CyclicBarrier pairs = new CyclicBarrier(2);
+        // fails unless two repositories are processed at the same time
+        ConcurrentSCMSourceObserver observer = visitConcurrently(4, name -> await(pairs));
+
+        assertThat(observer.completed).containsExactlyInAnyOrder("repo1", "repo2", "repo3", "repo4");
+        assertThat(observer.maxInProgress).hasValue(2);
+    }
+
+    @Test
+    void failing_repositories_stop_the_scan() throws Exception {
+        CyclicBarrier pairs = new CyclicBarrier(2);
+        ConcurrentSCMSourceObserver observer = new ConcurrentSCMSourceObserver(name -> {
+            // both repositories have started before any of them fails
+            await(pairs);
+            throw new IllegalStateException("Failed to process " + name);
+        });
+
+        assertThatThrownBy(() -> visitConcurrently(6, observer))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageStartingWith("Failed to process repo");
+        // no repository is started once one has failed
+        assertThat(observer.observed).containsExactlyInAnyOrder("repo1", "repo2");
+    }
+
+    @Test
+    void scan_stops_when_the_request_is_complete() throws Exception {
+        CyclicBarrier pairs = new CyclicBarrier(2);
+        ConcurrentSCMSourceObserver observer = new ConcurrentSCMSourceObserver(name -> await(pairs));
+        observer.limit = 1;
+
+        visitConcurrently(6, observer);
+
+        // the repositories in progress when the first one completed the request
+        assertThat(observer.observed).containsExactlyInAnyOrder("repo1", "repo2");
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Repositories are not processed concurrently", e);
+        }
+    }
+
+    private ConcurrentSCMSourceObserver visitConcurrently(int repositories, Consumer<String> onComplete) throws Exception {
+        ConcurrentSCMSourceObserver observer = new ConcurrentSCMSourceObserver(onComplete);
+        visitConcurrently(repositories, observer);
+        return observer;
+    }
+
+    private void visitConcurrently(int repositories, ConcurrentSCMSourceObserver observer) throws Exception {
+        List<BitbucketRepository> repos = new ArrayList<>();
+        for (int i = 1; i <= repositories; i++) {
+            BitbucketRepository repo = mock(BitbucketRepository.class);
+            when(repo.getRepositoryName()).thenReturn("repo" + i);
+            when(repo.getFullName()).thenReturn("myteam/repo" + i);
+            repos.add(repo);
+        }
+        BitbucketCloudApiClient client = mock(BitbucketCloudApiClient.class);
+        when(client.getTeam()).thenReturn(mock(BitbucketTeam.class));
+        doReturn(repos).when(client).getRepositories(any(), anyCollection());
+        BitbucketMockApiFactory.add(PARALLEL_SERVER_URL, client);
+        BitbucketSCMNavigator.setParallelism(2);
+
+        BitbucketSCMNavigator navigator = new BitbucketSCMNavigator("myteam");
+        navigator.setServerUrl(PARALLEL_SERVER_URL);
+        navigator.visitSources(observer);
+    }
+
+    private static class ConcurrentSCMSourceObserver extends SCMSourceObserver {
+        private final Set<String> observed = ConcurrentHashMap.newKeySet();
+        private final Set<String> completed = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger inProgress = new AtomicInteger();
+        private final AtomicInteger maxInProgress = new AtomicInteger();
+        private final Consumer<String> onComplete;
+        private final SCMSourceOwner owner = mock(SCMSourceOwner.class);
+        private volatile int limit = Integer.MAX_VALUE;
+
+        ConcurrentSCMSourceObserver(Consumer<String> onComplete) {
+            this.onComplete = onComplete;
+        }
+
+        @NonNull
+        @Override
+        public SCMSourceOwner getContext() {
+            return owner;
+        }
+
+        @NonNull
+        @Override
+        public TaskListener getListener() {
+            return TaskListener.NULL;
+        }
+
+        @Override
+        public boolean isObserving() {
+            return completed.size() < limit;
+        }
+
+        @NonNull
+        @Override
+        public ProjectObserver observe(@NonNull String projectName) throws IllegalArgumentException {
+            observed.add(projectName);
+            return new ProjectObserver() {
+                @Override
+                public void addSource(@NonNull SCMSource source) {
+                }
+
+                @Override
+                public void addAttribute(@NonNull String key, Object value) throws IllegalArgumentException, ClassCastException {
+                }
+
+                @Override
+                public void complete() throws IllegalStateException, InterruptedException {
+                    maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+                    try {
+                        onComplete.accept(projectName);
+                        completed.add(projectName);
+                    } finally {
+                        inProgress.decrementAndGet();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void addAttribute(@NonNull String key, Object value) throws IllegalArgumentException, ClassCastException {
+        }
+    }
+
     private static class SCMSourceObserverImpl extends SCMSourceObserver {
 
         List<String> observed = new ArrayList<>();
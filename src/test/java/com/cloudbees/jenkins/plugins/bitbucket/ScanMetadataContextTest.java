@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketRepository;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ScanMetadataContextTest {
+
+    private final AtomicInteger clients = new AtomicInteger();
+    private final AtomicLong now = new AtomicLong();
+    private BitbucketApi client;
+    private ScanMetadataContext context;
+
+    @BeforeEach
+    void setup() throws Exception {
+        client = mock(BitbucketApi.class);
+        when(client.getRepository()).thenReturn(mock(BitbucketRepository.class));
+        when(client.getDefaultBranch()).thenReturn("main");
+        context = new ScanMetadataContext(() -> {
+            clients.incrementAndGet();
+            return client;
+        }, now::get);
+    }
+
+    @Test
+    void metadata_is_requested_once_by_a_single_client() throws Exception {
+        try (ScanMetadataContext.Scope actions = context.open()) {
+            assertThat(actions.getRepository()).isNotNull();
+            assertThat(actions.getDefaultBranch()).isEqualTo("main");
+
+            try (ScanMetadataContext.Scope build = context.open()) {
+                assertThat(build.getRepository()).isSameAs(actions.getRepository());
+                assertThat(build.getDefaultBranch()).isEqualTo("main");
+            }
+            verify(client, never()).close();
+        }
+
+        assertThat(clients).hasValue(1);
+        verify(client).getRepository();
+        verify(client).getDefaultBranch();
+        verify(client).close();
+    }
+
+    @Test
+    void metadata_is_reused_by_operations_that_start_after_the_indexing() throws Exception {
+        try (ScanMetadataContext.Scope scope = context.open()) {
+            scope.getRepository();
+        }
+        try (ScanMetadataContext.Scope scope = context.open()) {
+            assertThat(scope).isNotNull();
+            scope.getRepository();
+            // a client is created again only to request what is missing
+            assertThat(clients).hasValue(1);
+            scope.getDefaultBranch();
+        }
+
+        assertThat(clients).hasValue(2);
+        verify(client).getRepository();
+        verify(client, times(2)).close();
+    }
+
+    @Test
+    void scope_is_closed_once() throws Exception {
+        ScanMetadataContext.Scope scope = context.open();
+        try (ScanMetadataContext.Scope other = context.open()) {
+            other.getRepository();
+            scope.close();
+            scope.close();
+            verify(client, never()).close();
+        }
+        verify(client).close();
+    }
+
+    @Test
+    void context_expires_after_the_reuse_timeout() throws Exception {
+        try (ScanMetadataContext.Scope scope = context.open()) {
+            scope.getRepository();
+        }
+        now.addAndGet(TimeUnit.SECONDS.toMillis(61));
+
+        assertThat(context.open()).isNull();
+    }
+
+    @Test
+    void context_expires_after_its_max_age_even_when_it_is_in_use() throws Exception {
+        try (ScanMetadataContext.Scope scope = context.open()) {
+            scope.getRepository();
+            for (int i = 0; i < 6; i++) {
+                now.addAndGet(TimeUnit.SECONDS.toMillis(50));
+                try (ScanMetadataContext.Scope other = context.open()) {
+                    assertThat(other).isNotNull();
+                }
+            }
+            now.addAndGet(TimeUnit.SECONDS.toMillis(50));
+
+            assertThat(context.open()).isNull();
+            // the operation that already uses the context goes on
+            assertThat(scope.getRepository()).isNotNull();
+        }
+        verify(client).getRepository();
+    }
+}
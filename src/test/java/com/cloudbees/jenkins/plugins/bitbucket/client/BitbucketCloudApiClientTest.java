@@ -43,12 +43,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.classic.methods.HttpPut;
 import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.NameValuePair;
+import org.apache.hc.core5.http.message.BasicNameValuePair;
+import org.apache.hc.core5.net.URIBuilder;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
@@ -134,6 +138,22 @@ class BitbucketCloudApiClientTest {
                 assertThat(put.getRequestUri()).isEqualTo("https://api.bitbucket.org/2.0/repositories/amuniz/test-repos/hooks/%7B202cf34e-7ccf-44b7-ba6b-8827a14d5324%7D"));
     }
 
+    @Test
+    void verify_getRepositories_sends_name_terms_and_fields() throws Exception {
+        BitbucketApi client = BitbucketIntegrationClientFactory.getApiMockClient(BitbucketCloudEndpoint.SERVER_URL);
+        // there is no payload for this request, only the sent request is verified
+        assertThatThrownBy(() -> client.getRepositories(null, List.of("core-", "api\"s")))
+            .isInstanceOf(IOException.class);
+
+        HttpRequest request = BitbucketTestUtil.extractRequest(client);
+        assertThat(request).isNotNull();
+        assertThat(new URIBuilder(request.getUri()).getQueryParams())
+            .contains(new BasicNameValuePair("q", "(full_name ~ \"core-\" OR full_name ~ \"api\\\"s\")"),
+                    new BasicNameValuePair("fields", "next,values.full_name,values.is_private,values.scm,values.project.key"))
+            .extracting(NameValuePair::getName)
+            .doesNotContain("role");
+    }
+
     @Test
     void test_supported_auth() throws Exception {
         try (BitbucketApi client = new BitbucketCloudApiClient(false, 0, 0, null, null, null, mock(BitbucketUsernamePasswordAuthenticator.class))) {}
@@ -24,10 +24,21 @@
 package com.cloudbees.jenkins.plugins.bitbucket.client;
 
 import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ICheckedCallable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -80,4 +91,135 @@ class CacheTest {
         cache.get("another key", callable);
         assertThat(cache.size()).isEqualTo(10);
     }
+
+    @Test
+    void ensure_first_loaded_entry_is_evicted_when_full() throws Exception {
+        final Cache<String, Long> cache = new Cache<>(5, TimeUnit.HOURS, 3);
+        final AtomicInteger calls = new AtomicInteger();
+        final ICheckedCallable<Long, Exception> callable = () -> (long) calls.incrementAndGet();
+
+        cache.get("a", callable);
+        cache.get("b", callable);
+        cache.get("c", callable);
+        // an evicted key loaded again counts as the youngest one
+        cache.evict("a");
+        cache.get("a", callable);
+        cache.get("d", callable);
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get("c", callable)).isEqualTo(3L);
+        assertThat(cache.get("a", callable)).isEqualTo(4L);
+        assertThat(cache.get("d", callable)).isEqualTo(5L);
+        // b was the eldest
+        assertThat(cache.get("b", callable)).isEqualTo(6L);
+    }
+
+    @Test
+    void ensure_evict_reloads_only_the_given_key() throws Exception {
+        final Cache<String, Long> cache = new Cache<>(5, TimeUnit.HOURS);
+        final AtomicInteger calls = new AtomicInteger();
+        final ICheckedCallable<Long, Exception> callable = () -> (long) calls.incrementAndGet();
+
+        assertThat(cache.get("a key", callable)).isEqualTo(1L);
+        assertThat(cache.get("another key", callable)).isEqualTo(2L);
+
+        cache.evict("a key");
+
+        assertThat(cache.get("a key", callable)).isEqualTo(3L);
+        assertThat(cache.get("another key", callable)).isEqualTo(2L);
+    }
+
+    @Test
+    void ensure_failure_is_not_cached() throws Exception {
+        final Cache<String, Long> cache = new Cache<>(5, TimeUnit.HOURS);
+
+        assertThatThrownBy(() -> cache.get("a key", () -> {
+            throw new IOException("boom");
+        })).isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(IOException.class);
+        assertThat(cache.size()).isZero();
+
+        assertThat(cache.get("a key", () -> 1L)).isEqualTo(1L);
+    }
+
+    @Test
+    void ensure_slow_load_does_not_block_other_keys() throws Exception {
+        final Cache<String, Long> cache = new Cache<>(5, TimeUnit.HOURS);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> slow = executor.submit(() -> cache.get("slow key", () -> {
+                loading.countDown();
+                release.await();
+                return 1L;
+            }));
+            assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // while the slow key is still loading other keys must be served
+            assertThat(cache.get("fast key", () -> 2L)).isEqualTo(2L);
+            assertThat(slow.isDone()).isFalse();
+
+            release.countDown();
+            assertThat(slow.get(10, TimeUnit.SECONDS)).isEqualTo(1L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void ensure_single_load_per_key_under_contention() throws Exception {
+        final int threads = 16;
+        final int keys = 8;
+        final int iterations = 2000;
+        final Cache<String, Long> cache = new Cache<>(5, TimeUnit.HOURS);
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        // loads complete only once all keys are loading at the same time, a global lock would break the barrier
+        final CyclicBarrier loading = new CyclicBarrier(keys);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int offset = t;
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < iterations; i++) {
+                        final int key = (i + offset) % keys;
+                        Long value = cache.get("key" + key, () -> {
+                            loads.incrementAndGet();
+                            loading.await(30, TimeUnit.SECONDS);
+                            return (long) key;
+                        });
+                        assertThat(value).isEqualTo((long) key);
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+
+            assertThat(loads).hasValue(keys);
+            assertThat(cache.size()).isEqualTo(keys);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void recursive_load_of_the_same_key_fails() throws Exception {
+        final Cache<String, String> cache = new Cache<>(5, TimeUnit.HOURS);
+
+        assertThatThrownBy(() -> cache.get("key", () -> cache.get("key", () -> "value")))
+            .isInstanceOf(ExecutionException.class)
+            .hasRootCauseInstanceOf(IllegalStateException.class)
+            .hasRootCauseMessage("Recursive load of key: key");
+        // the failed load is not cached
+        assertThat(cache.get("key", () -> "value")).isEqualTo("value");
+    }
 }
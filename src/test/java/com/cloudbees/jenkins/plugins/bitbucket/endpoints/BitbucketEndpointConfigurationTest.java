@@ -844,6 +844,15 @@ class BitbucketEndpointConfigurationTest {
             .isInstanceOfSatisfying(BitbucketServerEndpoint.class, endpoint -> {
                 assertThat(endpoint.getDisplayName()).isEqualTo("server");
                 assertThat(endpoint.getServerURL()).isEqualTo("http://localhost:7990/bitbucket");
+                assertThat(endpoint.isEnableCache()).isTrue();
+                assertThat(endpoint.getTeamCacheDuration()).isEqualTo(60);
+                assertThat(endpoint.getRepositoriesCacheDuration()).isEqualTo(30);
+                assertThat(endpoint.getMaxConnections()).isEqualTo(50);
+                assertThat(endpoint.getMaxConnectionsPerRoute()).isEqualTo(25);
+                assertThat(endpoint.getConnectTimeout()).isEqualTo(5);
+                assertThat(endpoint.getSocketTimeout()).isEqualTo(120);
+                assertThat(endpoint.getConnectionRequestTimeout()).isEqualTo(30);
+                assertThat(endpoint.getKeepAliveTimeout()).isEqualTo(10);
                 assertThat(endpoint.getWebhook())
                 .isInstanceOfSatisfying(ServerWebhookConfiguration.class, webhook -> {
                     assertThat(webhook.getEndpointJenkinsRootURL()).isEqualTo("http://host.docker.internal:8090/jenkins/");
@@ -859,6 +868,7 @@ class BitbucketEndpointConfigurationTest {
             .isInstanceOfSatisfying(BitbucketServerEndpoint.class, endpoint -> {
                 assertThat(endpoint.getDisplayName()).isEqualTo("server ngix");
                 assertThat(endpoint.getServerURL()).isEqualTo("https://localhost:1443/bitbucket");
+                assertThat(endpoint.getMaxConnections()).isNull();
                 assertThat(endpoint.getWebhook())
                 .isInstanceOfSatisfying(PluginWebhookConfiguration.class, webhook -> {
                     assertThat(webhook.getEndpointJenkinsRootURL()).isEqualTo("http://host.docker.internal:8090/jenkins/");
@@ -36,6 +36,7 @@ import hudson.util.RingBufferLogHandler;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
@@ -49,6 +50,7 @@ import org.jvnet.hudson.test.TestExtension;
 import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
 import org.kohsuke.stapler.HttpResponse;
 import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
 import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -58,8 +60,11 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -169,7 +174,8 @@ class BitbucketSCMSourcePushHookReceiverTest {
             verify(hookProcessor).verifyPayload(headersCaptor.capture(), eq("{}"), eq(endpoint));
             assertThat(headersCaptor.getValue()).containsAllEntriesOf(headers);
 
-            verify(hookProcessor).process(
+            // the payload is processed in background
+            verify(hookProcessor, timeout(5000)).process(
                     eq("event:X"),
                     eq("{}"),
                     eq(Collections.emptyMap()),
@@ -210,6 +216,43 @@ class BitbucketSCMSourcePushHookReceiverTest {
         }
     }
 
+    @Test
+    void the_same_request_delivered_twice_is_processed_once() throws Exception {
+        CloudWebhookConfiguration webhook = new CloudWebhookConfiguration(false, null, false, null);
+        BitbucketCloudEndpoint endpoint = new BitbucketCloudEndpoint(false, 0, 0, webhook);
+        BitbucketEndpointConfiguration.get().updateEndpoint(endpoint);
+
+        try {
+            BitbucketWebhookProcessor hookProcessor = mock(BitbucketWebhookProcessor.class);
+            sut = new BitbucketSCMSourcePushHookReceiver() {
+                @Override
+                Stream<BitbucketWebhookProcessor> getHookProcessors() {
+                    return Stream.of(hookProcessor);
+                }
+            };
+            mockRequest();
+            headers.putAll(HookProcessorTestUtil.getCloudHeaders());
+            when(req.getInputStream()).thenAnswer(invocation -> new MockRequest("{}"));
+            when(hookProcessor.canHandle(any(), any())).thenReturn(true);
+            when(hookProcessor.getServerURL(any(), any())).thenReturn(endpoint.getServerURL());
+            when(hookProcessor.getEventType(any(), any())).thenReturn("event:X");
+
+            sut.doNotify(req);
+            sut.doNotify(req);
+
+            // the payload of each delivery is still verified
+            verify(hookProcessor, times(2)).verifyPayload(any(), eq("{}"), eq(endpoint));
+            verify(hookProcessor, timeout(5000)).process(eq("event:X"), eq("{}"), any(), eq(endpoint));
+            verify(hookProcessor, after(1000).times(1)).process(any(), any(), any(), any());
+
+            headers.putAll(HookProcessorTestUtil.getCloudHeaders());
+            sut.doNotify(req);
+            verify(hookProcessor, timeout(5000).times(2)).process(any(), any(), any(), any());
+        } finally {
+            BitbucketEndpointConfiguration.get().removeEndpoint(endpoint.getServerURL());
+        }
+    }
+
     @Test
     void stop_process_when_multiple_processors_canHandle_incoming_webhook() throws Exception {
         CloudWebhookConfiguration webhook = new CloudWebhookConfiguration(false, null, true, "hmac");
@@ -239,6 +282,51 @@ class BitbucketSCMSourcePushHookReceiverTest {
         }
     }
 
+    @Test
+    void answer_service_unavailable_when_the_queue_is_full() throws Exception {
+        CloudWebhookConfiguration webhook = new CloudWebhookConfiguration(false, null, false, null);
+        BitbucketCloudEndpoint endpoint = new BitbucketCloudEndpoint(false, 0, 0, webhook);
+        BitbucketEndpointConfiguration.get().updateEndpoint(endpoint);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < WebhookProcessingQueue.getCapacity(); i++) {
+                assertThat(WebhookProcessingQueue.offer(endpoint.getServerURL(), "repo-" + i, () -> {
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })).isTrue();
+            }
+
+            BitbucketWebhookProcessor hookProcessor = mock(BitbucketWebhookProcessor.class);
+            sut = new BitbucketSCMSourcePushHookReceiver() {
+                @Override
+                Stream<BitbucketWebhookProcessor> getHookProcessors() {
+                    return Stream.of(hookProcessor);
+                }
+            };
+            mockRequest();
+            headers.putAll(HookProcessorTestUtil.getCloudHeaders());
+            when(hookProcessor.canHandle(any(), any())).thenReturn(true);
+            when(hookProcessor.getServerURL(any(), any())).thenReturn(endpoint.getServerURL());
+            when(hookProcessor.getEventType(any(), any())).thenReturn("event:X");
+
+            HttpResponse response = sut.doNotify(req);
+            StaplerResponse2 rsp = mock(StaplerResponse2.class);
+            response.generateResponse(req, rsp, null);
+            verify(rsp).setHeader("Retry-After", String.valueOf(WebhookProcessingQueue.getRetryAfter()));
+            verify(rsp).sendError(eq(503), anyString());
+            verify(hookProcessor, never()).process(any(), any(), any(), any());
+            assertThat(WebhookProcessingQueue.stats(endpoint.getServerURL()))
+                .anySatisfy(stat -> assertThat(stat).endsWith("refused because the queue was full: 1"));
+        } finally {
+            latch.countDown();
+            BitbucketEndpointConfiguration.get().removeEndpoint(endpoint.getServerURL());
+        }
+    }
+
     @Test
     void request_headers_must_be_case_insensitive() throws Exception {
         AtomicReference<Map<String, String>> requestHeaders = new AtomicReference<>();
@@ -26,16 +26,20 @@ package com.cloudbees.jenkins.plugins.bitbucket.hooks;
 import com.cloudbees.jenkins.plugins.bitbucket.BitbucketSCMSource;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
 import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketMockApiFactory;
+import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookConfiguration;
+import com.cloudbees.jenkins.plugins.bitbucket.api.webhook.BitbucketWebhookManager;
 import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketIntegrationClientFactory;
 import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketEndpointConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.AbstractBitbucketEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.BitbucketServerEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.util.JsonParser;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.cloud.CloudWebhookConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.plugin.PluginWebhookConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.server.ServerWebhookConfiguration;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketPluginWebhook;
 import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketServerWebhook;
 import com.cloudbees.jenkins.plugins.bitbucket.test.util.BitbucketTestUtil;
+import hudson.ExtensionList;
 import hudson.model.TaskListener;
 import java.io.IOException;
 import java.net.URLDecoder;
@@ -177,4 +181,17 @@ class WebhookAutoRegisterListenerTest {
         });
         return scmSourceOwner;
     }
+
+    @Test
+    void each_registration_gets_its_own_manager() {
+        for (BitbucketWebhookConfiguration webhook : List.of(new CloudWebhookConfiguration(true, "dummyId"),
+                new ServerWebhookConfiguration(true, "dummyId"),
+                new PluginWebhookConfiguration(true, "dummyId"))) {
+            BitbucketWebhookManager manager = webhook.newManager();
+            assertThat(manager)
+                .isExactlyInstanceOf(webhook.getManager())
+                .isNotSameAs(webhook.newManager())
+                .isNotSameAs(ExtensionList.lookupFirst(webhook.getManager()));
+        }
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookProcessingQueueTest {
+    private static final int REPOSITORIES = 10;
+    private static final int EVENTS = 20;
+
+    @Test
+    void webhooks_of_the_same_repository_are_processed_in_order() throws Exception {
+        String serverURL = "https://ordering.example.com";
+        Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(REPOSITORIES * EVENTS);
+
+        for (int event = 0; event < EVENTS; event++) {
+            for (int repo = 0; repo < REPOSITORIES; repo++) {
+                String repository = "PRJ/repo-" + repo;
+                int sequence = event;
+                assertThat(WebhookProcessingQueue.offer(serverURL, repository, () -> {
+                    try {
+                        Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    processed.computeIfAbsent(repository, k -> new CopyOnWriteArrayList<>()).add(sequence);
+                    done.countDown();
+                })).isTrue();
+            }
+        }
+
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(processed).hasSize(REPOSITORIES)
+            .allSatisfy((repository, sequences) -> assertThat(sequences).hasSize(EVENTS).isSorted());
+    }
+
+    @Test
+    void failures_are_counted_in_statistics() throws Exception {
+        String serverURL = "https://failures.example.com";
+        CountDownLatch done = new CountDownLatch(2);
+
+        WebhookProcessingQueue.offer(serverURL, "PRJ/repo", () -> {
+            done.countDown();
+            throw new IllegalStateException("malformed payload");
+        });
+        WebhookProcessingQueue.offer(serverURL, "PRJ/repo", done::countDown);
+
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        // statistics are updated once the task returns
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!WebhookProcessingQueue.stats(serverURL).get(0).startsWith("Queued: 0") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(WebhookProcessingQueue.stats(serverURL))
+            .contains("Queued: 0 (capacity " + WebhookProcessingQueue.getCapacity() + ", workers 4)")
+            .contains("Processed: 1, failed: 1, refused because the queue was full: 0");
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.hooks;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookRegistrationExecutorTest {
+
+    private final WebhookRegistrationExecutor sut = new WebhookRegistrationExecutor(getClass().getName(), 4);
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    @Test
+    void operations_on_the_same_key_run_in_order() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        sut.submit("repo", null, () -> {
+            awaitQuietly(release);
+            executed.add("register");
+        });
+        sut.submit("repo", null, () -> executed.add("remove"));
+        sut.submit("repo", null, () -> executed.add("register again"));
+
+        release.countDown();
+        waitUntil(() -> sut.getBacklog() == 0);
+        assertThat(executed).containsExactly("register", "remove", "register again");
+    }
+
+    @Test
+    void operations_on_different_keys_run_concurrently() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        sut.submit("repo1", null, () -> awaitQuietly(release));
+        sut.submit("repo2", null, () -> executed.add("repo2"));
+
+        // repo2 does not wait the operation of repo1
+        waitUntil(() -> executed.contains("repo2"));
+        release.countDown();
+        waitUntil(() -> sut.getBacklog() == 0);
+    }
+
+    @Test
+    void waiting_operations_with_the_same_merge_key_are_merged() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Object item = new Object();
+        assertThat(sut.submit("repo", item, () -> {
+            awaitQuietly(release);
+            executed.add("first");
+        })).isTrue();
+        // the first is running, so another one must wait for it
+        waitUntil(() -> sut.getBacklog() == 1 && sut.stats().get(0).contains("running: 1"));
+        assertThat(sut.submit("repo", item, () -> executed.add("second"))).isTrue();
+        assertThat(sut.submit("repo", item, () -> executed.add("third"))).isFalse();
+        assertThat(sut.submit("repo", null, () -> executed.add("removal"))).isTrue();
+        assertThat(sut.submit("repo", item, () -> executed.add("after removal"))).isTrue();
+
+        release.countDown();
+        waitUntil(() -> sut.getBacklog() == 0);
+        assertThat(executed).containsExactly("first", "second", "removal", "after removal");
+        assertThat(sut.stats()).anyMatch(stat -> stat.contains("completed: 4") && stat.contains("merged with a waiting one: 1"));
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - timeout).as("condition not met in time").isNegative();
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
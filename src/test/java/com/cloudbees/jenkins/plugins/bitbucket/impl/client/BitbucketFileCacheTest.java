@@ -0,0 +1,213 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import com.cloudbees.jenkins.plugins.bitbucket.filesystem.BitbucketSCMFile;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.BitbucketFileCache.Statistics;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import jenkins.scm.api.SCMFile;
+import jenkins.scm.api.SCMFile.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BitbucketFileCacheTest {
+    private static final String HASH = "046d9a3c1532acf4cf08fe93235c00e4d673c1d3";
+
+    @TempDir
+    private Path directory;
+
+    private AbstractBitbucketApi api;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        api = mock(AbstractBitbucketApi.class);
+        when(api.getBaseURL()).thenReturn("https://acme.bitbucket.org");
+        when(api.getOwner()).thenReturn("amuniz");
+        when(api.getRepositoryName()).thenReturn("test-repos");
+    }
+
+    @Test
+    void content_is_requested_once_per_commit_and_path() throws Exception {
+        BitbucketFileCache cache = new BitbucketFileCache(directory, 1024, 1024, 100, 100);
+
+        assertThat(content(cache, file(HASH, "Jenkinsfile"))).isEqualTo("content of Jenkinsfile");
+        assertThat(content(cache, file(HASH, "Jenkinsfile"))).isEqualTo("content of Jenkinsfile");
+        assertThat(content(cache, file(HASH, "pom.xml"))).isEqualTo("content of pom.xml");
+
+        assertThat(requests).hasValue(2);
+        Statistics stats = cache.getStatistics();
+        assertThat(stats.memoryHits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(2);
+        assertThat(stats.memorySize()).isEqualTo("content of Jenkinsfile".length() + "content of pom.xml".length());
+        assertThat(stats.diskSize()).isEqualTo(stats.memorySize());
+    }
+
+    @Test
+    void content_is_not_shared_between_different_credentials() throws Exception {
+        BitbucketFileCache cache = new BitbucketFileCache(directory, 1024, 1024, 100, 100);
+        // credentials with the same identifier in two different stores
+        BitbucketAuthenticator alice = mock(BitbucketAuthenticator.class);
+        when(alice.getId()).thenReturn("bitbucket");
+        when(alice.getFingerprint()).thenReturn("alice");
+        BitbucketAuthenticator bob = mock(BitbucketAuthenticator.class);
+        when(bob.getId()).thenReturn("bitbucket");
+        when(bob.getFingerprint()).thenReturn("bob");
+
+        when(api.getAuthenticator()).thenReturn(alice);
+        content(cache, file(HASH, "Jenkinsfile"));
+        content(cache, file(HASH, "Jenkinsfile"));
+        assertThat(requests).hasValue(1);
+
+        when(api.getAuthenticator()).thenReturn(bob);
+        content(cache, file(HASH, "Jenkinsfile"));
+        assertThat(requests).hasValue(2);
+
+        when(api.getAuthenticator()).thenReturn(null);
+        content(cache, file(HASH, "Jenkinsfile"));
+        assertThat(requests).hasValue(3);
+        assertThat(cache.getStatistics().memoryHits()).isEqualTo(1);
+    }
+
+    @Test
+    void content_is_not_cached_when_credentials_are_not_known() throws Exception {
+        BitbucketFileCache cache = new BitbucketFileCache(directory, 1024, 1024, 100, 100);
+        BitbucketAuthenticator authenticator = mock(BitbucketAuthenticator.class);
+        when(authenticator.getId()).thenReturn("bitbucket");
+        when(api.getAuthenticator()).thenReturn(authenticator);
+
+        content(cache, file(HASH, "Jenkinsfile"));
+        content(cache, file(HASH, "Jenkinsfile"));
+
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void content_is_not_cached_when_revision_is_not_a_commit_hash() throws Exception {
+        BitbucketFileCache cache = new BitbucketFileCache(directory, 1024, 1024, 100, 100);
+
+        for (String revision : new String[] { "master", HASH + '+' + HASH, HASH.substring(0, 12) }) {
+            content(cache, file(revision, "Jenkinsfile"));
+            content(cache, file(revision, "Jenkinsfile"));
+        }
+
+        assertThat(requests).hasValue(6);
+        assertThat(cache.getStatistics().misses()).isZero();
+    }
+
+    @Test
+    void content_survives_in_the_disk_tier() throws Exception {
+        BitbucketFileCache cache = new BitbucketFileCache(directory, 0, 1024, 100, 100);
+        content(cache, file(HASH, "Jenkinsfile"));
+
+        // a new instance loads the files cached by the previous one
+        cache = new BitbucketFileCache(directory, 0, 1024, 100, 100);
+        assertThat(content(cache, file(HASH, "Jenkinsfile"))).isEqualTo("content of Jenkinsfile");
+
+        assertThat(requests).hasValue(1);
+        assertThat(cache.getStatistics().diskHits()).isEqualTo(1);
+        assertThat(cache.getStatistics().memorySize()).isZero();
+    }
+
+    @Test
+    void least_recently_used_content_is_evicted() throws Exception {
+        // room for two files of 20 bytes
+        BitbucketFileCache cache = new BitbucketFileCache(null, 40, 0, 100, 100);
+        content(cache, file(HASH, "file1.txt"));
+        content(cache, file(HASH, "file2.txt"));
+        content(cache, file(HASH, "file1.txt"));
+        content(cache, file(HASH, "file3.txt"));
+
+        assertThat(requests).hasValue(3);
+        content(cache, file(HASH, "file1.txt"));
+        assertThat(requests).hasValue(3);
+        content(cache, file(HASH, "file2.txt"));
+        assertThat(requests).hasValue(4);
+        assertThat(cache.getStatistics().memorySize()).isLessThanOrEqualTo(40);
+    }
+
+    @Test
+    void content_bigger_than_limit_is_returned_but_not_cached() throws Exception {
+        BitbucketFileCache cache = new BitbucketFileCache(directory, 1024, 1024, 10, 100);
+
+        assertThat(content(cache, file(HASH, "Jenkinsfile"))).isEqualTo("content of Jenkinsfile");
+        assertThat(content(cache, file(HASH, "Jenkinsfile"))).isEqualTo("content of Jenkinsfile");
+
+        assertThat(requests).hasValue(2);
+        assertThat(cache.getStatistics().memorySize()).isZero();
+        assertThat(cache.getStatistics().diskSize()).isZero();
+    }
+
+    @Test
+    void type_and_children_are_cached() throws Exception {
+        BitbucketFileCache cache = new BitbucketFileCache(null, 1024, 0, 100, 100);
+        BitbucketSCMFile folder = file(HASH, "folder");
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(cache.getType(api, folder, () -> {
+                requests.incrementAndGet();
+                return Type.DIRECTORY;
+            })).isEqualTo(Type.DIRECTORY);
+
+            Iterable<SCMFile> children = cache.getChildren(api, folder, () -> {
+                requests.incrementAndGet();
+                return List.of(new BitbucketSCMFile(folder, "Jenkinsfile", Type.REGULAR_FILE, HASH));
+            });
+            assertThat(children).singleElement()
+                .isInstanceOfSatisfying(BitbucketSCMFile.class, child -> {
+                    assertThat(child.getPath()).isEqualTo("folder/Jenkinsfile");
+                    assertThat(child.getHash()).isEqualTo(HASH);
+                    assertThat(child.isFile()).isTrue();
+                });
+        }
+
+        assertThat(requests).hasValue(2);
+        assertThat(cache.getStatistics().metadataHits()).isEqualTo(2);
+        assertThat(cache.getStatistics().metadataMisses()).isEqualTo(2);
+    }
+
+    private BitbucketSCMFile file(String revision, String path) {
+        return new BitbucketSCMFile(api, "master", revision).child(path, Type.REGULAR_FILE);
+    }
+
+    private String content(BitbucketFileCache cache, BitbucketSCMFile file) throws Exception {
+        try (InputStream is = cache.getContent(api, file, () -> {
+            requests.incrementAndGet();
+            return new ByteArrayInputStream(("content of " + file.getName()).getBytes(StandardCharsets.UTF_8));
+        })) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
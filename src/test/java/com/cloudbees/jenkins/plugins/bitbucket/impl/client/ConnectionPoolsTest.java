@@ -0,0 +1,75 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ConnectionPools.Settings;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.BitbucketServerEndpoint;
+import java.util.function.UnaryOperator;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolsTest {
+
+    @AfterEach
+    void shutdown() {
+        ConnectionPools.shutdown();
+    }
+
+    @Test
+    void clients_of_the_same_endpoint_share_the_pool() {
+        HttpClientConnectionManager pool = ConnectionPools.get("https://Bitbucket.example.com/", UnaryOperator.identity());
+
+        assertThat(ConnectionPools.get("https://bitbucket.example.com", UnaryOperator.identity())).isSameAs(pool);
+        assertThat(ConnectionPools.get("https://bitbucket.example.com:8443", UnaryOperator.identity())).isNotSameAs(pool);
+    }
+
+    @Test
+    void closing_a_client_does_not_close_the_pool() throws Exception {
+        HttpClientConnectionManager pool = ConnectionPools.get("https://bitbucket.example.com", UnaryOperator.identity());
+        pool.close();
+
+        assertThat(ConnectionPools.get("https://bitbucket.example.com", UnaryOperator.identity())).isSameAs(pool);
+        assertThat(ConnectionPools.stats("https://bitbucket.example.com"))
+            .first().asString().startsWith("Connections leased: 0, available: 0, requests waiting for a connection: 0 (max 40, max per route 20)");
+    }
+
+    @Test
+    void stats_of_an_endpoint_never_used() {
+        assertThat(ConnectionPools.stats("https://unknown.example.com")).containsExactly("No connection opened yet.");
+        assertThat(ConnectionPools.stats(null)).containsExactly("No connection opened yet.");
+    }
+
+    @Test
+    void settings_not_configured_in_the_endpoint_use_defaults() {
+        BitbucketServerEndpoint endpoint = new BitbucketServerEndpoint("test", "https://bitbucket.example.com");
+        endpoint.setMaxConnections(100);
+        endpoint.setKeepAliveTimeout(0);
+
+        assertThat(Settings.of(endpoint)).isEqualTo(new Settings(100, 20, 10, 60, 60, 30));
+        assertThat(Settings.of(null)).isEqualTo(new Settings(40, 20, 10, 60, 60, 30));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.PagedIterable.Page;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PagedIterableTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private Page<Integer> fetch(String url, int pages) throws IOException {
+        requests.add(url);
+        int page = Integer.parseInt(url.substring(url.indexOf('=') + 1));
+        List<Integer> values = IntStream.range(page * PAGE_SIZE, (page + 1) * PAGE_SIZE).boxed().toList();
+        return new Page<>(values, page + 1 < pages ? "page=" + (page + 1) : null);
+    }
+
+    @Test
+    void pages_are_fetched_only_when_consumed() throws Exception {
+        PagedIterable<Integer> iterable = new PagedIterable<>("page=0", url -> fetch(url, 5), false);
+        assertThat(requests).isEmpty();
+
+        assertThat(iterable.stream().limit(PAGE_SIZE + 1).toList()).hasSize(PAGE_SIZE + 1);
+        assertThat(requests).containsExactly("page=0", "page=1");
+
+        requests.clear();
+        assertThat(iterable.toList()).hasSize(5 * PAGE_SIZE)
+            .startsWith(0, 1, 2)
+            .endsWith(48, 49);
+        assertThat(requests).hasSize(5);
+    }
+
+    @Test
+    void prefetch_requests_one_page_ahead() throws Exception {
+        PagedIterable<Integer> iterable = new PagedIterable<>("page=0", url -> fetch(url, 5), true);
+
+        assertThat(iterable.iterator().next()).isZero();
+        // the first page is fetched in the caller thread, the second in background
+        assertThat(requests).hasSizeLessThanOrEqualTo(2);
+
+        assertThat(iterable.toList()).hasSize(5 * PAGE_SIZE);
+    }
+
+    @Test
+    void cached_does_not_fetch_pages_twice() throws Exception {
+        Iterable<Integer> iterable = new PagedIterable<>("page=0", url -> fetch(url, 3), false).cached();
+
+        for (Integer value : iterable) {
+            if (value == PAGE_SIZE) {
+                break;
+            }
+        }
+        assertThat(requests).containsExactly("page=0", "page=1");
+
+        assertThat(iterable).hasSize(3 * PAGE_SIZE);
+        assertThat(iterable).hasSize(3 * PAGE_SIZE);
+        assertThat(requests).containsExactly("page=0", "page=1", "page=2");
+    }
+
+    @Test
+    void communication_errors_are_propagated() {
+        PagedIterable<Integer> iterable = new PagedIterable<>("page=0", url -> {
+            if (url.equals("page=2")) {
+                throw new IOException("connection reset");
+            }
+            return fetch(url, 5);
+        }, true);
+
+        assertThatIOException().isThrownBy(iterable::toList).withMessage("connection reset");
+        assertThatThrownBy(() -> iterable.forEach(value -> {}))
+            .isInstanceOf(UncheckedIOException.class)
+            .hasRootCauseMessage("connection reset");
+    }
+}
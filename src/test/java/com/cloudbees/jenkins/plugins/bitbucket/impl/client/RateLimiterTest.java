@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.RateLimiter.Bucket;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.RateLimiter.Priority;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class RateLimiterTest {
+
+    private static final String SERVER_URL = "https://bitbucket.example.com";
+
+    @AfterEach
+    void clear() {
+        RateLimiter.clear();
+    }
+
+    private static BasicHttpResponse dataCenterResponse(int remaining) {
+        BasicHttpResponse response = new BasicHttpResponse(HttpStatus.SC_OK);
+        response.addHeader("X-RateLimit-Limit", "10");
+        response.addHeader("X-RateLimit-Remaining", String.valueOf(remaining));
+        response.addHeader("X-RateLimit-FillRate", "10");
+        response.addHeader("X-RateLimit-Interval-Seconds", "1");
+        return response;
+    }
+
+    private static long timeToAcquire(Bucket bucket, Priority priority) throws InterruptedIOException {
+        long start = System.nanoTime();
+        bucket.acquire(priority);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Test
+    void requests_are_not_throttled_until_bitbucket_reports_a_limit() throws Exception {
+        Bucket bucket = RateLimiter.get(SERVER_URL, "credentials");
+        for (int i = 0; i < 100; i++) {
+            bucket.acquire(Priority.SCAN);
+        }
+        bucket.update(new BasicHttpResponse(HttpStatus.SC_OK));
+
+        assertThat(RateLimiter.stats(SERVER_URL)).contains("Credentials credentials: no rate limit reported by Bitbucket, rate limited responses: 0");
+    }
+
+    @Test
+    void buckets_are_per_endpoint_and_credentials() {
+        Bucket bucket = RateLimiter.get(SERVER_URL, "credentials");
+
+        assertThat(RateLimiter.get(SERVER_URL + "/", "credentials")).isSameAs(bucket);
+        assertThat(RateLimiter.get(SERVER_URL, "other")).isNotSameAs(bucket);
+        assertThat(RateLimiter.get(SERVER_URL, null)).isNotSameAs(bucket);
+        assertThat(RateLimiter.get("https://bitbucket.org", "credentials")).isNotSameAs(bucket);
+    }
+
+    @Test
+    void build_status_uses_the_budget_reserved_to_higher_priorities() throws Exception {
+        Bucket bucket = RateLimiter.get(SERVER_URL, "credentials");
+        bucket.update(dataCenterResponse(1));
+
+        // one token left, reserved to the build status
+        assertThat(timeToAcquire(bucket, Priority.BUILD_STATUS)).isLessThan(50);
+
+        bucket.update(dataCenterResponse(0));
+        // the scan waits until 20% of the budget plus one token has been refilled (10 tokens per second)
+        assertThat(timeToAcquire(bucket, Priority.SCAN)).isGreaterThanOrEqualTo(200);
+
+        assertThat(RateLimiter.stats(SERVER_URL))
+            .anyMatch(stat -> stat.startsWith("- Scans throttled: 1"))
+            .anyMatch(stat -> stat.startsWith("- Build status throttled: 0"));
+    }
+
+    @Test
+    void throttled_reports_an_exhausted_budget_without_taking_tokens() throws Exception {
+        assertThat(RateLimiter.isThrottled(SERVER_URL, "credentials", Priority.SCAN)).isFalse();
+
+        Bucket bucket = RateLimiter.get(SERVER_URL, "credentials");
+        bucket.update(dataCenterResponse(1));
+
+        assertThat(RateLimiter.isThrottled(SERVER_URL, "credentials", Priority.SCAN)).isTrue();
+        assertThat(RateLimiter.isThrottled(SERVER_URL, "credentials", Priority.BUILD_STATUS)).isFalse();
+        assertThat(RateLimiter.isThrottled(SERVER_URL, "other", Priority.SCAN)).isFalse();
+        // asking does not consume the budget
+        assertThat(timeToAcquire(bucket, Priority.BUILD_STATUS)).isLessThan(50);
+    }
+
+    @Test
+    void too_many_requests_blocks_until_retry_after() throws Exception {
+        Bucket bucket = RateLimiter.get(SERVER_URL, "credentials");
+        BasicHttpResponse response = dataCenterResponse(5);
+        response.setCode(HttpStatus.SC_TOO_MANY_REQUESTS);
+        response.addHeader("Retry-After", "1");
+        bucket.update(response);
+
+        assertThat(timeToAcquire(bucket, Priority.BUILD_STATUS)).isGreaterThanOrEqualTo(900);
+        assertThat(RateLimiter.stats(SERVER_URL)).first().asString().endsWith("rate limited responses: 1");
+    }
+
+    @Test
+    void cloud_near_limit_throttles_scans_only() throws Exception {
+        Bucket bucket = RateLimiter.get("https://bitbucket.org", "credentials");
+        BasicHttpResponse response = new BasicHttpResponse(HttpStatus.SC_OK);
+        response.addHeader("X-RateLimit-Limit", "36000");
+        response.addHeader("X-RateLimit-NearLimit", "true");
+        bucket.update(response);
+
+        assertThat(timeToAcquire(bucket, Priority.EVENT)).isLessThan(50);
+        assertThat(timeToAcquire(bucket, Priority.BUILD_STATUS)).isLessThan(50);
+        // 10 requests per second are refilled, the scan waits for the tokens it has consumed
+        assertThat(timeToAcquire(bucket, Priority.SCAN)).isGreaterThanOrEqualTo(100);
+    }
+
+    @Test
+    void interrupted_while_throttled() {
+        Bucket bucket = RateLimiter.get(SERVER_URL, "credentials");
+        BasicHttpResponse response = new BasicHttpResponse(HttpStatus.SC_TOO_MANY_REQUESTS);
+        response.addHeader("Retry-After", "60");
+        bucket.update(response);
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThatExceptionOfType(InterruptedIOException.class).isThrownBy(() -> bucket.acquire(Priority.SCAN));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void priority_is_restored_when_the_scope_is_closed() {
+        assertThat(RateLimiter.currentPriority()).isEqualTo(Priority.SCAN);
+        try (RateLimiter.Scope scope = RateLimiter.prioritize(Priority.EVENT)) {
+            try (RateLimiter.Scope nested = RateLimiter.prioritize(Priority.BUILD_STATUS)) {
+                assertThat(RateLimiter.currentPriority()).isEqualTo(Priority.BUILD_STATUS);
+            }
+            assertThat(RateLimiter.currentPriority()).isEqualTo(Priority.EVENT);
+        }
+        assertThat(RateLimiter.currentPriority()).isEqualTo(Priority.SCAN);
+    }
+}
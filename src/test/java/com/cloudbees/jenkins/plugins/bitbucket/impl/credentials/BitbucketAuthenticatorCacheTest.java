@@ -0,0 +1,83 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.credentials;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.CredentialsStore;
+import com.cloudbees.plugins.credentials.domains.Domain;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@WithJenkins
+class BitbucketAuthenticatorCacheTest {
+    private static final String SERVER_URL = "https://bitbucket.example.com";
+
+    private static JenkinsRule j;
+    private static CredentialsStore store;
+
+    @BeforeAll
+    static void init(JenkinsRule rule) throws Exception {
+        j = rule;
+        store = CredentialsProvider.lookupStores(j.getInstance()).iterator().next();
+    }
+
+    @Test
+    void authenticator_is_reused_until_credentials_change() throws Exception {
+        UsernamePasswordCredentialsImpl credentials = new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, "reused", null, "user", "password-1");
+        store.addCredentials(Domain.global(), credentials);
+
+        BitbucketAuthenticator authenticator = BitbucketAuthenticatorCache.get(null, SERVER_URL, "reused");
+        assertThat(authenticator).isNotNull();
+        assertThat(BitbucketAuthenticatorCache.get(null, SERVER_URL, "reused")).isSameAs(authenticator);
+
+        store.updateCredentials(Domain.global(), credentials,
+                new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, "reused", null, "user", "password-2"));
+
+        assertThat(BitbucketAuthenticatorCache.get(null, SERVER_URL, "reused"))
+            .isNotNull()
+            .isNotSameAs(authenticator);
+    }
+
+    @Test
+    void credentials_added_later_are_found() throws Exception {
+        assertThat(BitbucketAuthenticatorCache.get(null, SERVER_URL, "added")).isNull();
+
+        store.addCredentials(Domain.global(), new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, "added", null, "user", "password"));
+
+        assertThat(BitbucketAuthenticatorCache.get(null, SERVER_URL, "added")).isNotNull();
+    }
+
+    @Test
+    void no_authenticator_without_credentials() {
+        assertThat(BitbucketAuthenticatorCache.get(null, SERVER_URL, null)).isNull();
+        assertThat(BitbucketAuthenticatorCache.get(null, SERVER_URL, " ")).isNull();
+    }
+}
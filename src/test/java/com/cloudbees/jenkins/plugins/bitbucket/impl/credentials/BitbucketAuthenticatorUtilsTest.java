@@ -24,16 +24,20 @@
 package com.cloudbees.jenkins.plugins.bitbucket.impl.credentials;
 
 import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.BitbucketCloudEndpoint;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.github.scribejava.core.model.OAuth2AccessTokenErrorResponse;
 import com.github.scribejava.core.model.OAuthResponseException;
 import com.github.scribejava.core.model.Response;
 import com.github.scribejava.core.oauth2.OAuth2Error;
+import hudson.util.Secret;
 import java.net.URI;
 import java.util.Collections;
 import java.util.concurrent.ExecutionException;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class BitbucketAuthenticatorUtilsTest {
 
@@ -54,4 +58,26 @@ class BitbucketAuthenticatorUtilsTest {
         cause = BitbucketAuthenticatorUtils.unwrap(e, OAuth2AccessTokenErrorResponse.class);
         assertThat(cause).isNull();
     }
+
+    @Test
+    void fingerprint_tells_apart_credentials_with_the_same_id() {
+        BitbucketUsernamePasswordAuthenticator alice = new BitbucketUsernamePasswordAuthenticator(credentials("bitbucket", "alice", "secret"));
+        BitbucketUsernamePasswordAuthenticator bob = new BitbucketUsernamePasswordAuthenticator(credentials("bitbucket", "bob", "secret"));
+        BitbucketUsernamePasswordAuthenticator aliceAgain = new BitbucketUsernamePasswordAuthenticator(credentials("other", "alice", "secret"));
+
+        assertThat(alice.getFingerprint())
+            .isNotEqualTo(bob.getFingerprint())
+            .isEqualTo(aliceAgain.getFingerprint())
+            .doesNotContain("secret");
+    }
+
+    private StandardUsernamePasswordCredentials credentials(String id, String username, String password) {
+        Secret secret = mock(Secret.class);
+        when(secret.getPlainText()).thenReturn(password);
+        StandardUsernamePasswordCredentials credentials = mock(StandardUsernamePasswordCredentials.class);
+        when(credentials.getId()).thenReturn(id);
+        when(credentials.getUsername()).thenReturn(username);
+        when(credentials.getPassword()).thenReturn(secret);
+        return credentials;
+    }
 }
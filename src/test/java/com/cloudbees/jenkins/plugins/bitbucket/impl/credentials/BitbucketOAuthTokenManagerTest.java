@@ -0,0 +1,173 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.credentials;
+
+import com.cloudbees.jenkins.plugins.bitbucket.impl.client.ICheckedCallable;
+import com.github.scribejava.core.model.OAuth2AccessToken;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BitbucketOAuthTokenManagerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    @Test
+    void ensure_token_is_reused_while_valid() throws Exception {
+        ICheckedCallable<OAuth2AccessToken, Exception> provider = tokenProvider(new OAuth2AccessToken("token1", null, 100, null, null, null));
+        BitbucketOAuthTokenManager manager = new BitbucketOAuthTokenManager(provider, scheduled::add, clock::get);
+
+        assertThat(manager.getToken().getAccessToken()).isEqualTo("token1");
+        clock.set(TimeUnit.SECONDS.toNanos(10));
+        assertThat(manager.getToken().getAccessToken()).isEqualTo("token1");
+
+        verify(provider).call();
+        assertThat(scheduled).isEmpty();
+    }
+
+    @Test
+    void ensure_token_is_renewed_in_background_before_expiration() throws Exception {
+        ICheckedCallable<OAuth2AccessToken, Exception> provider = tokenProvider(
+                new OAuth2AccessToken("token1", null, 100, null, null, null),
+                new OAuth2AccessToken("token2", null, 100, null, null, null));
+        BitbucketOAuthTokenManager manager = new BitbucketOAuthTokenManager(provider, scheduled::add, clock::get);
+
+        assertThat(manager.getToken().getAccessToken()).isEqualTo("token1");
+
+        // close to expiration the current token is still served while a renew is scheduled only once
+        clock.set(TimeUnit.SECONDS.toNanos(90));
+        assertThat(manager.getToken().getAccessToken()).isEqualTo("token1");
+        assertThat(manager.getToken().getAccessToken()).isEqualTo("token1");
+        assertThat(scheduled).hasSize(1);
+
+        scheduled.remove(0).run();
+        assertThat(manager.getToken().getAccessToken()).isEqualTo("token2");
+        verify(provider, times(2)).call();
+    }
+
+    @Test
+    void ensure_failed_renew_keeps_current_token_until_expiration() throws Exception {
+        @SuppressWarnings("unchecked")
+        ICheckedCallable<OAuth2AccessToken, Exception> provider = mock(ICheckedCallable.class);
+        when(provider.call())
+            .thenReturn(new OAuth2AccessToken("token1", null, 100, null, null, null))
+            .thenThrow(new IOException("renew failure"));
+        BitbucketOAuthTokenManager manager = new BitbucketOAuthTokenManager(provider, scheduled::add, clock::get);
+
+        assertThat(manager.getToken().getAccessToken()).isEqualTo("token1");
+
+        clock.set(TimeUnit.SECONDS.toNanos(90));
+        assertThat(manager.getToken().getAccessToken()).isEqualTo("token1");
+        scheduled.remove(0).run();
+        assertThat(manager.getToken().getAccessToken()).isEqualTo("token1");
+
+        clock.set(TimeUnit.SECONDS.toNanos(100));
+        assertThatThrownBy(manager::getToken)
+            .isInstanceOf(ExecutionException.class)
+            .hasRootCauseMessage("renew failure");
+    }
+
+    @Test
+    void ensure_failed_renew_is_retried_after_a_delay() throws Exception {
+        @SuppressWarnings("unchecked")
+        ICheckedCallable<OAuth2AccessToken, Exception> provider = mock(ICheckedCallable.class);
+        when(provider.call())
+            .thenReturn(new OAuth2AccessToken("token1", null, 100, null, null, null))
+            .thenThrow(new IOException("renew failure"))
+            .thenThrow(new IOException("renew failure"))
+            .thenReturn(new OAuth2AccessToken("token2", null, 100, null, null, null));
+        BitbucketOAuthTokenManager manager = new BitbucketOAuthTokenManager(provider, scheduled::add, clock::get);
+        manager.getToken();
+
+        clock.set(TimeUnit.SECONDS.toNanos(80));
+        manager.getToken();
+        scheduled.remove(0).run();
+
+        // no new renew until the delay has elapsed
+        clock.set(TimeUnit.SECONDS.toNanos(84));
+        assertThat(manager.getToken().getAccessToken()).isEqualTo("token1");
+        assertThat(scheduled).isEmpty();
+
+        clock.set(TimeUnit.SECONDS.toNanos(85));
+        manager.getToken();
+        assertThat(scheduled).hasSize(1);
+        scheduled.remove(0).run();
+
+        // the delay doubles at each consecutive failure
+        clock.set(TimeUnit.SECONDS.toNanos(94));
+        manager.getToken();
+        assertThat(scheduled).isEmpty();
+
+        clock.set(TimeUnit.SECONDS.toNanos(95));
+        manager.getToken();
+        scheduled.remove(0).run();
+        assertThat(manager.getToken().getAccessToken()).isEqualTo("token2");
+        verify(provider, times(4)).call();
+    }
+
+    @Test
+    void ensure_manager_is_unused_once_its_token_has_expired() throws Exception {
+        ICheckedCallable<OAuth2AccessToken, Exception> provider = tokenProvider(new OAuth2AccessToken("token1", null, 100, null, null, null));
+        BitbucketOAuthTokenManager manager = new BitbucketOAuthTokenManager(provider, scheduled::add, clock::get);
+
+        manager.getToken();
+        assertThat(manager.isUnused()).isFalse();
+
+        clock.set(TimeUnit.SECONDS.toNanos(100));
+        assertThat(manager.isUnused()).isTrue();
+    }
+
+    @Test
+    void ensure_manager_without_token_is_unused_after_the_token_lifetime() throws Exception {
+        @SuppressWarnings("unchecked")
+        ICheckedCallable<OAuth2AccessToken, Exception> provider = mock(ICheckedCallable.class);
+        when(provider.call()).thenThrow(new IOException("invalid credentials"));
+        BitbucketOAuthTokenManager manager = new BitbucketOAuthTokenManager(provider, scheduled::add, clock::get);
+
+        assertThatThrownBy(manager::getToken).isInstanceOf(ExecutionException.class);
+        assertThat(manager.isUnused()).isFalse();
+
+        clock.set(TimeUnit.SECONDS.toNanos(300));
+        assertThat(manager.isUnused()).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ICheckedCallable<OAuth2AccessToken, Exception> tokenProvider(OAuth2AccessToken token, OAuth2AccessToken... others) throws Exception {
+        ICheckedCallable<OAuth2AccessToken, Exception> provider = mock(ICheckedCallable.class);
+        when(provider.call()).thenReturn(token, others);
+        return provider;
+    }
+}
@@ -96,6 +96,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.endsWith;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -142,7 +143,7 @@ class BitbucketBuildStatusNotificationsTest {
         listener.onCheckout(build, null, workspace, taskListener, null, SCMRevisionState.NONE);
 
         ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
-        verify(client).post(anyString(), captor.capture());
+        verify(client, timeout(5000)).post(anyString(), captor.capture());
         assertThatJson(captor.getValue()).isObject().containsEntry("state", expectedStatus.toString());
     }
 
@@ -167,7 +168,7 @@ class BitbucketBuildStatusNotificationsTest {
         listener.onCompleted(build, taskListener);
 
         ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
-        verify(client).post(endsWith("/rest/api/1.0/projects/repoOwner/repos/repository/commits/c341232342311/builds"), captor.capture());
+        verify(client, timeout(5000)).post(endsWith("/rest/api/1.0/projects/repoOwner/repos/repository/commits/c341232342311/builds"), captor.capture());
         assertThatJson(captor.getValue())
             .isObject()
             .containsEntry("testResults", JsonAssertions.json("{\"successful\":5,\"failed\":2,\"skipped\":1}"));
@@ -196,7 +197,7 @@ class BitbucketBuildStatusNotificationsTest {
         listener.onCheckout(build, null, workspace, taskListener, null, SCMRevisionState.NONE);
 
         ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
-        verify(client).post(anyString(), captor.capture());
+        verify(client, timeout(5000)).post(anyString(), captor.capture());
         assertThatJson(captor.getValue())
             .isObject()
             .containsEntry("key", "P/BRANCH-JOB")
@@ -226,7 +227,7 @@ class BitbucketBuildStatusNotificationsTest {
         listener.onCheckout(build, null, workspace, taskListener, null, SCMRevisionState.NONE);
 
         ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
-        verify(client).post(endsWith("/2.0/repositories/repoOwner/repository/commit/c341232342311/statuses/build"), captor.capture());
+        verify(client, timeout(5000)).post(endsWith("/2.0/repositories/repoOwner/repository/commit/c341232342311/statuses/build"), captor.capture());
         assertThatJson(captor.getValue())
             .isObject()
             .containsKey("key").isNotNull()
@@ -261,7 +262,7 @@ class BitbucketBuildStatusNotificationsTest {
         listener.onCheckout(build, null, workspace, taskListener, null, SCMRevisionState.NONE);
 
         ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
-        verify(client).post(endsWith("/rest/api/1.0/projects/repoOwner/repos/repository/commits/" + prRevision.getHash() + "/builds"), captor.capture());
+        verify(client, timeout(5000)).post(endsWith("/rest/api/1.0/projects/repoOwner/repos/repository/commits/" + prRevision.getHash() + "/builds"), captor.capture());
         assertThatJson(captor.getValue())
             .isObject()
             .containsEntry("key", DigestUtils.md5Hex("p/branch-job"))
@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.notifier;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketApi;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBuildStatus;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBuildStatus.Status;
+import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.EndpointType;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.notifier.BuildStatusDeliveryQueue.Delivery;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.notifier.BuildStatusDeliveryQueue.EndpointQueue;
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class BuildStatusDeliveryQueueTest {
+
+    private static final String SERVER_URL = "https://bitbucket.test";
+
+    // the statuses in the order they have been attempted
+    private final BlockingQueue<String> attempts = new LinkedBlockingQueue<>();
+
+    private class TestDelivery extends Delivery {
+        private final String name;
+        private final CountDownLatch gate;
+        private final AtomicInteger failures;
+        private final CountDownLatch disposed = new CountDownLatch(1);
+
+        TestDelivery(String hash, Status state, CountDownLatch gate, int failures) {
+            super(status(hash, state), EndpointType.CLOUD, mock(BitbucketApi.class));
+            this.name = hash + ':' + state;
+            this.gate = gate;
+            this.failures = new AtomicInteger(failures);
+        }
+
+        @Override
+        void deliver() throws IOException {
+            attempts.add(name);
+            try {
+                assertThat(gate.await(10, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            if (failures.getAndDecrement() > 0) {
+                throw new IOException("connection reset");
+            }
+        }
+
+        @Override
+        void dispose() {
+            super.dispose();
+            disposed.countDown();
+        }
+
+        void awaitDisposed() throws InterruptedException {
+            assertThat(disposed.await(10, TimeUnit.SECONDS)).describedAs("%s has not been completed", name).isTrue();
+        }
+    }
+
+    private static BitbucketBuildStatus status(String hash, Status state) {
+        BitbucketBuildStatus status = new BitbucketBuildStatus();
+        status.setHash(hash);
+        status.setKey("job");
+        status.setState(state);
+        return status;
+    }
+
+    private static CountDownLatch open() {
+        return new CountDownLatch(0);
+    }
+
+    private String nextAttempt() throws InterruptedException {
+        return attempts.poll(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void queued_status_is_replaced_by_newer_status() throws Exception {
+        EndpointQueue queue = new EndpointQueue(SERVER_URL, 10, 1, 1);
+        CountDownLatch gate = new CountDownLatch(1);
+        TestDelivery blocking = new TestDelivery("c1", Status.INPROGRESS, gate, 0);
+        TestDelivery inprogress = new TestDelivery("c2", Status.INPROGRESS, open(), 0);
+        TestDelivery successful = new TestDelivery("c2", Status.SUCCESSFUL, open(), 0);
+
+        assertThat(queue.offer(blocking)).isTrue();
+        assertThat(nextAttempt()).isEqualTo("c1:INPROGRESS");
+        // the only worker is busy, both statuses wait in the queue
+        assertThat(queue.offer(inprogress)).isTrue();
+        assertThat(queue.offer(successful)).isTrue();
+        inprogress.awaitDisposed();
+        gate.countDown();
+
+        successful.awaitDisposed();
+        assertThat(nextAttempt()).isEqualTo("c2:SUCCESSFUL");
+        assertThat(attempts).isEmpty();
+        assertThat(queue.stats()).contains("Delivered: 2, superseded: 1, retried: 0, failed: 0, sent synchronously: 0");
+    }
+
+    @Test
+    void failed_status_is_retried() throws Exception {
+        EndpointQueue queue = new EndpointQueue(SERVER_URL, 10, 1, 1);
+        TestDelivery delivery = new TestDelivery("c1", Status.SUCCESSFUL, open(), 1);
+
+        assertThat(queue.offer(delivery)).isTrue();
+
+        delivery.awaitDisposed();
+        assertThat(attempts).containsExactly("c1:SUCCESSFUL", "c1:SUCCESSFUL");
+        assertThat(queue.stats()).contains("Delivered: 1, superseded: 0, retried: 1, failed: 0, sent synchronously: 0");
+    }
+
+    @Test
+    void failed_status_is_not_retried_when_newer_status_is_queued_meanwhile() throws Exception {
+        EndpointQueue queue = new EndpointQueue(SERVER_URL, 10, 2, 1);
+        CountDownLatch gate = new CountDownLatch(1);
+        TestDelivery inprogress = new TestDelivery("c1", Status.INPROGRESS, gate, 1);
+        TestDelivery successful = new TestDelivery("c1", Status.SUCCESSFUL, open(), 0);
+
+        assertThat(queue.offer(inprogress)).isTrue();
+        assertThat(nextAttempt()).isEqualTo("c1:INPROGRESS");
+        // queued while the older status is being sent, nothing to supersede yet
+        assertThat(queue.offer(successful)).isTrue();
+        gate.countDown();
+
+        inprogress.awaitDisposed();
+        successful.awaitDisposed();
+        assertThat(nextAttempt()).isEqualTo("c1:SUCCESSFUL");
+        assertThat(attempts).isEmpty();
+        assertThat(queue.stats())
+            .anySatisfy(stat -> assertThat(stat).endsWith("waiting for retry: 0"))
+            .contains("Delivered: 1, superseded: 1, retried: 0, failed: 0, sent synchronously: 0");
+    }
+
+    @Test
+    void status_is_refused_when_queue_is_full() throws Exception {
+        EndpointQueue queue = new EndpointQueue(SERVER_URL, 2, 1, 1);
+        CountDownLatch gate = new CountDownLatch(1);
+        TestDelivery blocking = new TestDelivery("c1", Status.INPROGRESS, gate, 0);
+
+        assertThat(queue.offer(blocking)).isTrue();
+        assertThat(nextAttempt()).isEqualTo("c1:INPROGRESS");
+        assertThat(queue.offer(new TestDelivery("c2", Status.INPROGRESS, open(), 0))).isTrue();
+        assertThat(queue.offer(new TestDelivery("c3", Status.INPROGRESS, open(), 0))).isTrue();
+        assertThat(queue.offer(new TestDelivery("c4", Status.INPROGRESS, open(), 0))).isFalse();
+        // a newer status for a queued commit replaces it and does not need room
+        TestDelivery last = new TestDelivery("c3", Status.SUCCESSFUL, open(), 0);
+        assertThat(queue.offer(last)).isTrue();
+        assertThat(queue.stats()).contains("Queued: 2, sending: 1, waiting for retry: 0");
+        gate.countDown();
+
+        last.awaitDisposed();
+        assertThat(attempts).containsExactly("c2:INPROGRESS", "c3:SUCCESSFUL");
+        assertThat(queue.stats()).contains("Delivered: 3, superseded: 1, retried: 0, failed: 0, sent synchronously: 1");
+    }
+}
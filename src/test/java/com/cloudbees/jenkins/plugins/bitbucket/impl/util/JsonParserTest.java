@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.util;
+
+import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketCloudPage;
+import com.cloudbees.jenkins.plugins.bitbucket.client.branch.BitbucketCloudBranch;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class JsonParserTest {
+    private static final int PAGE_SIZE = 100;
+    private static final int ITERATIONS = 50;
+    private static final TypeReference<BitbucketCloudPage<BitbucketCloudBranch>> PAGE_TYPE = new TypeReference<BitbucketCloudPage<BitbucketCloudBranch>>() {};
+
+    private static byte[] page;
+
+    @BeforeAll
+    static void buildPage() throws Exception {
+        try (InputStream is = JsonParserTest.class.getResourceAsStream("/com/cloudbees/jenkins/plugins/bitbucket/client/payload/2.0-repositories-amuniz-test-repos-refs-branches_pagelen_100.json")) {
+            ObjectNode json = (ObjectNode) JsonParser.toJson(IOUtils.toString(is, StandardCharsets.UTF_8));
+            JsonNode branch = json.withArray("values").get(0);
+            ArrayNode values = json.putArray("values");
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                values.add(((ObjectNode) branch.deepCopy()).put("name", "feature/branch-" + i));
+            }
+            json.remove("next");
+            page = json.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void parse_from_stream() throws Exception {
+        BitbucketCloudPage<BitbucketCloudBranch> fromStream = JsonParser.toJava(new ByteArrayInputStream(page), PAGE_TYPE);
+        BitbucketCloudPage<BitbucketCloudBranch> fromString = JsonParser.toJava(new String(page, StandardCharsets.UTF_8), PAGE_TYPE);
+
+        assertThat(fromStream.getValues()).hasSize(PAGE_SIZE);
+        assertThat(fromStream.getValues())
+            .extracting(BitbucketCloudBranch::getName)
+            .isEqualTo(fromString.getValues().stream().map(BitbucketCloudBranch::getName).toList());
+    }
+
+    @Test
+    void parse_from_stream_allocates_less_than_from_string() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+
+        // warm up both paths so that class loading and JIT do not count
+        for (int i = 0; i < ITERATIONS; i++) {
+            parseFromString();
+            parseFromStream();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            parseFromString();
+        }
+        long fromString = threadBean.getThreadAllocatedBytes(threadId) - start;
+
+        start = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            parseFromStream();
+        }
+        long fromStream = threadBean.getThreadAllocatedBytes(threadId) - start;
+
+        // the String path copies the whole response at least once before parsing it
+        assertThat(fromStream).isLessThan(fromString - (long) page.length * ITERATIONS);
+    }
+
+    // what AbstractBitbucketApi.getRequest followed by JsonParser.toJava(String) does
+    private BitbucketCloudPage<BitbucketCloudBranch> parseFromString() throws IOException {
+        try (InputStream is = new ByteArrayInputStream(page)) {
+            String content = IOUtils.toString(is, StandardCharsets.UTF_8);
+            return JsonParser.toJava(content, PAGE_TYPE);
+        }
+    }
+
+    // what AbstractBitbucketApi.getRequestAs does
+    private BitbucketCloudPage<BitbucketCloudBranch> parseFromStream() throws IOException {
+        try (InputStream is = new ByteArrayInputStream(page)) {
+            return JsonParser.toJava(is, PAGE_TYPE);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.webhook;
+
+import com.cloudbees.jenkins.plugins.bitbucket.BitbucketSCMSource;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.BitbucketSCMSourceIndex.Entry;
+import java.util.ArrayList;
+import java.util.List;
+import jenkins.scm.api.SCMSourceOwner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BitbucketSCMSourceIndexTest {
+    private static final String SERVER_URL = "https://bitbucket.example.com";
+
+    private BitbucketSCMSourceIndex sut;
+
+    @BeforeEach
+    void setup() {
+        sut = new BitbucketSCMSourceIndex();
+    }
+
+    @Test
+    void lookup_is_case_insensitive() {
+        SCMSourceOwner project = owner("project", source(SERVER_URL, "AMUNIZ", "Test-Repos", null));
+        sut.rebuild(List.of(project));
+
+        assertThat(sut.lookup("https://BITBUCKET.example.com/", "amuniz", "test-repos", null))
+            .extracting(Entry::owner)
+            .containsExactly(project);
+        assertThat(sut.lookup("https://other.example.com", "amuniz", "test-repos", null)).isEmpty();
+    }
+
+    @Test
+    void lookup_filters_by_mirror() {
+        SCMSourceOwner upstream = owner("upstream", source(SERVER_URL, "amuniz", "test-repos", null));
+        SCMSourceOwner mirror = owner("mirror", source(SERVER_URL, "amuniz", "test-repos", "MirrorId"));
+        sut.rebuild(List.of(upstream, mirror));
+
+        assertThat(sut.lookup(SERVER_URL, "amuniz", "test-repos", null))
+            .extracting(Entry::owner)
+            .containsExactlyInAnyOrder(upstream, mirror);
+        assertThat(sut.lookup(SERVER_URL, "amuniz", "test-repos", "mirrorid"))
+            .extracting(Entry::owner)
+            .containsExactly(mirror);
+    }
+
+    @Test
+    void index_follows_item_events() {
+        sut.rebuild(List.of());
+
+        SCMSourceOwner project = owner("folder/project", source(SERVER_URL, "amuniz", "test-repos", null));
+        sut.onCreated(project);
+        assertThat(sut.lookup(SERVER_URL, "amuniz", "test-repos", null)).hasSize(1);
+
+        BitbucketSCMSource moved = source(SERVER_URL, "amuniz", "other-repo", null);
+        when(project.getSCMSources()).thenReturn(List.of(moved));
+        sut.onUpdated(project);
+        assertThat(sut.lookup(SERVER_URL, "amuniz", "test-repos", null)).isEmpty();
+        assertThat(sut.lookup(SERVER_URL, "amuniz", "other-repo", null)).hasSize(1);
+
+        when(project.getFullName()).thenReturn("renamed/project");
+        sut.onLocationChanged(project, "folder/project", "renamed/project");
+        assertThat(sut.lookup(SERVER_URL, "amuniz", "other-repo", null))
+            .extracting(Entry::owner)
+            .containsExactly(project);
+
+        // deleting the folder removes the projects it contains
+        SCMSourceOwner folder = mock(SCMSourceOwner.class);
+        when(folder.getFullName()).thenReturn("renamed");
+        sut.onDeleted(folder);
+        assertThat(sut.lookup(SERVER_URL, "amuniz", "other-repo", null)).isEmpty();
+    }
+
+    @Test
+    void lookup_does_not_inspect_the_projects() {
+        List<SCMSourceOwner> owners = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            owners.add(owner("project-" + i, source(SERVER_URL, "amuniz", "repo-" + i, null)));
+        }
+        sut.rebuild(owners);
+        owners.forEach(owner -> clearInvocations(owner));
+
+        assertThat(sut.lookup(SERVER_URL, "AMUNIZ", "repo-0", null))
+            .extracting(Entry::owner)
+            .containsExactly(owners.get(0));
+
+        // unlike a walk of all items, no project is visited to answer the lookup
+        owners.forEach(owner -> verifyNoInteractions(owner));
+    }
+
+    @Test
+    void rebuild_replaces_the_index_at_once() {
+        SCMSourceOwner project = owner("project", source(SERVER_URL, "amuniz", "test-repos", null));
+        sut.rebuild(List.of(project));
+
+        SCMSourceOwner other = mock(SCMSourceOwner.class);
+        when(other.getFullName()).thenReturn("other");
+        when(other.getSCMSources()).thenAnswer(invocation -> {
+            // the index in use is still the previous one while the new one is built
+            assertThat(sut.lookup(SERVER_URL, "amuniz", "test-repos", null)).hasSize(1);
+            return List.of(source(SERVER_URL, "amuniz", "other-repo", null));
+        });
+        sut.rebuild(List.of(other, project));
+
+        assertThat(sut.lookup(SERVER_URL, "amuniz", "test-repos", null)).hasSize(1);
+        assertThat(sut.lookup(SERVER_URL, "amuniz", "other-repo", null)).hasSize(1);
+    }
+
+    private BitbucketSCMSource source(String serverURL, String repoOwner, String repository, String mirrorId) {
+        BitbucketSCMSource source = new BitbucketSCMSource(repoOwner, repository);
+        source.setServerUrl(serverURL);
+        source.setMirrorId(mirrorId);
+        return source;
+    }
+
+    private SCMSourceOwner owner(String fullName, BitbucketSCMSource source) {
+        SCMSourceOwner owner = mock(SCMSourceOwner.class);
+        when(owner.getFullName()).thenReturn(fullName);
+        when(owner.getSCMSources()).thenReturn(List.of(source));
+        return owner;
+    }
+}
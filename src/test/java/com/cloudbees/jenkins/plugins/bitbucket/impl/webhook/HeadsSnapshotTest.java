@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.webhook;
+
+import com.cloudbees.jenkins.plugins.bitbucket.BitbucketTagSCMHead;
+import com.cloudbees.jenkins.plugins.bitbucket.BranchSCMHead;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketBranch;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketCommit;
+import com.cloudbees.jenkins.plugins.bitbucket.client.branch.BitbucketCloudBranch;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.branch.BitbucketServerBranch;
+import hudson.XmlFile;
+import java.io.File;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMRevision;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HeadsSnapshotTest {
+
+    private final HeadsSnapshot sut = new HeadsSnapshot();
+    private final AtomicInteger resolved = new AtomicInteger();
+
+    private BitbucketCommit resolve(String hash) {
+        resolved.incrementAndGet();
+        BitbucketCommit commit = mock(BitbucketCommit.class);
+        when(commit.getHash()).thenReturn(hash);
+        when(commit.getMessage()).thenReturn("message of " + hash);
+        when(commit.getDateMillis()).thenReturn(1000L);
+        return commit;
+    }
+
+    @Test
+    void snapshot_is_not_used_before_a_full_listing() {
+        assertThat(sut.isUpToDate()).isFalse();
+        assertThat(sut.getBranches(this::resolve)).isNull();
+
+        sut.update(sut.getVersion(), System.currentTimeMillis(),
+                List.of(new BitbucketServerBranch("master", "a1")),
+                null);
+
+        assertThat(sut.isUpToDate()).isTrue();
+        assertThat(sut.getBranches(this::resolve))
+            .extracting(BitbucketBranch::getName, BitbucketBranch::getRawNode)
+            .containsExactly(tuple("master", "a1"));
+        assertThat(sut.getTags(this::resolve)).isNull();
+    }
+
+    @Test
+    void webhooks_update_the_snapshot() {
+        sut.update(sut.getVersion(), System.currentTimeMillis(),
+                List.of(new BitbucketServerBranch("master", "a1"), new BitbucketServerBranch("feature", "b1")),
+                List.of(new BitbucketServerBranch("v1.0", "c1")));
+
+        Map<SCMHead, SCMRevision> heads = new HashMap<>();
+        BranchSCMHead master = new BranchSCMHead("master");
+        heads.put(master, new AbstractGitSCMSource.SCMRevisionImpl(master, "a2"));
+        heads.put(new BranchSCMHead("feature"), null);
+        BranchSCMHead newBranch = new BranchSCMHead("bugfix");
+        heads.put(newBranch, new AbstractGitSCMSource.SCMRevisionImpl(newBranch, "d1"));
+        BitbucketTagSCMHead tag = new BitbucketTagSCMHead("v2.0", 2000L);
+        heads.put(tag, new AbstractGitSCMSource.SCMRevisionImpl(tag, "e1"));
+        sut.apply(heads);
+
+        assertThat(sut.getBranches(this::resolve))
+            .extracting(BitbucketBranch::getName, BitbucketBranch::getRawNode)
+            .containsExactly(
+                tuple("bugfix", "d1"),
+                tuple("master", "a2"));
+        List<BitbucketBranch> tags = sut.getTags(this::resolve);
+        assertThat(tags).extracting(BitbucketBranch::getName).containsExactly("v1.0", "v2.0");
+        // the date of the tag comes from the webhook
+        assertThat(tags.get(1).getDateMillis()).isEqualTo(2000L);
+        assertThat(resolved).hasValue(0);
+    }
+
+    @Test
+    void commit_details_are_resolved_only_when_needed() {
+        sut.update(sut.getVersion(), System.currentTimeMillis(), List.of(new BitbucketServerBranch("master", "a1")), null);
+
+        BitbucketBranch branch = sut.getBranches(this::resolve).get(0);
+        assertThat(resolved).hasValue(0);
+
+        assertThat(branch.getMessage()).isEqualTo("message of a1");
+        assertThat(branch.getDateMillis()).isEqualTo(1000L);
+        assertThat(resolved).hasValue(1);
+    }
+
+    @Test
+    void webhook_received_during_a_full_listing_invalidates_the_snapshot() {
+        int version = sut.getVersion();
+        sut.apply(Map.of(new BranchSCMHead("master"), new AbstractGitSCMSource.SCMRevisionImpl(new BranchSCMHead("master"), "a2")));
+        sut.update(version, System.currentTimeMillis(), List.of(new BitbucketServerBranch("master", "a1")), null);
+
+        assertThat(sut.isUpToDate()).isFalse();
+    }
+
+    @Test
+    void dates_returned_by_the_listing_are_kept() {
+        sut.update(sut.getVersion(), System.currentTimeMillis(),
+                List.of(new BitbucketServerBranch("master", "a1")),
+                List.of(new BitbucketCloudBranch("v1.0", "c1", 3000L)));
+
+        assertThat(sut.getTags(this::resolve))
+            .extracting(BitbucketBranch::getDateMillis)
+            .containsExactly(3000L);
+        assertThat(resolved).hasValue(0);
+    }
+
+    @Test
+    void only_heads_changed_by_webhooks_are_resolved() {
+        sut.update(sut.getVersion(), System.currentTimeMillis(),
+                List.of(listedBranch("master", "a1"), listedBranch("feature", "b1")),
+                List.of(listedBranch("v1.0", "c1")));
+        BranchSCMHead feature = new BranchSCMHead("feature");
+        sut.apply(Map.of(feature, new AbstractGitSCMSource.SCMRevisionImpl(feature, "b2")));
+
+        // the scan reads message, author and date of each head to build its revision
+        for (BitbucketBranch branch : sut.getBranches(this::resolve)) {
+            branch.getMessage();
+            branch.getAuthor();
+            branch.getDateMillis();
+        }
+        for (BitbucketBranch tag : sut.getTags(this::resolve)) {
+            tag.getMessage();
+            tag.getAuthor();
+            tag.getDateMillis();
+        }
+
+        assertThat(resolved).hasValue(1);
+        assertThat(sut.getBranches(this::resolve))
+            .extracting(BitbucketBranch::getName, BitbucketBranch::getMessage)
+            .containsExactly(
+                tuple("feature", "message of b2"),
+                tuple("master", "listed a1"));
+    }
+
+    @Test
+    void commit_details_are_saved_with_the_snapshot(@TempDir File folder) throws Exception {
+        sut.update(sut.getVersion(), System.currentTimeMillis(), List.of(listedBranch("master", "a1")), null);
+        XmlFile file = new XmlFile(new File(folder, "snapshot.xml"));
+        file.write(sut);
+
+        HeadsSnapshot snapshot = (HeadsSnapshot) file.read();
+
+        assertThat(snapshot.getBranches(this::resolve))
+            .extracting(BitbucketBranch::getMessage, BitbucketBranch::getAuthor, BitbucketBranch::getDateMillis)
+            .containsExactly(tuple("listed a1", "dev", 5000L));
+        assertThat(resolved).hasValue(0);
+    }
+
+    private BitbucketServerBranch listedBranch(String name, String hash) {
+        BitbucketCommit commit = mock(BitbucketCommit.class);
+        when(commit.getMessage()).thenReturn("listed " + hash);
+        when(commit.getAuthor()).thenReturn("dev");
+        when(commit.getCommitterDate()).thenReturn(new Date(5000L));
+        BitbucketServerBranch branch = new BitbucketServerBranch(name, hash);
+        // as when Data Center returns the head commit in the listing
+        branch.setCommitClosure(() -> commit);
+        branch.getMessage();
+        return branch;
+    }
+
+    @Test
+    void invalidated_snapshot_is_not_used() {
+        sut.update(sut.getVersion(), System.currentTimeMillis(), List.of(new BitbucketServerBranch("master", "a1")), null);
+
+        sut.invalidate();
+
+        assertThat(sut.isUpToDate()).isFalse();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.webhook;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.scm.SCM;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import jenkins.scm.api.SCMEventListener;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMHeadEvent;
+import jenkins.scm.api.SCMNavigator;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@WithJenkins
+class WebhookEventCoalescerTest {
+
+    @TestExtension
+    public static class EventCollector extends SCMEventListener {
+        private static final List<SCMHeadEvent<?>> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onSCMHeadEvent(SCMHeadEvent<?> event) {
+            if (event instanceof TestEvent) {
+                events.add(event);
+            }
+        }
+    }
+
+    private static class TestEvent extends SCMHeadEvent<String> implements WebhookEventCoalescer.Coalescable {
+        private final String key;
+
+        TestEvent(String key, String hash) {
+            super(Type.UPDATED, hash, "test");
+            this.key = key;
+        }
+
+        @CheckForNull
+        @Override
+        public String getCoalescingKey() {
+            return key;
+        }
+
+        @Override
+        public boolean supersedes(@NonNull SCMHeadEvent<?> other, boolean newer) {
+            return newer && other instanceof TestEvent;
+        }
+
+        @Override
+        public boolean isMatch(@NonNull SCMNavigator navigator) {
+            return false;
+        }
+
+        @NonNull
+        @Override
+        public String getSourceName() {
+            return "repo";
+        }
+
+        @NonNull
+        @Override
+        public Map<SCMHead, SCMRevision> heads(@NonNull SCMSource source) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public boolean isMatch(@NonNull SCM scm) {
+            return false;
+        }
+    }
+
+    private String key;
+
+    @BeforeEach
+    void setup(JenkinsRule rule) {
+        EventCollector.events.clear();
+        key = "repo-" + UUID.randomUUID();
+    }
+
+    @Test
+    void events_for_the_same_reference_are_fired_once_with_the_latest_hash() throws Exception {
+        WebhookEventCoalescer.notifyEvent(new TestEvent(key + "/main", "hash1"), 1);
+        WebhookEventCoalescer.notifyEvent(new TestEvent(key + "/main", "hash2"), 1);
+        WebhookEventCoalescer.notifyEvent(new TestEvent(key + "/feature", "hash3"), 1);
+        WebhookEventCoalescer.notifyEvent(new TestEvent(key + "/main", "hash4"), 1);
+
+        awaitEvents(2);
+        // wait to be sure no other event is fired
+        Thread.sleep(2000);
+        assertThat(EventCollector.events)
+            .extracting(SCMHeadEvent::getPayload)
+            .containsExactlyInAnyOrder("hash4", "hash3");
+        assertThat(WebhookEventCoalescer.stats()).anySatisfy(stat -> assertThat(stat).startsWith("Events merged with a pending event: "));
+    }
+
+    @Test
+    void events_are_not_merged_after_they_have_been_fired() throws Exception {
+        WebhookEventCoalescer.notifyEvent(new TestEvent(key, "hash1"), 1);
+        awaitEvents(1);
+
+        WebhookEventCoalescer.notifyEvent(new TestEvent(key, "hash2"), 1);
+        awaitEvents(2);
+        assertThat(EventCollector.events)
+            .extracting(SCMHeadEvent::getPayload)
+            .containsExactly("hash1", "hash2");
+    }
+
+    @Test
+    void duplicated_requests_are_discarded() {
+        String serverURL = "https://bitbucket.example.com/" + key;
+        String requestId = UUID.randomUUID().toString();
+
+        assertThat(WebhookEventCoalescer.register(serverURL, requestId)).isTrue();
+        assertThat(WebhookEventCoalescer.register(serverURL + '/', requestId)).isFalse();
+        assertThat(WebhookEventCoalescer.register("https://other.example.com", requestId)).isTrue();
+        // requests without identifier are never discarded
+        assertThat(WebhookEventCoalescer.register(serverURL, null)).isTrue();
+        assertThat(WebhookEventCoalescer.register(serverURL, null)).isTrue();
+
+        // a request refused can be delivered again
+        WebhookEventCoalescer.unregister(serverURL, requestId);
+        assertThat(WebhookEventCoalescer.register(serverURL, requestId)).isTrue();
+    }
+
+    private void awaitEvents(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (EventCollector.events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(EventCollector.events).hasSizeGreaterThanOrEqualTo(count);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.server;
+
+import com.cloudbees.jenkins.plugins.bitbucket.BitbucketSCMSource;
+import com.cloudbees.jenkins.plugins.bitbucket.BranchDiscoveryTrait;
+import com.cloudbees.jenkins.plugins.bitbucket.BranchSCMHead;
+import com.cloudbees.jenkins.plugins.bitbucket.OriginPullRequestDiscoveryTrait;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketPullRequest;
+import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpoint;
+import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketEndpointConfiguration;
+import com.cloudbees.jenkins.plugins.bitbucket.hooks.HookEventType;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.BitbucketServerEndpoint;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.JsonParser;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMHeadEvent;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.junit.jupiter.MockServerExtension;
+import org.mockserver.verify.VerificationTimes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+@WithJenkins
+@ExtendWith(MockServerExtension.class)
+class ServerPushEventTest {
+    private static final String REPOSITORY_PATH = "/rest/api/1.0/projects/AMUNIZ/repos/test-repos";
+
+    private ClientAndServer mockServer;
+    private String serverURL;
+    private SCMHeadEvent<?> scmEvent;
+
+    @BeforeEach
+    void setup(JenkinsRule rule, ClientAndServer mockServer) {
+        this.mockServer = mockServer;
+        this.serverURL = "http://localhost:" + mockServer.getPort();
+        mockServer.reset();
+        BitbucketEndpointConfiguration.get().addEndpoint(new BitbucketServerEndpoint("test", serverURL));
+    }
+
+    @Test
+    void open_pull_requests_are_listed_once_for_all_changes() throws Exception {
+        mockServer.when(request().withMethod("GET").withPath(REPOSITORY_PATH + "/pull-requests"))
+            .respond(response().withBody("{\"size\": 3, \"limit\": 100, \"isLastPage\": true, \"start\": 0, \"values\": ["
+                    + pullRequest(1, "feature/a", "test-repos") + ','
+                    + pullRequest(2, "feature/b", "test-repos") + ','
+                    + pullRequest(3, "feature/a", "test-repos-fork") + "]}"));
+
+        ServerPushWebhookProcessor processor = new ServerPushWebhookProcessor() {
+            @Override
+            public void notifyEvent(SCMHeadEvent<?> event, int delaySeconds) {
+                scmEvent = event;
+            }
+        };
+        BitbucketEndpoint endpoint = mock(BitbucketEndpoint.class);
+        when(endpoint.getServerURL()).thenReturn(serverURL);
+        processor.process(HookEventType.SERVER_REFS_CHANGED.getKey(), pushPayload("main", "feature/a", "feature/b"), Collections.emptyMap(), endpoint);
+        ServerPushEvent event = (ServerPushEvent) scmEvent;
+
+        BitbucketSCMSource source = new BitbucketSCMSource("AMUNIZ", "test-repos");
+        source.setServerUrl(serverURL);
+        source.setTraits(List.of(
+                new BranchDiscoveryTrait(true, true),
+                new OriginPullRequestDiscoveryTrait(EnumSet.of(ChangeRequestCheckoutStrategy.HEAD))));
+
+        Map<SCMHead, SCMRevision> heads = event.heads(source);
+        assertThat(heads.keySet())
+            .extracting(SCMHead::getName)
+            .containsExactlyInAnyOrder("main", "feature/a", "feature/b", "PR-1", "PR-2");
+        assertThat(heads.keySet()).filteredOn(BranchSCMHead.class::isInstance).hasSize(3);
+
+        Iterable<BitbucketPullRequest> pullRequests = event.getPullRequests(source);
+        assertThat(pullRequests)
+            .extracting(BitbucketPullRequest::getId)
+            .containsExactlyInAnyOrder("1", "2", "3");
+
+        mockServer.verify(request().withPath(REPOSITORY_PATH + "/pull-requests"), VerificationTimes.once());
+        mockServer.verify(request().withPath(REPOSITORY_PATH + "/pull-requests/.*"), VerificationTimes.never());
+    }
+
+    private String pushPayload(String... branches) throws Exception {
+        try (InputStream is = getClass().getResourceAsStream("pushPayload.json")) {
+            ObjectNode payload = (ObjectNode) JsonParser.toJson(IOUtils.toString(is, StandardCharsets.UTF_8));
+            ObjectNode template = (ObjectNode) payload.withArray("changes").get(0);
+            ArrayNode changes = payload.putArray("changes");
+            for (String branch : branches) {
+                ObjectNode change = template.deepCopy();
+                change.put("refId", "refs/heads/" + branch);
+                ((ObjectNode) change.get("ref")).put("id", "refs/heads/" + branch).put("displayId", branch);
+                changes.add(change);
+            }
+            return payload.toString();
+        }
+    }
+
+    private String pullRequest(int id, String branch, String repository) {
+        return "{\"id\": " + id + ", \"title\": \"PR " + id + "\", \"state\": \"OPEN\","
+                + "\"fromRef\": " + ref(branch, String.format("%040d", id), repository) + ','
+                + "\"toRef\": " + ref("main", "9fdd7b96d3f5c276d0b9e0bf38c879eb112d889a", "test-repos") + '}';
+    }
+
+    private String ref(String branch, String hash, String repository) {
+        return "{\"id\": \"refs/heads/" + branch + "\", \"displayId\": \"" + branch + "\", \"latestCommit\": \"" + hash + "\","
+                + "\"repository\": {\"slug\": \"" + repository + "\", \"name\": \"" + repository + "\", \"project\": {\"key\": \"AMUNIZ\"}}}";
+    }
+}
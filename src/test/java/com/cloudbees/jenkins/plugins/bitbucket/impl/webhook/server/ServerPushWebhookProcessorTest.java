@@ -30,6 +30,8 @@ import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketMockApiFactory;
 import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpoint;
 import com.cloudbees.jenkins.plugins.bitbucket.client.BitbucketIntegrationClientFactory;
 import com.cloudbees.jenkins.plugins.bitbucket.hooks.HookEventType;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.JsonParser;
+import com.cloudbees.jenkins.plugins.bitbucket.server.events.NativeServerPullRequestEvent;
 import com.cloudbees.jenkins.plugins.bitbucket.test.util.HookProcessorTestUtil;
 import hudson.scm.SCM;
 import java.io.IOException;
@@ -235,6 +237,33 @@ class ServerPushWebhookProcessorTest {
         assertThat(event).isNull();
     }
 
+    @Test
+    void push_event_covers_pull_request_updated_from_the_same_branch() throws Exception {
+        sut.process(HookEventType.SERVER_REFS_CHANGED.getKey(), loadResource("pushPayload.json"), Collections.emptyMap(), endpoint);
+        ServerPushEvent pushEvent = (ServerPushEvent) scmEvent;
+
+        NativeServerPullRequestEvent payload = JsonParser.toJava(loadResource("prOpenFromTagPayload.json")
+                .replace("refs/tags/v1.0", "refs/heads/main"), NativeServerPullRequestEvent.class);
+        ServerHeadEvent prEvent = new ServerHeadEvent(SERVER_URL, SCMEvent.Type.UPDATED, payload, "origin");
+
+        assertThat(pushEvent.getCoalescingKey()).isNotNull().isEqualTo(prEvent.getCoalescingKey());
+        assertThat(pushEvent.supersedes(prEvent, true)).isTrue();
+        assertThat(pushEvent.supersedes(prEvent, false)).isTrue();
+        // the pull request event does not bring the branch head
+        assertThat(prEvent.supersedes(pushEvent, true)).isFalse();
+
+        // a newer push for the same branch replaces the previous one
+        sut.process(HookEventType.SERVER_REFS_CHANGED.getKey(), loadResource("pushPayload.json"), Collections.emptyMap(), endpoint);
+        ServerPushEvent newerPushEvent = (ServerPushEvent) scmEvent;
+        assertThat(newerPushEvent.getCoalescingKey()).isEqualTo(pushEvent.getCoalescingKey());
+        assertThat(newerPushEvent.supersedes(pushEvent, true)).isTrue();
+        assertThat(pushEvent.supersedes(newerPushEvent, false)).isFalse();
+
+        // events from a mirror are not merged with events from the primary server
+        sut.process(HookEventType.SERVER_MIRROR_REPO_SYNCHRONIZED.getKey(), loadResource("mirrorSynchronized.json"), Collections.emptyMap(), endpoint);
+        assertThat(((ServerPushEvent) scmEvent).getCoalescingKey()).isNotEqualTo(pushEvent.getCoalescingKey());
+    }
+
     private String loadResource(String resource) throws IOException {
         try (InputStream stream = this.getClass().getResourceAsStream(resource)) {
             return IOUtils.toString(stream, StandardCharsets.UTF_8);
@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.impl.webhook.server;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticatedClient;
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketWebHook;
+import com.cloudbees.jenkins.plugins.bitbucket.api.endpoint.BitbucketEndpoint;
+import com.cloudbees.jenkins.plugins.bitbucket.hooks.HookEventType;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.util.JsonParser;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.BitbucketServerPage;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.repository.BitbucketServerWebhook;
+import com.damnhandy.uri.template.UriTemplate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServerWebhookManagerTest {
+    private static final String SERVER_URL = "https://bitbucket.example.com";
+    private static final String JENKINS_URL = "https://jenkins.example.com/";
+    private static final String WEBHOOK_PATH = "/rest/api/1.0/projects/PRJ/repos/repo/webhooks";
+
+    private ServerWebhookManager sut;
+    private BitbucketAuthenticatedClient client;
+    private String callbackURL;
+
+    @BeforeEach
+    void setup() {
+        ServerWebhookManager.clearCaches();
+
+        ServerWebhookConfiguration configuration = new ServerWebhookConfiguration(true, "credentialsId");
+        configuration.setEndpointJenkinsRootURL(JENKINS_URL);
+        configuration.setEnableCache(true);
+        configuration.setWebhooksCacheDuration(180);
+
+        BitbucketEndpoint endpoint = mock(BitbucketEndpoint.class);
+        when(endpoint.getServerURL()).thenReturn(SERVER_URL);
+
+        sut = new ServerWebhookManager();
+        sut.apply(configuration);
+        sut.setCallbackURL(JENKINS_URL + "bitbucket-scmsource-hook/notify", endpoint);
+        callbackURL = UriTemplate.buildFromTemplate(JENKINS_URL + "bitbucket-scmsource-hook/notify")
+                .query("server_url")
+                .build()
+                .set("server_url", SERVER_URL)
+                .expand();
+
+        client = mock(BitbucketAuthenticatedClient.class);
+        when(client.getRepositoryOwner()).thenReturn("PRJ");
+        when(client.getRepositoryName()).thenReturn("repo");
+    }
+
+    @Test
+    void read_pages_through_all_webhooks() throws Exception {
+        when(client.get(contains("start=0"))).thenReturn(page(false, 2,
+                hook("1", JENKINS_URL + "bitbucket-scmsource-hook/notify"),
+                hook("2", "https://other.example.com/hook")));
+        when(client.get(contains("start=2"))).thenReturn(page(true, null,
+                hook("3", callbackURL)));
+
+        assertThat(sut.read(client))
+            .extracting(BitbucketWebHook::getUuid)
+            .containsExactly("1", "3");
+        verify(client).get(WEBHOOK_PATH + "?start=0&limit=200");
+        verify(client).get(WEBHOOK_PATH + "?start=2&limit=200");
+    }
+
+    @Test
+    void register_keeps_the_hook_of_the_callback_and_removes_duplicates() throws Exception {
+        when(client.get(contains("start=0"))).thenReturn(page(false, 2,
+                hook("1", JENKINS_URL + "bitbucket-scmsource-hook/notify"),
+                hook("2", callbackURL)));
+        when(client.get(contains("start=2"))).thenReturn(page(true, null,
+                hook("3", callbackURL)));
+
+        sut.register(client);
+
+        verify(client, never()).post(anyString(), anyString());
+        verify(client, never()).put(anyString(), anyString());
+        verify(client).delete(WEBHOOK_PATH + "/3");
+        verify(client, never()).delete(WEBHOOK_PATH + "/1");
+
+        // the cached webhooks of the repository are discarded after any change
+        sut.read(client);
+        verify(client, times(2)).get(WEBHOOK_PATH + "?start=0&limit=200");
+    }
+
+    @Test
+    void register_when_there_is_no_hook() throws Exception {
+        when(client.get(anyString())).thenReturn(page(true, null, hook("1", "https://other.example.com/hook")));
+
+        sut.register(client);
+
+        verify(client).post(eq(WEBHOOK_PATH), contains("Jenkins hook"));
+        verify(client, never()).delete(anyString());
+    }
+
+    private static BitbucketServerWebhook hook(String id, String url) {
+        BitbucketServerWebhook hook = new BitbucketServerWebhook();
+        hook.setUuid(id);
+        hook.setUrl(url);
+        hook.setActive(true);
+        hook.setEvents(List.of(
+                HookEventType.SERVER_REFS_CHANGED.getKey(),
+                HookEventType.SERVER_PULL_REQUEST_OPENED.getKey(),
+                HookEventType.SERVER_PULL_REQUEST_MERGED.getKey(),
+                HookEventType.SERVER_PULL_REQUEST_DECLINED.getKey(),
+                HookEventType.SERVER_PULL_REQUEST_DELETED.getKey(),
+                HookEventType.SERVER_PULL_REQUEST_MODIFIED.getKey(),
+                HookEventType.SERVER_MIRROR_REPO_SYNCHRONIZED.getKey(),
+                HookEventType.SERVER_PULL_REQUEST_FROM_REF_UPDATED.getKey()));
+        return hook;
+    }
+
+    private static String page(boolean lastPage, Integer nextPageStart, BitbucketServerWebhook... hooks) throws Exception {
+        BitbucketServerPage<BitbucketServerWebhook> page = new BitbucketServerPage<>();
+        page.setValues(List.of(hooks));
+        page.setLastPage(lastPage);
+        page.setNextPageStart(nextPageStart);
+        return JsonParser.toString(page);
+    }
+}
@@ -35,6 +35,7 @@ import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketAccessT
 import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketClientCertificateAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketOAuthAuthenticator;
 import com.cloudbees.jenkins.plugins.bitbucket.impl.credentials.BitbucketUsernamePasswordAuthenticator;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.branch.BitbucketServerBranch;
 import com.cloudbees.jenkins.plugins.bitbucket.test.util.BitbucketTestUtil;
 import hudson.ProxyConfiguration;
 import java.io.InputStream;
@@ -215,6 +216,31 @@ class BitbucketServerAPIClientTest {
                     .hasPath("/rest/api/1.0/projects/amuniz/repos/test-repos/branches"));
     }
 
+    @Test
+    void verify_getBranches_reads_head_commit_from_metadata() throws Exception {
+        BitbucketServerAPIClient client = (BitbucketServerAPIClient) BitbucketIntegrationClientFactory.getClient("localhost", "amuniz", "test-repos");
+
+        List<BitbucketServerBranch> branches = client.getBranches();
+        HttpRequest request = BitbucketTestUtil.extractRequest(client);
+        assertThat(request.getUri()).hasParameter("details", "true");
+
+        BitbucketServerBranch main = branches.stream()
+            .filter(branch -> "main".equals(branch.getName()))
+            .findFirst()
+            .orElseThrow();
+        // the head commit does not need to be requested
+        assertThat(main.hasHeadCommitInfo()).isTrue();
+        assertThat(main.getDateMillis()).isEqualTo(1537538845000L);
+        assertThat(main.getMessage()).isEqualTo("Add sample script hello world");
+        assertThat(main.getAuthor()).isEqualTo("Antonio Muniz <amuniz@example.com>");
+
+        BitbucketServerBranch feature = branches.stream()
+            .filter(branch -> "feature/BB-1".equals(branch.getName()))
+            .findFirst()
+            .orElseThrow();
+        assertThat(feature.hasHeadCommitInfo()).isFalse();
+    }
+
     @Issue("JENKINS-64418")
     @Test
     void verify_getTag_request_URL() throws Exception {
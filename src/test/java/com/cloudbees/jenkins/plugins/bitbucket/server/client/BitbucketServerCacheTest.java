@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.server.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.junit.jupiter.MockServerExtension;
+import org.mockserver.verify.VerificationTimes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+@WithJenkins
+@ExtendWith(MockServerExtension.class)
+class BitbucketServerCacheTest {
+    private static final String HASH = "a".repeat(40);
+
+    private ClientAndServer mockServer;
+    private String serverURL;
+    private String repositoryPath;
+
+    @BeforeEach
+    void setup(JenkinsRule rule, ClientAndServer mockServer) {
+        this.mockServer = mockServer;
+        mockServer.reset();
+        // caches are shared by server URL, a different context path for each test isolates them
+        String contextPath = "/" + Long.toHexString(System.nanoTime());
+        this.serverURL = "http://localhost:" + mockServer.getPort() + contextPath;
+        this.repositoryPath = contextPath + "/rest/api/1.0/projects/PRJ/repos/repo";
+
+        mockServer.when(request().withMethod("GET").withPath(repositoryPath))
+            .respond(response().withBody("{\"slug\": \"repo\", \"name\": \"repo\", \"public\": false, \"project\": {\"key\": \"PRJ\"}}"));
+        mockServer.when(request().withMethod("GET").withPath(repositoryPath + "/commits/" + HASH))
+            .respond(response().withBody("{\"id\": \"" + HASH + "\", \"message\": \"initial commit\","
+                    + "\"author\": {\"name\": \"dev\", \"emailAddress\": \"dev@acme.com\"}, \"authorTimestamp\": 1700000000000,"
+                    + "\"committer\": {\"name\": \"dev\", \"emailAddress\": \"dev@acme.com\"}, \"committerTimestamp\": 1700000000000}"));
+        mockServer.when(request().withMethod("GET").withPath(repositoryPath + "/branches/default"))
+            .respond(response().withStatusCode(404));
+    }
+
+    @Test
+    void cached_responses_are_shared_between_clients() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            try (BitbucketServerAPIClient client = newClient(true)) {
+                assertThat(client.resolveCommit(HASH).getMessage()).isEqualTo("initial commit");
+                assertThat(client.getRepository().getRepositoryName()).isEqualTo("repo");
+                assertThat(client.getDefaultBranch()).isNull();
+            }
+        }
+
+        mockServer.verify(request().withPath(repositoryPath + "/commits/" + HASH), VerificationTimes.once());
+        mockServer.verify(request().withPath(repositoryPath), VerificationTimes.once());
+        mockServer.verify(request().withPath(repositoryPath + "/branches/default"), VerificationTimes.once());
+        assertThat(BitbucketServerAPIClient.stats(serverURL))
+            .anySatisfy(stat -> assertThat(stat).startsWith("Commits: ").doesNotContain("No entry."));
+    }
+
+    @Test
+    void clear_caches() throws Exception {
+        try (BitbucketServerAPIClient client = newClient(true)) {
+            client.resolveCommit(HASH);
+        }
+        BitbucketServerAPIClient.clearCaches(serverURL);
+        try (BitbucketServerAPIClient client = newClient(true)) {
+            client.resolveCommit(HASH);
+        }
+
+        mockServer.verify(request().withPath(repositoryPath + "/commits/" + HASH), VerificationTimes.exactly(2));
+    }
+
+    @Test
+    void clear_caches_of_an_equivalent_server_url() throws Exception {
+        try (BitbucketServerAPIClient client = newClient(true)) {
+            client.resolveCommit(HASH);
+        }
+        BitbucketServerAPIClient.clearCaches(serverURL.replace("localhost", "LOCALHOST") + "/");
+        try (BitbucketServerAPIClient client = newClient(true)) {
+            client.resolveCommit(HASH);
+        }
+
+        mockServer.verify(request().withPath(repositoryPath + "/commits/" + HASH), VerificationTimes.exactly(2));
+    }
+
+    @Test
+    void nothing_is_cached_when_disabled() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            try (BitbucketServerAPIClient client = newClient(false)) {
+                client.resolveCommit(HASH);
+                client.getRepository();
+            }
+        }
+
+        mockServer.verify(request().withPath(repositoryPath + "/commits/" + HASH), VerificationTimes.exactly(2));
+        mockServer.verify(request().withPath(repositoryPath), VerificationTimes.exactly(2));
+    }
+
+    private BitbucketServerAPIClient newClient(boolean enableCache) {
+        return new BitbucketServerAPIClient(serverURL, "PRJ", "repo", (BitbucketAuthenticator) null, false, enableCache, 360, 180);
+    }
+}
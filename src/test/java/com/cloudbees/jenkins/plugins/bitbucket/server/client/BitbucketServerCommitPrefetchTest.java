@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.server.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.junit.jupiter.MockServerExtension;
+import org.mockserver.verify.VerificationTimes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+@WithJenkins
+@ExtendWith(MockServerExtension.class)
+class BitbucketServerCommitPrefetchTest {
+    private static final String REPOSITORY_PATH = "/rest/api/1.0/projects/PRJ/repos/repo";
+    private static final int COMMITS = 20;
+    private static final long RESPONSE_DELAY = 100;
+
+    private ClientAndServer mockServer;
+    private String serverURL;
+
+    @BeforeEach
+    void setup(JenkinsRule rule, ClientAndServer mockServer) {
+        this.mockServer = mockServer;
+        this.serverURL = "http://localhost:" + mockServer.getPort();
+        mockServer.reset();
+        for (int i = 0; i < COMMITS; i++) {
+            mockServer.when(request().withMethod("GET").withPath(REPOSITORY_PATH + "/commits/" + hash(i)))
+                .respond(response()
+                        .withBody("{\"id\": \"" + hash(i) + "\", \"message\": \"commit " + i + "\","
+                                + "\"author\": {\"name\": \"dev\", \"emailAddress\": \"dev@acme.com\"}, \"authorTimestamp\": 1700000000000,"
+                                + "\"committer\": {\"name\": \"dev\", \"emailAddress\": \"dev@acme.com\"}, \"committerTimestamp\": 1700000000000}")
+                        .withDelay(TimeUnit.MILLISECONDS, RESPONSE_DELAY));
+        }
+    }
+
+    @Test
+    void prefetch_resolves_commits_in_parallel() throws Exception {
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < COMMITS; i++) {
+            hashes.add(hash(i));
+            // duplicated hashes are resolved once
+            hashes.add(hash(i));
+        }
+
+        try (BitbucketServerAPIClient client = new BitbucketServerAPIClient(serverURL, "PRJ", "repo", (BitbucketAuthenticator) null, false)) {
+            long start = System.nanoTime();
+            client.prefetchCommits(hashes);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            // sequential requests take at least COMMITS * RESPONSE_DELAY
+            assertThat(elapsed).isLessThan(COMMITS * RESPONSE_DELAY);
+
+            for (int i = 0; i < COMMITS; i++) {
+                assertThat(client.resolveCommit(hash(i)).getMessage()).isEqualTo("commit " + i);
+            }
+        }
+
+        mockServer.verify(request().withPath(REPOSITORY_PATH + "/commits/.*"), VerificationTimes.exactly(COMMITS));
+    }
+
+    @Test
+    void prefetch_ignores_commits_that_can_not_be_resolved() throws Exception {
+        try (BitbucketServerAPIClient client = new BitbucketServerAPIClient(serverURL, "PRJ", "repo", (BitbucketAuthenticator) null, false)) {
+            client.prefetchCommits(List.of(hash(0), hash(COMMITS)));
+
+            assertThat(client.resolveCommit(hash(0)).getMessage()).isEqualTo("commit 0");
+        }
+
+        mockServer.verify(request().withPath(REPOSITORY_PATH + "/commits/" + hash(0)), VerificationTimes.once());
+        mockServer.verify(request().withPath(REPOSITORY_PATH + "/commits/" + hash(COMMITS)), VerificationTimes.once());
+    }
+
+    private String hash(int id) {
+        return String.format("%040x", id);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.server.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.branch.BitbucketServerBranch;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.junit.jupiter.MockServerExtension;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.verify.VerificationTimes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+@WithJenkins
+@ExtendWith(MockServerExtension.class)
+class BitbucketServerConditionalRequestTest {
+    private static final String REPOSITORY_PATH = "/rest/api/1.0/projects/PRJ/repos/repo";
+    private static final String TAGS = "{\"size\": 2, \"limit\": 200, \"isLastPage\": true, \"start\": 0, \"values\": ["
+            + "{\"id\": \"refs/tags/v1.0\", \"displayId\": \"v1.0\", \"latestCommit\": \"046d9a3c1532acf4cf08fe93235c00e4d673c1d3\"},"
+            + "{\"id\": \"refs/tags/v1.1\", \"displayId\": \"v1.1\", \"latestCommit\": \"a2d9f7a8c0e8b5d1ac4c8e1a2b3c4d5e6f708192\"}]}";
+
+    private ClientAndServer mockServer;
+    private String serverURL;
+
+    @BeforeEach
+    void setup(JenkinsRule rule, ClientAndServer mockServer) {
+        this.mockServer = mockServer;
+        this.serverURL = "http://localhost:" + mockServer.getPort();
+        mockServer.reset();
+    }
+
+    @Test
+    void body_is_reused_when_not_modified() throws Exception {
+        mockServer.when(tagsRequest().withHeader("If-None-Match", "\"v1\""))
+            .respond(response().withStatusCode(304).withHeader("ETag", "\"v1\""));
+        mockServer.when(tagsRequest())
+            .respond(response().withHeader("ETag", "\"v1\"").withBody(TAGS));
+
+        try (BitbucketServerAPIClient client = newClient(serverURL, true)) {
+            List<BitbucketServerBranch> first = client.getTags();
+            List<BitbucketServerBranch> second = client.getTags();
+
+            assertThat(second).extracting(BitbucketServerBranch::getName).containsExactly("v1.0", "v1.1");
+            // each response is parsed again, objects are not shared between listings
+            assertThat(second.get(0)).isNotSameAs(first.get(0));
+        }
+
+        mockServer.verify(tagsRequest().withHeader("If-None-Match", "\"v1\""), VerificationTimes.once());
+    }
+
+    @Test
+    void body_is_not_kept_without_validators() throws Exception {
+        String contextPath = "/novalidators";
+        mockServer.when(request().withMethod("GET").withPath(contextPath + REPOSITORY_PATH + "/tags"))
+            .respond(response().withBody(TAGS));
+
+        try (BitbucketServerAPIClient client = newClient(serverURL + contextPath, true)) {
+            client.getTags();
+            assertThat(client.getTags()).hasSize(2);
+        }
+
+        mockServer.verify(request().withPath(contextPath + REPOSITORY_PATH + "/tags").withHeader("If-None-Match"), VerificationTimes.never());
+        mockServer.verify(request().withPath(contextPath + REPOSITORY_PATH + "/tags").withHeader("If-Modified-Since"), VerificationTimes.never());
+    }
+
+    @Test
+    void body_is_not_kept_when_cache_is_disabled() throws Exception {
+        String contextPath = "/nocache";
+        mockServer.when(request().withMethod("GET").withPath(contextPath + REPOSITORY_PATH + "/tags"))
+            .respond(response().withHeader("ETag", "\"v1\"").withBody(TAGS));
+
+        try (BitbucketServerAPIClient client = newClient(serverURL + contextPath, false)) {
+            client.getTags();
+            assertThat(client.getTags()).hasSize(2);
+        }
+
+        mockServer.verify(request().withPath(contextPath + REPOSITORY_PATH + "/tags"), VerificationTimes.exactly(2));
+        mockServer.verify(request().withPath(contextPath + REPOSITORY_PATH + "/tags").withHeader("If-None-Match"), VerificationTimes.never());
+    }
+
+    @Test
+    void caches_are_cleared_and_reported_per_server() throws Exception {
+        for (String contextPath : List.of("/first", "/second")) {
+            mockServer.when(request().withMethod("GET").withPath(contextPath + REPOSITORY_PATH + "/tags").withHeader("If-None-Match", "\"v1\""))
+                .respond(response().withStatusCode(304).withHeader("ETag", "\"v1\""));
+            mockServer.when(request().withMethod("GET").withPath(contextPath + REPOSITORY_PATH + "/tags"))
+                .respond(response().withHeader("ETag", "\"v1\"").withBody(TAGS));
+            try (BitbucketServerAPIClient client = newClient(serverURL + contextPath, true)) {
+                client.getTags();
+            }
+        }
+
+        BitbucketServerAPIClient.clearCaches(serverURL + "/first");
+
+        assertThat(BitbucketServerAPIClient.stats(serverURL + "/first")).contains("Conditional requests: 0 entries, 0 bytes, 0 not modified, 1 modified");
+        assertThat(BitbucketServerAPIClient.stats(serverURL + "/second")).anySatisfy(stat -> assertThat(stat).startsWith("Conditional requests: 1 entries"));
+        for (String contextPath : List.of("/first", "/second")) {
+            try (BitbucketServerAPIClient client = newClient(serverURL + contextPath, true)) {
+                client.getTags();
+            }
+        }
+        mockServer.verify(request().withPath("/first" + REPOSITORY_PATH + "/tags").withHeader("If-None-Match"), VerificationTimes.never());
+        mockServer.verify(request().withPath("/second" + REPOSITORY_PATH + "/tags").withHeader("If-None-Match", "\"v1\""), VerificationTimes.once());
+    }
+
+    private BitbucketServerAPIClient newClient(String serverURL, boolean enableCache) {
+        return new BitbucketServerAPIClient(serverURL, "PRJ", "repo", (BitbucketAuthenticator) null, false, enableCache, 360, 180);
+    }
+
+    private HttpRequest tagsRequest() {
+        return request().withMethod("GET").withPath(REPOSITORY_PATH + "/tags");
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.server.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import com.cloudbees.jenkins.plugins.bitbucket.filesystem.BitbucketSCMFile;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import jenkins.scm.api.SCMFile.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.junit.jupiter.MockServerExtension;
+import org.mockserver.verify.VerificationTimes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+@WithJenkins
+@ExtendWith(MockServerExtension.class)
+class BitbucketServerFileContentTest {
+    private static final String REPOSITORY_PATH = "/rest/api/1.0/projects/PRJ/repos/repo";
+    private static final String HASH = "046d9a3c1532acf4cf08fe93235c00e4d673c1d3";
+    private static final String NO_SUCH_PATH = "{\"errors\": [{\"context\": null, \"message\": \"The path does not exist\", \"exceptionName\": \"com.atlassian.bitbucket.content.NoSuchPathException\"}]}";
+    private static final String BROWSE_CONTENT = "{\"lines\": [{\"text\": \"node {\"}, {\"text\": \"}\"}], \"start\": 0, \"size\": 2, \"isLastPage\": true}";
+
+    private ClientAndServer mockServer;
+    private String serverURL;
+
+    @BeforeEach
+    void setup(JenkinsRule rule, ClientAndServer mockServer) {
+        this.mockServer = mockServer;
+        this.serverURL = "http://localhost:" + mockServer.getPort();
+        mockServer.reset();
+    }
+
+    @Test
+    void file_content_is_streamed_from_raw_endpoint() throws Exception {
+        byte[] content = new byte[] { 'a', 0, (byte) 0xFF, '\r', '\n', 'b', '\n' };
+        mockServer.when(request().withMethod("GET").withPath(REPOSITORY_PATH + "/raw/folder/file.bin").withQueryStringParameter("at", HASH))
+            .respond(response().withBody(content));
+
+        try (BitbucketServerAPIClient client = new BitbucketServerAPIClient(serverURL, "PRJ", "repo", (BitbucketAuthenticator) null, false);
+                InputStream is = client.getFileContent(file(client, "folder/file.bin"))) {
+            assertThat(is).hasBinaryContent(content);
+        }
+
+        mockServer.verify(request().withPath(REPOSITORY_PATH + "/browse/.*"), VerificationTimes.never());
+    }
+
+    @Test
+    void file_content_fallback_to_browse_when_raw_endpoint_is_missing() throws Exception {
+        String contextPath = "/legacy";
+        mockServer.when(request().withMethod("GET").withPath(contextPath + REPOSITORY_PATH + "/raw/Jenkinsfile"))
+            .respond(response().withStatusCode(404).withBody("<html><body>Not Found</body></html>"));
+        mockServer.when(request().withMethod("GET").withPath(contextPath + REPOSITORY_PATH + "/browse/Jenkinsfile"))
+            .respond(response().withBody(BROWSE_CONTENT));
+
+        try (BitbucketServerAPIClient client = new BitbucketServerAPIClient(serverURL + contextPath, "PRJ", "repo", (BitbucketAuthenticator) null, false)) {
+            for (int i = 0; i < 2; i++) {
+                try (InputStream is = client.getFileContent(file(client, "Jenkinsfile"))) {
+                    assertThat(is).hasContent("node {\n}");
+                }
+            }
+        }
+
+        // once the server is known to lack the raw endpoint it is no more requested
+        mockServer.verify(request().withPath(contextPath + REPOSITORY_PATH + "/raw/Jenkinsfile"), VerificationTimes.once());
+        mockServer.verify(request().withPath(contextPath + REPOSITORY_PATH + "/browse/Jenkinsfile"), VerificationTimes.exactly(2));
+    }
+
+    @Test
+    void file_content_of_missing_file_throws_FileNotFoundException() throws Exception {
+        String contextPath = "/missing";
+        mockServer.when(request().withMethod("GET").withPath(contextPath + REPOSITORY_PATH + "/(raw|browse)/Jenkinsfile"))
+            .respond(response().withStatusCode(404).withBody(NO_SUCH_PATH));
+        mockServer.when(request().withMethod("GET").withPath(contextPath + REPOSITORY_PATH + "/raw/pom.xml"))
+            .respond(response().withBody("<project/>", StandardCharsets.UTF_8));
+
+        try (BitbucketServerAPIClient client = new BitbucketServerAPIClient(serverURL + contextPath, "PRJ", "repo", (BitbucketAuthenticator) null, false)) {
+            assertThatThrownBy(() -> client.getFileContent(file(client, "Jenkinsfile"))).isInstanceOf(FileNotFoundException.class);
+            // a missing file does not disable the raw endpoint
+            try (InputStream is = client.getFileContent(file(client, "pom.xml"))) {
+                assertThat(is).hasContent("<project/>");
+            }
+        }
+
+        mockServer.verify(request().withPath(contextPath + REPOSITORY_PATH + "/browse/pom.xml"), VerificationTimes.never());
+    }
+
+    @Test
+    void file_content_not_found_by_raw_endpoint_does_not_disable_it() throws Exception {
+        String contextPath = "/scoped";
+        mockServer.when(request().withMethod("GET").withPath(contextPath + REPOSITORY_PATH + "/raw/Jenkinsfile"))
+            .respond(response().withStatusCode(404).withBody(NO_SUCH_PATH));
+        mockServer.when(request().withMethod("GET").withPath(contextPath + REPOSITORY_PATH + "/browse/Jenkinsfile"))
+            .respond(response().withBody(BROWSE_CONTENT));
+
+        try (BitbucketServerAPIClient client = new BitbucketServerAPIClient(serverURL + contextPath, "PRJ", "repo", (BitbucketAuthenticator) null, false)) {
+            for (int i = 0; i < 2; i++) {
+                try (InputStream is = client.getFileContent(file(client, "Jenkinsfile"))) {
+                    assertThat(is).hasContent("node {\n}");
+                }
+            }
+        }
+
+        // the error is reported by the raw endpoint, so the server supports it
+        mockServer.verify(request().withPath(contextPath + REPOSITORY_PATH + "/raw/Jenkinsfile"), VerificationTimes.exactly(2));
+    }
+
+    @Test
+    void raw_endpoint_is_tried_again_once_caches_are_cleared() throws Exception {
+        String contextPath = "/upgraded";
+        mockServer.when(request().withMethod("GET").withPath(contextPath + REPOSITORY_PATH + "/raw/Jenkinsfile"))
+            .respond(response().withStatusCode(404));
+        mockServer.when(request().withMethod("GET").withPath(contextPath + REPOSITORY_PATH + "/browse/Jenkinsfile"))
+            .respond(response().withBody(BROWSE_CONTENT));
+
+        try (BitbucketServerAPIClient client = new BitbucketServerAPIClient(serverURL + contextPath, "PRJ", "repo", (BitbucketAuthenticator) null, false)) {
+            client.getFileContent(file(client, "Jenkinsfile")).close();
+            BitbucketServerAPIClient.clearCaches(serverURL + contextPath + "/");
+            client.getFileContent(file(client, "Jenkinsfile")).close();
+        }
+
+        mockServer.verify(request().withPath(contextPath + REPOSITORY_PATH + "/raw/Jenkinsfile"), VerificationTimes.exactly(2));
+    }
+
+    private BitbucketSCMFile file(BitbucketServerAPIClient client, String path) {
+        return new BitbucketSCMFile(client, "master", HASH).child(path, Type.REGULAR_FILE);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, the Bitbucket Branch Source plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.cloudbees.jenkins.plugins.bitbucket.server.client;
+
+import com.cloudbees.jenkins.plugins.bitbucket.api.BitbucketAuthenticator;
+import com.cloudbees.jenkins.plugins.bitbucket.endpoints.BitbucketEndpointConfiguration;
+import com.cloudbees.jenkins.plugins.bitbucket.impl.endpoint.BitbucketServerEndpoint;
+import com.cloudbees.jenkins.plugins.bitbucket.server.client.pullrequest.BitbucketServerPullRequest;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.junit.jupiter.MockServerExtension;
+import org.mockserver.matchers.Times;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.verify.VerificationTimes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+@WithJenkins
+@ExtendWith(MockServerExtension.class)
+class BitbucketServerPullRequestSetupTest {
+    private static final String REPOSITORY_PATH = "/rest/api/1.0/projects/PRJ/repos/repo";
+    private static final int PULL_REQUESTS = 20;
+    // default value of bitbucket.pullrequest.setup.parallelism
+    private static final int PARALLELISM = 5;
+
+    private ClientAndServer mockServer;
+    private String serverURL;
+
+    @BeforeEach
+    void setup(JenkinsRule rule, ClientAndServer mockServer) {
+        this.mockServer = mockServer;
+        this.serverURL = "http://localhost:" + mockServer.getPort();
+        mockServer.reset();
+        BitbucketEndpointConfiguration.get().addEndpoint(new BitbucketServerEndpoint("test", serverURL));
+
+        mockServer.when(request().withMethod("GET").withPath(REPOSITORY_PATH + "/pull-requests/[0-9]+/merge"))
+            .respond(response().withBody("{\"canMerge\": true}"));
+        mockServer.when(request().withMethod("GET").withPath(REPOSITORY_PATH + "/pull-requests/[0-9]+/changes"))
+            .respond(response().withBody("{\"size\": 0, \"limit\": 1, \"isLastPage\": true, \"values\": []}"));
+    }
+
+    @Test
+    void setup_of_pull_requests_runs_in_parallel() throws Exception {
+        mockServer.when(pullRequestsRequest())
+            .respond(response().withBody(pullRequestsPage(-1)));
+
+        // the merge status requests of a whole group of pull requests must be sent at the same time to get answered
+        CyclicBarrier group = new CyclicBarrier(PARALLELISM);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        try (BitbucketServerAPIClient client = new BitbucketServerAPIClient(serverURL, "PRJ", "repo", (BitbucketAuthenticator) null, false) {
+            @Override
+            protected <V> V getRequestAs(String path, Class<V> type) throws IOException {
+                if (!path.endsWith("/merge")) {
+                    return super.getRequestAs(path, type);
+                }
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    group.await(30, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IOException("Pull requests are not set up concurrently", e);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return super.getRequestAs(path, type);
+            }
+        }) {
+            List<BitbucketServerPullRequest> pullRequests = client.getPullRequests();
+
+            assertThat(pullRequests).hasSize(PULL_REQUESTS)
+                .allSatisfy(pr -> assertThat(pr.isCanMerge()).isTrue());
+        }
+        // never more concurrent requests than the limit for the endpoint
+        assertThat(maxInFlight).hasValue(PARALLELISM);
+
+        mockServer.verify(request().withPath(REPOSITORY_PATH + "/pull-requests/[0-9]+/merge"), VerificationTimes.exactly(PULL_REQUESTS));
+        mockServer.verify(request().withPath(REPOSITORY_PATH + "/pull-requests/[0-9]+/changes"), VerificationTimes.exactly(PULL_REQUESTS));
+        mockServer.verify(pullRequestsRequest(), VerificationTimes.exactly(2));
+    }
+
+    @Test
+    void pull_requests_changed_during_setup_are_taken_from_the_last_listing() throws Exception {
+        mockServer.when(pullRequestsRequest(), Times.once())
+            .respond(response().withBody(pullRequestsPage(-1)));
+        mockServer.when(pullRequestsRequest())
+            .respond(response().withBody(pullRequestsPage(1)));
+
+        try (BitbucketServerAPIClient client = new BitbucketServerAPIClient(serverURL, "PRJ", "repo", (BitbucketAuthenticator) null, false)) {
+            List<BitbucketServerPullRequest> pullRequests = client.getPullRequests();
+
+            assertThat(pullRequests).hasSize(PULL_REQUESTS);
+            assertThat(pullRequests).filteredOn(pr -> "1".equals(pr.getId()))
+                .singleElement()
+                .satisfies(pr -> {
+                    assertThat(pr.getSource().getBranch().getRawNode()).isEqualTo(hash(1, true));
+                    assertThat(pr.isCanMerge()).isNull();
+                });
+            assertThat(pullRequests).filteredOn(pr -> !"1".equals(pr.getId()))
+                .allSatisfy(pr -> assertThat(pr.isCanMerge()).isTrue());
+        }
+    }
+
+    private HttpRequest pullRequestsRequest() {
+        return request().withMethod("GET").withPath(REPOSITORY_PATH + "/pull-requests");
+    }
+
+    private String pullRequestsPage(int updatedId) {
+        StringBuilder values = new StringBuilder();
+        for (int id = 1; id <= PULL_REQUESTS; id++) {
+            if (values.length() > 0) {
+                values.append(',');
+            }
+            values.append("{\"id\": ").append(id).append(", \"title\": \"PR ").append(id).append("\",")
+                .append("\"fromRef\": ").append(ref("feature/" + id, hash(id, id == updatedId))).append(',')
+                .append("\"toRef\": ").append(ref("master", hash(0, false))).append('}');
+        }
+        return "{\"size\": " + PULL_REQUESTS + ", \"limit\": 200, \"isLastPage\": true, \"start\": 0, \"values\": [" + values + "]}";
+    }
+
+    private String ref(String branch, String hash) {
+        return "{\"id\": \"refs/heads/" + branch + "\", \"displayId\": \"" + branch + "\", \"latestCommit\": \"" + hash + "\","
+                + "\"repository\": {\"slug\": \"repo\", \"name\": \"repo\", \"project\": {\"key\": \"PRJ\"}}}";
+    }
+
+    private String hash(int id, boolean updated) {
+        return String.format("%039d%d", id, updated ? 1 : 0);
+    }
+}
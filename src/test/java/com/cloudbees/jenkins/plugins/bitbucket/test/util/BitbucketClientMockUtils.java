@@ -52,6 +52,7 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -107,6 +108,7 @@ public class BitbucketClientMockUtils {
         // Team discovering mocks
         when(client.getTeam()).thenReturn(getTeam());
         when(client.getRepositories()).thenReturn(getRepositories());
+        when(client.getRepositories(any(), anyCollection())).thenReturn(getRepositories());
 
         // Auto-registering hooks
         if (includeWebHooks) {
@@ -94,7 +94,7 @@ class DiscardOldBranchTraitTest {
 
     private BitbucketSCMSourceRequest prepareRequest(BitbucketBranch ...branches) throws Exception {
         BitbucketSCMSourceRequest request = mock(BitbucketSCMSourceRequest.class);
-        when(request.getBranches()).thenReturn(Arrays.asList(branches));
+        when(request.iterateBranches()).thenReturn(Arrays.asList(branches));
         return request;
     }
 